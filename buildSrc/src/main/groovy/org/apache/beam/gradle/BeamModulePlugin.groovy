@@ -636,6 +636,7 @@ class BeamModulePlugin implements Plugin<Project> {
     def netty_version = "4.1.124.Final"
     // [bomupgrader] determined by: io.opentelemetry:opentelemetry-sdk, consistent with: google_cloud_platform_libraries_bom
     def opentelemetry_version = "1.52.0"
+    def parquet_version = "1.15.2"
     def postgres_version = "42.2.16"
     // [bomupgrader] determined by: com.google.protobuf:protobuf-java, consistent with: google_cloud_platform_libraries_bom
     def protobuf_version = "4.33.0"
@@ -859,6 +860,10 @@ class BeamModulePlugin implements Plugin<Project> {
         netty_transport_native_epoll                : "io.netty:netty-transport-native-epoll:$netty_version",
         opentelemetry_api                           : "io.opentelemetry:opentelemetry-api", // google_cloud_platform_libraries_bom sets version
         opentelemetry_bom                           : "io.opentelemetry:opentelemetry-bom-alpha:$opentelemetry_version-alpha", // alpha required by extensions
+        parquet_avro                                : "org.apache.parquet:parquet-avro:$parquet_version",
+        parquet_column                              : "org.apache.parquet:parquet-column:$parquet_version",
+        parquet_common                              : "org.apache.parquet:parquet-common:$parquet_version",
+        parquet_hadoop                              : "org.apache.parquet:parquet-hadoop:$parquet_version",
         postgres                                    : "org.postgresql:postgresql:$postgres_version",
         protobuf_java                               : "com.google.protobuf:protobuf-java:$protobuf_version",
         protobuf_java_util                          : "com.google.protobuf:protobuf-java-util:$protobuf_version",
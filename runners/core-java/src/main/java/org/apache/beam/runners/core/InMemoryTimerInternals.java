@@ -21,9 +21,7 @@ import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Pr
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
 
-import java.util.NavigableSet;
-import java.util.NoSuchElementException;
-import java.util.TreeSet;
+import org.apache.beam.runners.core.TimerWheel.Node;
 import org.apache.beam.sdk.state.TimeDomain;
 import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.util.WindowTracing;
@@ -41,16 +39,16 @@ import org.joda.time.Instant;
 public class InMemoryTimerInternals implements TimerInternals {
 
   /** The current set timers by namespace and ID. */
-  Table<StateNamespace, String, TimerData> existingTimers = HashBasedTable.create();
+  Table<StateNamespace, String, Node> existingTimers = HashBasedTable.create();
 
-  /** Pending input watermark timers, in timestamp order. */
-  private final NavigableSet<TimerData> watermarkTimers = new TreeSet<>();
+  /** Pending input watermark timers, allocated when the first one is set. */
+  private @Nullable TimerWheel watermarkTimers = null;
 
-  /** Pending processing time timers, in timestamp order. */
-  private final NavigableSet<TimerData> processingTimers = new TreeSet<>();
+  /** Pending processing time timers, allocated when the first one is set. */
+  private @Nullable TimerWheel processingTimers = null;
 
-  /** Pending synchronized processing time timers, in timestamp order. */
-  private final NavigableSet<TimerData> synchronizedProcessingTimers = new TreeSet<>();
+  /** Pending synchronized processing time timers, allocated when the first one is set. */
+  private @Nullable TimerWheel synchronizedProcessingTimers = null;
 
   /** Current input watermark. */
   private Instant inputWatermarkTime = BoundedWindow.TIMESTAMP_MIN_VALUE;
@@ -82,23 +80,13 @@ public class InMemoryTimerInternals implements TimerInternals {
    * timers scheduled in that time domain.
    */
   public @Nullable Instant getNextTimer(TimeDomain domain) {
-    try {
-      switch (domain) {
-        case EVENT_TIME:
-          return watermarkTimers.first().getTimestamp();
-        case PROCESSING_TIME:
-          return processingTimers.first().getTimestamp();
-        case SYNCHRONIZED_PROCESSING_TIME:
-          return synchronizedProcessingTimers.first().getTimestamp();
-        default:
-          throw new IllegalArgumentException("Unexpected time domain: " + domain);
-      }
-    } catch (NoSuchElementException exc) {
-      return null;
-    }
+    @Nullable TimerWheel timers = existingTimersForDomain(domain);
+    @Nullable TimerData timer = timers == null ? null : timers.peek();
+    return timer == null ? null : timer.getTimestamp();
   }
 
-  private NavigableSet<TimerData> timersForDomain(TimeDomain domain) {
+  /** Returns the timers of the given time domain, or {@code null} if none were ever set. */
+  private @Nullable TimerWheel existingTimersForDomain(TimeDomain domain) {
     switch (domain) {
       case EVENT_TIME:
         return watermarkTimers;
@@ -111,6 +99,32 @@ public class InMemoryTimerInternals implements TimerInternals {
     }
   }
 
+  /**
+   * Returns the timers of the given time domain, allocating them on first use. Many instances, e.g.
+   * one per key in batch, never set a timer in some or all of the time domains.
+   */
+  private TimerWheel timersForDomain(TimeDomain domain) {
+    @Nullable TimerWheel timers = existingTimersForDomain(domain);
+    if (timers != null) {
+      return timers;
+    }
+    TimerWheel newTimers = new TimerWheel();
+    switch (domain) {
+      case EVENT_TIME:
+        watermarkTimers = newTimers;
+        break;
+      case PROCESSING_TIME:
+        processingTimers = newTimers;
+        break;
+      case SYNCHRONIZED_PROCESSING_TIME:
+        synchronizedProcessingTimers = newTimers;
+        break;
+      default:
+        throw new IllegalArgumentException("Unexpected time domain: " + domain);
+    }
+    return newTimers;
+  }
+
   @Override
   public void setTimer(
       StateNamespace namespace,
@@ -132,11 +146,12 @@ public class InMemoryTimerInternals implements TimerInternals {
     WindowTracing.trace("{}.setTimer: {}", SIMPLE_NAME, timerData);
 
     @Nullable String colKey = timerData.getTimerId() + '+' + timerData.getTimerFamilyId();
-    TimerData existing = existingTimers.get(timerData.getNamespace(), colKey);
-    if (existing == null) {
-      existingTimers.put(timerData.getNamespace(), colKey, timerData);
-      timersForDomain(timerData.getDomain()).add(timerData);
+    Node existingNode = existingTimers.get(timerData.getNamespace(), colKey);
+    if (existingNode == null) {
+      existingTimers.put(
+          timerData.getNamespace(), colKey, timersForDomain(timerData.getDomain()).add(timerData));
     } else {
+      TimerData existing = existingNode.getTimer();
       checkArgument(
           timerData.getDomain().equals(existing.getDomain()),
           "Attempt to set %s for time domain %s, but it is already set for time domain %s",
@@ -145,10 +160,9 @@ public class InMemoryTimerInternals implements TimerInternals {
           existing.getDomain());
 
       if (!timerData.getTimestamp().equals(existing.getTimestamp())) {
-        NavigableSet<TimerData> timers = timersForDomain(timerData.getDomain());
-        timers.remove(existing);
-        timers.add(timerData);
-        existingTimers.put(timerData.getNamespace(), colKey, timerData);
+        TimerWheel timers = timersForDomain(timerData.getDomain());
+        timers.remove(existingNode);
+        existingTimers.put(timerData.getNamespace(), colKey, timers.add(timerData));
       }
     }
   }
@@ -156,13 +170,13 @@ public class InMemoryTimerInternals implements TimerInternals {
   @Override
   public void deleteTimer(
       StateNamespace namespace, String timerId, String timerFamilyId, TimeDomain timeDomain) {
-    TimerData removedTimer = existingTimers.remove(namespace, timerId + '+' + timerFamilyId);
+    Node removedTimer = existingTimers.remove(namespace, timerId + '+' + timerFamilyId);
     if (removedTimer != null) {
       Preconditions.checkState(
-          removedTimer.getDomain().equals(timeDomain),
+          removedTimer.getTimer().getDomain().equals(timeDomain),
           "%s doesn't match time domain %s of timer",
           timeDomain,
-          removedTimer.getDomain());
+          removedTimer.getTimer().getDomain());
       timersForDomain(timeDomain).remove(removedTimer);
     }
   }
@@ -171,9 +185,9 @@ public class InMemoryTimerInternals implements TimerInternals {
   @Deprecated
   @Override
   public void deleteTimer(StateNamespace namespace, String timerId, String timerFamilyId) {
-    TimerData removedTimer = existingTimers.remove(namespace, timerId + '+' + timerFamilyId);
+    Node removedTimer = existingTimers.remove(namespace, timerId + '+' + timerFamilyId);
     if (removedTimer != null) {
-      timersForDomain(removedTimer.getDomain()).remove(removedTimer);
+      timersForDomain(removedTimer.getTimer().getDomain()).remove(removedTimer);
     }
   }
 
@@ -321,12 +335,16 @@ public class InMemoryTimerInternals implements TimerInternals {
   }
 
   private @Nullable TimerData removeNextTimer(Instant currentTime, TimeDomain domain) {
-    NavigableSet<TimerData> timers = timersForDomain(domain);
+    @Nullable TimerWheel timers = existingTimersForDomain(domain);
+    if (timers == null) {
+      return null;
+    }
+    @Nullable TimerData timer = timers.peek();
 
-    if (!timers.isEmpty() && currentTime.isAfter(timers.first().getTimestamp())) {
-      TimerData timer = timers.pollFirst();
-      existingTimers.remove(
-          timer.getNamespace(), timer.getTimerId() + '+' + timer.getTimerFamilyId());
+    if (timer != null && currentTime.isAfter(timer.getTimestamp())) {
+      timers.remove(
+          existingTimers.remove(
+              timer.getNamespace(), timer.getTimerId() + '+' + timer.getTimerFamilyId()));
       return timer;
     } else {
       return null;
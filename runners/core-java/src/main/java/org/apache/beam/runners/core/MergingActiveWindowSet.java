@@ -20,26 +20,42 @@ package org.apache.beam.runners.core;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeSet;
 import org.apache.beam.sdk.coders.MapCoder;
 import org.apache.beam.sdk.coders.SetCoder;
 import org.apache.beam.sdk.state.ValueState;
 import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.transforms.windowing.IntervalWindow;
+import org.apache.beam.sdk.transforms.windowing.Sessions;
 import org.apache.beam.sdk.transforms.windowing.WindowFn;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.annotations.VisibleForTesting;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterables;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Sets;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
 
-/** An {@link ActiveWindowSet} for merging {@link WindowFn} implementations. */
+/**
+ * An {@link ActiveWindowSet} for merging {@link WindowFn} implementations.
+ *
+ * <p>For {@link Sessions}, which only merges overlapping windows, the windows are also kept ordered
+ * by start, and {@link #merge} only offers the windows added since the last merge and the windows
+ * they transitively overlap to {@link WindowFn#mergeWindows}. Since the other windows have already
+ * been merged with each other, this yields the same merges as offering all windows, without sorting
+ * all windows of a key on every merge.
+ */
 @SuppressWarnings({"nullness", "keyfor"}) // TODO(https://github.com/apache/beam/issues/20497)
 public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWindowSet<W> {
   private final WindowFn<Object, W> windowFn;
@@ -54,11 +70,29 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
    */
   private final Map<W, Set<W>> activeWindowToStateAddressWindows;
 
+  /** The NEW windows in {@link #activeWindowToStateAddressWindows}. Not persisted. */
+  private final Set<W> newWindows = new HashSet<>();
+
   /**
-   * Deep clone of {@link #activeWindowToStateAddressWindows} as of last commit. Used to avoid
+   * Whether the ACTIVE windows may have changed since they were read from state. Used to avoid
    * writing to state if no changes have been made during the work unit.
    */
-  private final Map<W, Set<W>> originalActiveWindowToStateAddressWindows;
+  private boolean modified;
+
+  /**
+   * The ACTIVE and NEW windows ordered by start, if the windows are merged by {@link Sessions}, or
+   * else {@code null}.
+   */
+  private final @Nullable NavigableSet<IntervalWindow> sortedWindows;
+
+  /** An upper bound of the size of the windows in {@link #sortedWindows}. */
+  private Duration maxWindowSize = Duration.ZERO;
+
+  /**
+   * The windows of {@link #sortedWindows} added since the last merge. All other windows have
+   * already been merged with each other.
+   */
+  private final Set<IntervalWindow> unmergedWindows = new HashSet<>();
 
   /** Handle representing our state in the backend. */
   private final ValueState<Map<W, Set<W>>> valueState;
@@ -74,14 +108,59 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
     // Little use trying to prefetch this state since the ReduceFnRunner
     // is stymied until it is available.
     activeWindowToStateAddressWindows = emptyIfNull(valueState.read());
-    originalActiveWindowToStateAddressWindows = deepCopy(activeWindowToStateAddressWindows);
+    // Subclasses of Sessions may merge differently.
+    sortedWindows = windowFn.getClass() == Sessions.class ? new TreeSet<>() : null;
+    for (Map.Entry<W, Set<W>> entry : activeWindowToStateAddressWindows.entrySet()) {
+      indexWindow(entry.getKey(), entry.getValue());
+    }
+    // Windows persisted without state address windows will be removed when persisting.
+    modified = !newWindows.isEmpty();
+  }
+
+  /** Record {@code window} in {@link #newWindows} and {@link #sortedWindows} as appropriate. */
+  private void indexWindow(W window, Set<W> stateAddressWindows) {
+    if (stateAddressWindows.isEmpty()) {
+      newWindows.add(window);
+    } else {
+      newWindows.remove(window);
+    }
+    if (sortedWindows != null) {
+      IntervalWindow intervalWindow = (IntervalWindow) window;
+      sortedWindows.add(intervalWindow);
+      Duration size = new Duration(intervalWindow.start(), intervalWindow.end());
+      if (size.isLongerThan(maxWindowSize)) {
+        maxWindowSize = size;
+      }
+    }
+  }
+
+  private void putWindow(W window, Set<W> stateAddressWindows) {
+    activeWindowToStateAddressWindows.put(window, stateAddressWindows);
+    indexWindow(window, stateAddressWindows);
+    if (sortedWindows != null) {
+      unmergedWindows.add((IntervalWindow) window);
+    }
+  }
+
+  private @Nullable Set<W> removeWindow(W window) {
+    Set<W> stateAddressWindows = activeWindowToStateAddressWindows.remove(window);
+    if (stateAddressWindows != null) {
+      newWindows.remove(window);
+      if (sortedWindows != null) {
+        sortedWindows.remove((IntervalWindow) window);
+        unmergedWindows.remove((IntervalWindow) window);
+      }
+    }
+    return stateAddressWindows;
   }
 
   @Override
   public void cleanupTemporaryWindows() {
     // All NEW windows can be forgotten since they must have ended up being merged into
     // some other ACTIVE window.
-    activeWindowToStateAddressWindows.entrySet().removeIf(entry -> entry.getValue().isEmpty());
+    for (W window : new ArrayList<>(newWindows)) {
+      removeWindow(window);
+    }
   }
 
   @Override
@@ -92,13 +171,12 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
       valueState.clear();
       return;
     }
-    if (activeWindowToStateAddressWindows.equals(originalActiveWindowToStateAddressWindows)) {
+    if (!modified) {
       // No change.
       return;
     }
     valueState.write(activeWindowToStateAddressWindows);
-    // No need to update originalActiveWindowToStateAddressWindows since this object is about to
-    // become garbage.
+    // No need to reset modified since this object is about to become garbage.
   }
 
   @Override
@@ -121,7 +199,7 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
   public void ensureWindowExists(W window) {
     if (!activeWindowToStateAddressWindows.containsKey(window)) {
       // Add window as NEW.
-      activeWindowToStateAddressWindows.put(window, new LinkedHashSet<>());
+      putWindow(window, new LinkedHashSet<>());
     }
   }
 
@@ -135,6 +213,8 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
     if (stateAddressWindows.isEmpty()) {
       // Window was NEW, make it ACTIVE with itself as its state address window.
       stateAddressWindows.add(window);
+      newWindows.remove(window);
+      modified = true;
     }
   }
 
@@ -145,20 +225,25 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
       // Make window ACTIVE with itself as its state address window.
       Set<W> stateAddressWindows = new LinkedHashSet<>();
       stateAddressWindows.add(window);
-      activeWindowToStateAddressWindows.put(window, stateAddressWindows);
+      putWindow(window, stateAddressWindows);
+      modified = true;
     }
   }
 
   @VisibleForTesting
   public void addActiveForTesting(W window, Iterable<W> stateAddressWindows) {
     if (!activeWindowToStateAddressWindows.containsKey(window)) {
-      activeWindowToStateAddressWindows.put(window, Sets.newLinkedHashSet(stateAddressWindows));
+      putWindow(window, Sets.newLinkedHashSet(stateAddressWindows));
+      modified = true;
     }
   }
 
   @Override
   public void remove(W window) {
-    activeWindowToStateAddressWindows.remove(window);
+    Set<W> stateAddressWindows = removeWindow(window);
+    if (stateAddressWindows != null && !stateAddressWindows.isEmpty()) {
+      modified = true;
+    }
   }
 
   private class MergeContextImpl extends WindowFn<Object, W>.MergeContext {
@@ -166,6 +251,7 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
     private final List<Collection<W>> allToBeMerged;
     private final List<W> allMergeResults;
     private final Set<W> seen;
+    private final Collection<W> windows;
 
     public MergeContextImpl(MergeCallback<W> mergeCallback) {
       windowFn.super();
@@ -173,11 +259,12 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
       allToBeMerged = new ArrayList<>();
       allMergeResults = new ArrayList<>();
       seen = new HashSet<>();
+      windows = windowsToMerge();
     }
 
     @Override
     public Collection<W> windows() {
-      return activeWindowToStateAddressWindows.keySet();
+      return windows;
     }
 
     @Override
@@ -218,6 +305,42 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
     }
   }
 
+  /**
+   * Return the windows to offer to {@link WindowFn#mergeWindows}. For {@link Sessions}, these are
+   * the windows added since the last merge and the windows they transitively overlap, and otherwise
+   * all ACTIVE and NEW windows.
+   */
+  private Collection<W> windowsToMerge() {
+    if (sortedWindows == null) {
+      return activeWindowToStateAddressWindows.keySet();
+    }
+
+    Set<IntervalWindow> windows = new HashSet<>();
+    Deque<IntervalWindow> toVisit = new ArrayDeque<>();
+    windows.addAll(unmergedWindows);
+    toVisit.addAll(unmergedWindows);
+    while (!toVisit.isEmpty()) {
+      IntervalWindow window = toVisit.pop();
+      // Windows overlapping this window start before it ends, and at most maxWindowSize before it
+      // starts.
+      Instant lowestStart = window.start().minus(maxWindowSize);
+      for (IntervalWindow other :
+          sortedWindows.subSet(
+              new IntervalWindow(lowestStart, lowestStart),
+              true,
+              new IntervalWindow(window.end(), window.end()),
+              false)) {
+        if (other.intersects(window) && windows.add(other)) {
+          toVisit.push(other);
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    Collection<W> result = (Collection<W>) (Collection<?>) windows;
+    return result;
+  }
+
   @Override
   public void merge(MergeCallback<W> mergeCallback) throws Exception {
     MergeContextImpl context = new MergeContextImpl(mergeCallback);
@@ -228,6 +351,7 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
 
     // Actually do the merging and invoke the callbacks.
     context.recordMerges();
+    unmergedWindows.clear();
   }
 
   /**
@@ -257,7 +381,7 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
         // THEN otherTarget equiv mergeResult.
         newStateAddressWindows.add(otherStateAddressWindow);
       }
-      activeWindowToStateAddressWindows.remove(other);
+      removeWindow(other);
 
       // Now other equiv mergeResult.
     }
@@ -268,7 +392,8 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
       newStateAddressWindows.add(mergeResult);
     }
 
-    activeWindowToStateAddressWindows.put(mergeResult, newStateAddressWindows);
+    putWindow(mergeResult, newStateAddressWindows);
+    modified = true;
 
     merged(mergeResult);
   }
@@ -278,9 +403,12 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
     // Take just the first state address window.
     Set<W> stateAddressWindows = activeWindowToStateAddressWindows.get(window);
     checkState(stateAddressWindows != null, "Window %s is not ACTIVE", window);
-    W first = Iterables.getFirst(stateAddressWindows, null);
-    stateAddressWindows.clear();
-    stateAddressWindows.add(first);
+    if (stateAddressWindows.size() > 1) {
+      W first = Iterables.getFirst(stateAddressWindows, null);
+      stateAddressWindows.clear();
+      stateAddressWindows.add(first);
+      modified = true;
+    }
   }
 
   /**
@@ -399,13 +527,4 @@ public class MergingActiveWindowSet<W extends BoundedWindow> implements ActiveWi
       return multimap;
     }
   }
-
-  /** Return a deep copy of {@code multimap}. */
-  private static <W> Map<W, Set<W>> deepCopy(Map<W, Set<W>> multimap) {
-    Map<W, Set<W>> newMultimap = new HashMap<>();
-    for (Map.Entry<W, Set<W>> entry : multimap.entrySet()) {
-      newMultimap.put(entry.getKey(), new LinkedHashSet<>(entry.getValue()));
-    }
-    return newMultimap;
-  }
 }
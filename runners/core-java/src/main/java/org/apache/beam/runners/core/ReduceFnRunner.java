@@ -32,6 +32,8 @@ import org.apache.beam.runners.core.GroupByKeyViaGroupByKeyOnly.GroupByKeyOnly;
 import org.apache.beam.runners.core.ReduceFnContextFactory.StateStyle;
 import org.apache.beam.runners.core.StateNamespaces.WindowNamespace;
 import org.apache.beam.runners.core.TimerInternals.TimerData;
+import org.apache.beam.runners.core.triggers.AfterWatermarkStateMachine;
+import org.apache.beam.runners.core.triggers.DefaultTriggerStateMachine;
 import org.apache.beam.runners.core.triggers.ExecutableTriggerStateMachine;
 import org.apache.beam.runners.core.triggers.TriggerStateMachineContextFactory;
 import org.apache.beam.runners.core.triggers.TriggerStateMachineRunner;
@@ -210,6 +212,12 @@ public class ReduceFnRunner<K, InputT, OutputT, W extends BoundedWindow> {
    */
   private final NonEmptyPanes<K, W> nonEmptyPanes;
 
+  /**
+   * Whether elements can be processed a window at a time rather than an element at a time. See
+   * {@link #processElementsByWindow}.
+   */
+  private final boolean processElementsByWindow;
+
   public ReduceFnRunner(
       K key,
       WindowingStrategy<?, W> windowingStrategy,
@@ -256,6 +264,13 @@ public class ReduceFnRunner<K, InputT, OutputT, W extends BoundedWindow> {
             triggerStateMachine,
             new TriggerStateMachineContextFactory<>(
                 windowingStrategy.getWindowFn(), stateInternals, activeWindows));
+    // The default trigger and the end-of-window trigger only set an end-of-window timer for each
+    // element, so running them once for all elements of a window has the same effect.
+    this.processElementsByWindow =
+        windowingStrategy.getWindowFn().isNonMerging()
+            && (triggerStateMachine.getSpec() instanceof DefaultTriggerStateMachine
+                || triggerStateMachine.getSpec()
+                    instanceof AfterWatermarkStateMachine.FromEndOfWindow);
   }
 
   private ActiveWindowSet<W> createActiveWindowSet() {
@@ -328,6 +343,10 @@ public class ReduceFnRunner<K, InputT, OutputT, W extends BoundedWindow> {
     if (!values.iterator().hasNext()) {
       return;
     }
+    if (processElementsByWindow) {
+      processElementsByWindow(values);
+      return;
+    }
 
     // Determine all the windows for elements.
     Set<W> windows = collectWindows(values);
@@ -346,22 +365,70 @@ public class ReduceFnRunner<K, InputT, OutputT, W extends BoundedWindow> {
       windows.addAll(addedWindows);
     }
 
-    prefetchWindowsForValues(windows);
+    // All windows that are open before element processing may need to fire.
+    Set<W> windowsToConsider = prefetchOpenWindows(windows);
+
+    // Process each element, using the updated activeWindows determined by mergeWindows.
+    for (WindowedValue<InputT> value : values) {
+      processElement(windowToMergeResult, value);
+    }
+
+    emitFiringWindows(windowsToConsider);
+  }
 
+  /**
+   * Incorporate {@code values} into the underlying reduce function a window at a time. This is only
+   * used for non-merging windows whose trigger just waits for the end of the window.
+   *
+   * <p>The values are streamed into the {@link ReduceFn} one at a time and in order, as for the
+   * element at a time path, but only a summary of the elements of each window is kept. The trigger
+   * state, the garbage collection timer and the watermark holds of each window are then read and
+   * written once per bundle instead of once per element. This keeps memory proportional to the
+   * number of windows, since batch runners pass all the values of a key at once.
+   */
+  private void processElementsByWindow(Iterable<WindowedValue<InputT>> values) throws Exception {
     // All windows that are open before element processing may need to fire.
-    Set<W> windowsToConsider = windowsThatAreOpen(windows);
+    Set<W> windowsToConsider = prefetchOpenWindows(collectWindows(values));
+
+    Map<W, WindowElements> elementsByWindow = new HashMap<>();
+    for (WindowedValue<InputT> value : values) {
+      for (BoundedWindow untypedWindow : value.getWindows()) {
+        @SuppressWarnings("unchecked")
+        W window = (W) untypedWindow;
+        WindowElements elements = elementsByWindow.get(window);
+        if (elements == null) {
+          elements = new WindowElements(window);
+          elementsByWindow.put(window, elements);
+        }
+        elements.processValue(value);
+      }
+    }
+    for (WindowElements elements : elementsByWindow.values()) {
+      elements.finish();
+    }
+
+    emitFiringWindows(windowsToConsider);
+  }
+
+  /**
+   * Prefetch the state needed to process elements in {@code windows}, and return those of the
+   * windows which are open.
+   */
+  private Set<W> prefetchOpenWindows(Collection<W> windows) {
+    prefetchWindowsForValues(windows);
+
+    Set<W> openWindows = windowsThatAreOpen(windows);
     // Prefetch state necessary to determine if the triggers should fire. This is done before
     // user processing so it may fetch with user desired state.
-    for (W mergedWindow : windowsToConsider) {
+    for (W mergedWindow : openWindows) {
       triggerRunner.prefetchShouldFire(
           mergedWindow, contextFactory.base(mergedWindow, StateStyle.DIRECT).state());
     }
+    return openWindows;
+  }
 
-    // Process each element, using the updated activeWindows determined by mergeWindows.
-    for (WindowedValue<InputT> value : values) {
-      processElement(windowToMergeResult, value);
-    }
-
+  /** Emit the panes of those of {@code windowsToConsider} whose trigger should fire. */
+  private void emitFiringWindows(Set<W> windowsToConsider) throws Exception {
     // Filter to windows that are firing.
     Collection<W> windowsToFire = windowsThatShouldFire(windowsToConsider);
     // Prefetch windows that are firing.
@@ -628,6 +695,74 @@ public class ReduceFnRunner<K, InputT, OutputT, W extends BoundedWindow> {
     }
   }
 
+  /**
+   * The elements of a bundle for a single non-merging window. Processing them is equivalent to
+   * calling {@link #processElement} for each of the elements, given that the trigger only sets an
+   * end-of-window timer for each element.
+   */
+  private class WindowElements {
+    private final ReduceFn<K, InputT, OutputT, W>.Context directContext;
+    private final ReduceFn<K, InputT, OutputT, W>.Context renamedContext;
+    private final boolean isClosed;
+    private final WatermarkHold<W>.ElementHolds holds;
+    private long numElements = 0;
+    private @Nullable Instant lastTimestamp = null;
+
+    WindowElements(W window) {
+      this.directContext = contextFactory.base(window, StateStyle.DIRECT);
+      this.renamedContext = contextFactory.base(window, StateStyle.RENAMED);
+      this.isClosed = triggerRunner.isClosed(directContext.state());
+      this.holds = watermarkHold.elementHolds(window);
+      if (!isClosed) {
+        activeWindows.ensureWindowIsActive(window);
+      }
+    }
+
+    /** Execute the reduceFn, which will buffer the value as appropriate. */
+    void processValue(WindowedValue<InputT> value) throws Exception {
+      numElements++;
+      if (isClosed) {
+        return;
+      }
+      reduceFn.processValue(
+          contextFactory.forValue(
+              directContext.window(), value.getValue(), value.getTimestamp(), StateStyle.RENAMED));
+      holds.add(value.getTimestamp());
+      lastTimestamp = value.getTimestamp();
+    }
+
+    /** Update the per-window state once for all the elements processed. */
+    void finish() throws Exception {
+      if (isClosed) {
+        // This window has already been closed.
+        droppedDueToClosedWindow.inc(numElements);
+        WindowTracing.debug(
+            "ReduceFnRunner.processElement: Dropping {} elements for key:{}; window:{} "
+                + "since window is no longer active at inputWatermark:{}; outputWatermark:{}",
+            numElements,
+            key,
+            directContext.window(),
+            timerInternals.currentInputWatermarkTime(),
+            timerInternals.currentOutputWatermarkTime());
+        return;
+      }
+
+      nonEmptyPanes.recordContent(renamedContext.state());
+      scheduleGarbageCollectionTimer(directContext);
+
+      // Hold back progress of the output watermark until we have processed the pane these
+      // elements will be included within.
+      watermarkHold.addHolds(renamedContext, holds);
+
+      // Run the trigger to update its state
+      triggerRunner.processValue(
+          directContext.window(),
+          lastTimestamp,
+          directContext.timers(),
+          directContext.state());
+    }
+  }
+
   /** A descriptor of the activation for a window based on a timer. */
   private class WindowActivation {
     public final ReduceFn<K, InputT, OutputT, W>.Context directContext;
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import org.apache.beam.runners.core.TimerInternals.TimerData;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Instant;
+
+/**
+ * A hierarchical timing wheel holding the {@link TimerData timers} of one time domain. Timers are
+ * added and removed in constant time, and returned in the order defined by {@link
+ * TimerData#compareTo}.
+ *
+ * <p>Timestamps are mapped to unsigned keys whose 6 bit digits index the 64 slots of each of the 11
+ * levels of the wheel. A timer is placed on the level of the most significant digit in which its
+ * key differs from the cursor, which never passes the earliest timer. Hence all timers of a level
+ * are earlier than those of higher levels, and the earliest timers of a level are in its lowest
+ * occupied slot, which is found using a bitmap of occupied slots. Looking for the next timer moves
+ * the cursor to that slot and cascades its timers to lower levels, so a timer is moved at most once
+ * per level.
+ *
+ * <p>Timers at or before the cursor are kept in a sorted set, which orders timers with equal
+ * timestamps and any timer set before timers that were already looked up.
+ */
+class TimerWheel {
+  private static final int BITS_PER_LEVEL = 6;
+  private static final int SLOTS_PER_LEVEL = 1 << BITS_PER_LEVEL;
+  private static final int NUM_LEVELS = (Long.SIZE + BITS_PER_LEVEL - 1) / BITS_PER_LEVEL;
+
+  // Levels of nodes that are not in a slot of the wheel.
+  private static final int READY = -1;
+  private static final int DELETED = -2;
+
+  /** A timer held by a {@link TimerWheel}, which is used to remove it. */
+  static final class Node {
+    private final TimerData timer;
+    private final long key;
+    private int level;
+    private int slot;
+    private @Nullable Node prev;
+    private @Nullable Node next;
+
+    private Node(TimerData timer) {
+      this.timer = timer;
+      this.key = key(timer.getTimestamp());
+    }
+
+    TimerData getTimer() {
+      return timer;
+    }
+  }
+
+  private final @Nullable Node[] slots = new Node[NUM_LEVELS * SLOTS_PER_LEVEL];
+  private final long[] occupiedSlots = new long[NUM_LEVELS];
+
+  /** Timers at or before the cursor, in firing order. */
+  private final NavigableSet<TimerData> ready = new TreeSet<>();
+
+  /** Timers marked as deleted, which {@link TimerData#compareTo} orders after all other timers. */
+  private final NavigableSet<TimerData> deleted = new TreeSet<>();
+
+  private long cursor = 0;
+
+  /** Maps a timestamp to a key whose unsigned order is the order of the timestamps. */
+  private static long key(Instant timestamp) {
+    return timestamp.getMillis() ^ Long.MIN_VALUE;
+  }
+
+  /** Adds a timer, returning the {@link Node} to remove it with. */
+  Node add(TimerData timer) {
+    Node node = new Node(timer);
+    place(node);
+    return node;
+  }
+
+  /** Removes a timer previously added to this wheel. */
+  void remove(Node node) {
+    switch (node.level) {
+      case READY:
+        ready.remove(node.timer);
+        break;
+      case DELETED:
+        deleted.remove(node.timer);
+        break;
+      default:
+        unlink(node);
+    }
+  }
+
+  /** Returns the first timer in firing order, or {@code null} if the wheel is empty. */
+  @Nullable
+  TimerData peek() {
+    if (!ready.isEmpty() || advance()) {
+      return ready.first();
+    }
+    return deleted.isEmpty() ? null : deleted.first();
+  }
+
+  private void place(Node node) {
+    if (node.timer.getDeleted()) {
+      node.level = DELETED;
+      deleted.add(node.timer);
+    } else if (Long.compareUnsigned(node.key, cursor) <= 0) {
+      node.level = READY;
+      ready.add(node.timer);
+    } else {
+      int level = (Long.SIZE - 1 - Long.numberOfLeadingZeros(node.key ^ cursor)) / BITS_PER_LEVEL;
+      int slot = (int) (node.key >>> (level * BITS_PER_LEVEL)) & (SLOTS_PER_LEVEL - 1);
+      int index = level * SLOTS_PER_LEVEL + slot;
+      node.level = level;
+      node.slot = slot;
+      node.prev = null;
+      node.next = slots[index];
+      if (node.next != null) {
+        node.next.prev = node;
+      }
+      slots[index] = node;
+      occupiedSlots[level] |= 1L << slot;
+    }
+  }
+
+  private void unlink(Node node) {
+    int index = node.level * SLOTS_PER_LEVEL + node.slot;
+    if (node.prev != null) {
+      node.prev.next = node.next;
+    } else {
+      slots[index] = node.next;
+      if (node.next == null) {
+        occupiedSlots[node.level] &= ~(1L << node.slot);
+      }
+    }
+    if (node.next != null) {
+      node.next.prev = node.prev;
+    }
+    node.prev = null;
+    node.next = null;
+  }
+
+  /**
+   * Moves the cursor to the earliest timers in the wheel and makes them ready. Returns {@code
+   * false} if the wheel is empty.
+   */
+  private boolean advance() {
+    while (true) {
+      int level = 0;
+      while (level < NUM_LEVELS && occupiedSlots[level] == 0) {
+        ++level;
+      }
+      if (level == NUM_LEVELS) {
+        return false;
+      }
+      int slot = Long.numberOfTrailingZeros(occupiedSlots[level]);
+      int index = level * SLOTS_PER_LEVEL + slot;
+      @Nullable Node node = slots[index];
+      slots[index] = null;
+      occupiedSlots[level] &= ~(1L << slot);
+
+      // Move the cursor to the start of the slot, keeping the digits of the higher levels.
+      int shift = (level + 1) * BITS_PER_LEVEL;
+      long higherDigits = shift >= Long.SIZE ? 0 : (cursor >>> shift) << shift;
+      cursor = higherDigits | ((long) slot << (level * BITS_PER_LEVEL));
+
+      // All timers of the slot share the digits of its level and above with the cursor, so they
+      // are cascaded to lower levels, or are ready if they are at the start of the slot.
+      while (node != null) {
+        Node next = node.next;
+        place(node);
+        node = next;
+      }
+      if (!ready.isEmpty()) {
+        return true;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    List<TimerData> timers = new ArrayList<>(ready);
+    for (@Nullable Node head : slots) {
+      for (Node node = head; node != null; node = node.next) {
+        timers.add(node.timer);
+      }
+    }
+    Collections.sort(timers);
+    timers.addAll(deleted);
+    return timers.toString();
+  }
+}
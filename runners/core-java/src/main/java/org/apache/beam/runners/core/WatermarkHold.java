@@ -108,6 +108,86 @@ class WatermarkHold<W extends BoundedWindow> implements Serializable {
     return hold;
   }
 
+  /**
+   * Return an accumulator for the holds of a batch of elements of {@code window}, which are then
+   * added by {@link #addHolds(ReduceFn.Context, ElementHolds)}.
+   */
+  public ElementHolds elementHolds(W window) {
+    return new ElementHolds(window);
+  }
+
+  /**
+   * Add the holds for a batch of elements of the window in {@code context}, as if {@link
+   * #addHolds(ReduceFn.ProcessValueContext)} was called for each of the elements in {@code holds}.
+   *
+   * <p>Since holds are combined with the {@link TimestampCombiner} of the windowing strategy, the
+   * element holds of the batch are combined up front, and the element hold and garbage collection
+   * hold are each added at most once.
+   */
+  public void addHolds(ReduceFn<?, ?, ?, W>.Context context, ElementHolds holds) {
+    checkState(
+        holds.window.equals(context.window()),
+        "Holds for window %s added in window %s",
+        holds.window,
+        context.window());
+    Instant elementHold = holds.elementHold;
+    if (elementHold != null) {
+      checkState(
+          !elementHold.isAfter(BoundedWindow.TIMESTAMP_MAX_VALUE),
+          "Element hold %s is beyond end-of-time",
+          elementHold);
+      context.state().access(elementHoldTag).add(elementHold);
+      WindowTracing.trace(
+          "WatermarkHold.addHolds: element hold at {} for {} elements for "
+              + "key:{}; window:{}; inputWatermark:{}; outputWatermark:{}",
+          elementHold,
+          holds.numElementHolds,
+          context.key(),
+          context.window(),
+          holds.inputWM,
+          holds.outputWM);
+    }
+    if (holds.needsGarbageCollectionHold) {
+      addGarbageCollectionHold(context, false /*paneIsEmpty*/);
+    }
+  }
+
+  /**
+   * The holds of a batch of elements of a single window, combined as the elements are added so
+   * that the elements themselves need not be kept.
+   */
+  class ElementHolds {
+    private final W window;
+    private final @Nullable Instant outputWM;
+    private final Instant inputWM;
+    // See addElementHold for the cases in which an element is too late for an element hold.
+    private final boolean tooLateForEndOfWindowTimer;
+    private @Nullable Instant elementHold = null;
+    private long numElementHolds = 0;
+    private boolean needsGarbageCollectionHold = false;
+
+    private ElementHolds(W window) {
+      this.window = window;
+      this.outputWM = timerInternals.currentOutputWatermarkTime();
+      this.inputWM = timerInternals.currentInputWatermarkTime();
+      this.tooLateForEndOfWindowTimer = window.maxTimestamp().isBefore(inputWM);
+    }
+
+    /** Add the hold for an element with the given {@code timestamp}. */
+    public void add(Instant timestamp) {
+      Instant hold = shift(timestamp, window);
+      if (tooLateForEndOfWindowTimer || (outputWM != null && hold.isBefore(outputWM))) {
+        needsGarbageCollectionHold = true;
+      } else {
+        elementHold =
+            elementHold == null
+                ? hold
+                : windowingStrategy.getTimestampCombiner().combine(elementHold, hold);
+        numElementHolds++;
+      }
+    }
+  }
+
   /**
    * Return {@code timestamp}, possibly shifted forward in time according to the window strategy's
    * output time function.
@@ -56,7 +56,11 @@ public class DirtyState implements Serializable {
    * <p>Should be called <b>after</b> modification of the value.
    */
   public void afterModification() {
-    dirty.set(State.DIRTY);
+    // Metrics are usually modified far more often than they are committed, so avoid writing (and
+    // invalidating the cache line of) a state that is already dirty.
+    if (dirty.get() != State.DIRTY) {
+      dirty.set(State.DIRTY);
+    }
   }
 
   /**
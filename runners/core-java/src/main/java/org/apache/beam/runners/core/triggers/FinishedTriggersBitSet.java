@@ -22,18 +22,30 @@ import java.util.BitSet;
 /** A {@link FinishedTriggers} implementation based on an underlying {@link BitSet}. */
 public class FinishedTriggersBitSet implements FinishedTriggers {
 
-  private final BitSet bitSet;
+  private BitSet bitSet;
+  // Whether bitSet is not owned by this set, and must be cloned before it is modified.
+  private boolean shared;
+  private boolean modified;
 
-  private FinishedTriggersBitSet(BitSet bitSet) {
+  private FinishedTriggersBitSet(BitSet bitSet, boolean shared) {
     this.bitSet = bitSet;
+    this.shared = shared;
   }
 
   public static FinishedTriggersBitSet emptyWithCapacity(int capacity) {
-    return new FinishedTriggersBitSet(new BitSet(capacity));
+    return new FinishedTriggersBitSet(new BitSet(capacity), false);
   }
 
   public static FinishedTriggersBitSet fromBitSet(BitSet bitSet) {
-    return new FinishedTriggersBitSet(bitSet);
+    return new FinishedTriggersBitSet(bitSet, false);
+  }
+
+  /**
+   * Returns a {@link FinishedTriggersBitSet} which reads {@code bitSet}, but copies it before it is
+   * first modified. Unlike {@link #copy}, this doesn't allocate for sets which are only read.
+   */
+  public static FinishedTriggersBitSet copyOnWrite(BitSet bitSet) {
+    return new FinishedTriggersBitSet(bitSet, true);
   }
 
   /** Returns the underlying {@link BitSet} for this {@link FinishedTriggersBitSet}. */
@@ -41,6 +53,19 @@ public class FinishedTriggersBitSet implements FinishedTriggers {
     return bitSet;
   }
 
+  /** Returns whether any bit was changed since this set was created. */
+  public boolean isModified() {
+    return modified;
+  }
+
+  private void beforeModification() {
+    if (shared) {
+      bitSet = (BitSet) bitSet.clone();
+      shared = false;
+    }
+    modified = true;
+  }
+
   @Override
   public boolean isFinished(ExecutableTriggerStateMachine trigger) {
     return bitSet.get(trigger.getTriggerIndex());
@@ -48,16 +73,24 @@ public class FinishedTriggersBitSet implements FinishedTriggers {
 
   @Override
   public void setFinished(ExecutableTriggerStateMachine trigger, boolean value) {
-    bitSet.set(trigger.getTriggerIndex(), value);
+    int index = trigger.getTriggerIndex();
+    if (bitSet.get(index) != value) {
+      beforeModification();
+      bitSet.set(index, value);
+    }
   }
 
   @Override
   public void clearRecursively(ExecutableTriggerStateMachine trigger) {
-    bitSet.clear(trigger.getTriggerIndex(), trigger.getFirstIndexAfterSubtree());
+    int firstSetBit = bitSet.nextSetBit(trigger.getTriggerIndex());
+    if (firstSetBit >= 0 && firstSetBit < trigger.getFirstIndexAfterSubtree()) {
+      beforeModification();
+      bitSet.clear(trigger.getTriggerIndex(), trigger.getFirstIndexAfterSubtree());
+    }
   }
 
   @Override
   public FinishedTriggersBitSet copy() {
-    return new FinishedTriggersBitSet((BitSet) bitSet.clone());
+    return new FinishedTriggersBitSet((BitSet) bitSet.clone(), false);
   }
 }
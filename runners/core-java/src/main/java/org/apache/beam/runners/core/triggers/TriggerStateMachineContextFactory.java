@@ -36,7 +36,6 @@ import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.transforms.windowing.WindowFn;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.FluentIterable;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableMap;
-import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterables;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.Instant;
 
@@ -66,7 +65,8 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
       Timers timers,
       ExecutableTriggerStateMachine rootTrigger,
       FinishedTriggers finishedSet) {
-    return new TriggerContextImpl(window, timers, rootTrigger, finishedSet);
+    return new TriggerContextImpl(
+        window, new TriggerTimers(window, timers), rootTrigger, finishedSet, contexts(rootTrigger));
   }
 
   public TriggerStateMachine.OnElementContext createOnElementContext(
@@ -75,7 +75,13 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
       Instant elementTimestamp,
       ExecutableTriggerStateMachine rootTrigger,
       FinishedTriggers finishedSet) {
-    return new OnElementContextImpl(window, timers, rootTrigger, finishedSet, elementTimestamp);
+    return new OnElementContextImpl(
+        window,
+        new TriggerTimers(window, timers),
+        rootTrigger,
+        finishedSet,
+        elementTimestamp,
+        contexts(rootTrigger));
   }
 
   public TriggerStateMachine.OnMergeContext createOnMergeContext(
@@ -84,7 +90,23 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
       ExecutableTriggerStateMachine rootTrigger,
       FinishedTriggers finishedSet,
       Map<W, FinishedTriggers> finishedSets) {
-    return new OnMergeContextImpl(window, timers, rootTrigger, finishedSet, finishedSets);
+    return new OnMergeContextImpl(
+        window,
+        new TriggerTimers(window, timers),
+        rootTrigger,
+        finishedSet,
+        finishedSets,
+        contexts(rootTrigger));
+  }
+
+  /**
+   * Returns the array in which the contexts created for the triggers of the tree of {@code
+   * rootTrigger} during a single call are kept, so that composite triggers invoking a subtrigger
+   * more than once reuse its context.
+   */
+  private static TriggerStateMachine.TriggerContext[] contexts(
+      ExecutableTriggerStateMachine rootTrigger) {
+    return new TriggerStateMachine.TriggerContext[rootTrigger.getFirstIndexAfterSubtree()];
   }
 
   public TriggerStateMachine.PrefetchContext createPrefetchContext(
@@ -139,7 +161,7 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
 
     @Override
     public boolean areAllSubtriggersFinished() {
-      return Iterables.isEmpty(unfinishedSubTriggers());
+      return firstUnfinishedSubTrigger() == null;
     }
 
     @Override
@@ -258,20 +280,29 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
 
   private class StateAccessorImpl implements StateAccessor<Object> {
     protected final int triggerIndex;
-    protected final StateNamespace windowNamespace;
+    private final W window;
+    // Computed on first access, since many triggers never access state.
+    private @Nullable StateNamespace windowNamespace;
 
     public StateAccessorImpl(W window, ExecutableTriggerStateMachine trigger) {
       this.triggerIndex = trigger.getTriggerIndex();
-      this.windowNamespace = namespaceFor(window);
+      this.window = window;
     }
 
     protected StateNamespace namespaceFor(W window) {
       return StateNamespaces.windowAndTrigger(windowCoder, window, triggerIndex);
     }
 
+    protected StateNamespace windowNamespace() {
+      if (windowNamespace == null) {
+        windowNamespace = namespaceFor(window);
+      }
+      return windowNamespace;
+    }
+
     @Override
     public <StateT extends State> StateT access(StateTag<StateT> address) {
-      return stateInternals.state(windowNamespace, address);
+      return stateInternals.state(windowNamespace(), address);
     }
   }
 
@@ -285,11 +316,6 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
       this.activeToBeMerged = activeToBeMerged;
     }
 
-    @Override
-    public <StateT extends State> StateT access(StateTag<StateT> address) {
-      return stateInternals.state(windowNamespace, address);
-    }
-
     @Override
     public <StateT extends State> Map<W, StateT> accessInEachMergingWindow(
         StateTag<StateT> address) {
@@ -306,26 +332,31 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
 
     private final W window;
     private final StateAccessorImpl state;
-    private final Timers timers;
+    private final TriggerTimers timers;
     private final TriggerInfoImpl triggerInfo;
+    private final TriggerStateMachine.TriggerContext[] contexts;
 
     private TriggerContextImpl(
         W window,
-        Timers timers,
+        TriggerTimers timers,
         ExecutableTriggerStateMachine trigger,
-        FinishedTriggers finishedSet) {
+        FinishedTriggers finishedSet,
+        TriggerStateMachine.TriggerContext[] contexts) {
       this.window = window;
       this.state = new StateAccessorImpl(window, trigger);
-      this.timers = new TriggerTimers(window, timers);
+      this.timers = timers;
       this.triggerInfo = new TriggerInfoImpl(trigger, finishedSet, this);
+      this.contexts = contexts;
+      contexts[trigger.getTriggerIndex()] = this;
     }
 
     @Override
     public TriggerStateMachine.TriggerContext forTrigger(ExecutableTriggerStateMachine trigger) {
-      if (this.triggerInfo.trigger == trigger) {
-        return this;
+      TriggerStateMachine.TriggerContext context = contexts[trigger.getTriggerIndex()];
+      if (context != null) {
+        return context;
       }
-      return new TriggerContextImpl(window, timers, trigger, triggerInfo.finishedSet);
+      return new TriggerContextImpl(window, timers, trigger, triggerInfo.finishedSet, contexts);
     }
 
     @Override
@@ -368,21 +399,25 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
 
     private final W window;
     private final StateAccessorImpl state;
-    private final Timers timers;
+    private final TriggerTimers timers;
     private final TriggerInfoImpl triggerInfo;
     private final Instant eventTimestamp;
+    private final TriggerStateMachine.TriggerContext[] contexts;
 
     private OnElementContextImpl(
         W window,
-        Timers timers,
+        TriggerTimers timers,
         ExecutableTriggerStateMachine trigger,
         FinishedTriggers finishedSet,
-        Instant eventTimestamp) {
+        Instant eventTimestamp,
+        TriggerStateMachine.TriggerContext[] contexts) {
       this.window = window;
       this.state = new StateAccessorImpl(window, trigger);
-      this.timers = new TriggerTimers(window, timers);
+      this.timers = timers;
       this.triggerInfo = new TriggerInfoImpl(trigger, finishedSet, this);
       this.eventTimestamp = eventTimestamp;
+      this.contexts = contexts;
+      contexts[trigger.getTriggerIndex()] = this;
     }
 
     @Override
@@ -392,11 +427,12 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
 
     @Override
     public TriggerStateMachine.OnElementContext forTrigger(ExecutableTriggerStateMachine trigger) {
-      if (this.triggerInfo.trigger == trigger) {
-        return this;
+      TriggerStateMachine.TriggerContext context = contexts[trigger.getTriggerIndex()];
+      if (context != null) {
+        return (TriggerStateMachine.OnElementContext) context;
       }
       return new OnElementContextImpl(
-          window, timers, trigger, triggerInfo.finishedSet, eventTimestamp);
+          window, timers, trigger, triggerInfo.finishedSet, eventTimestamp, contexts);
     }
 
     @Override
@@ -444,29 +480,34 @@ public class TriggerStateMachineContextFactory<W extends BoundedWindow> {
     private final MergingStateAccessor<?, W> state;
     private final W window;
     private final Collection<W> mergingWindows;
-    private final Timers timers;
+    private final TriggerTimers timers;
     private final MergingTriggerInfoImpl triggerInfo;
+    private final TriggerStateMachine.TriggerContext[] contexts;
 
     private OnMergeContextImpl(
         W window,
-        Timers timers,
+        TriggerTimers timers,
         ExecutableTriggerStateMachine trigger,
         FinishedTriggers finishedSet,
-        Map<W, FinishedTriggers> finishedSets) {
+        Map<W, FinishedTriggers> finishedSets,
+        TriggerStateMachine.TriggerContext[] contexts) {
       this.mergingWindows = finishedSets.keySet();
       this.window = window;
       this.state = new MergingStateAccessorImpl(trigger, mergingWindows, window);
-      this.timers = new TriggerTimers(window, timers);
+      this.timers = timers;
       this.triggerInfo = new MergingTriggerInfoImpl(trigger, finishedSet, this, finishedSets);
+      this.contexts = contexts;
+      contexts[trigger.getTriggerIndex()] = this;
     }
 
     @Override
     public TriggerStateMachine.OnMergeContext forTrigger(ExecutableTriggerStateMachine trigger) {
-      if (this.triggerInfo.trigger == trigger) {
-        return this;
+      TriggerStateMachine.TriggerContext context = contexts[trigger.getTriggerIndex()];
+      if (context != null) {
+        return (TriggerStateMachine.OnMergeContext) context;
       }
       return new OnMergeContextImpl(
-          window, timers, trigger, triggerInfo.finishedSet, triggerInfo.finishedSets);
+          window, timers, trigger, triggerInfo.finishedSet, triggerInfo.finishedSets, contexts);
     }
 
     @Override
@@ -86,6 +86,21 @@ public class TriggerStateMachineRunner<W extends BoundedWindow> {
         : FinishedTriggersBitSet.fromBitSet(bitSet);
   }
 
+  /**
+   * Returns the finished bits to run a trigger with. They are copied when first modified, so that
+   * changes can be detected and don't pollute the persisted bits, which may be shared with merging.
+   */
+  private FinishedTriggersBitSet readFinishedBitsForUpdate(ValueState<BitSet> state) {
+    if (!isFinishedSetNeeded()) {
+      return FinishedTriggersBitSet.emptyWithCapacity(rootTrigger.getFirstIndexAfterSubtree());
+    }
+
+    @Nullable BitSet bitSet = state.read();
+    return bitSet == null
+        ? FinishedTriggersBitSet.emptyWithCapacity(rootTrigger.getFirstIndexAfterSubtree())
+        : FinishedTriggersBitSet.copyOnWrite(bitSet);
+  }
+
   private void clearFinishedBits(ValueState<BitSet> state) {
     if (!isFinishedSetNeeded()) {
       // Nothing to clear.
@@ -96,7 +111,11 @@ public class TriggerStateMachineRunner<W extends BoundedWindow> {
 
   /** Return true if the trigger is closed in the window corresponding to the specified state. */
   public boolean isClosed(StateAccessor<?> state) {
-    return readFinishedBits(state.access(FINISHED_BITS_TAG)).isFinished(rootTrigger);
+    if (!isFinishedSetNeeded()) {
+      return false;
+    }
+    @Nullable BitSet bitSet = state.access(FINISHED_BITS_TAG).read();
+    return bitSet != null && bitSet.get(rootTrigger.getTriggerIndex());
   }
 
   public void prefetchIsClosed(StateAccessor<?> state) {
@@ -118,8 +137,7 @@ public class TriggerStateMachineRunner<W extends BoundedWindow> {
   /** Run the trigger logic to deal with a new value. */
   public void processValue(W window, Instant timestamp, Timers timers, StateAccessor<?> state)
       throws Exception {
-    // Clone so that we can detect changes and so that changes here don't pollute merging.
-    FinishedTriggersBitSet finishedSet = readFinishedBits(state.access(FINISHED_BITS_TAG)).copy();
+    FinishedTriggersBitSet finishedSet = readFinishedBitsForUpdate(state.access(FINISHED_BITS_TAG));
     TriggerStateMachine.OnElementContext triggerContext =
         contextFactory.createOnElementContext(window, timers, timestamp, rootTrigger, finishedSet);
     rootTrigger.invokeOnElement(triggerContext);
@@ -139,8 +157,7 @@ public class TriggerStateMachineRunner<W extends BoundedWindow> {
 
   /** Run the trigger merging logic as part of executing the specified merge. */
   public void onMerge(W window, Timers timers, MergingStateAccessor<?, W> state) throws Exception {
-    // Clone so that we can detect changes and so that changes here don't pollute merging.
-    FinishedTriggersBitSet finishedSet = readFinishedBits(state.access(FINISHED_BITS_TAG)).copy();
+    FinishedTriggersBitSet finishedSet = readFinishedBitsForUpdate(state.access(FINISHED_BITS_TAG));
 
     // And read the finished bits in each merging window.
     ImmutableMap.Builder<W, FinishedTriggers> builder = ImmutableMap.builder();
@@ -160,11 +177,13 @@ public class TriggerStateMachineRunner<W extends BoundedWindow> {
     // Run the merge from the trigger
     rootTrigger.invokeOnMerge(mergeContext);
 
-    persistFinishedSet(state, finishedSet);
+    // The finished bits of the merge result window may have been cleared above, so write them
+    // even if the trigger didn't change them.
+    writeFinishedSet(state, finishedSet);
   }
 
   public boolean shouldFire(W window, Timers timers, StateAccessor<?> state) throws Exception {
-    FinishedTriggers finishedSet = readFinishedBits(state.access(FINISHED_BITS_TAG)).copy();
+    FinishedTriggers finishedSet = readFinishedBitsForUpdate(state.access(FINISHED_BITS_TAG));
     TriggerStateMachine.TriggerContext context =
         contextFactory.base(window, timers, rootTrigger, finishedSet);
     return rootTrigger.invokeShouldFire(context);
@@ -173,7 +192,7 @@ public class TriggerStateMachineRunner<W extends BoundedWindow> {
   public void onFire(W window, Timers timers, StateAccessor<?> state) throws Exception {
     // shouldFire should be false.
     // However it is too expensive to assert.
-    FinishedTriggersBitSet finishedSet = readFinishedBits(state.access(FINISHED_BITS_TAG)).copy();
+    FinishedTriggersBitSet finishedSet = readFinishedBitsForUpdate(state.access(FINISHED_BITS_TAG));
     TriggerStateMachine.TriggerContext context =
         contextFactory.base(window, timers, rootTrigger, finishedSet);
     rootTrigger.invokeOnFire(context);
@@ -182,17 +201,23 @@ public class TriggerStateMachineRunner<W extends BoundedWindow> {
 
   private void persistFinishedSet(
       StateAccessor<?> state, FinishedTriggersBitSet modifiedFinishedSet) {
+    // The finished set is a copy of the persisted one, so it only needs to be written if the
+    // trigger changed any bits.
+    if (modifiedFinishedSet.isModified()) {
+      writeFinishedSet(state, modifiedFinishedSet);
+    }
+  }
+
+  private void writeFinishedSet(StateAccessor<?> state, FinishedTriggersBitSet finishedSet) {
     if (!isFinishedSetNeeded()) {
       return;
     }
 
     ValueState<BitSet> finishedSetState = state.access(FINISHED_BITS_TAG);
-    if (!readFinishedBits(finishedSetState).equals(modifiedFinishedSet)) {
-      if (modifiedFinishedSet.getBitSet().isEmpty()) {
-        finishedSetState.clear();
-      } else {
-        finishedSetState.write(modifiedFinishedSet.getBitSet());
-      }
+    if (finishedSet.getBitSet().isEmpty()) {
+      finishedSetState.clear();
+    } else {
+      finishedSetState.write(finishedSet.getBitSet());
     }
   }
 
@@ -19,7 +19,9 @@ package org.apache.beam.runners.core;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.util.HashMap;
@@ -223,6 +225,39 @@ public class MergingActiveWindowSetTest {
     assertTrue(set.getActiveAndNewWindows().isEmpty());
   }
 
+  @Test
+  public void testMergeOverlappingWindowsOnly() throws Exception {
+    // Many ACTIVE windows, of which only a few overlap the NEW windows.
+    for (long start = 0; start < 10000; start += 100) {
+      set.ensureWindowExists(window(start, 10));
+      set.ensureWindowIsActive(window(start, 10));
+    }
+    cleanup();
+
+    // NEW 105+7 overlaps ACTIVE 100+10.
+    // NEW 250+80 overlaps ACTIVE 300+10 and, through NEW 305+100, ACTIVE 400+10.
+    // NEW 9910+20 adjoins ACTIVE 9900+10 without overlapping it, and is left alone.
+    set.ensureWindowExists(window(105, 7));
+    set.ensureWindowExists(window(250, 80));
+    set.ensureWindowExists(window(305, 100));
+    set.ensureWindowExists(window(9910, 20));
+    set.merge(callback);
+    verify(callback).onMerge(ImmutableList.of(window(100, 10), window(105, 7)), window(100, 12));
+    verify(callback)
+        .onMerge(
+            ImmutableList.of(window(250, 80), window(300, 10), window(305, 100), window(400, 10)),
+            window(250, 160));
+    verify(callback, times(2)).onMerge(any(), any());
+
+    set.ensureWindowIsActive(window(100, 12));
+    set.ensureWindowIsActive(window(250, 160));
+    set.ensureWindowIsActive(window(9910, 20));
+    cleanup();
+    assertEquals(100, set.getActiveAndNewWindows().size());
+    assertTrue(set.isActive(window(9910, 20)));
+    assertEquals(ImmutableSet.of(window(300, 10)), set.readStateAddresses(window(250, 160)));
+  }
+
   @Test
   public void testLegacyState() {
     // Pre 1.4 we merged window state lazily.
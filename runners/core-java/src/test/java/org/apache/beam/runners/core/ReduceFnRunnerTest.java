@@ -40,6 +40,7 @@ import static org.mockito.Mockito.withSettings;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
@@ -52,6 +53,7 @@ import org.apache.beam.sdk.metrics.MetricsEnvironment;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.state.TimeDomain;
+import org.apache.beam.sdk.transforms.Combine.CombineFn;
 import org.apache.beam.sdk.transforms.CombineWithContext.CombineFnWithContext;
 import org.apache.beam.sdk.transforms.CombineWithContext.Context;
 import org.apache.beam.sdk.transforms.Sum;
@@ -81,8 +83,10 @@ import org.apache.beam.sdk.transforms.windowing.WindowMappingFn;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TimestampedValue;
 import org.apache.beam.sdk.values.WindowedValue;
+import org.apache.beam.sdk.values.WindowedValues;
 import org.apache.beam.sdk.values.WindowingStrategy;
 import org.apache.beam.sdk.values.WindowingStrategy.AccumulationMode;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.AbstractIterator;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterables;
 import org.joda.time.Duration;
 import org.joda.time.Instant;
@@ -399,6 +403,100 @@ public class ReduceFnRunnerTest {
         WindowMatchers.valueWithPaneInfo(PaneInfo.createPane(false, false, Timing.LATE, 1, 1)));
   }
 
+  /**
+   * Tests that elements of non-merging windows with the default trigger, which are processed a
+   * window at a time, are combined and held as when processed an element at a time.
+   */
+  @Test
+  public void testProcessElementsByWindow() throws Exception {
+    WindowingStrategy<?, IntervalWindow> strategy =
+        WindowingStrategy.of(
+                (WindowFn<?, IntervalWindow>)
+                    SlidingWindows.of(Duration.millis(20)).every(Duration.millis(10)))
+            .withTrigger(DefaultTrigger.of())
+            .withTimestampCombiner(TimestampCombiner.EARLIEST)
+            .withMode(AccumulationMode.DISCARDING_FIRED_PANES)
+            .withAllowedLateness(Duration.ZERO);
+
+    ReduceFnTester<Integer, Integer, IntervalWindow> tester =
+        ReduceFnTester.combining(strategy, Sum.ofIntegers(), VarIntCoder.of());
+
+    tester.advanceInputWatermark(new Instant(0));
+    tester.injectElements(
+        TimestampedValue.of(5, new Instant(5)),
+        TimestampedValue.of(12, new Instant(12)),
+        TimestampedValue.of(3, new Instant(3)));
+    assertThat(tester.getWatermarkHold(), equalTo(new Instant(3)));
+
+    tester.advanceInputWatermark(new Instant(100));
+    assertThat(
+        tester.extractOutput(),
+        containsInAnyOrder(
+            isSingleWindowedValue(equalTo(8), 3, -10, 10),
+            isSingleWindowedValue(equalTo(20), 3, 0, 20),
+            isSingleWindowedValue(equalTo(12), 12, 10, 30)));
+    assertThat(tester.getWatermarkHold(), nullValue());
+  }
+
+  /**
+   * Tests that elements which are processed a window at a time are still passed to the {@link
+   * ReduceFn} as they are read, so that a lazily produced iterable of all the values of a key is
+   * not retained in memory.
+   */
+  @Test
+  public void testProcessElementsByWindowDoesNotRetainValues() throws Exception {
+    WindowingStrategy<?, IntervalWindow> strategy =
+        WindowingStrategy.of((WindowFn<?, IntervalWindow>) FixedWindows.of(Duration.millis(10)))
+            .withTrigger(DefaultTrigger.of())
+            .withMode(AccumulationMode.DISCARDING_FIRED_PANES)
+            .withAllowedLateness(Duration.ZERO);
+
+    ReduceFnTester<Integer, Integer, IntervalWindow> tester =
+        ReduceFnTester.combining(strategy, new SumOfLastProducedFn(), VarIntCoder.of());
+
+    tester.advanceInputWatermark(new Instant(0));
+    int numElements = 10_000;
+    Iterable<WindowedValue<Integer>> values =
+        () ->
+            new AbstractIterator<WindowedValue<Integer>>() {
+              private int next = 0;
+
+              @Override
+              protected WindowedValue<Integer> computeNext() {
+                if (next == numElements) {
+                  return endOfData();
+                }
+                int value = next++;
+                SumOfLastProducedFn.lastProduced = value;
+                Instant timestamp = new Instant(value % 20);
+                IntervalWindow window =
+                    new IntervalWindow(new Instant(value % 20 / 10 * 10), Duration.millis(10));
+                return WindowedValues.of(
+                    value, timestamp, Collections.singletonList(window), PaneInfo.NO_FIRING);
+              }
+            };
+    ReduceFnRunner<String, Integer, Integer, IntervalWindow> runner = tester.createRunner();
+    runner.processElements(values);
+    runner.persist();
+    assertThat(tester.getWatermarkHold(), equalTo(new Instant(9)));
+
+    int firstWindowSum = 0;
+    int secondWindowSum = 0;
+    for (int value = 0; value < numElements; value++) {
+      if (value % 20 < 10) {
+        firstWindowSum += value;
+      } else {
+        secondWindowSum += value;
+      }
+    }
+    tester.advanceInputWatermark(new Instant(100));
+    assertThat(
+        tester.extractOutput(),
+        containsInAnyOrder(
+            isSingleWindowedValue(equalTo(firstWindowSum), 9, 0, 10),
+            isSingleWindowedValue(equalTo(secondWindowSum), 19, 10, 20)));
+  }
+
   @Test
   public void testOnElementCombiningDiscarding() throws Exception {
     // Test basic execution of a trigger using a non-combining window set and discarding mode.
@@ -2336,6 +2434,40 @@ public class ReduceFnRunnerTest {
     }
   }
 
+  /**
+   * A sum which checks that each input is the value most recently produced by the input iterable,
+   * that is that inputs are not buffered before being combined.
+   */
+  private static class SumOfLastProducedFn extends CombineFn<Integer, Integer, Integer> {
+
+    private static int lastProduced = -1;
+
+    @Override
+    public Integer createAccumulator() {
+      return 0;
+    }
+
+    @Override
+    public Integer addInput(Integer accumulator, Integer input) {
+      assertThat(input, equalTo(lastProduced));
+      return accumulator + input;
+    }
+
+    @Override
+    public Integer mergeAccumulators(Iterable<Integer> accumulators) {
+      int res = 0;
+      for (Integer accum : accumulators) {
+        res += accum;
+      }
+      return res;
+    }
+
+    @Override
+    public Integer extractOutput(Integer accumulator) {
+      return accumulator;
+    }
+  }
+
   /** A {@link PipelineOptions} to test combining with context. */
   public interface TestOptions extends PipelineOptions {
 
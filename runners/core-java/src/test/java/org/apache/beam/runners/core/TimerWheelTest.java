@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.core;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.TreeSet;
+import org.apache.beam.runners.core.TimerInternals.TimerData;
+import org.apache.beam.sdk.state.TimeDomain;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.joda.time.Instant;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link TimerWheel}. */
+@RunWith(JUnit4.class)
+public class TimerWheelTest {
+
+  private static final StateNamespace NS1 = new StateNamespaceForTest("NS1");
+
+  private static TimerData timer(String id, long timestamp) {
+    return TimerData.of(
+        id, NS1, new Instant(timestamp), new Instant(timestamp), TimeDomain.EVENT_TIME);
+  }
+
+  @Test
+  public void testOrdersTimers() {
+    TimerWheel wheel = new TimerWheel();
+    assertThat(wheel.peek(), nullValue());
+
+    TimerData late = timer("late", BoundedWindow.TIMESTAMP_MAX_VALUE.getMillis());
+    TimerData early = timer("early", BoundedWindow.TIMESTAMP_MIN_VALUE.getMillis());
+    TimerData a = timer("a", 1000);
+    TimerData b = timer("b", 1000);
+    TimerData deleted = timer("deleted", 0).deleted();
+    TimerWheel.Node lateNode = wheel.add(late);
+    TimerWheel.Node bNode = wheel.add(b);
+    TimerWheel.Node deletedNode = wheel.add(deleted);
+    TimerWheel.Node aNode = wheel.add(a);
+    TimerWheel.Node earlyNode = wheel.add(early);
+
+    assertThat(wheel.peek(), equalTo(early));
+    wheel.remove(earlyNode);
+    assertThat(wheel.peek(), equalTo(a));
+    wheel.remove(aNode);
+    assertThat(wheel.peek(), equalTo(b));
+    // A timer set before the cursor is returned first.
+    TimerData before = timer("before", -5);
+    TimerWheel.Node beforeNode = wheel.add(before);
+    assertThat(wheel.peek(), equalTo(before));
+    wheel.remove(beforeNode);
+    wheel.remove(bNode);
+    assertThat(wheel.peek(), equalTo(late));
+    wheel.remove(lateNode);
+    // Timers marked as deleted sort after all other timers.
+    assertThat(wheel.peek(), equalTo(deleted));
+    wheel.remove(deletedNode);
+    assertThat(wheel.peek(), nullValue());
+  }
+
+  @Test
+  public void testMatchesSortedSet() {
+    Random random = new Random(42);
+    TimerWheel wheel = new TimerWheel();
+    NavigableSet<TimerData> expected = new TreeSet<>();
+    Map<TimerData, TimerWheel.Node> nodes = new HashMap<>();
+    long base = 0;
+
+    for (int i = 0; i < 100_000; ++i) {
+      int operation = random.nextInt(10);
+      long timestamp;
+      switch (random.nextInt(4)) {
+        case 0:
+          timestamp = base + random.nextInt(64);
+          break;
+        case 1:
+          timestamp = base + random.nextInt(1_000_000) - 1000;
+          break;
+        case 2:
+          timestamp = random.nextLong() / 1000;
+          break;
+        default:
+          timestamp = base;
+      }
+      if (operation < 5) {
+        TimerData timer = timer("t" + i, timestamp);
+        if (random.nextInt(100) == 0) {
+          timer = timer.deleted();
+        }
+        nodes.put(timer, wheel.add(timer));
+        expected.add(timer);
+      } else if (operation < 7) {
+        TimerData timer = expected.ceiling(timer("", timestamp));
+        if (timer != null) {
+          wheel.remove(nodes.remove(timer));
+          expected.remove(timer);
+        }
+      } else {
+        TimerData next = wheel.peek();
+        assertThat(next, equalTo(expected.isEmpty() ? null : expected.first()));
+        if (next != null && random.nextBoolean()) {
+          wheel.remove(nodes.remove(next));
+          expected.remove(next);
+          base = next.getTimestamp().getMillis();
+        }
+      }
+    }
+
+    while (!expected.isEmpty()) {
+      TimerData next = wheel.peek();
+      assertThat(next, equalTo(expected.pollFirst()));
+      wheel.remove(nodes.remove(next));
+    }
+    assertThat(wheel.peek(), nullValue());
+  }
+}
@@ -20,6 +20,11 @@ package org.apache.beam.runners.core.metrics;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.beam.sdk.metrics.MetricName;
 import org.junit.Assert;
 import org.junit.Test;
@@ -93,4 +98,35 @@ public class DistributionCellTest {
     assertThat(distributionCell.getCumulative(), equalTo(DistributionData.EMPTY));
     assertThat(distributionCell.getDirty(), equalTo(new DirtyState()));
   }
+
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    int numThreads = 4;
+    int updatesPerThread = 10000;
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < numThreads; ++t) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 1; i <= updatesPerThread; ++i) {
+                    cell.update(i);
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    long sumPerThread = (long) updatesPerThread * (updatesPerThread + 1) / 2;
+    assertThat(
+        cell.getCumulative(),
+        equalTo(
+            DistributionData.create(
+                numThreads * sumPerThread, numThreads * updatesPerThread, 1, updatesPerThread)));
+  }
 }
@@ -18,9 +18,13 @@
 package org.apache.beam.runners.core.triggers;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.theInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.util.BitSet;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -48,4 +52,26 @@ public class FinishedTriggersBitSetTest {
     FinishedTriggersBitSet finishedSet = FinishedTriggersBitSet.emptyWithCapacity(10);
     assertThat(finishedSet.copy().getBitSet(), not(theInstance(finishedSet.getBitSet())));
   }
+
+  @Test
+  public void testCopyOnWrite() throws Exception {
+    ExecutableTriggerStateMachine trigger =
+        ExecutableTriggerStateMachine.create(
+            AfterAllStateMachine.of(
+                AfterPaneStateMachine.elementCountAtLeast(1),
+                AfterPaneStateMachine.elementCountAtLeast(2)));
+    BitSet bitSet = new BitSet();
+    bitSet.set(1);
+
+    FinishedTriggersBitSet finishedSet = FinishedTriggersBitSet.copyOnWrite(bitSet);
+    finishedSet.setFinished(trigger.subTriggers().get(0), true);
+    assertThat(finishedSet.getBitSet(), theInstance(bitSet));
+    assertFalse(finishedSet.isModified());
+
+    finishedSet.setFinished(trigger, true);
+    assertThat(finishedSet.getBitSet(), not(theInstance(bitSet)));
+    assertTrue(finishedSet.isModified());
+    assertTrue(finishedSet.isFinished(trigger));
+    assertThat(bitSet, equalTo(BitSet.valueOf(new long[] {0b10})));
+  }
 }
@@ -17,19 +17,23 @@
  */
 package org.apache.beam.runners.direct;
 
+import java.io.IOException;
 import org.apache.beam.runners.local.StructuralKey;
 import org.apache.beam.sdk.coders.Coder;
-import org.apache.beam.sdk.coders.CoderException;
 import org.apache.beam.sdk.util.CoderUtils;
 import org.apache.beam.sdk.util.UserCodeException;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.WindowedValue;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.MoreObjects;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.io.ByteStreams;
 import org.joda.time.Instant;
 
 /**
  * A {@link BundleFactory} where a created {@link UncommittedBundle} clones all elements added to it
  * using the coder of the {@link PCollection}.
+ *
+ * <p>Elements of a {@link PCollection} whose coder only produces immutable values (see {@link
+ * ImmutableCoders}) are encoded to ensure they are encodable, but are not cloned.
  */
 @SuppressWarnings({
   "nullness" // TODO(https://github.com/apache/beam/issues/20497)
@@ -67,10 +71,12 @@ class CloningBundleFactory implements BundleFactory {
   private static class CloningBundle<T> implements UncommittedBundle<T> {
     private final UncommittedBundle<T> underlying;
     private final Coder<T> coder;
+    private final boolean immutable;
 
     private CloningBundle(UncommittedBundle<T> underlying) {
       this.underlying = underlying;
       this.coder = underlying.getPCollection().getCoder();
+      this.immutable = ImmutableCoders.isImmutable(coder);
     }
 
     @Override
@@ -81,12 +87,18 @@ class CloningBundleFactory implements BundleFactory {
     @Override
     public UncommittedBundle<T> add(WindowedValue<T> element) {
       try {
+        if (immutable) {
+          // The decoded value would be equal to the original one, so only check that it encodes.
+          coder.encode(element.getValue(), ByteStreams.nullOutputStream());
+          underlying.add(element);
+          return this;
+        }
         // Use the cloned value to ensure that if the coder behaves poorly (e.g. a NoOpCoder that
         // does not expect to be used) that is reflected in the values given to downstream
         // transforms
         WindowedValue<T> clone = element.withValue(CoderUtils.clone(coder, element.getValue()));
         underlying.add(clone);
-      } catch (CoderException e) {
+      } catch (IOException e) {
         throw UserCodeException.wrap(e);
       }
       return this;
@@ -46,6 +46,16 @@ public interface DirectOptions extends PipelineOptions, ApplicationNameOptions {
 
   void setEnforceImmutability(boolean test);
 
+  @Default.Double(1.0)
+  @Description(
+      "The fraction of elements, between 0 and 1, that the DirectRunner checks for mutations when"
+          + " enforcing immutability. Checking fewer elements speeds up pipelines with large"
+          + " inputs, at the cost of possibly missing mutations of unchecked elements. Elements"
+          + " encoded by coders of immutable values, such as StringUtf8Coder, are never checked.")
+  double getImmutabilityEnforcementSampleFraction();
+
+  void setImmutabilityEnforcementSampleFraction(double fraction);
+
   @Default.Boolean(true)
   @Description(
       "Controls whether the DirectRunner should ensure that all of the elements of every "
@@ -63,6 +73,28 @@ public interface DirectOptions extends PipelineOptions, ApplicationNameOptions {
 
   void setTargetParallelism(int target);
 
+  /** The kinds of thread pools the DirectRunner can evaluate bundles on. */
+  enum ExecutorType {
+    /** A thread pool of {@link #getTargetParallelism()} threads sharing a single work queue. */
+    FIXED_THREAD_POOL,
+    /**
+     * A work-stealing {@link java.util.concurrent.ForkJoinPool} of {@link #getTargetParallelism()}
+     * threads. Root transforms are split into more bundles than there are threads, so idle threads
+     * can pick up work queued by busy ones.
+     */
+    WORK_STEALING
+  }
+
+  @Default.Enum("FIXED_THREAD_POOL")
+  @Description(
+      "Controls the kind of thread pool the DirectRunner evaluates bundles on. FIXED_THREAD_POOL"
+          + " uses a single shared work queue. WORK_STEALING uses a work-stealing pool and splits"
+          + " the input of root transforms more finely, which keeps all threads busy on large"
+          + " inputs.")
+  ExecutorType getExecutorType();
+
+  void setExecutorType(ExecutorType executorType);
+
   /**
    * A {@link DefaultValueFactory} that returns the result of {@link Runtime#availableProcessors()}
    * from the {@link #create(PipelineOptions)} method. Uses {@link Runtime#getRuntime()} to obtain
@@ -108,25 +108,29 @@ public class DirectRunner extends PipelineRunner<DirectPipelineResult> {
       return Collections.unmodifiableSet(enabled);
     }
 
-    static BundleFactory bundleFactoryFor(Set<Enforcement> enforcements, DirectGraph graph) {
+    static BundleFactory bundleFactoryFor(
+        Set<Enforcement> enforcements, DirectGraph graph, double immutabilitySampleFraction) {
       BundleFactory bundleFactory =
           enforcements.contains(Enforcement.ENCODABILITY)
               ? CloningBundleFactory.create()
               : ImmutableListBundleFactory.create();
       if (enforcements.contains(Enforcement.IMMUTABILITY)) {
-        bundleFactory = ImmutabilityCheckingBundleFactory.create(bundleFactory, graph);
+        bundleFactory =
+            ImmutabilityCheckingBundleFactory.create(
+                bundleFactory, graph, immutabilitySampleFraction);
       }
       return bundleFactory;
     }
 
     private static Map<String, Collection<ModelEnforcementFactory>> defaultModelEnforcements(
-        Set<Enforcement> enabledEnforcements) {
+        Set<Enforcement> enabledEnforcements, double immutabilitySampleFraction) {
       ImmutableMap.Builder<String, Collection<ModelEnforcementFactory>> enforcements =
           ImmutableMap.builder();
       ImmutableList.Builder<ModelEnforcementFactory> enabledParDoEnforcements =
           ImmutableList.builder();
       if (enabledEnforcements.contains(Enforcement.IMMUTABILITY)) {
-        enabledParDoEnforcements.add(ImmutabilityEnforcementFactory.create());
+        enabledParDoEnforcements.add(
+            ImmutabilityEnforcementFactory.create(immutabilitySampleFraction));
       }
       Collection<ModelEnforcementFactory> parDoEnforcements = enabledParDoEnforcements.build();
       enforcements.put(PTransformTranslation.PAR_DO_TRANSFORM_URN, parDoEnforcements);
@@ -196,7 +200,8 @@ public class DirectRunner extends PipelineRunner<DirectPipelineResult> {
       EvaluationContext context =
           EvaluationContext.create(
               clockSupplier.get(),
-              Enforcement.bundleFactoryFor(enabledEnforcements, graph),
+              Enforcement.bundleFactoryFor(
+                  enabledEnforcements, graph, options.getImmutabilityEnforcementSampleFraction()),
               graph,
               keyedPValueVisitor.getKeyedPValues(),
               metricsPool);
@@ -206,8 +211,10 @@ public class DirectRunner extends PipelineRunner<DirectPipelineResult> {
       PipelineExecutor executor =
           ExecutorServiceParallelExecutor.create(
               options.getTargetParallelism(),
+              options.getExecutorType(),
               registry,
-              Enforcement.defaultModelEnforcements(enabledEnforcements),
+              Enforcement.defaultModelEnforcements(
+                  enabledEnforcements, options.getImmutabilityEnforcementSampleFraction()),
               context,
               metricsPool);
       executor.start(graph, RootProviderRegistry.javaNativeRegistry(context, options));
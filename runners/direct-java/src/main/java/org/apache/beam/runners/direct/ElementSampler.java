@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.direct;
+
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Deterministically selects a fraction of the elements it is offered, spread evenly over the
+ * sequence of elements and starting with the first one. Not thread safe.
+ */
+class ElementSampler {
+  /** Checks that the provided sample fraction is between 0 and 1 and returns it. */
+  public static double checkFraction(double fraction) {
+    checkArgument(
+        fraction >= 0 && fraction <= 1,
+        "Sample fraction must be between 0 and 1, was %s",
+        fraction);
+    return fraction;
+  }
+
+  /** Creates a sampler that selects the provided fraction of elements. */
+  public static ElementSampler of(double fraction) {
+    return new ElementSampler(checkFraction(fraction));
+  }
+
+  private final double fraction;
+  private long offered = 0;
+
+  private ElementSampler(double fraction) {
+    this.fraction = fraction;
+  }
+
+  /** Returns whether the next element is part of the sample. */
+  public boolean sampleNext() {
+    if (fraction >= 1) {
+      return true;
+    }
+    long index = offered++;
+    // Select an element whenever the expected number of selected elements crosses an integer.
+    return Math.ceil((index + 1) * fraction) > Math.ceil(index * fraction);
+  }
+}
@@ -19,19 +19,25 @@ package org.apache.beam.runners.direct;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import org.apache.beam.model.pipeline.v1.RunnerApi.StandardResourceHints;
 import org.apache.beam.runners.core.metrics.MetricsContainerImpl;
+import org.apache.beam.runners.direct.DirectOptions.ExecutorType;
 import org.apache.beam.runners.local.ExecutionDriver;
 import org.apache.beam.runners.local.ExecutionDriver.DriverState;
 import org.apache.beam.runners.local.PipelineMessageReceiver;
@@ -39,7 +45,9 @@ import org.apache.beam.sdk.Pipeline;
 import org.apache.beam.sdk.PipelineResult.State;
 import org.apache.beam.sdk.metrics.MetricsEnvironment;
 import org.apache.beam.sdk.runners.AppliedPTransform;
+import org.apache.beam.sdk.transforms.resourcehints.ResourceHint;
 import org.apache.beam.sdk.util.UserCodeException;
+import org.apache.beam.sdk.util.construction.BeamUrns;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PValue;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.cache.CacheBuilder;
@@ -68,7 +76,18 @@ final class ExecutorServiceParallelExecutor
         BundleProcessor<PCollection<?>, CommittedBundle<?>, AppliedPTransform<?, ?, ?>> {
   private static final Logger LOG = LoggerFactory.getLogger(ExecutorServiceParallelExecutor.class);
 
+  /**
+   * The number of bundles to split root transforms into per thread when using a {@link
+   * ExecutorType#WORK_STEALING work-stealing} executor, so threads that finish their bundles early
+   * can steal the remaining ones instead of idling.
+   */
+  private static final int WORK_STEALING_SPLITS_PER_THREAD = 4;
+
+  private static final String MAX_ACTIVE_BUNDLES_URN =
+      BeamUrns.getUrn(StandardResourceHints.Enum.MAX_ACTIVE_BUNDLES_PER_WORKER);
+
   private final int targetParallelism;
+  private final ExecutorType executorType;
   private final ExecutorService executorService;
 
   private final TransformEvaluatorRegistry registry;
@@ -77,6 +96,7 @@ final class ExecutorServiceParallelExecutor
 
   private final TransformExecutorFactory executorFactory;
   private final TransformExecutorService parallelExecutorService;
+  private final Map<AppliedPTransform<?, ?, ?>, TransformExecutorService> stepExecutorServices;
   private final LoadingCache<StepAndKey, TransformExecutorService> serialExecutorServices;
 
   private final QueueMessageReceiver visibleUpdates;
@@ -87,31 +107,26 @@ final class ExecutorServiceParallelExecutor
 
   public static ExecutorServiceParallelExecutor create(
       int targetParallelism,
+      ExecutorType executorType,
       TransformEvaluatorRegistry registry,
       Map<String, Collection<ModelEnforcementFactory>> transformEnforcements,
       EvaluationContext context,
       ExecutorService metricsExecutor) {
     return new ExecutorServiceParallelExecutor(
-        targetParallelism, registry, transformEnforcements, context, metricsExecutor);
+        targetParallelism, executorType, registry, transformEnforcements, context, metricsExecutor);
   }
 
   private ExecutorServiceParallelExecutor(
       int targetParallelism,
+      ExecutorType executorType,
       TransformEvaluatorRegistry registry,
       Map<String, Collection<ModelEnforcementFactory>> transformEnforcements,
       EvaluationContext context,
       ExecutorService metricsExecutor) {
     this.targetParallelism = targetParallelism;
+    this.executorType = executorType;
     this.metricsExecutor = metricsExecutor;
-    // Don't use Daemon threads for workers. The Pipeline should continue to execute even if there
-    // are no other active threads (for example, because waitUntilFinish was not called)
-    this.executorService =
-        Executors.newFixedThreadPool(
-            targetParallelism,
-            new ThreadFactoryBuilder()
-                .setThreadFactory(MoreExecutors.platformThreadFactory())
-                .setNameFormat("direct-runner-worker")
-                .build());
+    this.executorService = createExecutorService(targetParallelism, executorType);
     this.registry = registry;
     this.evaluationContext = context;
 
@@ -127,19 +142,72 @@ final class ExecutorServiceParallelExecutor
     this.visibleUpdates = new QueueMessageReceiver();
 
     parallelExecutorService = TransformExecutorServices.parallel(executorService);
+    stepExecutorServices = new ConcurrentHashMap<>();
     executorFactory = new DirectTransformExecutor.Factory(context, registry, transformEnforcements);
   }
 
+  private static ExecutorService createExecutorService(
+      int targetParallelism, ExecutorType executorType) {
+    // Don't use Daemon threads for workers. The Pipeline should continue to execute even if there
+    // are no other active threads (for example, because waitUntilFinish was not called)
+    switch (executorType) {
+      case FIXED_THREAD_POOL:
+        return Executors.newFixedThreadPool(
+            targetParallelism,
+            new ThreadFactoryBuilder()
+                .setThreadFactory(MoreExecutors.platformThreadFactory())
+                .setNameFormat("direct-runner-worker")
+                .build());
+      case WORK_STEALING:
+        // Bundles are independent of each other, so process them in FIFO order (asyncMode) rather
+        // than the LIFO order suited to recursively forked tasks.
+        return new ForkJoinPool(
+            targetParallelism,
+            pool -> {
+              ForkJoinWorkerThread thread =
+                  ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+              thread.setDaemon(false);
+              thread.setName("direct-runner-worker");
+              return thread;
+            },
+            null,
+            true);
+      default:
+        throw new IllegalArgumentException(
+            String.format("Unknown %s %s", ExecutorType.class.getSimpleName(), executorType));
+    }
+  }
+
   private CacheLoader<StepAndKey, TransformExecutorService>
       serialTransformExecutorServiceCacheLoader() {
     return new CacheLoader<StepAndKey, TransformExecutorService>() {
       @Override
       public TransformExecutorService load(StepAndKey stepAndKey) throws Exception {
-        return TransformExecutorServices.serial(executorService);
+        return TransformExecutorServices.serial(getStepExecutorService(stepAndKey.getStep()));
       }
     };
   }
 
+  /**
+   * Returns the {@link TransformExecutorService} that all bundles of the step are ultimately
+   * scheduled on. Steps with a {@code max_active_bundles_per_worker} resource hint evaluate at most
+   * that many bundles at a time, all other steps use the shared parallel executor service.
+   */
+  private TransformExecutorService getStepExecutorService(AppliedPTransform<?, ?, ?> step) {
+    return stepExecutorServices.computeIfAbsent(
+        step,
+        transform -> {
+          ResourceHint maxActiveBundles =
+              transform.getResourceHints().hints().get(MAX_ACTIVE_BUNDLES_URN);
+          if (maxActiveBundles == null) {
+            return parallelExecutorService;
+          }
+          int maxActive =
+              Integer.parseInt(new String(maxActiveBundles.toBytes(), StandardCharsets.US_ASCII));
+          return TransformExecutorServices.bounded(executorService, maxActive);
+        });
+  }
+
   private RemovalListener<StepAndKey, TransformExecutorService> shutdownExecutorServiceListener() {
     return notification -> {
       TransformExecutorService service = notification.getValue();
@@ -155,6 +223,9 @@ final class ExecutorServiceParallelExecutor
   @SuppressWarnings("FutureReturnValueIgnored")
   public void start(DirectGraph graph, RootProviderRegistry rootProviderRegistry) {
     int numTargetSplits = Math.max(3, targetParallelism);
+    if (executorType == ExecutorType.WORK_STEALING) {
+      numTargetSplits *= WORK_STEALING_SPLITS_PER_THREAD;
+    }
     ImmutableMap.Builder<AppliedPTransform<?, ?, ?>, Queue<CommittedBundle<?>>> pendingRootBundles =
         ImmutableMap.builder();
     for (AppliedPTransform<?, ?, ?> root : graph.getRootTransforms()) {
@@ -233,7 +304,7 @@ final class ExecutorServiceParallelExecutor
       // ExecutorService before the Earlier DirectTransformExecutor callable completes.
       transformExecutor = serialExecutorServices.getUnchecked(stepAndKey);
     } else {
-      transformExecutor = parallelExecutorService;
+      transformExecutor = getStepExecutorService(transform);
     }
 
     TransformExecutor callable =
@@ -328,6 +399,11 @@ final class ExecutorServiceParallelExecutor
     } catch (final RuntimeException re) {
       errors.add(re);
     }
+    try {
+      stepExecutorServices.values().forEach(TransformExecutorService::shutdown);
+    } catch (final RuntimeException re) {
+      errors.add(re);
+    }
     try {
       parallelExecutorService.shutdown();
     } catch (final RuntimeException re) {
@@ -37,8 +37,11 @@ import org.joda.time.Instant;
  * A {@link BundleFactory} that ensures that elements added to it are not mutated after being
  * output. Immutability checks are enforced at the time {@link UncommittedBundle#commit(Instant)} is
  * called, checking the value at that time against the value at the time the element was added. All
- * elements added to the bundle will be encoded by the {@link Coder} of the underlying {@link
- * PCollection}.
+ * checked elements will be encoded by the {@link Coder} of the underlying {@link PCollection}.
+ *
+ * <p>Only the configured fraction of the elements of each bundle is checked, and elements of a
+ * {@link PCollection} whose coder only produces immutable values (see {@link ImmutableCoders}) are
+ * never checked.
  *
  * <p>This catches errors during the execution of a {@link DoFn} caused by modifying an element
  * after it is added to an output {@link PCollection}.
@@ -53,15 +56,29 @@ class ImmutabilityCheckingBundleFactory implements BundleFactory {
    */
   public static ImmutabilityCheckingBundleFactory create(
       BundleFactory underlying, DirectGraph graph) {
-    return new ImmutabilityCheckingBundleFactory(underlying, graph);
+    return create(underlying, graph, 1.0);
+  }
+
+  /**
+   * Create a new {@link ImmutabilityCheckingBundleFactory} that uses the underlying {@link
+   * BundleFactory} to create the output bundle, and checks the provided fraction of the elements
+   * added to each bundle.
+   */
+  public static ImmutabilityCheckingBundleFactory create(
+      BundleFactory underlying, DirectGraph graph, double sampleFraction) {
+    return new ImmutabilityCheckingBundleFactory(
+        underlying, graph, ElementSampler.checkFraction(sampleFraction));
   }
 
   private final BundleFactory underlying;
   private final DirectGraph graph;
+  private final double sampleFraction;
 
-  private ImmutabilityCheckingBundleFactory(BundleFactory underlying, DirectGraph graph) {
+  private ImmutabilityCheckingBundleFactory(
+      BundleFactory underlying, DirectGraph graph, double sampleFraction) {
     this.underlying = checkNotNull(underlying);
     this.graph = graph;
+    this.sampleFraction = sampleFraction;
   }
 
   /**
@@ -77,7 +94,7 @@ class ImmutabilityCheckingBundleFactory implements BundleFactory {
 
   @Override
   public <T> UncommittedBundle<T> createBundle(PCollection<T> output) {
-    if (Enforcement.IMMUTABILITY.appliesTo(output, graph)) {
+    if (shouldEnforce(output)) {
       return new ImmutabilityEnforcingBundle<>(underlying.createBundle(output));
     }
     return underlying.createBundle(output);
@@ -86,21 +103,29 @@ class ImmutabilityCheckingBundleFactory implements BundleFactory {
   @Override
   public <K, T> UncommittedBundle<T> createKeyedBundle(
       StructuralKey<K> key, PCollection<T> output) {
-    if (Enforcement.IMMUTABILITY.appliesTo(output, graph)) {
+    if (shouldEnforce(output)) {
       return new ImmutabilityEnforcingBundle<>(underlying.createKeyedBundle(key, output));
     }
     return underlying.createKeyedBundle(key, output);
   }
 
+  private boolean shouldEnforce(PCollection<?> output) {
+    return sampleFraction > 0
+        && !ImmutableCoders.isImmutable(output.getCoder())
+        && Enforcement.IMMUTABILITY.appliesTo(output, graph);
+  }
+
   private class ImmutabilityEnforcingBundle<T> implements UncommittedBundle<T> {
     private final UncommittedBundle<T> underlying;
     private final SetMultimap<WindowedValue<T>, MutationDetector> mutationDetectors;
     private Coder<T> coder;
+    private final ElementSampler sampler;
 
     public ImmutabilityEnforcingBundle(UncommittedBundle<T> underlying) {
       this.underlying = underlying;
       mutationDetectors = HashMultimap.create();
       coder = getPCollection().getCoder();
+      sampler = ElementSampler.of(sampleFraction);
     }
 
     @Override
@@ -110,11 +135,13 @@ class ImmutabilityCheckingBundleFactory implements BundleFactory {
 
     @Override
     public UncommittedBundle<T> add(WindowedValue<T> element) {
-      try {
-        mutationDetectors.put(
-            element, MutationDetectors.forValueWithCoder(element.getValue(), coder));
-      } catch (CoderException e) {
-        throw new RuntimeException(e);
+      if (sampler.sampleNext()) {
+        try {
+          mutationDetectors.put(
+              element, MutationDetectors.forValueWithCoder(element.getValue(), coder));
+        } catch (CoderException e) {
+          throw new RuntimeException(e);
+        }
       }
       underlying.add(element);
       return this;
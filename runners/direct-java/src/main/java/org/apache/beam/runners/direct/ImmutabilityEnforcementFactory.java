@@ -34,6 +34,10 @@ import org.apache.beam.sdk.values.WindowedValue;
 /**
  * {@link ModelEnforcement} that enforces elements are not modified over the course of processing an
  * element.
+ *
+ * <p>Only the configured fraction of the elements of each bundle is checked, and elements of a
+ * {@link org.apache.beam.sdk.values.PCollection} whose coder only produces immutable values (see
+ * {@link ImmutableCoders}) are never checked.
  */
 @SuppressWarnings({
   "rawtypes", // TODO(https://github.com/apache/beam/issues/20447)
@@ -41,16 +45,30 @@ import org.apache.beam.sdk.values.WindowedValue;
 })
 class ImmutabilityEnforcementFactory implements ModelEnforcementFactory {
   public static ModelEnforcementFactory create() {
-    return new ImmutabilityEnforcementFactory();
+    return create(1.0);
+  }
+
+  /** Creates a factory that checks the provided fraction of the elements of each bundle. */
+  public static ModelEnforcementFactory create(double sampleFraction) {
+    return new ImmutabilityEnforcementFactory(ElementSampler.checkFraction(sampleFraction));
+  }
+
+  private final double sampleFraction;
+
+  private ImmutabilityEnforcementFactory(double sampleFraction) {
+    this.sampleFraction = sampleFraction;
   }
 
   @Override
   public <T> ModelEnforcement<T> forBundle(
       CommittedBundle<T> input, AppliedPTransform<?, ?, ?> consumer) {
-    if (isReadTransform(consumer)) {
-      return NoopReadEnforcement.INSTANCE;
+    if (sampleFraction == 0
+        || ImmutableCoders.isImmutable(input.getPCollection().getCoder())
+        || isReadTransform(consumer)) {
+      return NoopEnforcement.INSTANCE;
     }
-    return new ImmutabilityCheckingEnforcement<>(input, consumer);
+    return new ImmutabilityCheckingEnforcement<>(
+        input, consumer, ElementSampler.of(sampleFraction));
   }
 
   static boolean isReadTransform(AppliedPTransform<?, ?, ?> consumer) {
@@ -100,24 +118,29 @@ class ImmutabilityEnforcementFactory implements ModelEnforcementFactory {
     }
   }
 
-  private static class NoopReadEnforcement<T> extends AbstractModelEnforcement<T> {
-    private static final NoopReadEnforcement INSTANCE = new NoopReadEnforcement<>();
+  private static class NoopEnforcement<T> extends AbstractModelEnforcement<T> {
+    private static final NoopEnforcement INSTANCE = new NoopEnforcement<>();
   }
 
   private static class ImmutabilityCheckingEnforcement<T> extends AbstractModelEnforcement<T> {
     private final AppliedPTransform<?, ?, ?> transform;
     private final IdentityHashMap<WindowedValue<T>, MutationDetector> mutationElements;
     private final Coder<T> coder;
+    private final ElementSampler sampler;
 
     private ImmutabilityCheckingEnforcement(
-        CommittedBundle<T> input, AppliedPTransform<?, ?, ?> transform) {
+        CommittedBundle<T> input, AppliedPTransform<?, ?, ?> transform, ElementSampler sampler) {
       this.transform = transform;
       coder = input.getPCollection().getCoder();
       mutationElements = new IdentityHashMap<>();
+      this.sampler = sampler;
     }
 
     @Override
     public void beforeElement(WindowedValue<T> element) {
+      if (!sampler.sampleNext()) {
+        return;
+      }
       try {
         mutationElements.put(
             element, MutationDetectors.forValueWithCoder(element.getValue(), coder));
@@ -128,7 +151,10 @@ class ImmutabilityEnforcementFactory implements ModelEnforcementFactory {
 
     @Override
     public void afterElement(WindowedValue<T> element) {
-      verifyUnmodified(mutationElements.get(element));
+      MutationDetector detector = mutationElements.get(element);
+      if (detector != null) {
+        verifyUnmodified(detector);
+      }
     }
 
     @Override
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.direct;
+
+import java.util.Set;
+import org.apache.beam.sdk.coders.BigDecimalCoder;
+import org.apache.beam.sdk.coders.BigEndianIntegerCoder;
+import org.apache.beam.sdk.coders.BigEndianLongCoder;
+import org.apache.beam.sdk.coders.BigEndianShortCoder;
+import org.apache.beam.sdk.coders.BigIntegerCoder;
+import org.apache.beam.sdk.coders.BooleanCoder;
+import org.apache.beam.sdk.coders.ByteCoder;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.DoubleCoder;
+import org.apache.beam.sdk.coders.DurationCoder;
+import org.apache.beam.sdk.coders.FloatCoder;
+import org.apache.beam.sdk.coders.InstantCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.LengthPrefixCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.OptionalCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.TextualIntegerCoder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.coders.VarLongCoder;
+import org.apache.beam.sdk.coders.VoidCoder;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableSet;
+
+/**
+ * Utilities for identifying {@link Coder Coders} whose values are immutable. Values of such coders
+ * cannot be mutated after being output, so the {@link DirectRunner} neither needs to clone them nor
+ * to check them for mutations.
+ *
+ * <p>Only the exact classes of the known coders are recognized, as a subclass may decode to a
+ * mutable type. Notably, {@code byte[]} values and {@link org.apache.beam.sdk.values.Row Rows},
+ * which may contain collections, are not immutable.
+ */
+final class ImmutableCoders {
+  private ImmutableCoders() {
+    // Do not instantiate
+  }
+
+  /** Coders of immutable values that have no component coders. */
+  private static final Set<Class<?>> IMMUTABLE_ATOMIC_CODERS =
+      ImmutableSet.of(
+          BigDecimalCoder.class,
+          BigEndianIntegerCoder.class,
+          BigEndianLongCoder.class,
+          BigEndianShortCoder.class,
+          BigIntegerCoder.class,
+          BooleanCoder.class,
+          ByteCoder.class,
+          DoubleCoder.class,
+          DurationCoder.class,
+          FloatCoder.class,
+          InstantCoder.class,
+          StringUtf8Coder.class,
+          TextualIntegerCoder.class,
+          VarIntCoder.class,
+          VarLongCoder.class,
+          VoidCoder.class);
+
+  /** Returns true if every value decoded by the provided {@link Coder} is immutable. */
+  public static boolean isImmutable(Coder<?> coder) {
+    Class<?> coderClass = coder.getClass();
+    if (IMMUTABLE_ATOMIC_CODERS.contains(coderClass)) {
+      return true;
+    } else if (coderClass == KvCoder.class) {
+      KvCoder<?, ?> kvCoder = (KvCoder<?, ?>) coder;
+      return isImmutable(kvCoder.getKeyCoder()) && isImmutable(kvCoder.getValueCoder());
+    } else if (coderClass == NullableCoder.class) {
+      return isImmutable(((NullableCoder<?>) coder).getValueCoder());
+    } else if (coderClass == OptionalCoder.class) {
+      return isImmutable(((OptionalCoder<?>) coder).getValueCoder());
+    } else if (coderClass == LengthPrefixCoder.class) {
+      return isImmutable(((LengthPrefixCoder<?>) coder).getValueCoder());
+    }
+    return false;
+  }
+}
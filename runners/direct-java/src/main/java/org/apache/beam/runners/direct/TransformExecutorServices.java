@@ -17,6 +17,8 @@
  */
 package org.apache.beam.runners.direct;
 
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
@@ -49,7 +51,25 @@ final class TransformExecutorServices {
    * serial.
    */
   public static TransformExecutorService serial(ExecutorService executor) {
-    return new SerialTransformExecutor(executor);
+    return serial(parallel(executor));
+  }
+
+  /**
+   * Returns an EvaluationState that evaluates {@link TransformExecutor TransformExecutors} in
+   * serial, handing each of them to the provided {@link TransformExecutorService} once the previous
+   * one has completed.
+   */
+  public static TransformExecutorService serial(TransformExecutorService downstream) {
+    return new SerialTransformExecutor(downstream);
+  }
+
+  /**
+   * Returns an EvaluationState that evaluates at most {@code maxActive} {@link TransformExecutor
+   * TransformExecutors} in parallel.
+   */
+  public static TransformExecutorService bounded(ExecutorService executor, int maxActive) {
+    checkArgument(maxActive > 0, "maxActive must be positive, was %s", maxActive);
+    return new BoundedTransformExecutor(parallel(executor), maxActive);
   }
 
   /**
@@ -104,23 +124,99 @@ final class TransformExecutorServices {
     }
   }
 
+  /**
+   * A {@link TransformExecutorService} with limited parallelism. Any {@link TransformExecutor}
+   * scheduled will be placed on the work queue, which is drained into the downstream {@link
+   * TransformExecutorService} while fewer than {@code maxActive} items of work are executing.
+   *
+   * <p>A principal use of this is for the evaluation of a Step that limits its number of active
+   * bundles via a resource hint.
+   */
+  private static class BoundedTransformExecutor implements TransformExecutorService {
+    private final TransformExecutorService downstream;
+    private final int maxActive;
+
+    private final Queue<TransformExecutor> workQueue;
+    private int active = 0;
+    private boolean shutdown = false;
+
+    private BoundedTransformExecutor(TransformExecutorService downstream, int maxActive) {
+      this.downstream = downstream;
+      this.maxActive = maxActive;
+      this.workQueue = new ConcurrentLinkedQueue<>();
+    }
+
+    @Override
+    public void schedule(TransformExecutor work) {
+      workQueue.offer(work);
+      scheduleQueued();
+    }
+
+    @Override
+    public void complete(TransformExecutor completed) {
+      synchronized (this) {
+        active--;
+      }
+      downstream.complete(completed);
+      scheduleQueued();
+    }
+
+    @Override
+    public void shutdown() {
+      synchronized (this) {
+        shutdown = true;
+      }
+      workQueue.clear();
+      // The downstream service is owned by this one. Shutting it down makes it drop work which was
+      // dequeued before the shutdown and is rejected by the executor.
+      downstream.shutdown();
+    }
+
+    private void scheduleQueued() {
+      while (true) {
+        TransformExecutor work;
+        synchronized (this) {
+          if (shutdown || active >= maxActive) {
+            return;
+          }
+          work = workQueue.poll();
+          if (work == null) {
+            return;
+          }
+          active++;
+        }
+        // Don't hold the lock while scheduling, as the downstream service may execute the work
+        // inline.
+        downstream.schedule(work);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(BoundedTransformExecutor.class)
+          .add("maxActive", maxActive)
+          .add("workQueue", workQueue)
+          .toString();
+    }
+  }
+
   /**
    * A {@link TransformExecutorService} with a single work queue. Any {@link TransformExecutor}
-   * scheduled will be placed on the work queue. Only one item of work will be submitted to the
-   * {@link ExecutorService} at any time.
+   * scheduled will be placed on the work queue. Only one item of work will be handed to the
+   * downstream {@link TransformExecutorService} at any time.
    *
    * <p>A principal use of this is for the serial evaluation of a (Step, Key) pair. Keyed
    * computations are processed serially per step.
    */
   private static class SerialTransformExecutor implements TransformExecutorService {
-    private final ExecutorService executor;
+    private final TransformExecutorService downstream;
 
     private AtomicReference<TransformExecutor> currentlyEvaluating;
     private final Queue<TransformExecutor> workQueue;
     private boolean active = true;
 
-    private SerialTransformExecutor(ExecutorService executor) {
-      this.executor = executor;
+    private SerialTransformExecutor(TransformExecutorService downstream) {
+      this.downstream = downstream;
       this.currentlyEvaluating = new AtomicReference<>();
       this.workQueue = new ConcurrentLinkedQueue<>();
     }
@@ -144,6 +240,7 @@ final class TransformExecutorServices {
                 + " but could not complete due to unexpected currently executing "
                 + currentlyEvaluating.get());
       }
+      downstream.complete(completed);
       updateCurrentlyEvaluating();
     }
 
@@ -155,9 +252,6 @@ final class TransformExecutorServices {
       workQueue.clear();
     }
 
-    // TODO: [https://github.com/apache/beam/issues/18968] Pass Future back to consumer to check for
-    // async errors
-    @SuppressWarnings("FutureReturnValueIgnored")
     private void updateCurrentlyEvaluating() {
       if (currentlyEvaluating.get() == null) {
         // Only synchronize if we need to update what's currently evaluating
@@ -165,7 +259,7 @@ final class TransformExecutorServices {
           TransformExecutor newWork = workQueue.poll();
           if (active && newWork != null) {
             if (currentlyEvaluating.compareAndSet(null, newWork)) {
-              executor.submit(newWork);
+              downstream.schedule(newWork);
             } else {
               workQueue.offer(newWork);
             }
@@ -28,10 +28,13 @@ import static org.hamcrest.Matchers.theInstance;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
 import org.apache.beam.runners.local.StructuralKey;
 import org.apache.beam.sdk.coders.AtomicCoder;
 import org.apache.beam.sdk.coders.CoderException;
 import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.ListCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.coders.VarIntCoder;
 import org.apache.beam.sdk.testing.TestPipeline;
@@ -72,6 +75,23 @@ public class CloningBundleFactoryTest {
 
   @Test
   public void bundleWorkingCoderSucceedsClonesOutput() {
+    PCollection<List<Integer>> lists = p.apply(Create.empty(ListCoder.of(VarIntCoder.of())));
+    WindowedValue<List<Integer>> one = WindowedValues.valueInGlobalWindow(Arrays.asList(1));
+    WindowedValue<List<Integer>> three = WindowedValues.valueInGlobalWindow(Arrays.asList(3, 3));
+    CommittedBundle<List<Integer>> bundle =
+        factory.createBundle(lists).add(one).add(three).commit(Instant.now());
+
+    assertThat(bundle.getElements(), containsInAnyOrder(one, three));
+    assertThat(bundle.getElements(), not(containsInAnyOrder(theInstance(one), theInstance(three))));
+    for (WindowedValue<List<Integer>> list : bundle.getElements()) {
+      assertThat(
+          list.getValue(), not(anyOf(theInstance(one.getValue()), theInstance(three.getValue()))));
+    }
+    assertThat(bundle.getPCollection(), equalTo(lists));
+  }
+
+  @Test
+  public void bundleImmutableCoderSucceedsDoesNotCloneOutput() {
     PCollection<Integer> created = p.apply(Create.of(1, 3).withCoder(VarIntCoder.of()));
     PCollection<KV<String, Integer>> kvs =
         created
@@ -83,17 +103,21 @@ public class CloningBundleFactoryTest {
     CommittedBundle<KV<String, Integer>> bundle =
         factory.createBundle(kvs).add(fooOne).add(fooThree).commit(Instant.now());
 
-    assertThat(bundle.getElements(), containsInAnyOrder(fooOne, fooThree));
     assertThat(
-        bundle.getElements(), not(containsInAnyOrder(theInstance(fooOne), theInstance(fooThree))));
-    for (WindowedValue<KV<String, Integer>> foo : bundle.getElements()) {
-      assertThat(
-          foo.getValue(),
-          not(anyOf(theInstance(fooOne.getValue()), theInstance(fooThree.getValue()))));
-    }
+        bundle.getElements(), containsInAnyOrder(theInstance(fooOne), theInstance(fooThree)));
     assertThat(bundle.getPCollection(), equalTo(kvs));
   }
 
+  @Test
+  public void bundleImmutableCoderEncodeFailsAddFails() {
+    PCollection<String> pc = p.apply(Create.empty(StringUtf8Coder.of()));
+    UncommittedBundle<String> bundle = factory.createBundle(pc);
+
+    thrown.expect(UserCodeException.class);
+    thrown.expectCause(isA(CoderException.class));
+    bundle.add(WindowedValues.valueInGlobalWindow(null));
+  }
+
   @Test
   public void keyedBundleWorkingCoderSucceedsClonesOutput() {
     PCollection<Integer> created = p.apply(Create.of(1, 3).withCoder(VarIntCoder.of()));
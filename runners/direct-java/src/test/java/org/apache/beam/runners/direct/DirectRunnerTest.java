@@ -82,6 +82,7 @@ import org.apache.beam.sdk.transforms.SerializableFunction;
 import org.apache.beam.sdk.transforms.SimpleFunction;
 import org.apache.beam.sdk.transforms.Sum;
 import org.apache.beam.sdk.transforms.display.DisplayData;
+import org.apache.beam.sdk.transforms.resourcehints.ResourceHints;
 import org.apache.beam.sdk.transforms.windowing.AfterWatermark;
 import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.transforms.windowing.GlobalWindows;
@@ -272,6 +273,45 @@ public class DirectRunnerTest implements Serializable {
     p.run();
   }
 
+  @Test
+  public void workStealingExecutorRespectsMaxActiveBundles() {
+    PipelineOptions opts = PipelineOptionsFactory.create();
+    opts.setRunner(DirectRunner.class);
+    opts.as(DirectOptions.class).setExecutorType(DirectOptions.ExecutorType.WORK_STEALING);
+    opts.as(DirectOptions.class).setTargetParallelism(4);
+    Pipeline p = Pipeline.create(opts);
+
+    PCollection<Long> longs =
+        p.apply(Read.from(CountingSource.upTo(1000L)))
+            .apply(
+                ParDo.of(new ActiveBundleTrackingFn())
+                    .setResourceHints(ResourceHints.create().withMaxActiveBundlesPerWorker(1)));
+
+    PAssert.that(longs.apply(Sum.longsGlobally())).containsInAnyOrder(499500L);
+    p.run();
+    assertThat(ActiveBundleTrackingFn.MAX_ACTIVE_BUNDLES.get(), equalTo(1));
+  }
+
+  private static class ActiveBundleTrackingFn extends DoFn<Long, Long> {
+    private static final AtomicInteger ACTIVE_BUNDLES = new AtomicInteger();
+    private static final AtomicInteger MAX_ACTIVE_BUNDLES = new AtomicInteger();
+
+    @StartBundle
+    public void startBundle() {
+      MAX_ACTIVE_BUNDLES.accumulateAndGet(ACTIVE_BUNDLES.incrementAndGet(), Math::max);
+    }
+
+    @ProcessElement
+    public void processElement(@Element Long element, OutputReceiver<Long> receiver) {
+      receiver.output(element);
+    }
+
+    @FinishBundle
+    public void finishBundle() {
+      ACTIVE_BUNDLES.decrementAndGet();
+    }
+  }
+
   @Test
   public void cancelShouldStopPipeline() throws Exception {
     PipelineOptions opts = TestPipeline.testingPipelineOptions();
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.direct;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ElementSampler}. */
+@RunWith(JUnit4.class)
+public class ElementSamplerTest {
+  private static List<Integer> sample(double fraction, int elements) {
+    ElementSampler sampler = ElementSampler.of(fraction);
+    List<Integer> sampled = new ArrayList<>();
+    for (int i = 0; i < elements; i++) {
+      if (sampler.sampleNext()) {
+        sampled.add(i);
+      }
+    }
+    return sampled;
+  }
+
+  @Test
+  public void samplesEvenlyStartingWithFirst() {
+    assertThat(sample(0.25, 10), contains(0, 4, 8));
+    assertThat(sample(1.0, 3), contains(0, 1, 2));
+    assertThat(sample(0.0, 3), empty());
+  }
+
+  @Test
+  public void invalidFractionThrows() {
+    assertThrows(IllegalArgumentException.class, () -> ElementSampler.of(1.5));
+    assertThrows(IllegalArgumentException.class, () -> ElementSampler.of(-0.1));
+  }
+}
@@ -182,6 +182,31 @@ public class ImmutabilityCheckingBundleFactoryTest {
     intermediate.commit(Instant.now());
   }
 
+  @Test
+  public void mutationAfterAddUnsampledElementSucceeds() {
+    DirectGraphVisitor visitor = new DirectGraphVisitor();
+    p.traverseTopologically(visitor);
+    ImmutabilityCheckingBundleFactory sampling =
+        ImmutabilityCheckingBundleFactory.create(
+            ImmutableListBundleFactory.create(), visitor.getGraph(), 0.5);
+    UncommittedBundle<byte[]> intermediate = sampling.createBundle(transformed);
+
+    byte[] first = new byte[] {4, 8, 12};
+    byte[] second = new byte[] {1, 2, 3};
+    intermediate.add(WindowedValues.valueInGlobalWindow(first));
+    intermediate.add(WindowedValues.valueInGlobalWindow(second));
+
+    second[2] = -3;
+    intermediate.commit(Instant.now());
+
+    UncommittedBundle<byte[]> next = sampling.createBundle(transformed);
+    next.add(WindowedValues.valueInGlobalWindow(first));
+    first[2] = -3;
+    thrown.expect(IllegalMutationException.class);
+    thrown.expectMessage("Values must not be mutated in any way after being output");
+    next.commit(Instant.now());
+  }
+
   private static class IdentityDoFn<T> extends DoFn<T, T> {
     @ProcessElement
     public void processElement(ProcessContext c) throws Exception {
@@ -46,14 +46,14 @@ public class ImmutabilityEnforcementFactoryTest implements Serializable {
   public transient TestPipeline p = TestPipeline.create().enableAbandonedNodeEnforcement(false);
 
   @Rule public transient ExpectedException thrown = ExpectedException.none();
-  private transient ImmutabilityEnforcementFactory factory;
+  private transient ModelEnforcementFactory factory;
   private transient BundleFactory bundleFactory;
   private transient PCollection<byte[]> pcollection;
   private transient AppliedPTransform<?, ?, ?> consumer;
 
   @Before
   public void setup() {
-    factory = new ImmutabilityEnforcementFactory();
+    factory = ImmutabilityEnforcementFactory.create();
     bundleFactory = ImmutableListBundleFactory.create();
     pcollection =
         p.apply(Create.of("foo".getBytes(UTF_8), "spamhameggs".getBytes(UTF_8)))
@@ -105,6 +105,46 @@ public class ImmutabilityEnforcementFactoryTest implements Serializable {
         Collections.emptyList());
   }
 
+  @Test
+  public void mutatedUnsampledElementSucceeds() {
+    WindowedValue<byte[]> first = WindowedValues.valueInGlobalWindow("bar".getBytes(UTF_8));
+    WindowedValue<byte[]> second = WindowedValues.valueInGlobalWindow("baz".getBytes(UTF_8));
+    CommittedBundle<byte[]> elements =
+        bundleFactory.createBundle(pcollection).add(first).add(second).commit(Instant.now());
+
+    ModelEnforcement<byte[]> enforcement =
+        ImmutabilityEnforcementFactory.create(0.5).forBundle(elements, consumer);
+    enforcement.beforeElement(first);
+    enforcement.afterElement(first);
+    enforcement.beforeElement(second);
+    second.getValue()[0] = 'f';
+    enforcement.afterElement(second);
+
+    first.getValue()[0] = 'f';
+    thrown.expect(IllegalMutationException.class);
+    thrown.expectMessage("illegaly mutated");
+    enforcement.afterFinish(
+        elements,
+        StepTransformResult.<byte[]>withoutHold(consumer).build(),
+        Collections.emptyList());
+  }
+
+  @Test
+  public void immutableCoderNotChecked() {
+    PCollection<String> strings = p.apply(Create.of("foo"));
+    WindowedValue<String> element = WindowedValues.valueInGlobalWindow("bar");
+    CommittedBundle<String> elements =
+        bundleFactory.createBundle(strings).add(element).commit(Instant.now());
+
+    ModelEnforcement<String> enforcement = factory.forBundle(elements, consumer);
+    enforcement.beforeElement(element);
+    enforcement.afterElement(element);
+    enforcement.afterFinish(
+        elements,
+        StepTransformResult.<String>withoutHold(consumer).build(),
+        Collections.emptyList());
+  }
+
   @Test
   public void mutatedAfterProcessElementFails() {
 
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.runners.direct;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.beam.sdk.coders.ByteArrayCoder;
+import org.apache.beam.sdk.coders.InstantCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.ListCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
+import org.apache.beam.sdk.coders.RowCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarIntCoder;
+import org.apache.beam.sdk.coders.VarLongCoder;
+import org.apache.beam.sdk.schemas.Schema;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link ImmutableCoders}. */
+@RunWith(JUnit4.class)
+public class ImmutableCodersTest {
+  @Test
+  public void atomicCodersOfImmutableValues() {
+    assertTrue(ImmutableCoders.isImmutable(StringUtf8Coder.of()));
+    assertTrue(ImmutableCoders.isImmutable(VarLongCoder.of()));
+    assertTrue(ImmutableCoders.isImmutable(InstantCoder.of()));
+  }
+
+  @Test
+  public void structuredCodersOfImmutableComponents() {
+    assertTrue(
+        ImmutableCoders.isImmutable(
+            KvCoder.of(StringUtf8Coder.of(), NullableCoder.of(VarIntCoder.of()))));
+    assertFalse(ImmutableCoders.isImmutable(KvCoder.of(StringUtf8Coder.of(), ByteArrayCoder.of())));
+  }
+
+  @Test
+  public void codersOfMutableValues() {
+    assertFalse(ImmutableCoders.isImmutable(ByteArrayCoder.of()));
+    assertFalse(ImmutableCoders.isImmutable(ListCoder.of(VarIntCoder.of())));
+    assertFalse(
+        ImmutableCoders.isImmutable(RowCoder.of(Schema.builder().addStringField("f").build())));
+  }
+}
@@ -20,8 +20,11 @@ package org.apache.beam.runners.direct;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.util.concurrent.MoreExecutors;
 import org.junit.Before;
 import org.junit.Rule;
@@ -118,6 +121,91 @@ public class TransformExecutorServicesTest {
     serial.complete(second);
   }
 
+  @Test
+  public void boundedScheduleWaitsForActiveToComplete() {
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> first = mock(DirectTransformExecutor.class);
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> second = mock(DirectTransformExecutor.class);
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> third = mock(DirectTransformExecutor.class);
+
+    TransformExecutorService bounded = TransformExecutorServices.bounded(executorService, 2);
+    bounded.schedule(first);
+    bounded.schedule(second);
+    verify(first).run();
+    verify(second).run();
+
+    bounded.schedule(third);
+    verify(third, never()).run();
+
+    bounded.complete(second);
+    verify(third).run();
+
+    bounded.complete(first);
+    bounded.complete(third);
+  }
+
+  @Test
+  public void serialOnBoundedLimitsAcrossKeys() {
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> first = mock(DirectTransformExecutor.class);
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> second = mock(DirectTransformExecutor.class);
+
+    TransformExecutorService bounded = TransformExecutorServices.bounded(executorService, 1);
+    TransformExecutorService firstKey = TransformExecutorServices.serial(bounded);
+    TransformExecutorService secondKey = TransformExecutorServices.serial(bounded);
+    firstKey.schedule(first);
+    secondKey.schedule(second);
+    verify(first).run();
+    verify(second, never()).run();
+
+    firstKey.complete(first);
+    verify(second).run();
+
+    secondKey.complete(second);
+  }
+
+  @Test
+  public void boundedShutdownCompleteActive() {
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> first = mock(DirectTransformExecutor.class);
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> second = mock(DirectTransformExecutor.class);
+
+    TransformExecutorService bounded = TransformExecutorServices.bounded(executorService, 1);
+    bounded.schedule(first);
+    bounded.schedule(second);
+    verify(first).run();
+
+    bounded.shutdown();
+    bounded.complete(first);
+    verify(second, never()).run();
+  }
+
+  /**
+   * Tests that a Bounded {@link TransformExecutorService} which is shut down while handing work to
+   * its executor drops the work rejected by the executor.
+   */
+  @Test
+  public void boundedRejectedShutdownSucceeds() {
+    @SuppressWarnings("unchecked")
+    DirectTransformExecutor<Object> first = mock(DirectTransformExecutor.class);
+
+    ExecutorService rejectingExecutor = mock(ExecutorService.class);
+    AtomicReference<TransformExecutorService> bounded = new AtomicReference<>();
+    when(rejectingExecutor.submit((Runnable) first))
+        .thenAnswer(
+            invocation -> {
+              // The bounded service is shut down concurrently, after the work was dequeued.
+              bounded.get().shutdown();
+              throw new RejectedExecutionException();
+            });
+    bounded.set(TransformExecutorServices.bounded(rejectingExecutor, 1));
+    bounded.get().schedule(first);
+  }
+
   /**
    * Tests that a Serial {@link TransformExecutorService} does not schedule follow up work if the
    * executor is shut down when the initial work completes.
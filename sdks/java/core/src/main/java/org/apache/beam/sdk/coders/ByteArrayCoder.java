@@ -20,6 +20,7 @@ package org.apache.beam.sdk.coders;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import org.apache.beam.sdk.util.ByteStringInputStream;
 import org.apache.beam.sdk.util.ExposedByteArrayOutputStream;
 import org.apache.beam.sdk.util.StreamUtils;
 import org.apache.beam.sdk.util.VarInt;
@@ -104,6 +105,9 @@ public class ByteArrayCoder extends AtomicCoder<byte[]> {
       if (length < 0) {
         throw new IOException("invalid length " + length);
       }
+      if (inStream instanceof ByteStringInputStream) {
+        return ((ByteStringInputStream) inStream).readBytes(length).toByteArray();
+      }
       byte[] value = new byte[length];
       ByteStreams.readFully(inStream, value);
       return value;
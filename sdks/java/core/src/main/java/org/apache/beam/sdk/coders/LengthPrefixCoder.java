@@ -24,9 +24,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.List;
+import org.apache.beam.sdk.util.ByteStringInputStream;
 import org.apache.beam.sdk.util.VarInt;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableList;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.io.ByteStreams;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.primitives.Ints;
 
 /**
  * A {@link Coder} which is able to take any existing coder and wrap it such that it is only invoked
@@ -61,6 +63,13 @@ public class LengthPrefixCoder<T> extends StructuredCoder<T> {
   @Override
   public T decode(InputStream inStream) throws CoderException, IOException {
     long size = VarInt.decodeLong(inStream);
+    if (inStream instanceof ByteStringInputStream) {
+      // Keep exposing the underlying bytes to the value coder.
+      return valueCoder.decode(
+          new ByteStringInputStream(
+              ((ByteStringInputStream) inStream).readBytes(Ints.checkedCast(size))),
+          Context.OUTER);
+    }
     return valueCoder.decode(ByteStreams.limit(inStream, size), Context.OUTER);
   }
 
@@ -20,14 +20,21 @@ package org.apache.beam.sdk.coders;
 import static org.apache.beam.sdk.util.ByteBuddyUtils.getClassLoadingStrategy;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UTFDataFormatException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -53,13 +60,16 @@ import net.bytebuddy.matcher.ElementMatchers;
 import org.apache.beam.sdk.schemas.Schema;
 import org.apache.beam.sdk.schemas.Schema.Field;
 import org.apache.beam.sdk.schemas.Schema.FieldType;
+import org.apache.beam.sdk.schemas.Schema.TypeName;
 import org.apache.beam.sdk.schemas.SchemaCoder;
 import org.apache.beam.sdk.util.StringUtils;
+import org.apache.beam.sdk.util.VarInt;
 import org.apache.beam.sdk.util.common.ReflectHelpers;
 import org.apache.beam.sdk.values.Row;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.annotations.VisibleForTesting;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Maps;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.io.ByteStreams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -105,11 +115,9 @@ import org.slf4j.LoggerFactory;
 })
 public abstract class RowCoderGenerator {
   private static final ByteBuddy BYTE_BUDDY = new ByteBuddy();
-  private static final BitSetCoder NULL_LIST_CODER = BitSetCoder.of();
   private static final VarIntCoder VAR_INT_CODER = VarIntCoder.of();
-  // BitSet.get(n) will return false for any n >= nbits, so a BitSet with 0 bits will return false
-  // for all calls to get.
-  private static final BitSet EMPTY_BIT_SET = new BitSet(0);
+  // A null bitmap without any bytes has no null fields.
+  private static final byte[] EMPTY_NULL_FIELDS = new byte[0];
 
   private static final String CODERS_FIELD_NAME = "FIELD_CODERS";
   private static final String POSITIONS_FIELD_NAME = "FIELD_ENCODING_POSITIONS";
@@ -236,8 +244,7 @@ public abstract class RowCoderGenerator {
         int rowIndex = encodingPosToRowIndex[i];
         // We use withNullable(false) as nulls are handled by the RowCoder and the individual
         // component coders therefore do not need to handle nulls.
-        componentCoders[i] =
-            SchemaCoder.coderForFieldType(schema.getField(rowIndex).getType().withNullable(false));
+        componentCoders[i] = fieldCoder(schema.getField(rowIndex).getType().withNullable(false));
       }
 
       builder =
@@ -278,6 +285,20 @@ public abstract class RowCoderGenerator {
     }
   }
 
+  // Returns the coder for a non-nullable field. ARRAY and ITERABLE fields of primitive elements are
+  // encoded without dispatching to an element coder for every element.
+  private static Coder fieldCoder(FieldType fieldType) {
+    Coder coder = SchemaCoder.coderForFieldType(fieldType);
+    if (fieldType.getTypeName().isCollectionType()) {
+      FieldType elementType = fieldType.getCollectionElementType();
+      if (!elementType.getNullable()
+          && PrimitiveIterableCoder.ELEMENT_TYPES.contains(elementType.getTypeName())) {
+        return new PrimitiveIterableCoder(elementType.getTypeName(), coder);
+      }
+    }
+    return coder;
+  }
+
   private static class GeneratedCoderConstructor implements Implementation {
     @Override
     public InstrumentedType prepare(InstrumentedType instrumentedType) {
@@ -408,29 +429,42 @@ public abstract class RowCoderGenerator {
       checkState(encodingPosToIndex.length == value.getFieldCount());
 
       // Encode the field count. This allows us to handle compatible schema changes.
-      VAR_INT_CODER.encode(value.getFieldCount(), outputStream);
+      VarInt.encode(value.getFieldCount(), outputStream);
 
       if (hasNullableFields) {
-        // If the row has null fields, extract the values out once so that both scanNullFields and
-        // the encoding can share it and avoid having to extract them twice.
-
-        Object[] fieldValues = new Object[value.getFieldCount()];
-        for (int idx = 0; idx < fieldValues.length; ++idx) {
-          fieldValues[idx] = value.getValue(idx);
+        // If the row has nullable fields, extract the values out once and build the null bitmap in
+        // the same pass, so that the encoding below doesn't have to extract them twice.
+        Object[] fieldValues = new Object[encodingPosToIndex.length];
+        byte[] nullFields = null;
+        int nullFieldsLength = 0;
+        for (int encodingPos = 0; encodingPos < fieldValues.length; ++encodingPos) {
+          @Nullable Object fieldValue = value.getValue(encodingPosToIndex[encodingPos]);
+          if (fieldValue == null) {
+            if (nullFields == null) {
+              nullFields = new byte[(fieldValues.length + 7) / 8];
+            }
+            nullFields[encodingPos >> 3] |= (byte) (1 << (encodingPos & 7));
+            nullFieldsLength = (encodingPos >> 3) + 1;
+          }
+          fieldValues[encodingPos] = fieldValue;
         }
 
-        // Encode a bitmap for the null fields to save having to encode a bunch of nulls.
-        NULL_LIST_CODER.encode(scanNullFields(fieldValues, encodingPosToIndex), outputStream);
+        // Encode a bitmap for the null fields to save having to encode a bunch of nulls. This is
+        // the same encoding BitSetCoder produces, without materializing a BitSet.
+        VarInt.encode(nullFieldsLength, outputStream);
+        if (nullFieldsLength > 0) {
+          outputStream.write(nullFields, 0, nullFieldsLength);
+        }
         for (int encodingPos = 0; encodingPos < fieldValues.length; ++encodingPos) {
-          @Nullable Object fieldValue = fieldValues[encodingPosToIndex[encodingPos]];
+          @Nullable Object fieldValue = fieldValues[encodingPos];
           if (fieldValue != null) {
             coders[encodingPos].encode(fieldValue, outputStream);
           }
         }
       } else {
-        // Otherwise, we know all fields are non-null, so the null list is always empty.
+        // Otherwise, we know all fields are non-null, so the null bitmap is always empty.
 
-        NULL_LIST_CODER.encode(EMPTY_BIT_SET, outputStream);
+        VarInt.encode(0, outputStream);
         for (int encodingPos = 0; encodingPos < value.getFieldCount(); ++encodingPos) {
           @Nullable Object fieldValue = value.getValue(encodingPosToIndex[encodingPos]);
           if (fieldValue != null) {
@@ -439,20 +473,6 @@ public abstract class RowCoderGenerator {
         }
       }
     }
-
-    // Figure out which fields of the Row are null, and returns a BitSet. This allows us to save
-    // on encoding each null field separately.
-    private static BitSet scanNullFields(Object[] fieldValues, int[] encodingPosToIndex) {
-      Preconditions.checkState(fieldValues.length == encodingPosToIndex.length);
-      BitSet nullFields = new BitSet(fieldValues.length);
-      for (int encodingPos = 0; encodingPos < encodingPosToIndex.length; ++encodingPos) {
-        int fieldIndex = encodingPosToIndex[encodingPos];
-        if (fieldValues[fieldIndex] == null) {
-          nullFields.set(encodingPos);
-        }
-      }
-      return nullFields;
-    }
   }
 
   private static class DecodeInstruction implements Implementation {
@@ -513,14 +533,14 @@ public abstract class RowCoderGenerator {
         throws IOException {
       int fieldCount = VAR_INT_CODER.decode(inputStream);
 
-      BitSet nullFields = NULL_LIST_CODER.decode(inputStream);
+      byte[] nullFields = decodeNullFields(inputStream);
       Object[] fieldValues = new Object[coders.length];
       for (int encodingPos = 0; encodingPos < fieldCount; ++encodingPos) {
         // In the case of a schema change going backwards, fieldCount might be > coders.length,
         // in which case we drop the extra fields.
         if (encodingPos < coders.length) {
           int rowIndex = encodingPosToIndex[encodingPos];
-          if (nullFields.get(encodingPos)) {
+          if (isNull(nullFields, encodingPos)) {
             fieldValues[rowIndex] = null;
           } else {
             Object fieldValue = coders[encodingPos].decode(inputStream);
@@ -540,5 +560,153 @@ public abstract class RowCoderGenerator {
       // some processing by simply transferring ownership of the list to the Row.
       return Row.withSchema(schema).attachValues(fieldValues);
     }
+
+    // Decodes the null bitmap written by encodeDelegate, which uses the encoding of BitSetCoder.
+    private static byte[] decodeNullFields(InputStream inputStream) throws IOException {
+      int length = VAR_INT_CODER.decode(inputStream);
+      if (length == 0) {
+        return EMPTY_NULL_FIELDS;
+      }
+      byte[] nullFields = new byte[length];
+      try {
+        ByteStreams.readFully(inputStream, nullFields);
+      } catch (EOFException e) {
+        throw new CoderException(e);
+      }
+      return nullFields;
+    }
+
+    // Bits beyond the end of the bitmap are not null, matching BitSet.get.
+    private static boolean isNull(byte[] nullFields, int encodingPos) {
+      int index = encodingPos >> 3;
+      return index < nullFields.length && (nullFields[index] & (1 << (encodingPos & 7))) != 0;
+    }
+  }
+
+  /**
+   * A {@link Coder} for collections of non-nullable {@code INT32}, {@code INT64}, {@code FLOAT},
+   * {@code DOUBLE} and {@code BOOLEAN} elements. Produces the same encoding as {@link ListCoder}
+   * and {@link IterableCoder} of the corresponding element coder, but encodes and decodes the
+   * elements inline. {@link Iterable Iterables} of unknown size are encoded by the given fallback
+   * coder.
+   */
+  private static class PrimitiveIterableCoder extends Coder<Iterable<Object>> {
+    static final Set<TypeName> ELEMENT_TYPES =
+        EnumSet.of(
+            TypeName.INT32, TypeName.INT64, TypeName.FLOAT, TypeName.DOUBLE, TypeName.BOOLEAN);
+
+    private final TypeName elementType;
+    private final Coder<Iterable<Object>> fallbackCoder;
+
+    PrimitiveIterableCoder(TypeName elementType, Coder<Iterable<Object>> fallbackCoder) {
+      this.elementType = elementType;
+      this.fallbackCoder = fallbackCoder;
+    }
+
+    @Override
+    public void encode(Iterable<Object> value, OutputStream outStream) throws IOException {
+      if (!(value instanceof Collection)) {
+        fallbackCoder.encode(value, outStream);
+        return;
+      }
+      Collection<Object> collection = (Collection<Object>) value;
+      BitConverters.writeBigEndianInt(collection.size(), outStream);
+      for (Object element : collection) {
+        if (element == null) {
+          throw new CoderException("cannot encode a null " + elementType + " element");
+        }
+        encodeElement(element, outStream);
+      }
+    }
+
+    private void encodeElement(Object element, OutputStream outStream) throws IOException {
+      switch (elementType) {
+        case INT32:
+          VarInt.encode((Integer) element, outStream);
+          break;
+        case INT64:
+          VarInt.encode((Long) element, outStream);
+          break;
+        case FLOAT:
+          BitConverters.writeBigEndianInt(Float.floatToIntBits((Float) element), outStream);
+          break;
+        case DOUBLE:
+          BitConverters.writeBigEndianLong(Double.doubleToLongBits((Double) element), outStream);
+          break;
+        case BOOLEAN:
+          outStream.write((Boolean) element ? 1 : 0);
+          break;
+        default:
+          throw new IllegalStateException("Unexpected element type " + elementType);
+      }
+    }
+
+    @Override
+    public Iterable<Object> decode(InputStream inStream) throws IOException {
+      try {
+        int size = BitConverters.readBigEndianInt(inStream);
+        if (size >= 0) {
+          List<Object> elements = new ArrayList<>(size);
+          for (int i = 0; i < size; ++i) {
+            elements.add(decodeElement(inStream));
+          }
+          return elements;
+        }
+        // The size was not known when encoding, so the elements are encoded in counted blocks.
+        List<Object> elements = new ArrayList<>();
+        long count = VarInt.decodeLong(inStream);
+        while (count > 0L) {
+          elements.add(decodeElement(inStream));
+          --count;
+          if (count == 0L) {
+            count = VarInt.decodeLong(inStream);
+          }
+        }
+        if (count != 0L) {
+          throw new IllegalStateException(
+              String.format(
+                  "%s does not support non zero terminator values. Received stream with terminator %s.",
+                  "Iterable", count));
+        }
+        return elements;
+      } catch (EOFException | UTFDataFormatException e) {
+        throw new CoderException(e);
+      }
+    }
+
+    private Object decodeElement(InputStream inStream) throws IOException {
+      switch (elementType) {
+        case INT32:
+          return VarInt.decodeInt(inStream);
+        case INT64:
+          return VarInt.decodeLong(inStream);
+        case FLOAT:
+          return Float.intBitsToFloat(BitConverters.readBigEndianInt(inStream));
+        case DOUBLE:
+          return Double.longBitsToDouble(BitConverters.readBigEndianLong(inStream));
+        case BOOLEAN:
+          int value = inStream.read();
+          if (value == 0) {
+            return false;
+          } else if (value == 1) {
+            return true;
+          } else if (value < 0) {
+            throw new EOFException();
+          }
+          throw new IOException(String.format("Expected 0 or 1, got %d", value));
+        default:
+          throw new IllegalStateException("Unexpected element type " + elementType);
+      }
+    }
+
+    @Override
+    public List<? extends Coder<?>> getCoderArguments() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public void verifyDeterministic() throws NonDeterministicException {
+      fallbackCoder.verifyDeterministic();
+    }
   }
 }
@@ -23,6 +23,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UTFDataFormatException;
 import java.nio.charset.StandardCharsets;
+import org.apache.beam.sdk.util.ByteStringInputStream;
 import org.apache.beam.sdk.util.ExposedByteArrayOutputStream;
 import org.apache.beam.sdk.util.StreamUtils;
 import org.apache.beam.sdk.util.VarInt;
@@ -56,6 +57,10 @@ public class StringUtf8Coder extends AtomicCoder<String> {
     if (len < 0) {
       throw new CoderException("Invalid encoded string length: " + len);
     }
+    if (dis instanceof ByteStringInputStream) {
+      // Decode directly from the underlying bytes without an intermediate copy.
+      return ((ByteStringInputStream) dis).readBytes(len).toStringUtf8();
+    }
     byte[] bytes = new byte[len];
     ByteStreams.readFully(dis, bytes);
     return new String(bytes, StandardCharsets.UTF_8);
@@ -93,6 +98,9 @@ public class StringUtf8Coder extends AtomicCoder<String> {
   @Override
   public String decode(InputStream inStream, Context context) throws IOException {
     if (context.isWholeStream) {
+      if (inStream instanceof ByteStringInputStream) {
+        return ((ByteStringInputStream) inStream).readRemaining().toStringUtf8();
+      }
       byte[] bytes = StreamUtils.getBytesWithoutClosing(inStream);
       return new String(bytes, StandardCharsets.UTF_8);
     } else {
@@ -31,6 +31,7 @@ import org.apache.beam.model.fnexecution.v1.BeamFnApi;
 import org.apache.beam.model.fnexecution.v1.BeamFnApi.Elements;
 import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.fn.CancellableQueue;
+import org.apache.beam.sdk.util.ByteStringInputStream;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
@@ -224,7 +225,7 @@ public class BeamFnDataInboundObserver implements CloseableFnDataReceiver<BeamFn
                   "Received data after inbound data receiver is done for instruction %s and transform %s.",
                   data.getInstructionId(), data.getTransformId()));
         }
-        inputStream = data.getData().newInput();
+        inputStream = new ByteStringInputStream(data.getData());
       }
       Coder<Object> coder = (Coder<Object>) endpoint.endpoint.getCoder();
       FnDataReceiver<Object> receiver = (FnDataReceiver<Object>) endpoint.endpoint.getReceiver();
@@ -260,7 +261,7 @@ public class BeamFnDataInboundObserver implements CloseableFnDataReceiver<BeamFn
                 "Received timer after inbound timer receiver is done for instruction %s, transform %s, and timer family %s.",
                 timers.getInstructionId(), timers.getTransformId(), timers.getTimerFamilyId()));
       }
-      InputStream inputStream = timers.getTimers().newInput();
+      InputStream inputStream = new ByteStringInputStream(timers.getTimers());
       Coder<Object> coder = (Coder<Object>) endpoint.endpoint.getCoder();
       FnDataReceiver<Object> receiver = (FnDataReceiver<Object>) endpoint.endpoint.getReceiver();
       while (inputStream.available() > 0) {
@@ -28,17 +28,23 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.beam.model.fnexecution.v1.BeamFnApi.Elements;
 import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.metrics.DelegatingGauge;
+import org.apache.beam.sdk.metrics.Gauge;
+import org.apache.beam.sdk.metrics.MetricName;
 import org.apache.beam.sdk.options.ExperimentalOptions;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.util.ByteStringOutputStream;
 import org.apache.beam.vendor.grpc.v1p69p0.com.google.protobuf.ByteString;
 import org.apache.beam.vendor.grpc.v1p69p0.io.grpc.stub.StreamObserver;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.annotations.VisibleForTesting;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableMap;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +58,15 @@ import org.slf4j.LoggerFactory;
  *
  * <p>The default time-based buffer threshold can be overridden by specifying the experiment {@code
  * data_buffer_time_limit_ms=<milliseconds>}
+ *
+ * <p>Specifying the experiment {@code data_buffer_adaptive} makes the size-based buffer threshold
+ * adapt to the observed outbound byte rate and to the time spent blocked sending to the outbound
+ * {@link StreamObserver}. The threshold then moves between {@code
+ * data_buffer_adaptive_min_size=<bytes>} and the size-based buffer threshold above, see {@link
+ * AdaptiveBufferSize}. If a gauge name is given for it, the chosen threshold is reported at the end
+ * of every bundle to that gauge of the process-wide metrics container. The gauge of every outbound
+ * endpoint is named from the {@link #PTRANSFORM_LABEL} and, for timers, the {@link
+ * #TIMER_FAMILY_LABEL} of the endpoint.
  */
 @SuppressWarnings({
   "nullness" // TODO(https://github.com/apache/beam/issues/20497)
@@ -68,10 +83,18 @@ public class BeamFnDataOutboundAggregator {
   public static final int DEFAULT_BUFFER_LIMIT_BYTES = 1_000_000;
   public static final String DATA_BUFFER_TIME_LIMIT_MS = "data_buffer_time_limit_ms=";
   public static final long DEFAULT_BUFFER_LIMIT_TIME_MS = -1L;
+  public static final String DATA_BUFFER_ADAPTIVE = "data_buffer_adaptive";
+  public static final String DATA_BUFFER_ADAPTIVE_MIN_SIZE = "data_buffer_adaptive_min_size=";
+  public static final int DEFAULT_ADAPTIVE_MIN_BUFFER_BYTES = 64 * 1024;
+  public static final String ADAPTIVE_BUFFER_SIZE_METRIC = "adaptiveBufferSizeBytes";
+  public static final String PTRANSFORM_LABEL = "PTRANSFORM";
+  public static final String TIMER_FAMILY_LABEL = "TIMER_FAMILY";
 
   private static final Logger LOG = LoggerFactory.getLogger(BeamFnDataOutboundAggregator.class);
   private final int sizeLimit;
+  @Nullable private final AdaptiveBufferSize adaptiveBufferSize;
   private final long timeLimit;
+  @Nullable private final Function<Map<String, String>, MetricName> bufferSizeMetricName;
   private final Supplier<String> processBundleRequestIdSupplier;
   @VisibleForTesting final Map<String, Receiver<?>> outputDataReceivers;
   @VisibleForTesting final Map<TimerEndpoint, Receiver<?>> outputTimersReceivers;
@@ -81,14 +104,62 @@ public class BeamFnDataOutboundAggregator {
   private final Object flushLock;
   private final boolean collectElementsIfNoFlushes;
   private boolean hasFlushedForBundle;
+  private boolean hasOutputForBundle;
 
   public BeamFnDataOutboundAggregator(
       PipelineOptions options,
       Supplier<String> processBundleRequestIdSupplier,
       StreamObserver<Elements> outboundObserver,
       boolean collectElementsIfNoFlushes) {
+    this(
+        options,
+        processBundleRequestIdSupplier,
+        outboundObserver,
+        collectElementsIfNoFlushes,
+        null,
+        System::nanoTime);
+  }
+
+  /**
+   * Creates an aggregator which reports the adaptive buffer size of every outbound endpoint to the
+   * gauge named by {@code bufferSizeMetricName} for the labels of the endpoint.
+   */
+  public BeamFnDataOutboundAggregator(
+      PipelineOptions options,
+      Supplier<String> processBundleRequestIdSupplier,
+      StreamObserver<Elements> outboundObserver,
+      boolean collectElementsIfNoFlushes,
+      Function<Map<String, String>, MetricName> bufferSizeMetricName) {
+    this(
+        options,
+        processBundleRequestIdSupplier,
+        outboundObserver,
+        collectElementsIfNoFlushes,
+        bufferSizeMetricName,
+        System::nanoTime);
+  }
+
+  @VisibleForTesting
+  BeamFnDataOutboundAggregator(
+      PipelineOptions options,
+      Supplier<String> processBundleRequestIdSupplier,
+      StreamObserver<Elements> outboundObserver,
+      boolean collectElementsIfNoFlushes,
+      @Nullable Function<Map<String, String>, MetricName> bufferSizeMetricName,
+      LongSupplier nanoTimeSupplier) {
     this.sizeLimit = getSizeLimit(options);
     this.timeLimit = getTimeLimit(options);
+    this.adaptiveBufferSize =
+        ExperimentalOptions.hasExperiment(options, DATA_BUFFER_ADAPTIVE)
+            ? new AdaptiveBufferSize(
+                Math.min(getAdaptiveMinSize(options), sizeLimit),
+                sizeLimit,
+                timeLimit > 0
+                    ? TimeUnit.MILLISECONDS.toNanos(timeLimit)
+                    : AdaptiveBufferSize.DEFAULT_TARGET_FLUSH_INTERVAL_NANOS,
+                nanoTimeSupplier)
+            : null;
+    this.bufferSizeMetricName = bufferSizeMetricName;
     this.collectElementsIfNoFlushes = collectElementsIfNoFlushes;
     this.outputDataReceivers = new HashMap<>();
     this.outputTimersReceivers = new HashMap<>();
@@ -97,6 +168,7 @@ public class BeamFnDataOutboundAggregator {
     this.bytesWrittenSinceFlush = 0L;
     this.flushLock = new Object();
     this.hasFlushedForBundle = false;
+    this.hasOutputForBundle = false;
   }
 
   /** Starts the flushing daemon thread if data_buffer_time_limit_ms is set. */
@@ -121,7 +193,8 @@ public class BeamFnDataOutboundAggregator {
       throw new IllegalStateException(
           "Outbound data endpoint already registered for " + pTransformId);
     }
-    Receiver<T> receiver = new Receiver<>(coder);
+    Receiver<T> receiver =
+        new Receiver<>(coder, bufferSizeGauge(ImmutableMap.of(PTRANSFORM_LABEL, pTransformId)));
     if (timeLimit > 0) {
       outputDataReceivers.put(pTransformId, receiver);
       return data -> {
@@ -146,7 +219,12 @@ public class BeamFnDataOutboundAggregator {
       throw new IllegalStateException(
           "Outbound timers endpoint already registered for " + timerKey);
     }
-    Receiver<T> receiver = new Receiver<>(coder);
+    Receiver<T> receiver =
+        new Receiver<>(
+            coder,
+            bufferSizeGauge(
+                ImmutableMap.of(
+                    PTRANSFORM_LABEL, pTransformId, TIMER_FAMILY_LABEL, timerFamilyId)));
     if (timeLimit > 0) {
       outputTimersReceivers.put(timerKey, receiver);
       return timers -> {
@@ -160,17 +238,46 @@ public class BeamFnDataOutboundAggregator {
     return receiver;
   }
 
+  /**
+   * Returns the gauge reporting the adaptive buffer size of an endpoint, if it is adaptive and the
+   * gauge is named.
+   */
+  private @Nullable Gauge bufferSizeGauge(Map<String, String> labels) {
+    if (adaptiveBufferSize == null || bufferSizeMetricName == null) {
+      return null;
+    }
+    return new DelegatingGauge(bufferSizeMetricName.apply(labels), true);
+  }
+
   private void flushInternal() {
     if (bytesWrittenSinceFlush == 0) {
       return;
     }
+    long bytes = bytesWrittenSinceFlush;
     Elements.Builder elements = convertBufferForTransmission();
     if (elements.getDataCount() > 0 || elements.getTimersCount() > 0) {
-      outboundObserver.onNext(elements.build());
+      send(elements.build(), bytes);
     }
     hasFlushedForBundle = true;
   }
 
+  /** Sends the elements, feeding the time spent blocked in the observer to the adaptive policy. */
+  private void send(Elements elements, long bytes) {
+    if (adaptiveBufferSize == null) {
+      outboundObserver.onNext(elements);
+      return;
+    }
+    long startNanos = adaptiveBufferSize.nanoTime();
+    outboundObserver.onNext(elements);
+    adaptiveBufferSize.onFlush(bytes, adaptiveBufferSize.nanoTime() - startNanos);
+  }
+
+  /** Returns the number of buffered bytes at which the buffered data is flushed. */
+  @VisibleForTesting
+  long getBufferSizeLimit() {
+    return adaptiveBufferSize == null ? sizeLimit : adaptiveBufferSize.getTarget();
+  }
+
   /**
    * Closes the streams for all registered outbound endpoints. Should be called at the end of each
    * bundle. Returns the buffered Elements if the BeamFnDataOutboundAggregator started with
@@ -182,13 +289,18 @@ public class BeamFnDataOutboundAggregator {
       return null;
     }
     Elements.Builder bufferedElements;
+    long bufferedBytes;
     if (timeLimit > 0) {
       synchronized (flushLock) {
+        bufferedBytes = bytesWrittenSinceFlush;
         bufferedElements = convertBufferForTransmission();
       }
     } else {
+      bufferedBytes = bytesWrittenSinceFlush;
       bufferedElements = convertBufferForTransmission();
     }
+    long bufferSizeLimit = getBufferSizeLimit();
+    hasOutputForBundle = false;
     LOG.debug(
         "Closing streams for instruction {} and outbound data {} and timers {}.",
         processBundleRequestIdSupplier.get(),
@@ -201,6 +313,7 @@ public class BeamFnDataOutboundAggregator {
           .setInstructionId(processBundleRequestIdSupplier.get())
           .setTransformId(pTransformId)
           .setIsLast(true);
+      entry.getValue().reportBufferSize(bufferSizeLimit);
       entry.getValue().resetStats();
     }
     for (Map.Entry<TimerEndpoint, Receiver<?>> entry : outputTimersReceivers.entrySet()) {
@@ -211,12 +324,13 @@ public class BeamFnDataOutboundAggregator {
           .setTransformId(timerKey.pTransformId)
           .setTimerFamilyId(timerKey.timerFamilyId)
           .setIsLast(true);
+      entry.getValue().reportBufferSize(bufferSizeLimit);
       entry.getValue().resetStats();
     }
     if (collectElementsIfNoFlushes && !hasFlushedForBundle) {
       return bufferedElements.build();
     }
-    outboundObserver.onNext(bufferedElements.build());
+    send(bufferedElements.build(), bufferedBytes);
     // This is now at the end of a bundle, so we reset hasFlushedForBundle to prepare for new
     // bundles.
     hasFlushedForBundle = false;
@@ -310,6 +424,16 @@ public class BeamFnDataOutboundAggregator {
     return DEFAULT_BUFFER_LIMIT_BYTES;
   }
 
+  private static int getAdaptiveMinSize(PipelineOptions options) {
+    List<String> experiments = options.as(ExperimentalOptions.class).getExperiments();
+    for (String experiment : experiments == null ? Collections.<String>emptyList() : experiments) {
+      if (experiment.startsWith(DATA_BUFFER_ADAPTIVE_MIN_SIZE)) {
+        return Integer.parseInt(experiment.substring(DATA_BUFFER_ADAPTIVE_MIN_SIZE.length()));
+      }
+    }
+    return DEFAULT_ADAPTIVE_MIN_BUFFER_BYTES;
+  }
+
   private static long getTimeLimit(PipelineOptions options) {
     List<String> experiments = options.as(ExperimentalOptions.class).getExperiments();
     for (String experiment : experiments == null ? Collections.<String>emptyList() : experiments) {
@@ -324,12 +448,14 @@ public class BeamFnDataOutboundAggregator {
   class Receiver<T> implements FnDataReceiver<T> {
     private final ByteStringOutputStream output;
     private final Coder<T> coder;
+    @Nullable private final Gauge bufferSizeGauge;
     private long perBundleByteCount;
     private long perBundleElementCount;
 
-    public Receiver(Coder<T> coder) {
+    public Receiver(Coder<T> coder, @Nullable Gauge bufferSizeGauge) {
       this.output = new ByteStringOutputStream();
       this.coder = coder;
+      this.bufferSizeGauge = bufferSizeGauge;
       this.perBundleByteCount = 0L;
       this.perBundleElementCount = 0L;
     }
@@ -341,11 +467,17 @@ public class BeamFnDataOutboundAggregator {
       if (output.size() - size == 0) {
         output.write(0);
       }
+      if (!hasOutputForBundle) {
+        hasOutputForBundle = true;
+        if (adaptiveBufferSize != null) {
+          adaptiveBufferSize.onBundleOutput();
+        }
+      }
       final long delta = (long) output.size() - size;
       bytesWrittenSinceFlush += delta;
       perBundleByteCount += delta;
       perBundleElementCount += 1;
-      if (bytesWrittenSinceFlush > sizeLimit) {
+      if (bytesWrittenSinceFlush > getBufferSizeLimit()) {
         flushInternal();
       }
     }
@@ -366,6 +498,12 @@ public class BeamFnDataOutboundAggregator {
       return this.output.toByteStringAndReset();
     }
 
+    public void reportBufferSize(long bufferSizeLimit) {
+      if (bufferSizeGauge != null) {
+        bufferSizeGauge.set(bufferSizeLimit);
+      }
+    }
+
     public void resetStats() {
       this.perBundleElementCount = 0L;
       this.perBundleByteCount = 0L;
@@ -378,6 +516,80 @@ public class BeamFnDataOutboundAggregator {
     }
   }
 
+  /**
+   * Chooses the size-based buffer threshold from the observed outbound byte rate.
+   *
+   * <p>The byte rate is tracked as an exponentially weighted moving average over flushes and the
+   * threshold is set to the number of bytes expected within the target flush interval, so hot
+   * channels send few large messages while quiet channels flush small messages promptly. If more
+   * than half of the time since the previous flush was spent blocked sending to the outbound
+   * observer, the channel is considered backpressured and the threshold is doubled instead to
+   * reduce the per message overhead.
+   *
+   * <p>The time between bundles is not counted: the first flush of a bundle measures the time since
+   * the bundle's first output.
+   */
+  @VisibleForTesting
+  static class AdaptiveBufferSize {
+    static final long DEFAULT_TARGET_FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final double RATE_SMOOTHING = 0.25;
+
+    private final long minBytes;
+    private final long maxBytes;
+    private final long targetFlushIntervalNanos;
+    private final LongSupplier nanoTimeSupplier;
+    private volatile long target;
+    private double bytesPerNano;
+    private long lastFlushNanos;
+
+    AdaptiveBufferSize(
+        long minBytes,
+        long maxBytes,
+        long targetFlushIntervalNanos,
+        LongSupplier nanoTimeSupplier) {
+      this.minBytes = minBytes;
+      this.maxBytes = maxBytes;
+      this.targetFlushIntervalNanos = targetFlushIntervalNanos;
+      this.nanoTimeSupplier = nanoTimeSupplier;
+      this.target = maxBytes;
+      this.bytesPerNano = -1;
+      this.lastFlushNanos = nanoTimeSupplier.getAsLong();
+    }
+
+    long nanoTime() {
+      return nanoTimeSupplier.getAsLong();
+    }
+
+    long getTarget() {
+      return target;
+    }
+
+    /** Starts measuring the time to the next flush at the first output of a bundle. */
+    synchronized void onBundleOutput() {
+      lastFlushNanos = nanoTimeSupplier.getAsLong();
+    }
+
+    synchronized void onFlush(long bytes, long blockedNanos) {
+      long now = nanoTimeSupplier.getAsLong();
+      long elapsedNanos = Math.max(1L, now - lastFlushNanos);
+      lastFlushNanos = now;
+
+      double observedBytesPerNano = (double) bytes / elapsedNanos;
+      bytesPerNano =
+          bytesPerNano < 0
+              ? observedBytesPerNano
+              : RATE_SMOOTHING * observedBytesPerNano + (1 - RATE_SMOOTHING) * bytesPerNano;
+
+      long newTarget;
+      if (blockedNanos * 2 > elapsedNanos) {
+        newTarget = target * 2;
+      } else {
+        newTarget = (long) (bytesPerNano * targetFlushIntervalNanos);
+      }
+      target = Math.max(minBytes, Math.min(maxBytes, newTarget));
+    }
+  }
+
   private static class TimerEndpoint {
 
     private final String pTransformId;
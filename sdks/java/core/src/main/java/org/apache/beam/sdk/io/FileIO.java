@@ -17,6 +17,7 @@
  */
 package org.apache.beam.sdk.io;
 
+import static org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions.RESOLVE_DIRECTORY;
 import static org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions.RESOLVE_FILE;
 import static org.apache.beam.sdk.transforms.Contextful.fn;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
@@ -32,15 +33,24 @@ import java.nio.channels.SeekableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.apache.beam.sdk.coders.CannotProvideCoderException;
 import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.ListCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.coders.VoidCoder;
 import org.apache.beam.sdk.io.fs.EmptyMatchTreatment;
 import org.apache.beam.sdk.io.fs.MatchResult;
 import org.apache.beam.sdk.io.fs.MetadataCoderV2;
+import org.apache.beam.sdk.io.fs.MoveOptions;
 import org.apache.beam.sdk.io.fs.ResourceId;
 import org.apache.beam.sdk.options.ValueProvider;
 import org.apache.beam.sdk.options.ValueProvider.StaticValueProvider;
@@ -67,6 +77,7 @@ import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.transforms.windowing.IntervalWindow;
 import org.apache.beam.sdk.transforms.windowing.PaneInfo;
+import org.apache.beam.sdk.util.MimeTypes;
 import org.apache.beam.sdk.util.StreamUtils;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PBegin;
@@ -77,6 +88,7 @@ import org.apache.beam.sdk.values.TypeDescriptors;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.annotations.VisibleForTesting;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.MoreObjects;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Objects;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterables;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Lists;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.Duration;
@@ -413,6 +425,16 @@ public class FileIO {
         .build();
   }
 
+  /**
+   * Merges small files written by {@link #write} or {@link #writeDynamic} into files of about a
+   * target size. See {@link Compact}.
+   */
+  public static <DestT, ElementT> Compact<DestT, ElementT> compact() {
+    return new AutoValue_FileIO_Compact.Builder<DestT, ElementT>()
+        .setTargetFileSize(Compact.DEFAULT_TARGET_FILE_SIZE)
+        .build();
+  }
+
   /** A utility class for accessing a potentially compressed file. */
   public static final class ReadableFile {
     private final MatchResult.Metadata metadata;
@@ -1658,4 +1680,318 @@ public class FileIO {
       }
     }
   }
+
+  /**
+   * Implementation of {@link #compact}.
+   *
+   * <p>Streaming pipelines writing with short windows or many destinations produce many small
+   * files. This transform takes the files written per destination, as returned by {@link
+   * WriteFilesResult#getPerDestinationOutputFilenames()}, and merges the files of every
+   * destination, window and pane that are smaller than {@link #withTargetFileSize the target size}
+   * into files of about that size. Apply a coarser window before it to compact the files of several
+   * write windows together:
+   *
+   * <pre>{@code
+   * WriteFilesResult<String> written =
+   *     events.apply(FileIO.<String, Event>writeDynamic()
+   *         .by(Event::getType)
+   *         .via(sink)
+   *         ...);
+   * written.getPerDestinationOutputFilenames()
+   *     .apply(Window.into(FixedWindows.of(Duration.standardHours(1))))
+   *     .apply(FileIO.<String, Event>compact()
+   *         .via(reader, sink)
+   *         .withTargetFileSize(256 << 20));
+   * }</pre>
+   *
+   * <p>The records of the files are read with a {@link Reader} and written to a new file with a
+   * {@link Sink}, so any format that can be written with a {@link Sink} can be compacted. The
+   * merged file is named after the first file of the group, with {@code -compacted} inserted before
+   * the extension, in the same directory, and uses the same compression. If that file was already
+   * merged by a previous compaction, the suffix is numbered instead, e.g. {@code -compacted-2}. The
+   * compression of every file that is read is detected from its own name.
+   *
+   * <p>Like {@link WriteFiles}, every merged file is written to a temporary file in a subdirectory
+   * of the output directory first, which is then renamed to its final name. The temporary file is
+   * deleted if writing it fails. The files that were merged are only deleted after all merged files
+   * of a destination, window and pane have been renamed and committed, so retries always produce
+   * the same merged files. Readers listing the directory in between may see the records of the
+   * merged files twice.
+   *
+   * <p>Returns the files of every destination after the compaction: the merged files, and the files
+   * that were left as they are.
+   */
+  @AutoValue
+  public abstract static class Compact<DestinationT, ElementT>
+      extends PTransform<
+          PCollection<KV<DestinationT, String>>, PCollection<KV<DestinationT, String>>> {
+    static final long DEFAULT_TARGET_FILE_SIZE = 128L << 20;
+
+    private static final Pattern COMPACTED_SUFFIX = Pattern.compile("(.*)-compacted(?:-(\\d+))?");
+
+    /** Reads the records of a file to compact. */
+    public interface Reader<ElementT> extends Serializable {
+      /** Reads every record of the file, and writes it to the given sink. */
+      void read(ReadableFile file, Sink<ElementT> sink) throws IOException;
+    }
+
+    abstract @Nullable Reader<ElementT> getReader();
+
+    abstract @Nullable SerializableFunction<DestinationT, Sink<ElementT>> getSinkFn();
+
+    abstract long getTargetFileSize();
+
+    abstract Builder<DestinationT, ElementT> toBuilder();
+
+    @AutoValue.Builder
+    abstract static class Builder<DestinationT, ElementT> {
+      abstract Builder<DestinationT, ElementT> setReader(Reader<ElementT> reader);
+
+      abstract Builder<DestinationT, ElementT> setSinkFn(
+          SerializableFunction<DestinationT, Sink<ElementT>> sinkFn);
+
+      abstract Builder<DestinationT, ElementT> setTargetFileSize(long targetFileSize);
+
+      abstract Compact<DestinationT, ElementT> build();
+    }
+
+    /**
+     * Specifies how to read the records of the files, and the {@link Sink} writing the merged files
+     * of every destination.
+     */
+    public Compact<DestinationT, ElementT> via(
+        Reader<ElementT> reader, SerializableFunction<DestinationT, Sink<ElementT>> sinkFn) {
+      checkArgument(reader != null, "reader can not be null");
+      checkArgument(sinkFn != null, "sinkFn can not be null");
+      return toBuilder().setReader(reader).setSinkFn(sinkFn).build();
+    }
+
+    /** Like {@link #via(Reader, SerializableFunction)}, but with the same sink for every file. */
+    public Compact<DestinationT, ElementT> via(Reader<ElementT> reader, Sink<ElementT> sink) {
+      checkArgument(sink != null, "sink can not be null");
+      return via(reader, SerializableFunctions.clonesOf(sink));
+    }
+
+    /**
+     * Files of at least this size in bytes are left as they are, and smaller files are merged until
+     * the merged file reaches this size. Defaults to 128 MiB.
+     */
+    public Compact<DestinationT, ElementT> withTargetFileSize(long targetFileSize) {
+      checkArgument(
+          targetFileSize > 0, "targetFileSize must be positive, but was %s", targetFileSize);
+      return toBuilder().setTargetFileSize(targetFileSize).build();
+    }
+
+    @Override
+    public PCollection<KV<DestinationT, String>> expand(
+        PCollection<KV<DestinationT, String>> input) {
+      checkArgument(getReader() != null && getSinkFn() != null, "via() is required");
+      checkArgument(
+          input.getCoder() instanceof KvCoder,
+          "compact() requires a KvCoder for its input, but the coder was %s",
+          input.getCoder());
+      KvCoder<DestinationT, String> inputCoder = (KvCoder<DestinationT, String>) input.getCoder();
+      return input
+          .apply("Group files by destination", GroupByKey.create())
+          .apply(
+              "Write merged files",
+              ParDo.of(new WriteMergedFilesFn<>(getReader(), getSinkFn(), getTargetFileSize())))
+          .setCoder(
+              KvCoder.of(
+                  inputCoder.getKeyCoder(),
+                  KvCoder.of(StringUtf8Coder.of(), ListCoder.of(StringUtf8Coder.of()))))
+          // Commits the merged files before deleting the files they replace, so that retries of
+          // the previous step still find all of them.
+          .apply("Reshuffle merged files", Reshuffle.viaRandomKey())
+          .apply("Delete merged files", ParDo.of(new DeleteMergedFilesFn<>()))
+          .setCoder(inputCoder);
+    }
+
+    @Override
+    public void populateDisplayData(DisplayData.Builder builder) {
+      super.populateDisplayData(builder);
+      builder.add(DisplayData.item("targetFileSize", getTargetFileSize()));
+      if (getReader() != null) {
+        builder.add(DisplayData.item("reader", getReader().getClass()));
+      }
+    }
+
+    /**
+     * Splits the files, ordered by name, into groups to merge into a single file. Returns the
+     * indices of the files of every group. Groups of a single file are left as they are.
+     */
+    @VisibleForTesting
+    static List<List<Integer>> planMerges(List<Long> sizes, long targetFileSize) {
+      List<List<Integer>> groups = new ArrayList<>();
+      List<Integer> group = new ArrayList<>();
+      long groupSize = 0;
+      for (int i = 0; i < sizes.size(); ++i) {
+        long size = sizes.get(i);
+        if (size >= targetFileSize) {
+          groups.add(Collections.singletonList(i));
+          continue;
+        }
+        group.add(i);
+        groupSize += size;
+        if (groupSize >= targetFileSize) {
+          groups.add(group);
+          group = new ArrayList<>();
+          groupSize = 0;
+        }
+      }
+      if (!group.isEmpty()) {
+        groups.add(group);
+      }
+      return groups;
+    }
+
+    /** Returns the name of the file merging the files starting with the given one. */
+    @VisibleForTesting
+    static ResourceId mergedFilename(ResourceId first) {
+      String filename = first.getFilename();
+      // Keeps the extensions of the format and of the compression, e.g. ".json.gz".
+      int extension = filename.length();
+      String compressionSuffix = Compression.detect(filename).getSuggestedSuffix();
+      if (!compressionSuffix.isEmpty()
+          && filename.toLowerCase().endsWith(compressionSuffix.toLowerCase())) {
+        extension -= compressionSuffix.length();
+      }
+      int formatExtension = filename.lastIndexOf('.', extension - 1);
+      if (formatExtension > 0
+          && filename.substring(formatExtension + 1, extension).matches("[A-Za-z0-9]+")) {
+        extension = formatExtension;
+      }
+      // Files merged by a previous compaction get the next generation instead of another suffix,
+      // which also keeps the merged file from replacing the first file of the group.
+      String base = filename.substring(0, extension);
+      String suffix = "-compacted";
+      Matcher compacted = COMPACTED_SUFFIX.matcher(base);
+      if (compacted.matches()) {
+        int generation = compacted.group(2) == null ? 1 : Integer.parseInt(compacted.group(2));
+        base = compacted.group(1);
+        suffix = "-compacted-" + (generation + 1);
+      }
+      String merged = base + suffix + filename.substring(extension);
+      return first.getCurrentDirectory().resolve(merged, RESOLVE_FILE);
+    }
+
+    private static class WriteMergedFilesFn<DestinationT, ElementT>
+        extends DoFn<
+            KV<DestinationT, Iterable<String>>, KV<DestinationT, KV<String, List<String>>>> {
+      private final Reader<ElementT> reader;
+      private final SerializableFunction<DestinationT, Sink<ElementT>> sinkFn;
+      private final long targetFileSize;
+
+      WriteMergedFilesFn(
+          Reader<ElementT> reader,
+          SerializableFunction<DestinationT, Sink<ElementT>> sinkFn,
+          long targetFileSize) {
+        this.reader = reader;
+        this.sinkFn = sinkFn;
+        this.targetFileSize = targetFileSize;
+      }
+
+      @ProcessElement
+      public void process(
+          @Element KV<DestinationT, Iterable<String>> element,
+          OutputReceiver<KV<DestinationT, KV<String, List<String>>>> receiver)
+          throws IOException {
+        // Sorting makes the groups, and so the merged files, the same on retries.
+        List<String> filenames =
+            Lists.newArrayList(new TreeSet<>(Lists.newArrayList(element.getValue())));
+        List<MatchResult> matches = FileSystems.match(filenames);
+        List<MatchResult.Metadata> files = new ArrayList<>();
+        List<Long> sizes = new ArrayList<>();
+        for (MatchResult match : matches) {
+          MatchResult.Metadata metadata = Iterables.getOnlyElement(match.metadata());
+          files.add(metadata);
+          sizes.add(metadata.sizeBytes());
+        }
+        for (List<Integer> group : planMerges(sizes, targetFileSize)) {
+          if (group.size() == 1) {
+            String filename = files.get(group.get(0)).resourceId().toString();
+            receiver.output(KV.of(element.getKey(), KV.of(filename, Collections.emptyList())));
+            continue;
+          }
+          List<MatchResult.Metadata> merged = new ArrayList<>();
+          for (int i : group) {
+            merged.add(files.get(i));
+          }
+          ResourceId mergedFile = mergeFiles(element.getKey(), merged);
+          List<String> mergedFilenames = new ArrayList<>();
+          for (MatchResult.Metadata metadata : merged) {
+            mergedFilenames.add(metadata.resourceId().toString());
+          }
+          receiver.output(KV.of(element.getKey(), KV.of(mergedFile.toString(), mergedFilenames)));
+        }
+      }
+
+      private ResourceId mergeFiles(DestinationT destination, List<MatchResult.Metadata> files)
+          throws IOException {
+        ResourceId first = files.get(0).resourceId();
+        Compression compression = Compression.detect(first.getFilename());
+        ResourceId mergedFile = mergedFilename(first);
+        // Like FileBasedSink, writes to a unique subdirectory, so that temporary files are not
+        // mixed with the files in the output directory.
+        ResourceId tempDirectory =
+            first
+                .getCurrentDirectory()
+                .resolve(
+                    FileBasedSink.TEMP_DIRECTORY_PREFIX + "-" + UUID.randomUUID(),
+                    RESOLVE_DIRECTORY);
+        ResourceId tempFile = tempDirectory.resolve(mergedFile.getFilename(), RESOLVE_FILE);
+        Sink<ElementT> sink = sinkFn.apply(destination);
+        try {
+          try (WritableByteChannel channel =
+              compression.writeCompressed(FileSystems.create(tempFile, MimeTypes.BINARY))) {
+            sink.open(channel);
+            for (MatchResult.Metadata metadata : files) {
+              // Files of a group may differ in compression, e.g. after a change of the sink.
+              Compression fileCompression = Compression.detect(metadata.resourceId().getFilename());
+              reader.read(new ReadableFile(metadata, fileCompression), sink);
+            }
+            sink.flush();
+          }
+          LOG.info("Merged {} files into {}", files.size(), mergedFile);
+          FileSystems.rename(
+              Collections.singletonList(tempFile), Collections.singletonList(mergedFile));
+        } catch (IOException | RuntimeException e) {
+          try {
+            FileSystems.delete(
+                Collections.singletonList(tempFile),
+                MoveOptions.StandardMoveOptions.IGNORE_MISSING_FILES);
+          } catch (IOException deleteException) {
+            e.addSuppressed(deleteException);
+          }
+          throw e;
+        } finally {
+          // Deletion of the temporary directory might fail on file systems without directories.
+          try {
+            FileSystems.delete(
+                Collections.singletonList(tempDirectory),
+                MoveOptions.StandardMoveOptions.IGNORE_MISSING_FILES);
+          } catch (Exception e) {
+            LOG.warn("Failed to remove temporary directory: [{}].", tempDirectory);
+          }
+        }
+        return mergedFile;
+      }
+    }
+
+    private static class DeleteMergedFilesFn<DestinationT>
+        extends DoFn<KV<DestinationT, KV<String, List<String>>>, KV<DestinationT, String>> {
+      @ProcessElement
+      public void process(
+          @Element KV<DestinationT, KV<String, List<String>>> element,
+          OutputReceiver<KV<DestinationT, String>> receiver)
+          throws IOException {
+        List<ResourceId> merged = new ArrayList<>();
+        for (String filename : element.getValue().getValue()) {
+          merged.add(FileSystems.matchNewResource(filename, false /* isDirectory */));
+        }
+        FileSystems.delete(merged, MoveOptions.StandardMoveOptions.IGNORE_MISSING_FILES);
+        receiver.output(KV.of(element.getKey(), element.getValue().getKey()));
+      }
+    }
+  }
 }
@@ -17,12 +17,18 @@
  */
 package org.apache.beam.sdk.io;
 
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.NonWritableChannelException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.Charset;
@@ -115,6 +121,8 @@ public class TextSource extends FileBasedSource<String> {
         ByteString.copyFrom(new byte[] {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
     private static final byte CR = '\r';
     private static final byte LF = '\n';
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
 
     private final byte @Nullable [] delimiter;
     private final int skipHeaderLines;
@@ -124,7 +132,7 @@ public class TextSource extends FileBasedSource<String> {
 
     // Buffer for text read from the underlying file.
     private final byte[] buffer;
-    // A wrapper of the `buffer` field;
+    // A wrapper of the `buffer` field, little endian to scan it a word at a time.
     private final ByteBuffer byteBuffer;
 
     private ReadableByteChannel inChannel;
@@ -147,7 +155,7 @@ public class TextSource extends FileBasedSource<String> {
       super(source);
       this.buffer = new byte[READ_BUFFER_SIZE];
       this.str = new SubstringByteArrayOutputStream();
-      this.byteBuffer = ByteBuffer.wrap(buffer);
+      this.byteBuffer = ByteBuffer.wrap(buffer).order(ByteOrder.LITTLE_ENDIAN);
       this.delimiter = delimiter;
       this.skipHeaderLines = skipHeaderLines;
 
@@ -182,13 +190,15 @@ public class TextSource extends FileBasedSource<String> {
 
     @Override
     protected void startReading(ReadableByteChannel channel) throws IOException {
-      this.inChannel = channel;
+      // Uncompressed local files are read through memory mappings rather than read calls.
+      this.inChannel =
+          channel instanceof FileChannel ? new MappedFileChannel((FileChannel) channel) : channel;
       // If the first offset is greater than zero, we need to skip bytes until we see our
       // first delimiter.
       long startOffset = getCurrentSource().getStartOffset();
       if (startOffset > 0) {
         checkState(
-            channel instanceof SeekableByteChannel,
+            inChannel instanceof SeekableByteChannel,
             "%s only supports reading from a SeekableByteChannel when given a start offset"
                 + " greater than 0.",
             TextSource.class.getSimpleName());
@@ -202,7 +212,7 @@ public class TextSource extends FileBasedSource<String> {
         // Handle the case where the requiredPosition is at the beginning of the file so we can
         // skip over UTF8_BOM if present.
         if (requiredPosition < UTF8_BOM.size()) {
-          ((SeekableByteChannel) channel).position(0);
+          ((SeekableByteChannel) inChannel).position(0);
           if (fileStartsWithBom()) {
             startOfNextRecord = bufferPosn = UTF8_BOM.size();
           } else {
@@ -212,7 +222,7 @@ public class TextSource extends FileBasedSource<String> {
         } else {
           skipHeader(skipHeaderLines, false);
           if (requiredPosition > startOfNextRecord) {
-            ((SeekableByteChannel) channel).position(requiredPosition);
+            ((SeekableByteChannel) inChannel).position(requiredPosition);
             startOfNextRecord = requiredPosition;
             bufferLength = bufferPosn = 0;
           }
@@ -347,17 +357,21 @@ public class TextSource extends FileBasedSource<String> {
         }
 
         // Search for the newline
-        for (; bufferPosn < bufferLength; ++bufferPosn) {
-          if (buffer[bufferPosn] == LF) {
-            newlineLength = (prevCharCR) ? 2 : 1;
-            ++bufferPosn; // at next invocation proceed from following byte
-            break;
-          }
-          if (prevCharCR) { // CR + notLF, we are at notLF
-            newlineLength = 1;
-            break;
-          }
-          prevCharCR = (buffer[bufferPosn] == CR);
+        int newline = indexOf(byteBuffer, bufferPosn, bufferLength, LF, CR);
+        if (newline < 0) {
+          bufferPosn = bufferLength;
+        } else if (buffer[newline] == LF) {
+          newlineLength = 1;
+          bufferPosn = newline + 1; // at next invocation proceed from following byte
+        } else if (newline + 1 == bufferLength) {
+          prevCharCR = true;
+          bufferPosn = bufferLength;
+        } else if (buffer[newline + 1] == LF) {
+          newlineLength = 2;
+          bufferPosn = newline + 2;
+        } else { // CR + notLF, proceed from notLF
+          newlineLength = 1;
+          bufferPosn = newline + 1;
         }
 
         // CR at the end of the buffer
@@ -424,9 +438,17 @@ public class TextSource extends FileBasedSource<String> {
 
         int startPosn = bufferPosn;
         boolean delimiterFound = false;
-        for (; bufferPosn < bufferLength; ++bufferPosn) {
-          if (delimiterFinder.feed(buffer[bufferPosn])) {
-            ++bufferPosn;
+        while (bufferPosn < bufferLength) {
+          if (delimiterFinder.delimiterOffset == 0) {
+            // Skip the bytes that can't start the delimiter.
+            int next = indexOf(byteBuffer, bufferPosn, bufferLength, delimiter[0], delimiter[0]);
+            if (next < 0) {
+              bufferPosn = bufferLength;
+              break;
+            }
+            bufferPosn = next;
+          }
+          if (delimiterFinder.feed(buffer[bufferPosn++])) {
             delimiterFound = true;
             break;
           }
@@ -454,6 +476,130 @@ public class TextSource extends FileBasedSource<String> {
       str.reset();
       return true;
     }
+
+    /**
+     * Returns the index of the first byte in {@code [from, to)} of the little endian buffer that is
+     * either {@code first} or {@code second}, or -1 if there is none.
+     *
+     * <p>The buffer is scanned a word at a time: a byte of the word equal to the searched byte is
+     * zero after XOR-ing the word with the searched byte repeated in every byte, and the lowest
+     * zero byte of a word is found with a few arithmetic operations.
+     */
+    @VisibleForTesting
+    static int indexOf(ByteBuffer bytes, int from, int to, byte first, byte second) {
+      long firstPattern = (first & 0xFFL) * ONES;
+      long secondPattern = (second & 0xFFL) * ONES;
+      int i = from;
+      for (; i + Long.BYTES <= to; i += Long.BYTES) {
+        long word = bytes.getLong(i);
+        long matches = zeroBytes(word ^ firstPattern) | zeroBytes(word ^ secondPattern);
+        if (matches != 0) {
+          return i + (Long.numberOfTrailingZeros(matches) >>> 3);
+        }
+      }
+      for (; i < to; ++i) {
+        byte b = bytes.get(i);
+        if (b == first || b == second) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Sets the high bit of the lowest zero byte of the word. The bits of higher bytes may be set
+     * wrongly, which doesn't matter as only the lowest set bit is used.
+     */
+    private static long zeroBytes(long word) {
+      return (word - ONES) & ~word & HIGH_BITS;
+    }
+  }
+
+  /**
+   * A read-only {@link SeekableByteChannel} over a {@link FileChannel} that reads through windows
+   * of the file mapped into memory, rather than issuing a read call per buffer, each of which
+   * copies the data once more through a temporary direct buffer.
+   */
+  @VisibleForTesting
+  static class MappedFileChannel implements SeekableByteChannel {
+    private static final long DEFAULT_WINDOW_SIZE = 64L << 20;
+
+    private final FileChannel channel;
+    private final long windowSize;
+    private long position;
+    private @Nullable MappedByteBuffer window;
+    private long windowStart;
+
+    MappedFileChannel(FileChannel channel) throws IOException {
+      this(channel, DEFAULT_WINDOW_SIZE);
+    }
+
+    @VisibleForTesting
+    MappedFileChannel(FileChannel channel, long windowSize) throws IOException {
+      this.channel = channel;
+      this.windowSize = windowSize;
+      this.position = channel.position();
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+      long size = channel.size();
+      if (position >= size) {
+        return -1;
+      }
+      MappedByteBuffer window = this.window;
+      if (window == null || position < windowStart || position >= windowStart + window.limit()) {
+        window = channel.map(MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+        this.window = window;
+        windowStart = position;
+      }
+      int offset = (int) (position - windowStart);
+      int length = Math.min(dst.remaining(), window.capacity() - offset);
+      window.limit(offset + length);
+      window.position(offset);
+      dst.put(window);
+      window.limit(window.capacity());
+      position += length;
+      return length;
+    }
+
+    @Override
+    public long position() {
+      return position;
+    }
+
+    @Override
+    public MappedFileChannel position(long newPosition) {
+      checkArgument(newPosition >= 0, "position must be non-negative, was %s", newPosition);
+      position = newPosition;
+      return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+      return channel.size();
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+      throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+      return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+      window = null;
+      channel.close();
+    }
   }
 
   /**
@@ -17,6 +17,8 @@
  */
 package org.apache.beam.sdk.state;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 import javax.annotation.Nullable;
@@ -104,6 +106,21 @@ public interface MapState<K, V> extends State {
    */
   ReadableState<V> getOrDefault(K key, @Nullable V defaultValue);
 
+  /**
+   * A deferred lookup of several keys, using null values for the keys that are not found. The
+   * values are returned in the order of the keys.
+   *
+   * <p>Calling {@code readLater()} on the result starts reading all of the keys, which a particular
+   * state implementation is encouraged to do in a single batch rather than one key at a time.
+   */
+  default ReadableState<List<V>> getAll(Iterable<? extends K> keys) {
+    List<ReadableState<V>> values = new ArrayList<>();
+    for (K key : keys) {
+      values.add(get(key));
+    }
+    return ReadableStates.all(values);
+  }
+
   /** Returns an {@link Iterable} over the keys contained in this map. */
   ReadableState<Iterable<K>> keys();
 
@@ -17,6 +17,8 @@
  */
 package org.apache.beam.sdk.state;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -53,6 +55,21 @@ public interface MultimapState<K, V> extends State {
    */
   ReadableState<Iterable<V>> get(K key);
 
+  /**
+   * A deferred lookup of several keys, returning an empty iterable for the keys that are not found.
+   * The values are returned in the order of the keys.
+   *
+   * <p>Calling {@code readLater()} on the result starts reading all of the keys, which a particular
+   * state implementation is encouraged to do in a single batch rather than one key at a time.
+   */
+  default ReadableState<List<Iterable<V>>> getAll(Iterable<? extends K> keys) {
+    List<ReadableState<Iterable<V>>> values = new ArrayList<>();
+    for (K key : keys) {
+      values.add(get(key));
+    }
+    return ReadableStates.all(values);
+  }
+
   /**
    * Removes all values associated with the key from this multimap. This is a no-op if the key is
    * not contained within the multimap.
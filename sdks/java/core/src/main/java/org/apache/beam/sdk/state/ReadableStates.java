@@ -17,6 +17,8 @@
  */
 package org.apache.beam.sdk.state;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.apache.beam.sdk.annotations.Internal;
 
 /** <b><i>For internal use only; no backwards-compatibility guarantees.</i></b> */
@@ -37,4 +39,33 @@ public class ReadableStates {
       }
     };
   }
+
+  /**
+   * A {@link ReadableState} reading all of the given states, returning their values in order.
+   * {@link ReadableState#readLater} is forwarded to all states, so that they can be read in a
+   * single batch.
+   */
+  public static <T> ReadableState<List<T>> all(
+      final List<? extends ReadableState<? extends T>> states) {
+    return new ReadableState<List<T>>() {
+      @Override
+      public List<T> read() {
+        // Make sure all reads are started before blocking on the first one.
+        readLater();
+        List<T> values = new ArrayList<>(states.size());
+        for (ReadableState<? extends T> state : states) {
+          values.add(state.read());
+        }
+        return values;
+      }
+
+      @Override
+      public ReadableState<List<T>> readLater() {
+        for (ReadableState<? extends T> state : states) {
+          state.readLater();
+        }
+        return this;
+      }
+    };
+  }
 }
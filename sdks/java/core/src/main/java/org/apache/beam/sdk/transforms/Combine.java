@@ -17,6 +17,7 @@
  */
 package org.apache.beam.sdk.transforms;
 
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
 
 import java.io.IOException;
@@ -1562,7 +1563,7 @@ public class Combine {
      */
     public PerKeyWithHotKeyFanout<K, InputT, OutputT> withHotKeyFanout(
         SerializableFunction<? super K, Integer> hotKeyFanout) {
-      return new PerKeyWithHotKeyFanout<>(fn, fnDisplayData, hotKeyFanout, fewKeys, sideInputs);
+      return new PerKeyWithHotKeyFanout<>(fn, fnDisplayData, hotKeyFanout, 0, fewKeys, sideInputs);
     }
 
     /**
@@ -1571,22 +1572,50 @@ public class Combine {
      */
     public PerKeyWithHotKeyFanout<K, InputT, OutputT> withHotKeyFanout(final int hotKeyFanout) {
       return new PerKeyWithHotKeyFanout<>(
-          fn,
-          fnDisplayData,
-          new SimpleFunction<K, Integer>() {
-            @Override
-            public void populateDisplayData(DisplayData.Builder builder) {
-              super.populateDisplayData(builder);
-              builder.add(DisplayData.item("fanout", hotKeyFanout).withLabel("Key Fanout Size"));
-            }
+          fn, fnDisplayData, constantFanout(hotKeyFanout), 0, fewKeys, sideInputs);
+    }
 
-            @Override
-            public Integer apply(K unused) {
-              return hotKeyFanout;
-            }
-          },
-          fewKeys,
-          sideInputs);
+    /**
+     * Like {@link #withHotKeyFanout(int)}, but only spreading keys that are detected to be hot at
+     * runtime.
+     *
+     * <p>The frequencies of the keys are estimated while adding the nonces with a small sketch of
+     * the keys recently seen by each worker thread. Keys making up at least {@code hotKeyFraction}
+     * of these are spread among {@code hotKeyFanout} intermediate nodes for partial combining,
+     * while all other keys are combined directly, avoiding the cost of the intermediate node for
+     * them. As the partial accumulators of a key are merged with its remaining values downstream,
+     * the result doesn't depend on which elements were considered hot.
+     *
+     * <p>Keys are only considered hot after a few hundred elements were seen, so this is not
+     * helpful if every bundle only has a few elements.
+     *
+     * @param hotKeyFraction the minimal fraction of the recently seen elements having a key for it
+     *     to be considered hot, in {@code (0, 1]}. Fractions below {@code 0.01} are not reliably
+     *     distinguishable by the sketch.
+     */
+    public PerKeyWithHotKeyFanout<K, InputT, OutputT> withAdaptiveHotKeyFanout(
+        int hotKeyFanout, double hotKeyFraction) {
+      checkArgument(
+          hotKeyFraction > 0 && hotKeyFraction <= 1,
+          "hotKeyFraction must be in (0, 1], was %s",
+          hotKeyFraction);
+      return new PerKeyWithHotKeyFanout<>(
+          fn, fnDisplayData, constantFanout(hotKeyFanout), hotKeyFraction, fewKeys, sideInputs);
+    }
+
+    private SimpleFunction<K, Integer> constantFanout(final int hotKeyFanout) {
+      return new SimpleFunction<K, Integer>() {
+        @Override
+        public void populateDisplayData(DisplayData.Builder builder) {
+          super.populateDisplayData(builder);
+          builder.add(DisplayData.item("fanout", hotKeyFanout).withLabel("Key Fanout Size"));
+        }
+
+        @Override
+        public Integer apply(K unused) {
+          return hotKeyFanout;
+        }
+      };
     }
 
     /** Returns the {@link GlobalCombineFn} used by this Combine operation. */
@@ -1644,6 +1673,8 @@ public class Combine {
     private final GlobalCombineFn<? super InputT, ?, OutputT> fn;
     private final DisplayData.ItemSpec<? extends Class<?>> fnDisplayData;
     private final SerializableFunction<? super K, Integer> hotKeyFanout;
+    // Zero if all keys are spread according to hotKeyFanout.
+    private final double hotKeyFraction;
     private final boolean fewKeys;
     private final List<PCollectionView<?>> sideInputs;
 
@@ -1651,11 +1682,13 @@ public class Combine {
         GlobalCombineFn<? super InputT, ?, OutputT> fn,
         DisplayData.ItemSpec<? extends Class<?>> fnDisplayData,
         SerializableFunction<? super K, Integer> hotKeyFanout,
+        double hotKeyFraction,
         boolean fewKeys,
         List<PCollectionView<?>> sideInputs) {
       this.fn = fn;
       this.fnDisplayData = fnDisplayData;
       this.hotKeyFanout = hotKeyFanout;
+      this.hotKeyFraction = hotKeyFraction;
       this.fewKeys = fewKeys;
       this.sideInputs = sideInputs;
     }
@@ -1902,15 +1935,26 @@ public class Combine {
       }
 
       // Use the provided hotKeyFanout fn to split into "hot" and "cold" keys,
-      // augmenting the hot keys with a nonce.
+      // augmenting the hot keys with a nonce. With a hotKeyFraction, only keys
+      // that are frequent among the recently seen keys are considered hot.
       final TupleTag<KV<KV<K, Integer>, InputT>> hot = new TupleTag<>();
       final TupleTag<KV<K, InputT>> cold = new TupleTag<>();
+      final Coder<K> keyCoder = inputCoder.getKeyCoder();
+      final double hotKeyFraction = this.hotKeyFraction;
       PCollectionTuple split =
           input.apply(
               "AddNonce",
               ParDo.of(
                       new DoFn<KV<K, InputT>, KV<K, InputT>>() {
                         transient int nonce;
+                        transient @Nullable KeyFrequencySketch sketch;
+
+                        @Setup
+                        public void setup() {
+                          if (hotKeyFraction > 0) {
+                            sketch = new KeyFrequencySketch(hotKeyFraction);
+                          }
+                        }
 
                         @StartBundle
                         public void startBundle() {
@@ -1926,6 +1970,12 @@ public class Combine {
                         public void processElement(
                             @Element KV<K, InputT> kv, MultiOutputReceiver receiver) {
                           int spread = hotKeyFanout.apply(kv.getKey());
+                          if (spread > 1
+                              && sketch != null
+                              && !sketch.addAndCheckHot(
+                                  keyCoder.structuralValue(kv.getKey()).hashCode())) {
+                            spread = 1;
+                          }
                           if (spread <= 1) {
                             receiver.get(cold).output(kv);
                           } else {
@@ -2021,6 +2071,10 @@ public class Combine {
       }
       builder.add(
           DisplayData.item("fanoutFn", hotKeyFanout.getClass()).withLabel("Fanout Function"));
+      if (hotKeyFraction > 0) {
+        builder.add(
+            DisplayData.item("hotKeyFraction", hotKeyFraction).withLabel("Hot Key Fraction"));
+      }
     }
 
     /** Returns the side inputs used by this Combine operation. */
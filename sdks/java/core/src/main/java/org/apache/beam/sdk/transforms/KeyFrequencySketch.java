@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.transforms;
+
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A count-min sketch estimating how often keys occurred among the recently seen keys, used to
+ * detect hot keys at runtime.
+ *
+ * <p>Counts are updated conservatively, only incrementing the counters holding the current
+ * estimate, which reduces the overestimation of infrequent keys. All counts are halved every {@link
+ * #DECAY_INTERVAL} keys so that the sketch follows changes of the key distribution. Estimates can
+ * be too high by about {@code e / WIDTH} of the total count, so fractions close to or below that
+ * are not meaningful.
+ *
+ * <p>Not thread safe.
+ */
+final class KeyFrequencySketch {
+  private static final int DEPTH = 4;
+  private static final int WIDTH = 1024;
+  private static final int DECAY_INTERVAL = 64 * 1024;
+
+  /**
+   * The minimum number of keys seen before any key is considered hot, which avoids salting keys
+   * based on the first few elements.
+   */
+  private static final int MIN_SAMPLES = 256;
+
+  private final int[] counters = new int[DEPTH * WIDTH];
+  private final int[] indices = new int[DEPTH];
+  private final double hotKeyFraction;
+  private long total = 0;
+  private int untilDecay = DECAY_INTERVAL;
+
+  KeyFrequencySketch(double hotKeyFraction) {
+    checkArgument(
+        hotKeyFraction > 0 && hotKeyFraction <= 1,
+        "hotKeyFraction must be in (0, 1], was %s",
+        hotKeyFraction);
+    this.hotKeyFraction = hotKeyFraction;
+  }
+
+  /**
+   * Records an occurrence of the key with the given hash code, and returns whether the estimated
+   * frequency of the key is at least the hot key fraction of all recently seen keys.
+   */
+  boolean addAndCheckHot(int hashCode) {
+    int estimate = Integer.MAX_VALUE;
+    // Derive the row hashes from a single well mixed 64 bit hash.
+    long hash = mix(hashCode);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int row = 0; row < DEPTH; row++) {
+      int index = row * WIDTH + ((h1 + row * h2) & (WIDTH - 1));
+      indices[row] = index;
+      estimate = Math.min(estimate, counters[index]);
+    }
+    estimate++;
+    for (int row = 0; row < DEPTH; row++) {
+      if (counters[indices[row]] < estimate) {
+        counters[indices[row]] = estimate;
+      }
+    }
+    total++;
+    if (--untilDecay == 0) {
+      decay();
+    }
+    return total >= MIN_SAMPLES && estimate >= hotKeyFraction * total;
+  }
+
+  /** Returns the estimated number of recent occurrences of the key with the given hash code. */
+  int estimate(int hashCode) {
+    long hash = mix(hashCode);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    int estimate = Integer.MAX_VALUE;
+    for (int row = 0; row < DEPTH; row++) {
+      estimate = Math.min(estimate, counters[row * WIDTH + ((h1 + row * h2) & (WIDTH - 1))]);
+    }
+    return estimate;
+  }
+
+  private void decay() {
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] >>>= 1;
+    }
+    total >>>= 1;
+    untilDecay = DECAY_INTERVAL;
+  }
+
+  /** The finalizer of MurmurHash3, spreading the bits of the hash code over 64 bits. */
+  private static long mix(int hashCode) {
+    long h = hashCode * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.util;
+
+import java.io.EOFException;
+import java.io.InputStream;
+import org.apache.beam.sdk.annotations.Internal;
+import org.apache.beam.vendor.grpc.v1p69p0.com.google.protobuf.ByteString;
+
+/**
+ * An unsynchronized {@link InputStream} over a {@link ByteString} that allows reading ranges of the
+ * underlying bytes without copying.
+ *
+ * <p>Coders may check for this stream to decode directly from the {@link ByteString}, for example
+ * producing a {@link String} with a single copy from the underlying bytes instead of copying them
+ * into an intermediate array first. Coders which are unaware of this stream continue to work
+ * through the {@link InputStream} methods.
+ */
+@Internal
+public final class ByteStringInputStream extends InputStream {
+  private final ByteString bytes;
+  private final int size;
+  private int position;
+  private int mark;
+
+  public ByteStringInputStream(ByteString bytes) {
+    this.bytes = bytes;
+    this.size = bytes.size();
+  }
+
+  @Override
+  public int read() {
+    if (position >= size) {
+      return -1;
+    }
+    return bytes.byteAt(position++) & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    if (len == 0) {
+      return 0;
+    }
+    if (position >= size) {
+      return -1;
+    }
+    int count = Math.min(len, size - position);
+    bytes.copyTo(b, position, off, count);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public long skip(long n) {
+    if (n <= 0) {
+      return 0;
+    }
+    int count = (int) Math.min(n, size - position);
+    position += count;
+    return count;
+  }
+
+  @Override
+  public int available() {
+    return size - position;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return true;
+  }
+
+  @Override
+  public void mark(int readlimit) {
+    mark = position;
+  }
+
+  @Override
+  public void reset() {
+    position = mark;
+  }
+
+  /**
+   * Returns the next {@code length} bytes as a {@link ByteString} sharing the underlying bytes of
+   * this stream and advances past them.
+   */
+  public ByteString readBytes(int length) throws EOFException {
+    if (length < 0 || length > size - position) {
+      throw new EOFException(
+          String.format(
+              "Unable to read %s bytes, only %s bytes are available.", length, size - position));
+    }
+    ByteString result = bytes.substring(position, position + length);
+    position += length;
+    return result;
+  }
+
+  /** Returns the remaining bytes as a {@link ByteString} and advances to the end of the stream. */
+  public ByteString readRemaining() {
+    ByteString result = bytes.substring(position);
+    position = size;
+    return result;
+  }
+}
@@ -42,6 +42,9 @@ public class StreamUtils {
     if (stream instanceof ExposedByteArrayInputStream) {
       // Fast path for the exposed version.
       return ((ExposedByteArrayInputStream) stream).readAll();
+    } else if (stream instanceof ByteStringInputStream) {
+      // Fast path copying directly from the underlying ByteString.
+      return ((ByteStringInputStream) stream).readRemaining().toByteArray();
     } else if (stream instanceof ByteArrayInputStream) {
       // Fast path for ByteArrayInputStream.
       byte[] ret = new byte[stream.available()];
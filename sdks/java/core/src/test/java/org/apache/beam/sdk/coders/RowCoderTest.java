@@ -17,6 +17,7 @@
  */
 package org.apache.beam.sdk.coders;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import java.io.ByteArrayInputStream;
@@ -24,6 +25,7 @@ import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +34,7 @@ import org.apache.beam.sdk.coders.Coder.NonDeterministicException;
 import org.apache.beam.sdk.schemas.Schema;
 import org.apache.beam.sdk.schemas.Schema.FieldType;
 import org.apache.beam.sdk.schemas.Schema.LogicalType;
+import org.apache.beam.sdk.schemas.SchemaCoder;
 import org.apache.beam.sdk.schemas.logicaltypes.EnumerationType;
 import org.apache.beam.sdk.schemas.logicaltypes.EnumerationType.Value;
 import org.apache.beam.sdk.testing.CoderProperties;
@@ -626,4 +629,86 @@ public class RowCoderTest {
     Row decoded = RowCoder.of(schema2).decode(new ByteArrayInputStream(os.toByteArray()));
     assertEquals(expected, decoded);
   }
+
+  /** Encodes the row field by field with the generic component coders of each field type. */
+  private static byte[] encodeWithComponentCoders(Row row) throws Exception {
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    VarIntCoder.of().encode(row.getFieldCount(), os);
+    BitSet nullFields = new BitSet();
+    for (int i = 0; i < row.getFieldCount(); ++i) {
+      if (row.getValue(i) == null) {
+        nullFields.set(i);
+      }
+    }
+    BitSetCoder.of().encode(nullFields, os);
+    for (int i = 0; i < row.getFieldCount(); ++i) {
+      if (row.getValue(i) != null) {
+        SchemaCoder.coderForFieldType(row.getSchema().getField(i).getType().withNullable(false))
+            .encode(row.getValue(i), os);
+      }
+    }
+    return os.toByteArray();
+  }
+
+  @Test
+  public void testPrimitiveCollectionsMatchElementCoderEncoding() throws Exception {
+    Schema schema =
+        Schema.builder()
+            .addArrayField("f_int32s", FieldType.INT32)
+            .addArrayField("f_int64s", FieldType.INT64)
+            .addArrayField("f_floats", FieldType.FLOAT)
+            .addArrayField("f_doubles", FieldType.DOUBLE)
+            .addArrayField("f_booleans", FieldType.BOOLEAN)
+            .addIterableField("f_iterable", FieldType.INT64)
+            .addNullableField("f_nullable", FieldType.array(FieldType.INT32))
+            .build();
+    Row row =
+        Row.withSchema(schema)
+            .addValues(
+                Arrays.asList(0, -1, Integer.MAX_VALUE, Integer.MIN_VALUE),
+                Arrays.asList(0L, -1L, Long.MAX_VALUE, Long.MIN_VALUE),
+                Arrays.asList(1.5f, Float.NaN, -0.0f),
+                Arrays.asList(2.5d, Double.NEGATIVE_INFINITY, -0.0d),
+                Arrays.asList(true, false),
+                Collections.emptyList(),
+                null)
+            .build();
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RowCoder.of(schema).encode(row, os);
+    assertArrayEquals(encodeWithComponentCoders(row), os.toByteArray());
+    CoderProperties.coderDecodeEncodeEqual(RowCoder.of(schema), row);
+  }
+
+  @Test
+  public void testPrimitiveIterableOfUnknownSize() throws Exception {
+    Schema schema = Schema.builder().addIterableField("f_iterable", FieldType.DOUBLE).build();
+    List<Double> values = Arrays.asList(1.0, 2.0, 3.0);
+    Row row = Row.withSchema(schema).attachValues((Iterable<Double>) values::iterator);
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RowCoder.of(schema).encode(row, os);
+    assertArrayEquals(encodeWithComponentCoders(row), os.toByteArray());
+    Row decoded = RowCoder.of(schema).decode(new ByteArrayInputStream(os.toByteArray()));
+    assertEquals(values, Lists.newArrayList(decoded.getIterable("f_iterable")));
+  }
+
+  @Test
+  public void testNullFieldsMatchBitSetEncoding() throws Exception {
+    Schema.Builder builder = Schema.builder();
+    for (int i = 0; i < 20; ++i) {
+      builder.addNullableField("f_" + i, FieldType.INT32);
+    }
+    Schema schema = builder.build();
+    Object[] values = new Object[20];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = (i % 3 == 0 || i == 17) ? null : i;
+    }
+    Row row = Row.withSchema(schema).addValues(values).build();
+
+    ByteArrayOutputStream os = new ByteArrayOutputStream();
+    RowCoder.of(schema).encode(row, os);
+    assertArrayEquals(encodeWithComponentCoders(row), os.toByteArray());
+    CoderProperties.coderDecodeEncodeEqual(RowCoder.of(schema), row);
+  }
 }
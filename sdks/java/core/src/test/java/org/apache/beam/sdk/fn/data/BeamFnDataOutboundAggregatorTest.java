@@ -27,13 +27,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import org.apache.beam.model.fnexecution.v1.BeamFnApi;
 import org.apache.beam.model.fnexecution.v1.BeamFnApi.Elements;
 import org.apache.beam.sdk.coders.ByteArrayCoder;
 import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.coders.LengthPrefixCoder;
+import org.apache.beam.sdk.fn.data.BeamFnDataOutboundAggregator.AdaptiveBufferSize;
 import org.apache.beam.sdk.fn.data.BeamFnDataOutboundAggregator.Receiver;
 import org.apache.beam.sdk.fn.test.TestStreams;
 import org.apache.beam.sdk.options.ExperimentalOptions;
@@ -333,6 +336,83 @@ public class BeamFnDataOutboundAggregatorTest {
     checkEqualInAnyOrder(builder.build(), values.get(1));
   }
 
+  @Test
+  public void testAdaptiveBufferLimit() throws Exception {
+    List<BeamFnApi.Elements> values = new ArrayList<>();
+    AtomicLong nanoTime = new AtomicLong();
+    PipelineOptions options = PipelineOptionsFactory.create();
+    options
+        .as(ExperimentalOptions.class)
+        .setExperiments(
+            Arrays.asList(
+                "data_buffer_size_limit=1000",
+                "data_buffer_adaptive",
+                "data_buffer_adaptive_min_size=100"));
+    BeamFnDataOutboundAggregator aggregator =
+        new BeamFnDataOutboundAggregator(
+            options,
+            endpoint::getInstructionId,
+            TestStreams.<Elements>withOnNext(values::add).build(),
+            false,
+            null,
+            nanoTime::get);
+    FnDataReceiver<byte[]> dataReceiver = registerOutputLocation(aggregator, endpoint, CODER);
+    aggregator.start();
+    assertEquals(1000, aggregator.getBufferSizeLimit());
+
+    // A slow channel shrinks the buffer to the minimum so that data is sent promptly.
+    dataReceiver.accept(new byte[1]);
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    dataReceiver.accept(new byte[997]);
+    assertEquals(1, values.size());
+    assertEquals(100, aggregator.getBufferSizeLimit());
+
+    dataReceiver.accept(new byte[98]);
+    assertEquals(1, values.size());
+    nanoTime.addAndGet(TimeUnit.MICROSECONDS.toNanos(1));
+    dataReceiver.accept(new byte[1]);
+    assertEquals(messageWithData(new byte[98], new byte[1]), values.get(1));
+
+    // A fast channel grows the buffer back to the configured size limit.
+    assertEquals(1000, aggregator.getBufferSizeLimit());
+    dataReceiver.accept(new byte[98]);
+    dataReceiver.accept(new byte[1]);
+    assertEquals(2, values.size());
+
+    aggregator.sendOrCollectBufferedDataAndFinishOutboundStreams();
+    assertEquals(3, values.size());
+
+    // The idle time before the next bundle does not make the channel look slow.
+    nanoTime.addAndGet(TimeUnit.HOURS.toNanos(1));
+    dataReceiver.accept(new byte[999]);
+    assertEquals(4, values.size());
+    assertEquals(1000, aggregator.getBufferSizeLimit());
+  }
+
+  @Test
+  public void testAdaptiveBufferSizeGrowsWhenBackpressured() {
+    AtomicLong nanoTime = new AtomicLong();
+    AdaptiveBufferSize bufferSize =
+        new AdaptiveBufferSize(100, 1000, TimeUnit.MILLISECONDS.toNanos(50), nanoTime::get);
+    assertEquals(1000, bufferSize.getTarget());
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    bufferSize.onFlush(10, 0);
+    assertEquals(100, bufferSize.getTarget());
+
+    // The observed rate is still low but most of the time was spent blocked sending.
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    bufferSize.onFlush(10, TimeUnit.MILLISECONDS.toNanos(900));
+    assertEquals(200, bufferSize.getTarget());
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    bufferSize.onFlush(10, TimeUnit.MILLISECONDS.toNanos(900));
+    assertEquals(400, bufferSize.getTarget());
+
+    nanoTime.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    bufferSize.onFlush(10, 0);
+    assertEquals(100, bufferSize.getTarget());
+  }
+
   private void checkEqualInAnyOrder(Elements first, Elements second) {
     MatcherAssert.assertThat(
         first.getDataList(), Matchers.containsInAnyOrder(second.getDataList().toArray()));
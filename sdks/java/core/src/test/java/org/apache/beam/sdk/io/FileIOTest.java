@@ -19,10 +19,12 @@ package org.apache.beam.sdk.io;
 
 import static org.apache.beam.sdk.io.fs.ResolveOptions.StandardResolveOptions.RESOLVE_FILE;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.MoreObjects.firstNonNull;
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.isA;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -38,14 +40,20 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
+import org.apache.beam.sdk.Pipeline;
+import org.apache.beam.sdk.coders.SerializableCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.coders.VarIntCoder;
 import org.apache.beam.sdk.io.fs.EmptyMatchTreatment;
 import org.apache.beam.sdk.io.fs.MatchResult;
+import org.apache.beam.sdk.io.fs.ResourceId;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.state.StateSpec;
 import org.apache.beam.sdk.state.StateSpecs;
@@ -70,6 +78,7 @@ import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollectionView;
 import org.apache.beam.sdk.values.TypeDescriptor;
 import org.apache.beam.sdk.values.TypeDescriptors;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Strings;
 import org.joda.time.Duration;
 import org.junit.Rule;
 import org.junit.Test;
@@ -547,4 +556,161 @@ public class FileIOTest implements Serializable {
         "Output file shard 0 exists after pipeline completes",
         new File(outputFileName + "-0").exists());
   }
+
+  @Test
+  public void testCompactPlanAndNaming() {
+    assertEquals(
+        Arrays.asList(Arrays.asList(0, 1), Collections.singletonList(3), Arrays.asList(2, 4)),
+        FileIO.Compact.planMerges(Arrays.asList(6L, 6L, 6L, 30L, 6L), 10));
+    assertEquals(
+        Collections.singletonList(Arrays.asList(0, 1)),
+        FileIO.Compact.planMerges(Arrays.asList(3L, 3L), 10));
+
+    ResourceId directory = FileSystems.matchNewResource("/out", true /* isDirectory */);
+    assertEquals(
+        "part-0-of-2-compacted.json.gz",
+        FileIO.Compact.mergedFilename(directory.resolve("part-0-of-2.json.gz", RESOLVE_FILE))
+            .getFilename());
+    assertEquals(
+        "out-2024-01-01T00:00:00.000Z-00000-of-00001-compacted",
+        FileIO.Compact.mergedFilename(
+                directory.resolve("out-2024-01-01T00:00:00.000Z-00000-of-00001", RESOLVE_FILE))
+            .getFilename());
+    assertEquals(
+        "part-0-of-2-compacted-2.json.gz",
+        FileIO.Compact.mergedFilename(
+                directory.resolve("part-0-of-2-compacted.json.gz", RESOLVE_FILE))
+            .getFilename());
+    assertEquals(
+        "part-0-of-2-compacted-3.json",
+        FileIO.Compact.mergedFilename(
+                directory.resolve("part-0-of-2-compacted-2.json", RESOLVE_FILE))
+            .getFilename());
+  }
+
+  @Test
+  public void testCompactRequiresKvCoder() {
+    p.enableAbandonedNodeEnforcement(false);
+    PCollection<KV<String, String>> files =
+        p.apply(Create.of(KV.of("dest", "/out/a.txt")))
+            .setCoder(SerializableCoder.of(new TypeDescriptor<KV<String, String>>() {}));
+    thrown.expect(IllegalArgumentException.class);
+    thrown.expectMessage("requires a KvCoder");
+    files.apply(
+        FileIO.<String, String>compact()
+            .via((file, sink) -> sink.write(file.readFullyAsUTF8String()), TextIO.sink()));
+  }
+
+  @Test
+  @Category(NeedsRunner.class)
+  public void testCompact() throws IOException {
+    File directory = tmpFolder.newFolder();
+    List<KV<String, String>> files = new ArrayList<>();
+    for (String name : Arrays.asList("a", "b", "c", "e")) {
+      File file = new File(directory, name + ".txt");
+      Files.write(file.toPath(), (name + "1\n" + name + "2\n").getBytes(StandardCharsets.UTF_8));
+      files.add(KV.of("dest", file.getAbsolutePath()));
+    }
+    File large = new File(directory, "d.txt");
+    Files.write(large.toPath(), Strings.repeat("d\n", 15).getBytes(StandardCharsets.UTF_8));
+    files.add(KV.of("dest", large.getAbsolutePath()));
+
+    PCollection<KV<String, String>> compacted =
+        p.apply(Create.of(files))
+            .apply(
+                FileIO.<String, String>compact()
+                    .via(
+                        (file, sink) -> {
+                          for (String line : file.readFullyAsUTF8String().split("\n")) {
+                            sink.write(line);
+                          }
+                        },
+                        TextIO.sink())
+                    .withTargetFileSize(10));
+
+    String a = new File(directory, "a-compacted.txt").getAbsolutePath();
+    String c = new File(directory, "c-compacted.txt").getAbsolutePath();
+    PAssert.that(compacted)
+        .containsInAnyOrder(
+            KV.of("dest", a), KV.of("dest", c), KV.of("dest", large.getAbsolutePath()));
+    p.run();
+
+    assertEquals(Arrays.asList("a1", "a2", "b1", "b2"), Files.readAllLines(Paths.get(a)));
+    assertEquals(Arrays.asList("c1", "c2", "e1", "e2"), Files.readAllLines(Paths.get(c)));
+    assertEquals(
+        Arrays.asList("a-compacted.txt", "c-compacted.txt", "d.txt"),
+        Arrays.stream(directory.list()).sorted().collect(Collectors.toList()));
+  }
+
+  @Test
+  @Category(NeedsRunner.class)
+  public void testCompactReadsEveryFileWithItsCompression() throws IOException {
+    File directory = tmpFolder.newFolder();
+    File plain = new File(directory, "a.txt");
+    Files.write(plain.toPath(), "a1\na2\n".getBytes(StandardCharsets.UTF_8));
+    File gzipped = new File(directory, "b.txt.gz");
+    try (Writer writer =
+        new OutputStreamWriter(
+            new GZIPOutputStream(new FileOutputStream(gzipped)), StandardCharsets.UTF_8)) {
+      writer.write("b1\nb2\n");
+    }
+
+    PCollection<KV<String, String>> compacted =
+        p.apply(
+                Create.of(
+                    KV.of("dest", plain.getAbsolutePath()),
+                    KV.of("dest", gzipped.getAbsolutePath())))
+            .apply(
+                FileIO.<String, String>compact()
+                    .via(
+                        (file, sink) -> {
+                          for (String line : file.readFullyAsUTF8String().split("\n")) {
+                            sink.write(line);
+                          }
+                        },
+                        TextIO.sink())
+                    .withTargetFileSize(1000));
+
+    String merged = new File(directory, "a-compacted.txt").getAbsolutePath();
+    PAssert.that(compacted).containsInAnyOrder(KV.of("dest", merged));
+    p.run();
+
+    assertEquals(Arrays.asList("a1", "a2", "b1", "b2"), Files.readAllLines(Paths.get(merged)));
+    assertEquals(Collections.singletonList("a-compacted.txt"), Arrays.asList(directory.list()));
+  }
+
+  @Test
+  @Category(NeedsRunner.class)
+  public void testCompactFailureRemovesTemporaryFiles() throws IOException {
+    File directory = tmpFolder.newFolder();
+    List<KV<String, String>> files = new ArrayList<>();
+    for (String name : Arrays.asList("a", "b")) {
+      File file = new File(directory, name + ".txt");
+      Files.write(file.toPath(), (name + "1\n").getBytes(StandardCharsets.UTF_8));
+      files.add(KV.of("dest", file.getAbsolutePath()));
+    }
+
+    p.apply(Create.of(files))
+        .apply(
+            FileIO.<String, String>compact()
+                .via(
+                    (file, sink) -> {
+                      if (file.getMetadata().resourceId().getFilename().startsWith("b")) {
+                        throw new IOException("Unreadable file");
+                      }
+                      sink.write(file.readFullyAsUTF8String().trim());
+                    },
+                    TextIO.sink())
+                .withTargetFileSize(1000));
+    try {
+      p.run();
+      fail("Expected the compaction to fail");
+    } catch (Pipeline.PipelineExecutionException e) {
+      assertThat(e.getCause(), isA(IOException.class));
+    }
+
+    assertEquals(
+        Arrays.asList("a.txt", "b.txt"),
+        Arrays.stream(directory.list()).sorted().collect(Collectors.toList()));
+  }
 }
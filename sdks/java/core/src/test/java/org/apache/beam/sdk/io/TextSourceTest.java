@@ -22,17 +22,25 @@ import static org.hamcrest.Matchers.containsString;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThrows;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
 @RunWith(JUnit4.class)
 public class TextSourceTest {
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
 
   @Test
   public void testSubstringByteArrayOutputStreamSuccessful() throws IOException {
@@ -130,6 +138,57 @@ public class TextSourceTest {
     assertEquals(Arrays.asList("", "", ""), split("AAB", "AABAABAAB"));
   }
 
+  @Test
+  public void testIndexOf() {
+    ByteBuffer bytes =
+        ByteBuffer.wrap("abcdefghij\rklmnopqrstuvwxyz\n\u00e9".getBytes(StandardCharsets.UTF_8))
+            .order(ByteOrder.LITTLE_ENDIAN);
+    int length = bytes.capacity();
+    assertEquals(
+        10, TextSource.TextBasedReader.indexOf(bytes, 0, length, (byte) '\n', (byte) '\r'));
+    assertEquals(
+        27, TextSource.TextBasedReader.indexOf(bytes, 11, length, (byte) '\n', (byte) '\r'));
+    assertEquals(-1, TextSource.TextBasedReader.indexOf(bytes, 11, 27, (byte) '\n', (byte) '\r'));
+    assertEquals(
+        28, TextSource.TextBasedReader.indexOf(bytes, 0, length, (byte) 0xc3, (byte) 0xc3));
+    assertEquals(25, TextSource.TextBasedReader.indexOf(bytes, 3, length, (byte) 'z', (byte) 'y'));
+    assertEquals(0, TextSource.TextBasedReader.indexOf(bytes, 0, length, (byte) 'a', (byte) 'b'));
+  }
+
+  @Test
+  public void testMappedFileChannel() throws IOException {
+    File file = tempFolder.newFile();
+    byte[] data = new byte[100];
+    for (int i = 0; i < data.length; ++i) {
+      data[i] = (byte) i;
+    }
+    Files.write(file.toPath(), data);
+
+    try (FileInputStream input = new FileInputStream(file);
+        TextSource.MappedFileChannel channel =
+            new TextSource.MappedFileChannel(input.getChannel(), 16)) {
+      assertEquals(100, channel.size());
+      ByteBuffer buffer = ByteBuffer.allocate(10);
+      // Reads don't cross the windows of the file.
+      assertEquals(10, channel.read(buffer));
+      buffer.clear();
+      assertEquals(6, channel.read(buffer));
+      assertEquals(15, buffer.get(5));
+
+      channel.position(95);
+      buffer.clear();
+      assertEquals(5, channel.read(buffer));
+      assertEquals(99, buffer.get(4));
+      assertEquals(-1, channel.read(buffer));
+
+      channel.position(40);
+      buffer.clear();
+      assertEquals(10, channel.read(buffer));
+      assertEquals(40, buffer.get(0));
+      assertEquals(50, channel.position());
+    }
+  }
+
   List<String> split(String delimiter, String text) {
     byte[] delimiterBytes = delimiter.getBytes(StandardCharsets.UTF_8);
     TextSource.KMPDelimiterFinder finder = new TextSource.KMPDelimiterFinder(delimiterBytes);
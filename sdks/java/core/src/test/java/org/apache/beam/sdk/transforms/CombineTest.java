@@ -24,11 +24,13 @@ import static org.apache.beam.sdk.transforms.display.DisplayDataMatchers.include
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkNotNull;
 import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -736,6 +738,46 @@ public class CombineTest implements Serializable {
       pipeline.run();
     }
 
+    @Test
+    @Category({ValidatesRunner.class})
+    public void testAdaptiveHotKeyCombining() {
+      // Key "a" makes up most of the input, so it is spread after a few hundred elements, while
+      // the other keys are combined directly.
+      List<KV<String, Integer>> elements = new ArrayList<>();
+      for (int i = 0; i < 2000; i++) {
+        elements.add(KV.of("a", i % 5));
+        if (i % 10 == 0) {
+          elements.add(KV.of("k" + (i % 100), 3));
+        }
+      }
+      PCollection<KV<String, Integer>> input = createInput(pipeline, elements);
+
+      PCollection<KV<String, Integer>> sum =
+          input.apply(
+              Combine.<String, Integer, Integer>perKey(Sum.ofIntegers())
+                  .withAdaptiveHotKeyFanout(4, 0.1));
+
+      List<KV<String, Integer>> expected = new ArrayList<>();
+      expected.add(KV.of("a", 4000));
+      for (int i = 0; i < 100; i += 10) {
+        expected.add(KV.of("k" + i, 60));
+      }
+      PAssert.that(sum).containsInAnyOrder(expected);
+
+      pipeline.run();
+    }
+
+    @Test
+    public void testAdaptiveHotKeyFanoutInvalidFraction() {
+      IllegalArgumentException e =
+          assertThrows(
+              IllegalArgumentException.class,
+              () ->
+                  Combine.<String, Integer, Integer>perKey(Sum.ofIntegers())
+                      .withAdaptiveHotKeyFanout(4, 0));
+      assertThat(e.getMessage(), containsString("hotKeyFraction"));
+    }
+
     @Test
     @Category(ValidatesRunner.class)
     public void testHotKeyCombiningWithAccumulationMode() {
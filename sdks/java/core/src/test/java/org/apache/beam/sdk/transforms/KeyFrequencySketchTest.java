@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.transforms;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link KeyFrequencySketch}. */
+@RunWith(JUnit4.class)
+public class KeyFrequencySketchTest {
+  @Test
+  public void testDetectsHotKey() {
+    KeyFrequencySketch sketch = new KeyFrequencySketch(0.1);
+    boolean hot = false;
+    boolean coldKeyHot = false;
+    for (int i = 0; i < 10000; i++) {
+      hot = sketch.addAndCheckHot(42);
+      for (int j = 0; j < 4; j++) {
+        coldKeyHot |= sketch.addAndCheckHot(1000 + i * 4 + j);
+      }
+    }
+    assertTrue(hot);
+    assertFalse(coldKeyHot);
+    assertThat(sketch.estimate(42), greaterThanOrEqualTo(10000));
+  }
+
+  @Test
+  public void testNoHotKeysBeforeMinimumSamples() {
+    KeyFrequencySketch sketch = new KeyFrequencySketch(0.5);
+    for (int i = 0; i < 100; i++) {
+      assertFalse(sketch.addAndCheckHot(7));
+    }
+  }
+
+  @Test
+  public void testDecayFollowsDistribution() {
+    KeyFrequencySketch sketch = new KeyFrequencySketch(0.2);
+    for (int i = 0; i < 200000; i++) {
+      sketch.addAndCheckHot(1);
+    }
+    boolean stillHot = true;
+    for (int i = 0; i < 400000; i++) {
+      stillHot = sketch.addAndCheckHot(2 + i % 1000);
+    }
+    assertFalse(stillHot);
+    assertThat(sketch.estimate(1), lessThan(1000));
+  }
+
+  @Test
+  public void testInvalidFraction() {
+    assertThrows(IllegalArgumentException.class, () -> new KeyFrequencySketch(0));
+    assertThrows(IllegalArgumentException.class, () -> new KeyFrequencySketch(1.5));
+  }
+}
@@ -2764,6 +2764,54 @@ public class ParDoTest implements Serializable {
       pipeline.run();
     }
 
+    @Test
+    @Category({ValidatesRunner.class, UsesStatefulParDo.class, UsesMapState.class})
+    public void testMapStateGetAll() {
+      final String stateId = "foo";
+      final String countStateId = "count";
+
+      DoFn<KV<String, KV<String, Integer>>, Integer> fn =
+          new DoFn<KV<String, KV<String, Integer>>, Integer>() {
+
+            @StateId(stateId)
+            private final StateSpec<MapState<String, Integer>> mapState =
+                StateSpecs.map(StringUtf8Coder.of(), VarIntCoder.of());
+
+            @StateId(countStateId)
+            private final StateSpec<CombiningState<Integer, int[], Integer>> countState =
+                StateSpecs.combiningFromInputInternal(VarIntCoder.of(), Sum.ofIntegers());
+
+            @ProcessElement
+            public void processElement(
+                @Element KV<String, KV<String, Integer>> element,
+                @StateId(stateId) MapState<String, Integer> state,
+                @StateId(countStateId) CombiningState<Integer, int[], Integer> count,
+                OutputReceiver<Integer> r) {
+              KV<String, Integer> value = element.getValue();
+              state.put(value.getKey(), value.getValue());
+              count.add(1);
+              if (count.read() >= 3) {
+                List<Integer> values =
+                    state.getAll(Arrays.asList("c", "missing", "a")).readLater().read();
+                assertEquals(Arrays.asList(12, null, 97), values);
+                r.output(values.get(0) + values.get(2));
+              }
+            }
+          };
+
+      PCollection<Integer> output =
+          pipeline
+              .apply(
+                  Create.of(
+                      KV.of("hello", KV.of("a", 97)),
+                      KV.of("hello", KV.of("b", 42)),
+                      KV.of("hello", KV.of("c", 12))))
+              .apply(ParDo.of(fn));
+
+      PAssert.that(output).containsInAnyOrder(109);
+      pipeline.run();
+    }
+
     @Test
     @Category({
       ValidatesRunner.class,
@@ -2917,6 +2965,54 @@ public class ParDoTest implements Serializable {
       pipeline.run();
     }
 
+    @Test
+    @Category({ValidatesRunner.class, UsesStatefulParDo.class, UsesMultimapState.class})
+    public void testMultimapStateGetAll() {
+      final String stateId = "foo:";
+      final String countStateId = "count";
+      DoFn<KV<String, KV<String, Integer>>, Integer> fn =
+          new DoFn<KV<String, KV<String, Integer>>, Integer>() {
+
+            @StateId(stateId)
+            private final StateSpec<MultimapState<String, Integer>> multimapState =
+                StateSpecs.multimap(StringUtf8Coder.of(), VarIntCoder.of());
+
+            @StateId(countStateId)
+            private final StateSpec<CombiningState<Integer, int[], Integer>> countState =
+                StateSpecs.combiningFromInputInternal(VarIntCoder.of(), Sum.ofIntegers());
+
+            @ProcessElement
+            public void processElement(
+                @Element KV<String, KV<String, Integer>> element,
+                @StateId(stateId) MultimapState<String, Integer> state,
+                @StateId(countStateId) CombiningState<Integer, int[], Integer> count,
+                OutputReceiver<Integer> r) {
+              KV<String, Integer> value = element.getValue();
+              state.put(value.getKey(), value.getValue());
+              count.add(1);
+              if (count.read() >= 3) {
+                List<Iterable<Integer>> values =
+                    state.getAll(Arrays.asList("b", "missing", "a")).readLater().read();
+                assertEquals(3, values.size());
+                assertThat(values.get(0), containsInAnyOrder(33));
+                assertThat(values.get(1), emptyIterable());
+                assertThat(values.get(2), containsInAnyOrder(97, 98));
+                r.output(Iterables.size(Iterables.concat(values)));
+              }
+            }
+          };
+      PCollection<Integer> output =
+          pipeline
+              .apply(
+                  Create.of(
+                      KV.of("hello", KV.of("a", 97)),
+                      KV.of("hello", KV.of("a", 98)),
+                      KV.of("hello", KV.of("b", 33))))
+              .apply(ParDo.of(fn));
+      PAssert.that(output).containsInAnyOrder(3);
+      pipeline.run();
+    }
+
     @Test
     @Category({ValidatesRunner.class, UsesStatefulParDo.class, UsesMultimapState.class})
     public void testMultimapStateEntries() {
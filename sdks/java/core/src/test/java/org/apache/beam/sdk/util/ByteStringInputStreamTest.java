@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.io.EOFException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.beam.sdk.coders.ByteArrayCoder;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.LengthPrefixCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarLongCoder;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.vendor.grpc.v1p69p0.com.google.protobuf.ByteString;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link ByteStringInputStream}. */
+@RunWith(JUnit4.class)
+public class ByteStringInputStreamTest {
+
+  private static final ByteString TEST_DATA = ByteString.copyFromUtf8("Hello World!");
+
+  @Test
+  public void testRead() throws Exception {
+    ByteStringInputStream stream = new ByteStringInputStream(TEST_DATA);
+    assertEquals(12, stream.available());
+    assertEquals('H', stream.read());
+    byte[] buffer = new byte[5];
+    assertEquals(5, stream.read(buffer, 0, 5));
+    assertArrayEquals("ello ".getBytes(StandardCharsets.UTF_8), buffer);
+    assertEquals(6, stream.available());
+
+    stream.mark(0);
+    assertEquals(2, stream.skip(2));
+    assertEquals(ByteString.copyFromUtf8("rld!"), stream.readRemaining());
+    assertEquals(-1, stream.read());
+    assertEquals(-1, stream.read(buffer, 0, 5));
+
+    stream.reset();
+    assertEquals(ByteString.copyFromUtf8("Wo"), stream.readBytes(2));
+    assertEquals(ByteString.copyFromUtf8("rld!"), stream.readBytes(4));
+    assertEquals(0, stream.available());
+  }
+
+  @Test
+  public void testReadBytesBeyondEnd() throws Exception {
+    ByteStringInputStream stream = new ByteStringInputStream(TEST_DATA);
+    stream.readBytes(10);
+    assertThrows(EOFException.class, () -> stream.readBytes(3));
+    assertEquals(2, stream.available());
+  }
+
+  @Test
+  public void testDecodeElements() throws Exception {
+    Coder<KV<String, Long>> kvCoder = KvCoder.of(StringUtf8Coder.of(), VarLongCoder.of());
+    Coder<byte[]> lengthPrefixedCoder = LengthPrefixCoder.of(ByteArrayCoder.of());
+    List<KV<String, Long>> kvs =
+        Arrays.asList(KV.of("", 0L), KV.of("abé", -1L), KV.of("Hello World!", 12345L));
+
+    ByteStringOutputStream output = new ByteStringOutputStream();
+    for (KV<String, Long> kv : kvs) {
+      kvCoder.encode(kv, output);
+      lengthPrefixedCoder.encode(kv.getKey().getBytes(StandardCharsets.UTF_8), output);
+    }
+    // Split the encoded data across multiple chunks to exercise non-contiguous ByteStrings.
+    ByteString encoded = output.toByteString();
+    int middle = encoded.size() / 2;
+    ByteString rope = encoded.substring(0, middle).concat(encoded.substring(middle));
+
+    for (ByteString data : Arrays.asList(encoded, rope)) {
+      ByteStringInputStream stream = new ByteStringInputStream(data);
+      for (KV<String, Long> kv : kvs) {
+        assertEquals(kv, kvCoder.decode(stream));
+        assertArrayEquals(
+            kv.getKey().getBytes(StandardCharsets.UTF_8), lengthPrefixedCoder.decode(stream));
+      }
+      assertEquals(0, stream.available());
+    }
+  }
+
+  @Test
+  public void testDecodeTruncatedString() throws Exception {
+    ByteStringOutputStream output = new ByteStringOutputStream();
+    StringUtf8Coder.of().encode("Hello World!", output);
+    ByteString truncated = output.toByteString().substring(0, 5);
+    assertThrows(
+        CoderException.class,
+        () -> StringUtf8Coder.of().decode(new ByteStringInputStream(truncated)));
+  }
+}
@@ -0,0 +1,723 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.extensions.arrow;
+
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.beam.sdk.coders.BitSetCoder;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.extensions.arrow.ArrowConversion.RecordBatchRowIterator;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.sdk.schemas.Schema.Field;
+import org.apache.beam.sdk.schemas.Schema.FieldType;
+import org.apache.beam.sdk.util.VarInt;
+import org.apache.beam.sdk.values.Row;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Instant;
+
+/**
+ * A batch of {@link Row rows} of the same {@link Schema}, stored column by column.
+ *
+ * <p>Like an Arrow record batch, every column holds the values of one field for all rows of the
+ * batch, with a validity bitmap if the field has null values. {@code INT32}, {@code INT64}, {@code
+ * FLOAT}, {@code DOUBLE} and {@code BOOLEAN} columns are stored as primitive arrays, columns of
+ * other types hold the same values a {@link Row} would.
+ *
+ * <p>Batches are immutable. {@link #select(Schema)} and the filter methods return batches sharing
+ * the columns of this batch: a projection only drops columns and a filter only narrows the rows
+ * which are selected, so neither copies any values. Rows are only materialized by {@link
+ * #toRows()}, which makes it possible to chain projections and filters over a batch without
+ * allocating a {@link Row} per element.
+ *
+ * <p>A batch may also hold the timestamp of every row, so that the rows can be output with their
+ * own timestamps again, see {@link #getTimestamp(int)}.
+ */
+public final class RowBatch {
+  private static final BitSetCoder NULLS_CODER = BitSetCoder.of();
+
+  private final Schema schema;
+  private final Column[] columns;
+  // The timestamps of the rows in milliseconds, indexed like the columns, or null if unknown.
+  private final long @Nullable [] timestamps;
+  // Indexes of the selected rows in the columns, or null if all rows are selected.
+  private final int @Nullable [] selection;
+  private final int rowCount;
+
+  private RowBatch(
+      Schema schema,
+      Column[] columns,
+      long @Nullable [] timestamps,
+      int @Nullable [] selection,
+      int rowCount) {
+    this.schema = schema;
+    this.columns = columns;
+    this.timestamps = timestamps;
+    this.selection = selection;
+    this.rowCount = rowCount;
+  }
+
+  /** Returns a batch containing the given rows, which must all have the given schema. */
+  public static RowBatch fromRows(Schema schema, List<Row> rows) {
+    return new RowBatch(schema, toColumns(schema, rows), null, null, rows.size());
+  }
+
+  /**
+   * Returns a batch containing the given rows, which must all have the given schema, and the
+   * timestamp of every row.
+   */
+  public static RowBatch fromRows(Schema schema, List<Row> rows, List<Instant> timestamps) {
+    checkArgument(
+        rows.size() == timestamps.size(),
+        "Expected a timestamp for each of the %s rows, but got %s",
+        rows.size(),
+        timestamps.size());
+    long[] timestampMillis = new long[timestamps.size()];
+    for (int rowIndex = 0; rowIndex < timestampMillis.length; ++rowIndex) {
+      timestampMillis[rowIndex] = timestamps.get(rowIndex).getMillis();
+    }
+    return new RowBatch(schema, toColumns(schema, rows), timestampMillis, null, rows.size());
+  }
+
+  private static Column[] toColumns(Schema schema, List<Row> rows) {
+    Column[] columns = new Column[schema.getFieldCount()];
+    for (int i = 0; i < columns.length; ++i) {
+      columns[i] = Column.create(schema.getField(i).getType(), rows.size());
+    }
+    // Rows usually share a schema instance, so only compare each distinct instance.
+    Schema checkedSchema = schema;
+    for (int rowIndex = 0; rowIndex < rows.size(); ++rowIndex) {
+      Row row = rows.get(rowIndex);
+      if (row.getSchema() != checkedSchema) {
+        checkArgument(
+            row.getSchema().equals(schema),
+            "Row with schema %s does not match batch schema %s",
+            row.getSchema(),
+            schema);
+        checkedSchema = row.getSchema();
+      }
+      for (int i = 0; i < columns.length; ++i) {
+        columns[i].set(rowIndex, row.getValue(i));
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Returns a batch containing the rows of an Arrow record batch. {@code INT32}, {@code INT64},
+   * {@code FLOAT}, {@code DOUBLE} and {@code BOOLEAN} columns are copied directly from the
+   * corresponding Arrow vectors.
+   */
+  public static RowBatch fromRecordBatch(Schema schema, VectorSchemaRoot vectorSchemaRoot) {
+    int rowCount = vectorSchemaRoot.getRowCount();
+    List<FieldVector> vectors = vectorSchemaRoot.getFieldVectors();
+    Column[] columns = new Column[schema.getFieldCount()];
+    @Nullable List<Row> rows = null;
+    for (int i = 0; i < columns.length; ++i) {
+      Column column = Column.create(schema.getField(i).getType(), rowCount);
+      FieldVector vector = vectors.get(i);
+      if (!column.copyFrom(vector, rowCount)) {
+        // Fall back to the value conversions of RecordBatchRowIterator for other types.
+        if (rows == null) {
+          rows = new ArrayList<>(rowCount);
+          RecordBatchRowIterator iterator =
+              ArrowConversion.rowsFromRecordBatch(schema, vectorSchemaRoot);
+          while (iterator.hasNext()) {
+            rows.add(iterator.next());
+          }
+        }
+        for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+          column.set(rowIndex, rows.get(rowIndex).getValue(i));
+        }
+      }
+      columns[i] = column;
+    }
+    return new RowBatch(schema, columns, null, null, rowCount);
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  /** Returns the number of selected rows in this batch. */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Returns the value of a field of the selected row at {@code index}, as {@link Row#getValue}
+   * would.
+   */
+  public @Nullable Object getValue(int index, int fieldIndex) {
+    return columns[fieldIndex].get(rowIndex(index));
+  }
+
+  /** Returns whether this batch holds the timestamps of its rows. */
+  public boolean hasTimestamps() {
+    return timestamps != null;
+  }
+
+  /**
+   * Returns the timestamp of the selected row at {@code index}, or null if this batch does not
+   * hold the timestamps of its rows.
+   */
+  public @Nullable Instant getTimestamp(int index) {
+    return timestamps == null ? null : new Instant(timestamps[rowIndex(index)]);
+  }
+
+  /** Materializes the selected rows of this batch. */
+  public List<Row> toRows() {
+    List<Row> rows = new ArrayList<>(rowCount);
+    for (int index = 0; index < rowCount; ++index) {
+      int rowIndex = rowIndex(index);
+      @Nullable Object[] values = new Object[columns.length];
+      for (int i = 0; i < columns.length; ++i) {
+        values[i] = columns[i].get(rowIndex);
+      }
+      rows.add(Row.withSchema(schema).attachValues(values));
+    }
+    return rows;
+  }
+
+  /** Returns a batch with only the given fields of this batch. */
+  public RowBatch select(String... fieldNames) {
+    Schema.Builder builder = Schema.builder();
+    for (String fieldName : fieldNames) {
+      builder.addField(schema.getField(fieldName));
+    }
+    return select(builder.build());
+  }
+
+  /**
+   * Returns a batch with only the fields of the given schema, which must all be fields of this
+   * batch. Prefer this over {@link #select(String...)} when projecting many batches, so that they
+   * all share the same schema.
+   */
+  public RowBatch select(Schema projection) {
+    Column[] projected = new Column[projection.getFieldCount()];
+    for (int i = 0; i < projected.length; ++i) {
+      Field field = projection.getField(i);
+      checkArgument(
+          schema.hasField(field.getName())
+              && schema.getField(field.getName()).getType().equals(field.getType()),
+          "Field %s is not a field of %s",
+          field,
+          schema);
+      projected[i] = columns[schema.indexOf(field.getName())];
+    }
+    return new RowBatch(projection, projected, timestamps, selection, rowCount);
+  }
+
+  /**
+   * Returns a batch with only the rows for which the value of an {@code INT32} or {@code INT64}
+   * field matches the predicate. Rows where the field is null are dropped.
+   */
+  public RowBatch filterLong(String fieldName, LongPredicate predicate) {
+    Column column = columns[schema.indexOf(fieldName)];
+    int[] matches = new int[rowCount];
+    int matchCount = 0;
+    if (column instanceof IntColumn) {
+      int[] values = ((IntColumn) column).values;
+      for (int index = 0; index < rowCount; ++index) {
+        int rowIndex = rowIndex(index);
+        if (!column.isNull(rowIndex) && predicate.test(values[rowIndex])) {
+          matches[matchCount++] = rowIndex;
+        }
+      }
+    } else if (column instanceof LongColumn) {
+      long[] values = ((LongColumn) column).values;
+      for (int index = 0; index < rowCount; ++index) {
+        int rowIndex = rowIndex(index);
+        if (!column.isNull(rowIndex) && predicate.test(values[rowIndex])) {
+          matches[matchCount++] = rowIndex;
+        }
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Field " + fieldName + " is not an INT32 or INT64 field of " + schema);
+    }
+    return withSelection(matches, matchCount);
+  }
+
+  /**
+   * Returns a batch with only the rows for which the value of a {@code FLOAT} or {@code DOUBLE}
+   * field matches the predicate. Rows where the field is null are dropped.
+   */
+  public RowBatch filterDouble(String fieldName, DoublePredicate predicate) {
+    Column column = columns[schema.indexOf(fieldName)];
+    int[] matches = new int[rowCount];
+    int matchCount = 0;
+    if (column instanceof FloatColumn) {
+      float[] values = ((FloatColumn) column).values;
+      for (int index = 0; index < rowCount; ++index) {
+        int rowIndex = rowIndex(index);
+        if (!column.isNull(rowIndex) && predicate.test(values[rowIndex])) {
+          matches[matchCount++] = rowIndex;
+        }
+      }
+    } else if (column instanceof DoubleColumn) {
+      double[] values = ((DoubleColumn) column).values;
+      for (int index = 0; index < rowCount; ++index) {
+        int rowIndex = rowIndex(index);
+        if (!column.isNull(rowIndex) && predicate.test(values[rowIndex])) {
+          matches[matchCount++] = rowIndex;
+        }
+      }
+    } else {
+      throw new IllegalArgumentException(
+          "Field " + fieldName + " is not a FLOAT or DOUBLE field of " + schema);
+    }
+    return withSelection(matches, matchCount);
+  }
+
+  /**
+   * Returns a batch with only the rows for which the value of a field matches the predicate. The
+   * predicate is passed the value as {@link Row#getValue} would return it, and is not called for
+   * null values, which are dropped.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> RowBatch filter(String fieldName, Predicate<T> predicate) {
+    Column column = columns[schema.indexOf(fieldName)];
+    int[] matches = new int[rowCount];
+    int matchCount = 0;
+    for (int index = 0; index < rowCount; ++index) {
+      int rowIndex = rowIndex(index);
+      @Nullable Object value = column.get(rowIndex);
+      if (value != null && predicate.test((T) value)) {
+        matches[matchCount++] = rowIndex;
+      }
+    }
+    return withSelection(matches, matchCount);
+  }
+
+  /**
+   * Writes the selected rows of this batch column by column, after their timestamps if the batch
+   * holds them. Values of {@code INT32}, {@code INT64}, {@code FLOAT}, {@code DOUBLE} and {@code
+   * BOOLEAN} columns are written directly, values of other columns with the corresponding coder.
+   */
+  void encode(Coder<Object>[] valueCoders, OutputStream outStream) throws IOException {
+    DataOutputStream dataOutput = new DataOutputStream(outStream);
+    VarInt.encode(rowCount, dataOutput);
+    dataOutput.writeBoolean(timestamps != null);
+    if (timestamps != null) {
+      for (int index = 0; index < rowCount; ++index) {
+        dataOutput.writeLong(timestamps[rowIndex(index)]);
+      }
+    }
+    for (int i = 0; i < columns.length; ++i) {
+      Column column = columns[i];
+      BitSet nulls = new BitSet();
+      for (int index = 0; index < rowCount; ++index) {
+        if (column.isNull(rowIndex(index))) {
+          nulls.set(index);
+        }
+      }
+      NULLS_CODER.encode(nulls, dataOutput);
+      for (int index = 0; index < rowCount; ++index) {
+        int rowIndex = rowIndex(index);
+        if (!column.isNull(rowIndex)) {
+          column.write(rowIndex, valueCoders[i], dataOutput);
+        }
+      }
+    }
+    dataOutput.flush();
+  }
+
+  /** Reads a batch written by {@link #encode}. */
+  static RowBatch decode(Schema schema, Coder<Object>[] valueCoders, InputStream inStream)
+      throws IOException {
+    DataInputStream dataInput = new DataInputStream(inStream);
+    int rowCount = VarInt.decodeInt(dataInput);
+    long @Nullable [] timestamps = null;
+    if (dataInput.readBoolean()) {
+      timestamps = new long[rowCount];
+      for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        timestamps[rowIndex] = dataInput.readLong();
+      }
+    }
+    Column[] columns = new Column[schema.getFieldCount()];
+    for (int i = 0; i < columns.length; ++i) {
+      Column column = Column.create(schema.getField(i).getType(), rowCount);
+      BitSet nulls = NULLS_CODER.decode(dataInput);
+      for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        if (nulls.get(rowIndex)) {
+          column.setNull(rowIndex);
+        } else {
+          column.read(rowIndex, valueCoders[i], dataInput);
+        }
+      }
+      columns[i] = column;
+    }
+    return new RowBatch(schema, columns, timestamps, null, rowCount);
+  }
+
+  private RowBatch withSelection(int[] matches, int matchCount) {
+    if (matchCount == rowCount) {
+      return this;
+    }
+    return new RowBatch(
+        schema, columns, timestamps, Arrays.copyOf(matches, matchCount), matchCount);
+  }
+
+  private int rowIndex(int index) {
+    return selection == null ? index : selection[index];
+  }
+
+  @Override
+  public String toString() {
+    return "RowBatch{schema=" + schema + ", rowCount=" + rowCount + "}";
+  }
+
+  /** The values of a single field, with a validity bitmap if any of them are null. */
+  private abstract static class Column {
+    private @Nullable BitSet nulls;
+
+    static Column create(FieldType fieldType, int size) {
+      switch (fieldType.getTypeName()) {
+        case INT32:
+          return new IntColumn(size);
+        case INT64:
+          return new LongColumn(size);
+        case FLOAT:
+          return new FloatColumn(size);
+        case DOUBLE:
+          return new DoubleColumn(size);
+        case BOOLEAN:
+          return new BooleanColumn(size);
+        default:
+          return new ObjectColumn(size);
+      }
+    }
+
+    final boolean isNull(int rowIndex) {
+      return nulls != null && nulls.get(rowIndex);
+    }
+
+    final @Nullable Object get(int rowIndex) {
+      return isNull(rowIndex) ? null : getNonNull(rowIndex);
+    }
+
+    final void set(int rowIndex, @Nullable Object value) {
+      if (value == null) {
+        setNull(rowIndex);
+      } else {
+        setNonNull(rowIndex, value);
+      }
+    }
+
+    final void setNull(int rowIndex) {
+      if (nulls == null) {
+        nulls = new BitSet();
+      }
+      nulls.set(rowIndex);
+    }
+
+    abstract Object getNonNull(int rowIndex);
+
+    abstract void setNonNull(int rowIndex, Object value);
+
+    abstract void write(int rowIndex, Coder<Object> valueCoder, DataOutputStream dataOutput)
+        throws IOException;
+
+    abstract void read(int rowIndex, Coder<Object> valueCoder, DataInputStream dataInput)
+        throws IOException;
+
+    /** Copies the values of a matching Arrow vector, returning false for other vectors. */
+    boolean copyFrom(FieldVector vector, int rowCount) {
+      return false;
+    }
+  }
+
+  private static final class IntColumn extends Column {
+    final int[] values;
+
+    IntColumn(int size) {
+      values = new int[size];
+    }
+
+    @Override
+    void write(int rowIndex, Coder<Object> valueCoder, DataOutputStream dataOutput)
+        throws IOException {
+      dataOutput.writeInt(values[rowIndex]);
+    }
+
+    @Override
+    void read(int rowIndex, Coder<Object> valueCoder, DataInputStream dataInput)
+        throws IOException {
+      values[rowIndex] = dataInput.readInt();
+    }
+
+    @Override
+    Object getNonNull(int rowIndex) {
+      return values[rowIndex];
+    }
+
+    @Override
+    void setNonNull(int rowIndex, Object value) {
+      values[rowIndex] = (Integer) value;
+    }
+
+    @Override
+    boolean copyFrom(FieldVector vector, int rowCount) {
+      if (!(vector instanceof IntVector)) {
+        return false;
+      }
+      IntVector intVector = (IntVector) vector;
+      for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        if (intVector.isNull(rowIndex)) {
+          setNull(rowIndex);
+        } else {
+          values[rowIndex] = intVector.get(rowIndex);
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class LongColumn extends Column {
+    final long[] values;
+
+    LongColumn(int size) {
+      values = new long[size];
+    }
+
+    @Override
+    void write(int rowIndex, Coder<Object> valueCoder, DataOutputStream dataOutput)
+        throws IOException {
+      dataOutput.writeLong(values[rowIndex]);
+    }
+
+    @Override
+    void read(int rowIndex, Coder<Object> valueCoder, DataInputStream dataInput)
+        throws IOException {
+      values[rowIndex] = dataInput.readLong();
+    }
+
+    @Override
+    Object getNonNull(int rowIndex) {
+      return values[rowIndex];
+    }
+
+    @Override
+    void setNonNull(int rowIndex, Object value) {
+      values[rowIndex] = (Long) value;
+    }
+
+    @Override
+    boolean copyFrom(FieldVector vector, int rowCount) {
+      if (!(vector instanceof BigIntVector)) {
+        return false;
+      }
+      BigIntVector bigIntVector = (BigIntVector) vector;
+      for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        if (bigIntVector.isNull(rowIndex)) {
+          setNull(rowIndex);
+        } else {
+          values[rowIndex] = bigIntVector.get(rowIndex);
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class FloatColumn extends Column {
+    final float[] values;
+
+    FloatColumn(int size) {
+      values = new float[size];
+    }
+
+    @Override
+    void write(int rowIndex, Coder<Object> valueCoder, DataOutputStream dataOutput)
+        throws IOException {
+      dataOutput.writeFloat(values[rowIndex]);
+    }
+
+    @Override
+    void read(int rowIndex, Coder<Object> valueCoder, DataInputStream dataInput)
+        throws IOException {
+      values[rowIndex] = dataInput.readFloat();
+    }
+
+    @Override
+    Object getNonNull(int rowIndex) {
+      return values[rowIndex];
+    }
+
+    @Override
+    void setNonNull(int rowIndex, Object value) {
+      values[rowIndex] = (Float) value;
+    }
+
+    @Override
+    boolean copyFrom(FieldVector vector, int rowCount) {
+      if (!(vector instanceof Float4Vector)) {
+        return false;
+      }
+      Float4Vector float4Vector = (Float4Vector) vector;
+      for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        if (float4Vector.isNull(rowIndex)) {
+          setNull(rowIndex);
+        } else {
+          values[rowIndex] = float4Vector.get(rowIndex);
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class DoubleColumn extends Column {
+    final double[] values;
+
+    DoubleColumn(int size) {
+      values = new double[size];
+    }
+
+    @Override
+    void write(int rowIndex, Coder<Object> valueCoder, DataOutputStream dataOutput)
+        throws IOException {
+      dataOutput.writeDouble(values[rowIndex]);
+    }
+
+    @Override
+    void read(int rowIndex, Coder<Object> valueCoder, DataInputStream dataInput)
+        throws IOException {
+      values[rowIndex] = dataInput.readDouble();
+    }
+
+    @Override
+    Object getNonNull(int rowIndex) {
+      return values[rowIndex];
+    }
+
+    @Override
+    void setNonNull(int rowIndex, Object value) {
+      values[rowIndex] = (Double) value;
+    }
+
+    @Override
+    boolean copyFrom(FieldVector vector, int rowCount) {
+      if (!(vector instanceof Float8Vector)) {
+        return false;
+      }
+      Float8Vector float8Vector = (Float8Vector) vector;
+      for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        if (float8Vector.isNull(rowIndex)) {
+          setNull(rowIndex);
+        } else {
+          values[rowIndex] = float8Vector.get(rowIndex);
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class BooleanColumn extends Column {
+    final boolean[] values;
+
+    BooleanColumn(int size) {
+      values = new boolean[size];
+    }
+
+    @Override
+    void write(int rowIndex, Coder<Object> valueCoder, DataOutputStream dataOutput)
+        throws IOException {
+      dataOutput.writeBoolean(values[rowIndex]);
+    }
+
+    @Override
+    void read(int rowIndex, Coder<Object> valueCoder, DataInputStream dataInput)
+        throws IOException {
+      values[rowIndex] = dataInput.readBoolean();
+    }
+
+    @Override
+    Object getNonNull(int rowIndex) {
+      return values[rowIndex];
+    }
+
+    @Override
+    void setNonNull(int rowIndex, Object value) {
+      values[rowIndex] = (Boolean) value;
+    }
+
+    @Override
+    boolean copyFrom(FieldVector vector, int rowCount) {
+      if (!(vector instanceof BitVector)) {
+        return false;
+      }
+      BitVector bitVector = (BitVector) vector;
+      for (int rowIndex = 0; rowIndex < rowCount; ++rowIndex) {
+        if (bitVector.isNull(rowIndex)) {
+          setNull(rowIndex);
+        } else {
+          values[rowIndex] = bitVector.get(rowIndex) != 0;
+        }
+      }
+      return true;
+    }
+  }
+
+  private static final class ObjectColumn extends Column {
+    final Object[] values;
+
+    ObjectColumn(int size) {
+      values = new Object[size];
+    }
+
+    @Override
+    void write(int rowIndex, Coder<Object> valueCoder, DataOutputStream dataOutput)
+        throws IOException {
+      valueCoder.encode(values[rowIndex], dataOutput);
+    }
+
+    @Override
+    void read(int rowIndex, Coder<Object> valueCoder, DataInputStream dataInput)
+        throws IOException {
+      values[rowIndex] = valueCoder.decode(dataInput);
+    }
+
+    @Override
+    Object getNonNull(int rowIndex) {
+      return values[rowIndex];
+    }
+
+    @Override
+    void setNonNull(int rowIndex, Object value) {
+      values[rowIndex] = value;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.extensions.arrow;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.CoderException;
+import org.apache.beam.sdk.coders.CustomCoder;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.sdk.schemas.SchemaCoder;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A {@link CustomCoder} for {@link RowBatch RowBatches} of a given {@link Schema}. Only the
+ * selected rows of a batch are encoded, column by column.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class RowBatchCoder extends CustomCoder<RowBatch> {
+  private final Schema schema;
+  private transient Coder @Nullable [] valueCoders;
+
+  public static RowBatchCoder of(Schema schema) {
+    return new RowBatchCoder(schema);
+  }
+
+  private RowBatchCoder(Schema schema) {
+    this.schema = schema;
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  private Coder[] getValueCoders() {
+    if (valueCoders == null) {
+      // Nulls are encoded in the validity bitmap of every column, so the value coders don't need
+      // to handle them.
+      Coder[] coders = new Coder[schema.getFieldCount()];
+      for (int i = 0; i < coders.length; ++i) {
+        coders[i] = SchemaCoder.coderForFieldType(schema.getField(i).getType().withNullable(false));
+      }
+      valueCoders = coders;
+    }
+    return valueCoders;
+  }
+
+  @Override
+  public void encode(RowBatch value, OutputStream outStream) throws IOException {
+    if (value == null) {
+      throw new CoderException("cannot encode a null RowBatch");
+    }
+    value.encode(getValueCoders(), outStream);
+  }
+
+  @Override
+  public RowBatch decode(InputStream inStream) throws IOException {
+    return RowBatch.decode(schema, getValueCoders(), inStream);
+  }
+
+  @Override
+  public void verifyDeterministic() throws NonDeterministicException {
+    SchemaCoder.of(schema).verifyDeterministic();
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    RowBatchCoder that = (RowBatchCoder) o;
+    return schema.equals(that.schema);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(schema);
+  }
+}
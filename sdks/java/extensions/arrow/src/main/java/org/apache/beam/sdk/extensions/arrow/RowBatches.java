@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.extensions.arrow;
+
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoublePredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.Row;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.joda.time.Duration;
+import org.joda.time.Instant;
+
+/**
+ * {@link PTransform PTransforms} for processing schema'd {@link PCollection PCollections} as {@link
+ * RowBatch RowBatches}.
+ *
+ * <p>{@link #batch(int)} groups the rows of each bundle into batches, which projections and filters
+ * then process a column at a time, and {@link #toRows()} converts them back to rows. As all of
+ * these are simple {@link ParDo ParDos}, runners fuse them into a single stage, so rows are only
+ * materialized at the boundaries of the stage:
+ *
+ * <pre>{@code
+ * PCollection<Row> rows = ...;
+ * PCollection<Row> result =
+ *     rows.apply(RowBatches.batch(1024))
+ *         .apply(RowBatches.filterLong("amount", amount -> amount > 100))
+ *         .apply(RowBatches.select("id", "amount"))
+ *         .apply(RowBatches.toRows());
+ * }</pre>
+ *
+ * <p>Rows are batched per window, and every batch is output with the latest timestamp of its rows.
+ * Batches hold the timestamp of every row, and {@link #toRows()} outputs each row with its own
+ * timestamp again, so batching does not change the timestamps seen by later windowing or timers.
+ */
+public class RowBatches {
+  private RowBatches() {}
+
+  /** A {@link LongPredicate} that can be serialized with the transform using it. */
+  public interface SerializableLongPredicate extends LongPredicate, Serializable {}
+
+  /** A {@link DoublePredicate} that can be serialized with the transform using it. */
+  public interface SerializableDoublePredicate extends DoublePredicate, Serializable {}
+
+  /** A {@link Predicate} that can be serialized with the transform using it. */
+  public interface SerializablePredicate<T> extends Predicate<T>, Serializable {}
+
+  /** Groups rows into {@link RowBatch RowBatches} of at most {@code maxBatchSize} rows. */
+  public static Batch batch(int maxBatchSize) {
+    checkArgument(maxBatchSize > 0, "maxBatchSize must be positive, was %s", maxBatchSize);
+    return new Batch(maxBatchSize);
+  }
+
+  /** Converts {@link RowBatch RowBatches} back to the rows they contain. */
+  public static ToRows toRows() {
+    return new ToRows();
+  }
+
+  /** Projects every {@link RowBatch} onto the given fields. See {@link RowBatch#select}. */
+  public static Select select(String... fieldNames) {
+    return new Select(fieldNames);
+  }
+
+  /**
+   * Filters the rows of every {@link RowBatch} on an {@code INT32} or {@code INT64} field. See
+   * {@link RowBatch#filterLong}.
+   */
+  public static Filter filterLong(String fieldName, SerializableLongPredicate predicate) {
+    return new Filter(batch -> batch.filterLong(fieldName, predicate));
+  }
+
+  /**
+   * Filters the rows of every {@link RowBatch} on a {@code FLOAT} or {@code DOUBLE} field. See
+   * {@link RowBatch#filterDouble}.
+   */
+  public static Filter filterDouble(String fieldName, SerializableDoublePredicate predicate) {
+    return new Filter(batch -> batch.filterDouble(fieldName, predicate));
+  }
+
+  /** Filters the rows of every {@link RowBatch} on a field. See {@link RowBatch#filter}. */
+  public static <T> Filter filter(String fieldName, SerializablePredicate<T> predicate) {
+    return new Filter(batch -> batch.filter(fieldName, predicate));
+  }
+
+  private static Schema getSchema(PCollection<RowBatch> input) {
+    Coder<RowBatch> coder = input.getCoder();
+    checkArgument(
+        coder instanceof RowBatchCoder,
+        "Expected a PCollection of RowBatches with a RowBatchCoder, but the coder is %s",
+        coder);
+    return ((RowBatchCoder) coder).getSchema();
+  }
+
+  private interface BatchFunction extends Serializable {
+    RowBatch apply(RowBatch batch);
+  }
+
+  /** Implementation of {@link #batch(int)}. */
+  public static class Batch extends PTransform<PCollection<Row>, PCollection<RowBatch>> {
+    private final int maxBatchSize;
+
+    private Batch(int maxBatchSize) {
+      this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public PCollection<RowBatch> expand(PCollection<Row> input) {
+      Schema schema = input.getSchema();
+      return input
+          .apply(ParDo.of(new BatchFn(schema, maxBatchSize)))
+          .setCoder(RowBatchCoder.of(schema));
+    }
+  }
+
+  /** Implementation of {@link #toRows()}. */
+  public static class ToRows extends PTransform<PCollection<RowBatch>, PCollection<Row>> {
+    private ToRows() {}
+
+    @Override
+    public PCollection<Row> expand(PCollection<RowBatch> input) {
+      return input
+          .apply(
+              ParDo.of(
+                  new DoFn<RowBatch, Row>() {
+                    // Rows are restored to their own timestamps, which are before the timestamp of
+                    // the batch, the latest of them.
+                    @Override
+                    public Duration getAllowedTimestampSkew() {
+                      return Duration.millis(Long.MAX_VALUE);
+                    }
+
+                    @ProcessElement
+                    public void processElement(
+                        @Element RowBatch batch, OutputReceiver<Row> receiver) {
+                      List<Row> rows = batch.toRows();
+                      for (int index = 0; index < rows.size(); ++index) {
+                        @Nullable Instant timestamp = batch.getTimestamp(index);
+                        if (timestamp == null) {
+                          receiver.output(rows.get(index));
+                        } else {
+                          receiver.outputWithTimestamp(rows.get(index), timestamp);
+                        }
+                      }
+                    }
+                  }))
+          .setRowSchema(getSchema(input));
+    }
+  }
+
+  /** Implementation of {@link #select(String...)}. */
+  public static class Select extends PTransform<PCollection<RowBatch>, PCollection<RowBatch>> {
+    private final String[] fieldNames;
+
+    private Select(String[] fieldNames) {
+      this.fieldNames = fieldNames;
+    }
+
+    @Override
+    public PCollection<RowBatch> expand(PCollection<RowBatch> input) {
+      Schema schema = getSchema(input);
+      Schema.Builder builder = Schema.builder();
+      for (String fieldName : fieldNames) {
+        builder.addField(schema.getField(fieldName));
+      }
+      // Project every batch onto the same schema.
+      Schema projection = builder.build();
+      return input
+          .apply(
+              ParDo.of(
+                  new DoFn<RowBatch, RowBatch>() {
+                    @ProcessElement
+                    public void processElement(
+                        @Element RowBatch batch, OutputReceiver<RowBatch> receiver) {
+                      receiver.output(batch.select(projection));
+                    }
+                  }))
+          .setCoder(RowBatchCoder.of(projection));
+    }
+  }
+
+  /** Implementation of the filter transforms. */
+  public static class Filter extends PTransform<PCollection<RowBatch>, PCollection<RowBatch>> {
+    private final BatchFunction filter;
+
+    private Filter(BatchFunction filter) {
+      this.filter = filter;
+    }
+
+    @Override
+    public PCollection<RowBatch> expand(PCollection<RowBatch> input) {
+      return input
+          .apply(
+              ParDo.of(
+                  new DoFn<RowBatch, RowBatch>() {
+                    @ProcessElement
+                    public void processElement(
+                        @Element RowBatch batch, OutputReceiver<RowBatch> receiver) {
+                      RowBatch filtered = filter.apply(batch);
+                      if (filtered.getRowCount() > 0) {
+                        receiver.output(filtered);
+                      }
+                    }
+                  }))
+          .setCoder(input.getCoder());
+    }
+  }
+
+  /** The rows of a window which have not been output yet. */
+  private static class PendingBatch {
+    private final List<Row> rows = new ArrayList<>();
+    private final List<Instant> timestamps = new ArrayList<>();
+    private Instant maxTimestamp = BoundedWindow.TIMESTAMP_MIN_VALUE;
+
+    void add(Row row, Instant timestamp) {
+      rows.add(row);
+      timestamps.add(timestamp);
+      if (timestamp.isAfter(maxTimestamp)) {
+        maxTimestamp = timestamp;
+      }
+    }
+  }
+
+  private static class BatchFn extends DoFn<Row, RowBatch> {
+    private final Schema schema;
+    private final int maxBatchSize;
+    private transient @Nullable Map<BoundedWindow, PendingBatch> batches;
+
+    BatchFn(Schema schema, int maxBatchSize) {
+      this.schema = schema;
+      this.maxBatchSize = maxBatchSize;
+    }
+
+    @StartBundle
+    public void startBundle() {
+      batches = new HashMap<>();
+    }
+
+    @ProcessElement
+    public void processElement(
+        @Element Row row,
+        @Timestamp Instant timestamp,
+        BoundedWindow window,
+        OutputReceiver<RowBatch> receiver) {
+      Map<BoundedWindow, PendingBatch> batches = checkStateNotNull(this.batches);
+      PendingBatch batch = batches.computeIfAbsent(window, w -> new PendingBatch());
+      batch.add(row, timestamp);
+      if (batch.rows.size() >= maxBatchSize) {
+        // The latest timestamp is never before the timestamp of the current element.
+        receiver.outputWithTimestamp(
+            RowBatch.fromRows(schema, batch.rows, batch.timestamps), batch.maxTimestamp);
+        batches.remove(window);
+      }
+    }
+
+    @FinishBundle
+    public void finishBundle(FinishBundleContext context) {
+      Map<BoundedWindow, PendingBatch> batches = checkStateNotNull(this.batches);
+      for (Map.Entry<BoundedWindow, PendingBatch> entry : batches.entrySet()) {
+        PendingBatch batch = entry.getValue();
+        context.output(
+            RowBatch.fromRows(schema, batch.rows, batch.timestamps),
+            batch.maxTimestamp,
+            entry.getKey());
+      }
+      batches.clear();
+    }
+  }
+}
@@ -0,0 +1,280 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.extensions.arrow;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.util.Text;
+import org.apache.beam.sdk.coders.RowCoder;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.sdk.testing.CoderProperties;
+import org.apache.beam.sdk.testing.PAssert;
+import org.apache.beam.sdk.testing.TestPipeline;
+import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.util.CoderUtils;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.Row;
+import org.apache.beam.sdk.values.TimestampedValue;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableList;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Lists;
+import org.joda.time.Instant;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link RowBatch}, {@link RowBatchCoder} and {@link RowBatches}. */
+@RunWith(JUnit4.class)
+public class RowBatchTest {
+  @Rule public final transient TestPipeline pipeline = TestPipeline.create();
+
+  private static final Schema SCHEMA =
+      Schema.builder()
+          .addInt64Field("id")
+          .addNullableInt32Field("count")
+          .addNullableDoubleField("score")
+          .addStringField("name")
+          .addArrayField("tags", Schema.FieldType.STRING)
+          .build();
+
+  private static final List<Row> ROWS =
+      Arrays.asList(
+          Row.withSchema(SCHEMA).addValues(1L, 10, 0.5, "a", Arrays.asList("x")).build(),
+          Row.withSchema(SCHEMA).addValues(2L, null, 1.5, "b", Arrays.asList()).build(),
+          Row.withSchema(SCHEMA).addValues(3L, 30, null, "c", Arrays.asList("y", "z")).build(),
+          Row.withSchema(SCHEMA).addValues(4L, 40, 4.5, "d", Arrays.asList("x")).build());
+
+  private static Row projected(Schema schema, Row row, String... fieldNames) {
+    Row.Builder builder = Row.withSchema(schema);
+    for (String fieldName : fieldNames) {
+      builder.addValue(row.getValue(fieldName));
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testRoundTripThroughRows() {
+    RowBatch batch = RowBatch.fromRows(SCHEMA, ROWS);
+    assertThat(batch.getRowCount(), equalTo(4));
+    assertThat(batch.toRows(), equalTo(ROWS));
+    assertThat(batch.getValue(1, 1), equalTo(null));
+    assertThat(batch.getValue(2, 3), equalTo("c"));
+  }
+
+  @Test
+  public void testFilterAndSelect() {
+    RowBatch batch =
+        RowBatch.fromRows(SCHEMA, ROWS)
+            .filterLong("count", count -> count >= 30)
+            .filterDouble("score", score -> score > 1)
+            .select("name", "id");
+
+    Schema projection = batch.getSchema();
+    assertThat(projection.getFieldNames(), contains("name", "id"));
+    assertThat(batch.toRows(), contains(projected(projection, ROWS.get(3), "name", "id")));
+
+    RowBatch filtered =
+        RowBatch.fromRows(SCHEMA, ROWS).filter("tags", (List<String> tags) -> tags.contains("x"));
+    assertThat(filtered.toRows(), contains(ROWS.get(0), ROWS.get(3)));
+  }
+
+  @Test
+  public void testFromRowsWithDifferentSchema() {
+    Schema other =
+        Schema.builder()
+            .addInt64Field("other")
+            .addNullableInt32Field("count")
+            .addNullableDoubleField("score")
+            .addStringField("name")
+            .addArrayField("tags", Schema.FieldType.STRING)
+            .build();
+    List<Row> rows =
+        ImmutableList.of(
+            ROWS.get(0),
+            Row.withSchema(other).addValues(5L, 50, 5.5, "e", Arrays.asList()).build());
+    assertThrows(IllegalArgumentException.class, () -> RowBatch.fromRows(SCHEMA, rows));
+  }
+
+  @Test
+  public void testFilterOnWrongFieldType() {
+    RowBatch batch = RowBatch.fromRows(SCHEMA, ROWS);
+    assertThrows(IllegalArgumentException.class, () -> batch.filterLong("score", value -> true));
+    assertThrows(IllegalArgumentException.class, () -> batch.filterDouble("id", value -> true));
+  }
+
+  @Test
+  public void testCoderEncodesSelectedRows() throws Exception {
+    RowBatchCoder coder = RowBatchCoder.of(SCHEMA);
+    RowBatch filtered = RowBatch.fromRows(SCHEMA, ROWS).filterLong("id", id -> id % 2 == 0);
+
+    RowBatch decoded = CoderUtils.clone(coder, filtered);
+    assertThat(decoded.toRows(), contains(ROWS.get(1), ROWS.get(3)));
+    assertThat(decoded.hasTimestamps(), equalTo(false));
+    CoderProperties.coderSerializable(coder);
+  }
+
+  @Test
+  public void testCoderEncodesTimestampsOfSelectedRows() throws Exception {
+    List<Instant> timestamps = new ArrayList<>();
+    for (Row row : ROWS) {
+      timestamps.add(new Instant(row.getInt64("id") * 10));
+    }
+    RowBatch filtered =
+        RowBatch.fromRows(SCHEMA, ROWS, timestamps).filterLong("id", id -> id % 2 == 0);
+    assertThat(filtered.getTimestamp(1), equalTo(new Instant(40)));
+
+    RowBatch decoded = CoderUtils.clone(RowBatchCoder.of(SCHEMA), filtered.select("name"));
+    assertThat(decoded.getRowCount(), equalTo(2));
+    assertThat(decoded.getTimestamp(0), equalTo(new Instant(20)));
+    assertThat(decoded.getTimestamp(1), equalTo(new Instant(40)));
+  }
+
+  @Test
+  public void testFromRecordBatch() {
+    try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+        VectorSchemaRoot root =
+            VectorSchemaRoot.create(
+                new org.apache.arrow.vector.types.pojo.Schema(
+                    ImmutableList.of(
+                        new Field("id", FieldType.notNullable(new ArrowType.Int(64, true)), null),
+                        new Field("name", FieldType.nullable(new ArrowType.Utf8()), null))),
+                allocator)) {
+      BigIntVector ids = (BigIntVector) root.getVector("id");
+      VarCharVector names = (VarCharVector) root.getVector("name");
+      ids.allocateNew(2);
+      names.allocateNew(2);
+      ids.set(0, 7L);
+      ids.set(1, 8L);
+      names.setSafe(0, new Text("seven"));
+      names.setNull(1);
+      root.setRowCount(2);
+
+      Schema schema = ArrowConversion.ArrowSchemaTranslator.toBeamSchema(root.getSchema());
+      RowBatch batch = RowBatch.fromRecordBatch(schema, root);
+      assertThat(
+          batch.toRows(),
+          contains(
+              Row.withSchema(schema).addValues(7L, "seven").build(),
+              Row.withSchema(schema).addValues(8L, null).build()));
+    }
+  }
+
+  @Test
+  public void testBatchTransforms() {
+    PCollection<Row> result =
+        pipeline
+            .apply(Create.of(ROWS).withRowSchema(SCHEMA))
+            .apply(RowBatches.batch(3))
+            .apply(RowBatches.filterLong("id", id -> id > 1))
+            .apply(RowBatches.select("id", "name"))
+            .apply(RowBatches.toRows());
+
+    Schema projection = result.getSchema();
+    PAssert.that(result)
+        .containsInAnyOrder(
+            projected(projection, ROWS.get(1), "id", "name"),
+            projected(projection, ROWS.get(2), "id", "name"),
+            projected(projection, ROWS.get(3), "id", "name"));
+    pipeline.run();
+  }
+
+  private static class HasLatestTimestampFn extends DoFn<RowBatch, Boolean> {
+    @ProcessElement
+    public void processElement(
+        @Element RowBatch batch, @Timestamp Instant timestamp, OutputReceiver<Boolean> receiver) {
+      long maxId = Long.MIN_VALUE;
+      for (Row row : batch.toRows()) {
+        maxId = Math.max(maxId, row.getInt64("id"));
+      }
+      receiver.output(timestamp.getMillis() == maxId);
+    }
+  }
+
+  private static class OutputTimestampFn extends DoFn<Row, KV<Long, Instant>> {
+    @ProcessElement
+    public void processElement(
+        @Element Row row,
+        @Timestamp Instant timestamp,
+        OutputReceiver<KV<Long, Instant>> receiver) {
+      receiver.output(KV.of(row.getInt64("id"), timestamp));
+    }
+  }
+
+  @Test
+  public void testToRowsRestoresTimestampsOfRows() {
+    List<TimestampedValue<Row>> rows = new ArrayList<>();
+    for (Row row : Lists.reverse(ROWS)) {
+      rows.add(TimestampedValue.of(row, new Instant(row.getInt64("id"))));
+    }
+    PCollection<KV<Long, Instant>> timestamps =
+        pipeline
+            .apply(Create.timestamped(rows).withCoder(RowCoder.of(SCHEMA)))
+            .apply(RowBatches.batch(3))
+            .apply(RowBatches.toRows())
+            .apply(ParDo.of(new OutputTimestampFn()));
+
+    PAssert.that(timestamps)
+        .containsInAnyOrder(
+            KV.of(1L, new Instant(1)),
+            KV.of(2L, new Instant(2)),
+            KV.of(3L, new Instant(3)),
+            KV.of(4L, new Instant(4)));
+    pipeline.run();
+  }
+
+  @Test
+  public void testBatchesHaveLatestTimestampOfTheirRows() {
+    // The rows are created with their id as timestamp, latest first.
+    List<TimestampedValue<Row>> rows = new ArrayList<>();
+    for (Row row : Lists.reverse(ROWS)) {
+      rows.add(TimestampedValue.of(row, new Instant(row.getInt64("id"))));
+    }
+    PCollection<Boolean> hasLatestTimestamp =
+        pipeline
+            .apply(Create.timestamped(rows).withCoder(RowCoder.of(SCHEMA)))
+            .apply(RowBatches.batch(3))
+            .apply(ParDo.of(new HasLatestTimestampFn()));
+
+    PAssert.that(hasLatestTimestamp)
+        .satisfies(
+            results -> {
+              for (Boolean result : results) {
+                assertThat(result, equalTo(true));
+              }
+              return null;
+            });
+    pipeline.run();
+  }
+}
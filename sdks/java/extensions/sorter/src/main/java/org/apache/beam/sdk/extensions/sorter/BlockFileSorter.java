@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.extensions.sorter;
+
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.beam.sdk.util.VarInt;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterators;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Lists;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.primitives.UnsignedBytes;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * External sorter that spills sorted runs in a compact block format and merges them through memory
+ * mapped reads.
+ *
+ * <p>Records are buffered on the heap until their estimated size reaches the memory budget. The
+ * buffer is then sorted and written to a temporary file as a run. A run is a sequence of blocks of
+ * roughly {@link #BLOCK_SIZE} bytes, each consisting of its length and record count followed by the
+ * records. Keys are prefix compressed against the previous key of the block, which is effective as
+ * the keys of a run are sorted:
+ *
+ * <pre>
+ *   block  := int32 length, int32 recordCount, record*
+ *   record := varint sharedKeyPrefix, varint keySuffixLength, varint valueLength, keySuffix, value
+ * </pre>
+ *
+ * <p>When {@link #sort()} is called, groups of at most {@code maxFanIn} runs are merged into longer
+ * runs in parallel until at most {@code maxFanIn} runs are left, which are then merged lazily while
+ * iterating. Runs are read through memory mapped windows of the files, so reading them does not use
+ * heap memory beyond the records being merged.
+ */
+class BlockFileSorter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BlockFileSorter.class);
+
+  /** The maximum number of runs merged at once. */
+  static final int DEFAULT_MAX_FAN_IN = 64;
+
+  /** The size at which a block is completed. Blocks are larger if a single record is larger. */
+  private static final int BLOCK_SIZE = 64 * 1024;
+
+  private static final int BLOCK_HEADER_SIZE = 2 * Integer.BYTES;
+
+  /** The size of the windows of run files that are mapped at once. */
+  private static final long MAPPED_WINDOW_SIZE = 64L * 1024 * 1024;
+
+  /**
+   * Estimated heap overhead of a buffered record: the {@link KV} and the headers of its two arrays
+   * on a 64 bit JVM, plus its reference in the buffer.
+   */
+  private static final long RECORD_OVERHEAD = 16 + 2 * (8 + 24) + 8;
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private static final Comparator<byte[]> COMPARATOR = UnsignedBytes.lexicographicalComparator();
+  private static final Comparator<KV<byte[], byte[]>> KV_COMPARATOR =
+      (x, y) -> COMPARATOR.compare(x.getKey(), y.getKey());
+
+  private final Path tempDir;
+  private final long maxMemory;
+  private final int maxFanIn;
+  private final int mergeParallelism;
+
+  private final List<KV<byte[], byte[]>> buffer = new ArrayList<>();
+  private long bufferedBytes = 0;
+  private final List<Path> runs = new ArrayList<>();
+
+  private boolean sortCalled = false;
+
+  /** Create a new file sorter that buffers at most {@code maxMemory} bytes of records. */
+  public BlockFileSorter(Path tempDir, long maxMemory) {
+    this(tempDir, maxMemory, DEFAULT_MAX_FAN_IN, Runtime.getRuntime().availableProcessors());
+  }
+
+  BlockFileSorter(Path tempDir, long maxMemory, int maxFanIn, int mergeParallelism) {
+    checkArgument(maxMemory > 0, "maxMemory must be greater than zero");
+    checkArgument(maxFanIn > 1, "maxFanIn must be greater than one");
+    checkArgument(mergeParallelism > 0, "mergeParallelism must be greater than zero");
+    this.tempDir = tempDir;
+    this.maxMemory = maxMemory;
+    this.maxFanIn = maxFanIn;
+    this.mergeParallelism = mergeParallelism;
+  }
+
+  /**
+   * Adds a given record to the sorter.
+   *
+   * <p>Records can only be added before calling {@link #sort()}.
+   */
+  public void add(byte[] key, byte[] value) throws IOException {
+    checkState(!sortCalled, "Records can only be added before sort()");
+    buffer.add(KV.of(key, value));
+    bufferedBytes += key.length + value.length + RECORD_OVERHEAD;
+    if (bufferedBytes >= maxMemory) {
+      spill();
+    }
+  }
+
+  /**
+   * Sorts the added elements and returns an {@link Iterable} over the sorted elements.
+   *
+   * <p>Can be called at most once.
+   */
+  public Iterable<KV<byte[], byte[]>> sort() throws IOException {
+    checkState(!sortCalled, "sort() can only be called once.");
+    sortCalled = true;
+
+    if (runs.isEmpty()) {
+      // Everything fit into memory, there is no need to touch the disk.
+      return Collections.unmodifiableList(Arrays.asList(sortBuffer()));
+    }
+    if (!buffer.isEmpty()) {
+      spill();
+    }
+    List<Path> finalRuns = mergeToFanIn(new ArrayList<>(runs));
+    return () -> mergeRuns(finalRuns);
+  }
+
+  /** Returns the number of runs spilled to disk so far. */
+  int getSpilledRunCount() {
+    return runs.size();
+  }
+
+  ////////////////////////////////////////////////////////////////////////////////
+
+  @SuppressWarnings("unchecked")
+  private KV<byte[], byte[]>[] sortBuffer() {
+    KV<byte[], byte[]>[] records = buffer.toArray(new KV[0]);
+    buffer.clear();
+    bufferedBytes = 0;
+    Arrays.parallelSort(records, KV_COMPARATOR);
+    return records;
+  }
+
+  /** Sorts the buffered records and writes them to a new run. */
+  private void spill() throws IOException {
+    KV<byte[], byte[]>[] records = sortBuffer();
+    Path run = createRunFile();
+    try (RunWriter writer = new RunWriter(run)) {
+      for (KV<byte[], byte[]> record : records) {
+        writer.write(record.getKey(), record.getValue());
+      }
+    }
+    LOG.debug("Spilled {} records to {}", records.length, run);
+    runs.add(run);
+  }
+
+  private Path createRunFile() throws IOException {
+    Path run = Files.createTempFile(tempDir, "run", ".blk");
+    run.toFile().deleteOnExit();
+    return run;
+  }
+
+  /**
+   * Merges groups of runs until at most {@link #maxFanIn} runs are left. The groups of each level
+   * are merged in parallel.
+   */
+  private List<Path> mergeToFanIn(List<Path> runs) throws IOException {
+    if (runs.size() <= maxFanIn) {
+      return runs;
+    }
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            mergeParallelism,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("block-sorter-%d").build());
+    try {
+      while (runs.size() > maxFanIn) {
+        List<Future<Path>> merged = new ArrayList<>();
+        for (List<Path> group : Lists.partition(runs, maxFanIn)) {
+          merged.add(executor.submit(() -> mergeToRun(group)));
+        }
+        List<Path> nextLevel = new ArrayList<>(merged.size());
+        for (Future<Path> run : merged) {
+          nextLevel.add(getMergedRun(run));
+        }
+        LOG.debug("Merged {} runs into {} runs", runs.size(), nextLevel.size());
+        runs = nextLevel;
+      }
+      return runs;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Path getMergedRun(Future<Path> run) throws IOException {
+    try {
+      return run.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while merging runs", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to merge runs", e.getCause());
+    }
+  }
+
+  /** Merges the given runs into a new run, and deletes them. */
+  private Path mergeToRun(List<Path> group) throws IOException {
+    Path run = createRunFile();
+    try (RunWriter writer = new RunWriter(run)) {
+      Iterator<KV<byte[], byte[]>> records = mergeRuns(group);
+      while (records.hasNext()) {
+        KV<byte[], byte[]> record = records.next();
+        writer.write(record.getKey(), record.getValue());
+      }
+    }
+    for (Path merged : group) {
+      Files.deleteIfExists(merged);
+    }
+    return run;
+  }
+
+  /** Returns an {@link Iterator} merging the records of the given runs. */
+  private static Iterator<KV<byte[], byte[]>> mergeRuns(List<Path> runs) {
+    List<Iterator<KV<byte[], byte[]>>> readers = new ArrayList<>(runs.size());
+    for (Path run : runs) {
+      readers.add(new RunReader(run));
+    }
+    return Iterators.mergeSorted(readers, KV_COMPARATOR);
+  }
+
+  /** Writes sorted records to a run file. */
+  private static class RunWriter implements Closeable {
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream block = new ByteArrayOutputStream(BLOCK_SIZE);
+    private int blockRecords = 0;
+    private byte[] previousKey = EMPTY;
+
+    RunWriter(Path run) throws IOException {
+      this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run)));
+    }
+
+    void write(byte[] key, byte[] value) throws IOException {
+      int shared = sharedPrefixLength(previousKey, key);
+      VarInt.encode(shared, block);
+      VarInt.encode(key.length - shared, block);
+      VarInt.encode(value.length, block);
+      block.write(key, shared, key.length - shared);
+      block.write(value, 0, value.length);
+      previousKey = key;
+      blockRecords++;
+      if (block.size() >= BLOCK_SIZE) {
+        flushBlock();
+      }
+    }
+
+    private void flushBlock() throws IOException {
+      if (blockRecords == 0) {
+        return;
+      }
+      output.writeInt(block.size());
+      output.writeInt(blockRecords);
+      block.writeTo(output);
+      block.reset();
+      blockRecords = 0;
+      previousKey = EMPTY;
+    }
+
+    @Override
+    public void close() throws IOException {
+      flushBlock();
+      output.close();
+    }
+
+    private static int sharedPrefixLength(byte[] a, byte[] b) {
+      int length = Math.min(a.length, b.length);
+      for (int i = 0; i < length; i++) {
+        if (a[i] != b[i]) {
+          return i;
+        }
+      }
+      return length;
+    }
+  }
+
+  /** Reads the records of a run file through memory mapped windows of the file. */
+  private static class RunReader implements Iterator<KV<byte[], byte[]>> {
+    private final Path run;
+    private final long fileSize;
+
+    private ByteBuffer window = ByteBuffer.allocate(0);
+    private long windowStart = 0;
+
+    private long nextBlockOffset = 0;
+    private int remainingInBlock = 0;
+    private byte[] previousKey = EMPTY;
+
+    RunReader(Path run) {
+      this.run = run;
+      try {
+        this.fileSize = Files.size(run);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return remainingInBlock > 0 || nextBlockOffset < fileSize;
+    }
+
+    @Override
+    public KV<byte[], byte[]> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      try {
+        if (remainingInBlock == 0) {
+          startBlock();
+        }
+        int shared = readVarInt();
+        int suffixLength = readVarInt();
+        int valueLength = readVarInt();
+        byte[] key = new byte[shared + suffixLength];
+        System.arraycopy(previousKey, 0, key, 0, shared);
+        window.get(key, shared, suffixLength);
+        byte[] value = new byte[valueLength];
+        window.get(value);
+        previousKey = key;
+        remainingInBlock--;
+        return KV.of(key, value);
+      } catch (IOException | BufferUnderflowException e) {
+        throw new IllegalStateException("Failed to read run " + run, e);
+      }
+    }
+
+    private void startBlock() throws IOException {
+      ensureMapped(nextBlockOffset, BLOCK_HEADER_SIZE);
+      int length = window.getInt();
+      int records = window.getInt();
+      // Make sure the whole block is mapped, so records can be read without bounds checks.
+      ensureMapped(nextBlockOffset, BLOCK_HEADER_SIZE + length);
+      window.position(window.position() + BLOCK_HEADER_SIZE);
+      nextBlockOffset += BLOCK_HEADER_SIZE + length;
+      remainingInBlock = records;
+      previousKey = EMPTY;
+    }
+
+    /**
+     * Ensures {@code length} bytes starting at {@code offset} of the file are mapped, and positions
+     * the window at {@code offset}.
+     */
+    private void ensureMapped(long offset, long length) throws IOException {
+      if (offset < windowStart || offset + length > windowStart + window.limit()) {
+        long size = Math.min(fileSize - offset, Math.max(MAPPED_WINDOW_SIZE, length));
+        // The mapping stays valid after the channel is closed.
+        try (FileChannel channel = FileChannel.open(run, StandardOpenOption.READ)) {
+          MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, size);
+          window = mapped;
+        }
+        windowStart = offset;
+      }
+      window.position((int) (offset - windowStart));
+    }
+
+    private int readVarInt() throws IOException {
+      int result = 0;
+      int shift = 0;
+      int b;
+      do {
+        if (shift >= 32) {
+          throw new IOException("varint overflow in run " + run);
+        }
+        b = window.get();
+        result |= (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+      return result;
+    }
+  }
+}
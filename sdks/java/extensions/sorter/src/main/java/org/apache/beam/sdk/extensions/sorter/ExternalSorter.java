@@ -34,7 +34,13 @@ public abstract class ExternalSorter implements Sorter {
     /** Sorter type. */
     public enum SorterType {
       HADOOP,
-      NATIVE
+      NATIVE,
+      /**
+       * Spills sorted runs in a compact block format, and merges them through memory mapped reads
+       * with intermediate merges running in parallel. Suited to inputs much larger than the memory
+       * buffer.
+       */
+      BLOCK
     }
 
     /** Sets the path to a temporary location where the sorter writes intermediate files. */
@@ -91,9 +97,14 @@ public abstract class ExternalSorter implements Sorter {
 
   /** Returns a {@link Sorter} configured with the given {@link Options}. */
   public static ExternalSorter create(Options options) {
-    return options.getSorterType() == Options.SorterType.HADOOP
-        ? HadoopExternalSorter.create(options)
-        : NativeExternalSorter.create(options);
+    switch (options.getSorterType()) {
+      case HADOOP:
+        return HadoopExternalSorter.create(options);
+      case BLOCK:
+        return BlockExternalSorter.create(options);
+      default:
+        return NativeExternalSorter.create(options);
+    }
   }
 
   ExternalSorter(Options options) {
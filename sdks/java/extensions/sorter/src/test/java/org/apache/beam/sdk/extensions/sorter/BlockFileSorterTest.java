@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.extensions.sorter;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.primitives.UnsignedBytes;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link BlockFileSorter}. */
+@RunWith(JUnit4.class)
+public class BlockFileSorterTest {
+  @Rule public TemporaryFolder tmp = new TemporaryFolder();
+
+  private static final Comparator<byte[]> COMPARATOR = UnsignedBytes.lexicographicalComparator();
+
+  private static void assertSorted(List<KV<byte[], byte[]>> input, BlockFileSorter sorter)
+      throws Exception {
+    List<KV<byte[], byte[]>> expected = new ArrayList<>(input);
+    expected.sort((x, y) -> COMPARATOR.compare(x.getKey(), y.getKey()));
+    List<KV<byte[], byte[]>> actual = new ArrayList<>();
+    for (KV<byte[], byte[]> record : sorter.sort()) {
+      actual.add(record);
+    }
+    assertThat(actual.size(), equalTo(expected.size()));
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(actual.get(i).getKey(), equalTo(expected.get(i).getKey()));
+      assertThat(actual.get(i).getValue(), equalTo(expected.get(i).getValue()));
+    }
+  }
+
+  @Test
+  public void testMultiLevelMerge() throws Exception {
+    Path tempDir = tmp.getRoot().toPath();
+    // A budget of a few records per run and a fan in of 3 require several levels of merges.
+    BlockFileSorter sorter = new BlockFileSorter(tempDir, 4 * 1024, 3, 2);
+    Random random = new Random(0L);
+    List<KV<byte[], byte[]>> input = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      // Short keys drawn from a small alphabet share prefixes and collide.
+      byte[] key = new byte[random.nextInt(6)];
+      for (int j = 0; j < key.length; j++) {
+        key[j] = (byte) random.nextInt(4);
+      }
+      byte[] value = new byte[random.nextInt(16)];
+      random.nextBytes(value);
+      input.add(KV.of(key, value));
+      sorter.add(key, value);
+    }
+    assertThat(sorter.getSpilledRunCount(), greaterThan(9));
+
+    // Equal keys may be returned in any order, so only compare keys and the multiset of values.
+    List<byte[]> keys = new ArrayList<>();
+    long valueChecksum = 0;
+    for (KV<byte[], byte[]> record : sorter.sort()) {
+      keys.add(record.getKey());
+      valueChecksum += Arrays.hashCode(record.getValue());
+    }
+    List<byte[]> expectedKeys = new ArrayList<>();
+    long expectedChecksum = 0;
+    for (KV<byte[], byte[]> record : input) {
+      expectedKeys.add(record.getKey());
+      expectedChecksum += Arrays.hashCode(record.getValue());
+    }
+    expectedKeys.sort(COMPARATOR);
+    assertThat(keys, contains(expectedKeys.toArray()));
+    assertThat(valueChecksum, equalTo(expectedChecksum));
+  }
+
+  @Test
+  public void testRecordsLargerThanBlocks() throws Exception {
+    BlockFileSorter sorter = new BlockFileSorter(tmp.getRoot().toPath(), 256 * 1024, 2, 1);
+    Random random = new Random(1L);
+    List<KV<byte[], byte[]>> input = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      byte[] key = new byte[8];
+      random.nextBytes(key);
+      byte[] value = new byte[100 * 1024];
+      random.nextBytes(value);
+      input.add(KV.of(key, value));
+      sorter.add(key, value);
+    }
+    assertSorted(input, sorter);
+  }
+
+  @Test
+  public void testInMemory() throws Exception {
+    BlockFileSorter sorter = new BlockFileSorter(tmp.getRoot().toPath(), 1024 * 1024);
+    List<KV<byte[], byte[]>> input = new ArrayList<>();
+    for (int i = 100; i > 0; i--) {
+      KV<byte[], byte[]> record = KV.of(new byte[] {(byte) i}, new byte[] {(byte) -i});
+      input.add(record);
+      sorter.add(record.getKey(), record.getValue());
+    }
+    assertThat(sorter.getSpilledRunCount(), equalTo(0));
+    assertSorted(input, sorter);
+  }
+}
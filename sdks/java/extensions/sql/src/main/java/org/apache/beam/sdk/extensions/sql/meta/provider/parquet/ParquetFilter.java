@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.extensions.sql.meta.provider.parquet;
+
+import static java.util.stream.Collectors.toList;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.beam.sdk.extensions.sql.meta.BeamSqlTableFilter;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.plan.RelOptUtil;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.rex.RexCall;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.rex.RexInputRef;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.rex.RexLiteral;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.rex.RexNode;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.sql.SqlKind;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.sql.type.SqlTypeFamily;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators;
+import org.apache.parquet.io.api.Binary;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * ParquetFilter for queries with WHERE clause.
+ *
+ * <p>Translates the supported parts of a predicate to a Parquet {@link FilterPredicate}, which is
+ * used by {@link org.apache.beam.sdk.io.parquet.ParquetIO} to skip row groups and pages, and to
+ * filter out the remaining non-matching records. Supported are conjunctions and disjunctions of:
+ *
+ * <ul>
+ *   <li>comparisons between an {@code INT32}, {@code INT64} or {@code DOUBLE} column and a literal,
+ *   <li>equality comparisons between a {@code STRING} or {@code BOOLEAN} column and a literal,
+ *   <li>{@code BOOLEAN} columns,
+ *   <li>{@code IS NULL} and {@code IS NOT NULL} checks of the above columns.
+ * </ul>
+ */
+@SuppressWarnings({
+  "nullness" // TODO(https://github.com/apache/beam/issues/20497)
+})
+class ParquetFilter implements BeamSqlTableFilter {
+  private final List<RexNode> supported;
+  private final List<RexNode> unsupported;
+  private final Schema schema;
+
+  ParquetFilter(List<RexNode> predicateCNF, Schema schema) {
+    this.schema = schema;
+    supported = predicateCNF.stream().filter(node -> toPredicate(node) != null).collect(toList());
+    unsupported = predicateCNF.stream().filter(node -> toPredicate(node) == null).collect(toList());
+  }
+
+  @Override
+  public List<RexNode> getNotSupported() {
+    return unsupported;
+  }
+
+  @Override
+  public int numSupported() {
+    return BeamSqlTableFilter.expressionsInFilter(supported);
+  }
+
+  public List<RexNode> getSupported() {
+    return supported;
+  }
+
+  @Override
+  public String toString() {
+    String supStr = supported.stream().map(RexNode::toString).collect(Collectors.joining());
+    String unsupStr = unsupported.stream().map(RexNode::toString).collect(Collectors.joining());
+    return String.format("[supported{%s}, unsupported{%s}]", supStr, unsupStr);
+  }
+
+  /** Returns the conjunction of all supported predicates, or null if there are none. */
+  @Nullable
+  FilterPredicate getFilterPredicate() {
+    FilterPredicate predicate = null;
+    for (RexNode node : supported) {
+      FilterPredicate nodePredicate = toPredicate(node);
+      predicate = predicate == null ? nodePredicate : FilterApi.and(predicate, nodePredicate);
+    }
+    return predicate;
+  }
+
+  /** Returns the names of the fields referenced by the supported predicates. */
+  Set<String> getFilteredFields() {
+    Set<String> fieldNames = new LinkedHashSet<>();
+    for (RexNode node : supported) {
+      for (int index : RelOptUtil.InputFinder.bits(node)) {
+        fieldNames.add(schema.getField(index).getName());
+      }
+    }
+    return fieldNames;
+  }
+
+  /** Translates a node to a {@link FilterPredicate}, or returns null if it is not supported. */
+  private @Nullable FilterPredicate toPredicate(RexNode node) {
+    switch (node.getKind()) {
+      case AND:
+      case OR:
+        FilterPredicate predicate = null;
+        for (RexNode operand : ((RexCall) node).getOperands()) {
+          FilterPredicate operandPredicate = toPredicate(operand);
+          if (operandPredicate == null) {
+            return null;
+          }
+          if (predicate == null) {
+            predicate = operandPredicate;
+          } else if (node.getKind() == SqlKind.AND) {
+            predicate = FilterApi.and(predicate, operandPredicate);
+          } else {
+            predicate = FilterApi.or(predicate, operandPredicate);
+          }
+        }
+        return predicate;
+      case INPUT_REF:
+        Schema.Field field = getField(node);
+        if (field == null || field.getType().getTypeName() != Schema.TypeName.BOOLEAN) {
+          return null;
+        }
+        return FilterApi.eq(FilterApi.booleanColumn(field.getName()), true);
+      case IS_NULL:
+      case IS_NOT_NULL:
+        return toNullCheck(node.getKind(), ((RexCall) node).getOperands().get(0));
+      case EQUALS:
+      case NOT_EQUALS:
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+        return toComparison((RexCall) node);
+      default:
+        return null;
+    }
+  }
+
+  private @Nullable FilterPredicate toNullCheck(SqlKind kind, RexNode operand) {
+    Schema.Field field = getField(operand);
+    if (field == null) {
+      return null;
+    }
+    String name = field.getName();
+    switch (field.getType().getTypeName()) {
+      case INT32:
+        return nullCheck(kind, FilterApi.intColumn(name));
+      case INT64:
+        return nullCheck(kind, FilterApi.longColumn(name));
+      case DOUBLE:
+        return nullCheck(kind, FilterApi.doubleColumn(name));
+      case STRING:
+        return nullCheck(kind, FilterApi.binaryColumn(name));
+      case BOOLEAN:
+        return nullCheck(kind, FilterApi.booleanColumn(name));
+      default:
+        return null;
+    }
+  }
+
+  private @Nullable FilterPredicate toComparison(RexCall call) {
+    SqlKind kind = call.getKind();
+    RexNode left = call.getOperands().get(0);
+    RexNode right = call.getOperands().get(1);
+    if (left instanceof RexLiteral) {
+      // Normalize "literal op column" to "column op' literal".
+      RexNode literal = left;
+      left = right;
+      right = literal;
+      kind = kind.reverse();
+    }
+    Schema.Field field = getField(left);
+    if (field == null || !(right instanceof RexLiteral) || ((RexLiteral) right).isNull()) {
+      return null;
+    }
+    RexLiteral literal = (RexLiteral) right;
+    String name = field.getName();
+    SqlTypeFamily family = literal.getTypeName().getFamily();
+    switch (field.getType().getTypeName()) {
+      case INT32:
+      case INT64:
+      case DOUBLE:
+        if (family != SqlTypeFamily.NUMERIC) {
+          return null;
+        }
+        BigDecimal value = literal.getValueAs(BigDecimal.class);
+        if (value == null) {
+          return null;
+        }
+        try {
+          switch (field.getType().getTypeName()) {
+            case INT32:
+              return compare(kind, FilterApi.intColumn(name), value.intValueExact());
+            case INT64:
+              return compare(kind, FilterApi.longColumn(name), value.longValueExact());
+            default:
+              return compare(kind, FilterApi.doubleColumn(name), value.doubleValue());
+          }
+        } catch (ArithmeticException e) {
+          // The literal is out of the range of the column, or has a fractional part.
+          return null;
+        }
+      case STRING:
+        // Parquet orders binary values by their unsigned bytes, which differs from the order of
+        // Java strings, so only equality is pushed down.
+        if (family != SqlTypeFamily.CHARACTER) {
+          return null;
+        }
+        return equality(
+            kind,
+            FilterApi.binaryColumn(name),
+            Binary.fromString(literal.getValueAs(String.class)));
+      case BOOLEAN:
+        if (family != SqlTypeFamily.BOOLEAN) {
+          return null;
+        }
+        return equality(kind, FilterApi.booleanColumn(name), literal.getValueAs(Boolean.class));
+      default:
+        return null;
+    }
+  }
+
+  /** Returns the top level field referenced by the node, or null if it isn't a field reference. */
+  private Schema.@Nullable Field getField(RexNode node) {
+    if (!(node instanceof RexInputRef)) {
+      return null;
+    }
+    Schema.Field field = schema.getField(((RexInputRef) node).getIndex());
+    // Parquet interprets dots in column names as nested columns.
+    return field.getName().contains(".") ? null : field;
+  }
+
+  private static <T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsLtGt>
+      @Nullable FilterPredicate compare(SqlKind kind, C column, T value) {
+    switch (kind) {
+      case LESS_THAN:
+        return FilterApi.lt(column, value);
+      case LESS_THAN_OR_EQUAL:
+        return FilterApi.ltEq(column, value);
+      case GREATER_THAN:
+        return FilterApi.gt(column, value);
+      case GREATER_THAN_OR_EQUAL:
+        return FilterApi.gtEq(column, value);
+      default:
+        return equality(kind, column, value);
+    }
+  }
+
+  private static <
+          T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsEqNotEq>
+      @Nullable FilterPredicate equality(SqlKind kind, C column, T value) {
+    switch (kind) {
+      case EQUALS:
+        return FilterApi.eq(column, value);
+      case NOT_EQUALS:
+        // Parquet keeps null values for notEq, while SQL drops them as null <> value is unknown.
+        return FilterApi.and(FilterApi.notEq(column, value), FilterApi.notEq(column, null));
+      default:
+        return null;
+    }
+  }
+
+  private static <
+          T extends Comparable<T>, C extends Operators.Column<T> & Operators.SupportsEqNotEq>
+      FilterPredicate nullCheck(SqlKind kind, C column) {
+    return kind == SqlKind.IS_NULL ? FilterApi.eq(column, null) : FilterApi.notEq(column, null);
+  }
+}
@@ -19,8 +19,10 @@ package org.apache.beam.sdk.extensions.sql.meta.provider.parquet;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.avro.Schema;
 import org.apache.avro.Schema.Field;
 import org.apache.avro.generic.GenericRecord;
@@ -33,12 +35,16 @@ import org.apache.beam.sdk.extensions.sql.meta.Table;
 import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.parquet.ParquetIO;
 import org.apache.beam.sdk.io.parquet.ParquetIO.Read;
+import org.apache.beam.sdk.schemas.FieldAccessDescriptor;
 import org.apache.beam.sdk.schemas.transforms.Convert;
+import org.apache.beam.sdk.schemas.transforms.Select;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.PCollection.IsBounded;
 import org.apache.beam.sdk.values.POutput;
 import org.apache.beam.sdk.values.Row;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.rex.RexNode;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,12 +74,39 @@ class ParquetTable extends SchemaBaseBeamTable implements Serializable {
     final Schema schema = AvroUtils.toAvroSchema(table.getSchema());
     String filePattern = resolveFilePattern(table.getLocation());
     Read read = ParquetIO.read(schema).withBeamSchemas(true).from(filePattern);
-    if (!fieldNames.isEmpty()) {
-      Schema projectionSchema = projectSchema(schema, fieldNames);
+    List<String> readFieldNames = fieldNames;
+    if (filters instanceof ParquetFilter) {
+      ParquetFilter parquetFilter = (ParquetFilter) filters;
+      FilterPredicate filterPredicate = parquetFilter.getFilterPredicate();
+      if (filterPredicate != null) {
+        LOG.info("Pushing down filter: {}", filterPredicate);
+        read = read.withFilter(filterPredicate);
+        if (!fieldNames.isEmpty()) {
+          // The filtered fields have to be read to filter individual records.
+          Set<String> projectedFieldNames = new LinkedHashSet<>(fieldNames);
+          projectedFieldNames.addAll(parquetFilter.getFilteredFields());
+          readFieldNames = new ArrayList<>(projectedFieldNames);
+        }
+      }
+    }
+    if (!readFieldNames.isEmpty()) {
+      Schema projectionSchema = projectSchema(schema, readFieldNames);
       LOG.info("Projecting fields schema: {}", projectionSchema);
       read = read.withProjection(projectionSchema, projectionSchema);
     }
-    return begin.apply("ParquetIORead", read).apply("ToRows", Convert.toRows());
+    PCollection<Row> rows = begin.apply("ParquetIORead", read).apply("ToRows", Convert.toRows());
+    if (readFieldNames.size() > fieldNames.size()) {
+      rows =
+          rows.apply(
+              "DropFilteredFields",
+              Select.fieldAccess(FieldAccessDescriptor.withFieldNames(fieldNames)));
+    }
+    return rows;
+  }
+
+  @Override
+  public BeamSqlTableFilter constructFilter(List<RexNode> filter) {
+    return new ParquetFilter(filter, getSchema());
   }
 
   /** Returns a copy of the {@link Schema} with only the fieldNames fields. */
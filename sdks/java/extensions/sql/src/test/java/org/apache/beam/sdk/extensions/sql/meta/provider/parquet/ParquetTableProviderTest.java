@@ -17,7 +17,13 @@
  */
 package org.apache.beam.sdk.extensions.sql.meta.provider.parquet;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -26,6 +32,8 @@ import java.util.List;
 import org.apache.beam.sdk.PipelineResult;
 import org.apache.beam.sdk.PipelineResult.State;
 import org.apache.beam.sdk.extensions.sql.impl.BeamSqlEnv;
+import org.apache.beam.sdk.extensions.sql.impl.rel.BeamPushDownIOSourceRel;
+import org.apache.beam.sdk.extensions.sql.impl.rel.BeamRelNode;
 import org.apache.beam.sdk.extensions.sql.impl.rel.BeamSqlRelUtils;
 import org.apache.beam.sdk.schemas.Schema;
 import org.apache.beam.sdk.testing.PAssert;
@@ -33,6 +41,9 @@ import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.transforms.Count;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.Row;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.plan.RelOptUtil;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.rel.RelNode;
+import org.apache.beam.vendor.calcite.v1_40_0.org.apache.calcite.rel.core.Calc;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -68,6 +79,14 @@ public class ParquetTableProviderTest {
     env = BeamSqlEnv.inMemory(new ParquetTableProvider());
   }
 
+  /** Asserts that {@code relNode} reads the table with a pushed-down Parquet filter. */
+  private static void assertFilterPushedDown(RelNode relNode) {
+    assertThat(relNode, instanceOf(BeamPushDownIOSourceRel.class));
+    String plan = RelOptUtil.toString(relNode);
+    assertThat(plan, containsString(ParquetFilter.class.getSimpleName()));
+    assertThat(plan, not(containsString("[supported{}")));
+  }
+
   @Test
   public void testReadAndFilter() {
     File destinationDir = new File(tempFolder.getRoot(), "person-info");
@@ -85,9 +104,15 @@ public class ParquetTableProviderTest {
     writePipeline.run().waitUntilFinish();
 
     Schema projectedSchema = Schema.builder().addStringField("name").addInt64Field("age").build();
-    PCollection<Row> filteredAndProjected =
-        BeamSqlRelUtils.toPCollection(
-            readPipeline, env.parseQuery("SELECT name, age FROM PersonInfo WHERE age > 25"));
+    BeamRelNode relNode = env.parseQuery("SELECT name, age FROM PersonInfo WHERE age > 25");
+    // The whole condition is pushed down, so no Calc filter remains.
+    RelNode ioSourceRel = relNode;
+    if (relNode instanceof Calc) {
+      assertNull(((Calc) relNode).getProgram().getCondition());
+      ioSourceRel = relNode.getInput(0);
+    }
+    assertFilterPushedDown(ioSourceRel);
+    PCollection<Row> filteredAndProjected = BeamSqlRelUtils.toPCollection(readPipeline, relNode);
 
     PAssert.that(filteredAndProjected)
         .containsInAnyOrder(Row.withSchema(projectedSchema).addValues("John", 42L).build());
@@ -95,6 +120,37 @@ public class ParquetTableProviderTest {
     readPipeline.run().waitUntilFinish();
   }
 
+  @Test
+  public void testReadWithFilterOnUnprojectedFields() {
+    File destinationDir = new File(tempFolder.getRoot(), "person-info");
+    String locationPath = destinationDir.getAbsolutePath() + File.separator;
+
+    env.executeDdl(
+        String.format(
+            "CREATE EXTERNAL TABLE PersonInfo %s TYPE parquet LOCATION '%s'",
+            FIELD_NAMES, locationPath));
+
+    BeamSqlRelUtils.toPCollection(
+        writePipeline,
+        env.parseQuery(
+            "INSERT INTO PersonInfo VALUES ('Alan', 22, 'England'), ('John', 42, 'USA')"));
+    writePipeline.run().waitUntilFinish();
+
+    Schema projectedSchema = Schema.builder().addStringField("name").build();
+    BeamRelNode relNode =
+        env.parseQuery("SELECT name FROM PersonInfo WHERE country <> 'USA' AND age < 30");
+    // Only the comparison of age is pushed down, the inequality of strings remains in the Calc.
+    assertThat(relNode, instanceOf(Calc.class));
+    assertNotNull(((Calc) relNode).getProgram().getCondition());
+    assertFilterPushedDown(relNode.getInput(0));
+    PCollection<Row> filteredAndProjected = BeamSqlRelUtils.toPCollection(readPipeline, relNode);
+
+    PAssert.that(filteredAndProjected)
+        .containsInAnyOrder(Row.withSchema(projectedSchema).addValues("Alan").build());
+
+    readPipeline.run().waitUntilFinish();
+  }
+
   @Test
   public void testLocationPathConventions() {
     File destinationDir = new File(tempFolder.getRoot(), "path-test-data");
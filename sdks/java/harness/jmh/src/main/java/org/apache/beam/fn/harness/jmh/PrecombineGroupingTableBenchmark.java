@@ -24,12 +24,15 @@ import java.util.Random;
 import org.apache.beam.fn.harness.Cache;
 import org.apache.beam.fn.harness.Caches;
 import org.apache.beam.fn.harness.Caches.ClearableCache;
+import org.apache.beam.fn.harness.EncodedPrecombineGroupingTable;
+import org.apache.beam.fn.harness.GroupingTable;
 import org.apache.beam.fn.harness.PrecombineGroupingTable;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.transforms.Combine;
 import org.apache.beam.sdk.transforms.Sum;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.WindowedValue;
 import org.apache.beam.sdk.values.WindowedValues;
@@ -61,6 +64,9 @@ public class PrecombineGroupingTableBenchmark {
     @Param({"uniform", "normal", "hotKey", "uniqueKeys"})
     public String distribution;
 
+    @Param({"sampling", "encoded"})
+    public String groupingTable;
+
     @Setup(Level.Trial)
     public void setUp() {
       this.elements = generateTestData(distribution);
@@ -113,14 +119,26 @@ public class PrecombineGroupingTableBenchmark {
       throws Exception {
     ClearableCache<Object, Object> cache =
         new ClearableCache<>(Caches.subCache(table.cache, Thread.currentThread().getName()));
-    PrecombineGroupingTable<String, Integer, int[]> groupingTable =
-        PrecombineGroupingTable.combiningAndSampling(
-            table.options,
-            cache,
-            table.sumInts,
-            StringUtf8Coder.of(),
-            .001,
-            Boolean.valueOf(table.globallyWindowed));
+    GroupingTable<String, Integer, int[]> groupingTable;
+    if ("encoded".equals(table.groupingTable)) {
+      groupingTable =
+          EncodedPrecombineGroupingTable.combining(
+              table.options,
+              cache,
+              table.sumInts,
+              StringUtf8Coder.of(),
+              GlobalWindow.Coder.INSTANCE,
+              Boolean.valueOf(table.globallyWindowed));
+    } else {
+      groupingTable =
+          PrecombineGroupingTable.combiningAndSampling(
+              table.options,
+              cache,
+              table.sumInts,
+              StringUtf8Coder.of(),
+              .001,
+              Boolean.valueOf(table.globallyWindowed));
+    }
     for (int i = 0, size = table.elements.size(); i < size; ++i) {
       groupingTable.put(table.elements.get(i), blackhole::consume);
     }
@@ -33,7 +33,9 @@ import org.apache.beam.sdk.fn.data.FnDataReceiver;
 import org.apache.beam.sdk.function.ThrowingFunction;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.sdk.transforms.Combine.CombineFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
 import org.apache.beam.sdk.transforms.windowing.GlobalWindows;
+import org.apache.beam.sdk.transforms.windowing.WindowFn;
 import org.apache.beam.sdk.util.SerializableUtils;
 import org.apache.beam.sdk.util.construction.PTransformTranslation;
 import org.apache.beam.sdk.util.construction.RehydratedComponents;
@@ -75,19 +77,11 @@ public class CombineRunners {
     private final CombineFn<InputT, AccumT, ?> combineFn;
     private final FnDataReceiver<WindowedValue<KV<KeyT, AccumT>>> output;
     private final Coder<KeyT> keyCoder;
-    private @Nullable PrecombineGroupingTable<KeyT, InputT, AccumT> groupingTable;
+    private final Coder<? extends BoundedWindow> windowCoder;
+    private final boolean useEncodedGroupingTable;
+    private @Nullable GroupingTable<KeyT, InputT, AccumT> groupingTable;
     private boolean isGloballyWindowed;
 
-    PrecombineRunner(
-        PipelineOptions options,
-        String ptransformId,
-        Supplier<Cache<?, ?>> bundleCache,
-        CombineFn<InputT, AccumT, ?> combineFn,
-        FnDataReceiver<WindowedValue<KV<KeyT, AccumT>>> output,
-        Coder<KeyT> keyCoder) {
-      this(options, ptransformId, bundleCache, combineFn, output, keyCoder, false);
-    }
-
     PrecombineRunner(
         PipelineOptions options,
         String ptransformId,
@@ -95,6 +89,7 @@ public class CombineRunners {
         CombineFn<InputT, AccumT, ?> combineFn,
         FnDataReceiver<WindowedValue<KV<KeyT, AccumT>>> output,
         Coder<KeyT> keyCoder,
+        Coder<? extends BoundedWindow> windowCoder,
         boolean isGloballyWindowed) {
       this.options = options;
       this.ptransformId = ptransformId;
@@ -102,16 +97,29 @@ public class CombineRunners {
       this.combineFn = combineFn;
       this.output = output;
       this.keyCoder = keyCoder;
+      this.windowCoder = windowCoder;
       this.isGloballyWindowed = isGloballyWindowed;
+      this.useEncodedGroupingTable = EncodedPrecombineGroupingTable.isSupported(options, keyCoder);
     }
 
-    private PrecombineGroupingTable<KeyT, InputT, AccumT> getGroupingTable() {
+    private GroupingTable<KeyT, InputT, AccumT> getGroupingTable() {
       return checkStateNotNull(
           this.groupingTable,
           "groupingTable not initialized. Did you call this outside of the context of bundle processing?");
     }
 
     void startBundle() {
+      if (useEncodedGroupingTable) {
+        groupingTable =
+            EncodedPrecombineGroupingTable.combining(
+                options,
+                Caches.subCache(bundleCache.get(), ptransformId),
+                combineFn,
+                keyCoder,
+                windowCoder,
+                isGloballyWindowed);
+        return;
+      }
       groupingTable =
           PrecombineGroupingTable.combiningAndSampling(
               options,
@@ -161,11 +169,11 @@ public class CombineRunners {
       // expected KvCoder.
       Coder<?> uncastInputCoder = rehydratedComponents.getCoder(mainInput.getCoderId());
       KvCoder<KeyT, InputT> inputCoder;
-      boolean isGloballyWindowed =
+      WindowFn<?, ?> windowFn =
           rehydratedComponents
               .getWindowingStrategy(mainInput.getWindowingStrategyId())
-              .getWindowFn()
-              .equals(new GlobalWindows());
+              .getWindowFn();
+      boolean isGloballyWindowed = windowFn.equals(new GlobalWindows());
       if (uncastInputCoder instanceof WindowedValueCoder) {
         inputCoder =
             (KvCoder<KeyT, InputT>)
@@ -195,6 +203,7 @@ public class CombineRunners {
               combineFn,
               consumer,
               keyCoder,
+              windowFn.windowCoder(),
               isGloballyWindowed);
 
       // Register the appropriate handlers.
@@ -0,0 +1,590 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.fn.harness;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.apache.beam.fn.harness.Cache.Shrinkable;
+import org.apache.beam.fn.harness.PrecombineGroupingTable.SizeEstimator;
+import org.apache.beam.runners.core.GlobalCombineFnRunner;
+import org.apache.beam.runners.core.GlobalCombineFnRunners;
+import org.apache.beam.runners.core.NullSideInputReader;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.Coder.NonDeterministicException;
+import org.apache.beam.sdk.fn.data.FnDataReceiver;
+import org.apache.beam.sdk.options.ExperimentalOptions;
+import org.apache.beam.sdk.options.PipelineOptions;
+import org.apache.beam.sdk.transforms.Combine.CombineFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
+import org.apache.beam.sdk.transforms.windowing.PaneInfo;
+import org.apache.beam.sdk.util.VarInt;
+import org.apache.beam.sdk.util.Weighted;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.WindowedValue;
+import org.apache.beam.sdk.values.WindowedValues;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.annotations.VisibleForTesting;
+import org.joda.time.Instant;
+
+/**
+ * A {@link GroupingTable} which stores the encoded grouping keys in a single growable byte slab
+ * indexed by an open-addressing hash table.
+ *
+ * <p>Unlike {@link PrecombineGroupingTable}, inserting a value for a key which is already present
+ * does not allocate a grouping key or table entry: the key (and windows) are encoded at the end of
+ * the slab, compared against the existing entry and the slab is rolled back. The memory used by the
+ * keys is known exactly. Accumulators are kept as live objects, so a random sample of those which
+ * changed is weighed with {@link Caches#weigh} periodically and the weight of the others is
+ * extrapolated from it. The windows and timestamp of each entry use a fixed estimate, for which a
+ * single window is weighed.
+ *
+ * <p>Entries are not tracked in least recently used order so when the table exceeds the weight
+ * granted to it by the {@link Cache}, it is compacted and, if that is not enough, all entries are
+ * flushed.
+ *
+ * <p>Requires a deterministic key coder, see {@link #isSupported}. Enabled with the {@link
+ * #ENCODED_GROUPING_TABLE_EXPERIMENT} experiment.
+ *
+ * <p>{@link NotThreadSafe} because the caller must use the bundle processing thread when invoking
+ * {@link #put} and {@link #flush}. {@link #shrink} may be called from any thread.
+ */
+@SuppressWarnings({
+  "nullness" // TODO(https://github.com/apache/beam/issues/20497)
+})
+@NotThreadSafe
+public class EncodedPrecombineGroupingTable<K, InputT, AccumT>
+    implements GroupingTable<K, InputT, AccumT>,
+        Shrinkable<EncodedPrecombineGroupingTable<K, InputT, AccumT>>,
+        Weighted {
+
+  /** The experiment which selects this grouping table for lifted combiners. */
+  public static final String ENCODED_GROUPING_TABLE_EXPERIMENT =
+      "beam_fn_api_encoded_precombine_grouping_table";
+
+  /**
+   * The number of entries at which the table is flushed regardless of its weight. Open addressing
+   * keeps lookups cheap well past the limit used by {@link PrecombineGroupingTable}.
+   */
+  @VisibleForTesting static final int DEFAULT_MAX_GROUPING_TABLE_SIZE = 1 << 16;
+
+  /**
+   * The number of inputs added since accumulators were last measured which triggers measuring the
+   * changed accumulators even if the key slab has not grown enough to require it.
+   */
+  @VisibleForTesting static final int MEASUREMENT_INTERVAL = 1024;
+
+  /**
+   * The maximum number of changed accumulators which are weighed per measurement, the weight of the
+   * other changed accumulators is assumed to be their average.
+   */
+  @VisibleForTesting static final int MEASUREMENT_SAMPLES = 8;
+
+  /**
+   * The bytes used per entry by the parallel arrays: 4 ints, 3 references, a long and 2 booleans.
+   */
+  @VisibleForTesting static final long ENTRY_OVERHEAD = 4 * 4 + 3 * Caches.REFERENCE_SIZE + 8 + 2;
+
+  /** The bytes used by an output timestamp: an object header and a long. */
+  private static final long TIMESTAMP_WEIGHT = 16 + 8;
+
+  private static final Collection<? extends BoundedWindow> GLOBAL_WINDOWS =
+      Collections.singletonList(GlobalWindow.INSTANCE);
+
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int INITIAL_SLAB_SIZE = 1024;
+
+  /** The largest array size which the JVM reliably allocates. */
+  private static final int MAX_SLAB_SIZE = Integer.MAX_VALUE - 8;
+
+  /**
+   * Returns true if the experiment selecting this table is enabled and the key coder is
+   * deterministic, which is required since keys are grouped by their encoded form.
+   */
+  public static boolean isSupported(PipelineOptions options, Coder<?> keyCoder) {
+    if (!ExperimentalOptions.hasExperiment(options, ENCODED_GROUPING_TABLE_EXPERIMENT)) {
+      return false;
+    }
+    try {
+      keyCoder.verifyDeterministic();
+      return true;
+    } catch (NonDeterministicException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns a grouping table that combines inputs into an accumulator. The grouping table uses the
+   * cache to defer flushing output until the cache evicts the table.
+   *
+   * <p>The {@code windowCoder} is only used when the input is not globally windowed.
+   */
+  public static <K, InputT, AccumT> EncodedPrecombineGroupingTable<K, InputT, AccumT> combining(
+      PipelineOptions options,
+      Cache<Object, Object> cache,
+      CombineFn<InputT, AccumT, ?> combineFn,
+      Coder<K> keyCoder,
+      Coder<? extends BoundedWindow> windowCoder,
+      boolean isGloballyWindowed) {
+    return new EncodedPrecombineGroupingTable<>(
+        options,
+        cache,
+        keyCoder,
+        windowCoder,
+        GlobalCombineFnRunners.create(combineFn),
+        isGloballyWindowed,
+        DEFAULT_MAX_GROUPING_TABLE_SIZE);
+  }
+
+  private static final class Key implements Weighted {
+    private static final Key INSTANCE = new Key();
+
+    @Override
+    public long getWeight() {
+      // Ignore the actual size of this singleton because it is trivial and because
+      // the weight reported here will be counted many times as it is present in
+      // many different state subcaches.
+      return 0;
+    }
+  }
+
+  private final PipelineOptions options;
+  private final Cache<Key, EncodedPrecombineGroupingTable<K, InputT, AccumT>> cache;
+  private final Coder<K> keyCoder;
+  private final Coder<BoundedWindow> windowCoder;
+  private final GlobalCombineFnRunner<InputT, AccumT, ?> combineFn;
+  private final boolean isGloballyWindowed;
+  private final int maxEntries;
+  private final AtomicLong maxWeight;
+  private final SizeEstimator sizer;
+  private final Random random;
+  private final SlabOutputStream slabOutput;
+
+  // The encoded grouping keys of all entries, back to back.
+  private byte[] slab;
+  private int slabSize;
+
+  // Per entry state, indexed by entry number.
+  private int size;
+  private int[] keyOffsets;
+  private int[] keyLengths;
+  private int[] keyHashes;
+  private Object[] accumulators;
+  private Instant[] outputTimestamps;
+  private Collection<? extends BoundedWindow>[] windows;
+  private long[] accumulatorSizes;
+  private boolean[] compacted;
+  private boolean[] pendingMeasurement;
+
+  // Entries whose accumulator changed since its size was last measured.
+  private int[] unmeasured;
+  private int unmeasuredCount;
+  private int inputsSinceMeasurement;
+
+  // Open addressing index storing the entry number + 1, 0 marks an empty bucket.
+  private int[] index;
+
+  private long accumulatorsWeight;
+  // The estimated weight of the windows and timestamps of all entries.
+  private long windowsWeight;
+  // The weight of a single window, weighed when the first window is added.
+  private long windowWeight = -1;
+  private long lastWeightForFlush;
+
+  @VisibleForTesting
+  EncodedPrecombineGroupingTable(
+      PipelineOptions options,
+      Cache<?, ?> cache,
+      Coder<K> keyCoder,
+      Coder<? extends BoundedWindow> windowCoder,
+      GlobalCombineFnRunner<InputT, AccumT, ?> combineFn,
+      boolean isGloballyWindowed,
+      int maxEntries) {
+    this(
+        options,
+        cache,
+        keyCoder,
+        windowCoder,
+        combineFn,
+        isGloballyWindowed,
+        maxEntries,
+        Caches::weigh);
+  }
+
+  @VisibleForTesting
+  EncodedPrecombineGroupingTable(
+      PipelineOptions options,
+      Cache<?, ?> cache,
+      Coder<K> keyCoder,
+      Coder<? extends BoundedWindow> windowCoder,
+      GlobalCombineFnRunner<InputT, AccumT, ?> combineFn,
+      boolean isGloballyWindowed,
+      int maxEntries,
+      SizeEstimator sizer) {
+    this.options = options;
+    this.cache = (Cache<Key, EncodedPrecombineGroupingTable<K, InputT, AccumT>>) cache;
+    this.keyCoder = keyCoder;
+    this.windowCoder = (Coder<BoundedWindow>) windowCoder;
+    this.combineFn = combineFn;
+    this.isGloballyWindowed = isGloballyWindowed;
+    this.maxEntries = maxEntries;
+    this.maxWeight = new AtomicLong();
+    this.sizer = sizer;
+    this.random = new Random();
+    this.slabOutput = new SlabOutputStream();
+    allocate();
+    this.cache.put(Key.INSTANCE, this);
+  }
+
+  /** Allocates the slab, the entry arrays and the index with their initial capacity. */
+  private void allocate() {
+    slab = new byte[INITIAL_SLAB_SIZE];
+    keyOffsets = new int[INITIAL_CAPACITY];
+    keyLengths = new int[INITIAL_CAPACITY];
+    keyHashes = new int[INITIAL_CAPACITY];
+    accumulators = new Object[INITIAL_CAPACITY];
+    outputTimestamps = new Instant[INITIAL_CAPACITY];
+    windows = new Collection[INITIAL_CAPACITY];
+    accumulatorSizes = new long[INITIAL_CAPACITY];
+    compacted = new boolean[INITIAL_CAPACITY];
+    pendingMeasurement = new boolean[INITIAL_CAPACITY];
+    unmeasured = new int[INITIAL_CAPACITY];
+    index = new int[INITIAL_CAPACITY * 2];
+  }
+
+  @Nullable
+  @Override
+  public EncodedPrecombineGroupingTable<K, InputT, AccumT> shrink() {
+    long currentWeight = maxWeight.updateAndGet(operand -> operand >> 1);
+    // It is possible that we are shrunk multiple times until the requested max weight is too small.
+    // In this case we want to effectively stop shrinking since we can't effectively cache much
+    // at this time and the next insertion will likely evict all records.
+    if (currentWeight <= 100L) {
+      return null;
+    }
+    return this;
+  }
+
+  @Override
+  public long getWeight() {
+    return maxWeight.get();
+  }
+
+  /**
+   * Returns the number of bytes used by this table as of the last measurement, including the
+   * capacity of the slab and arrays which is kept for reuse after the entries are output.
+   */
+  @VisibleForTesting
+  long getEntriesWeight() {
+    return slab.length
+        + keyOffsets.length * ENTRY_OVERHEAD
+        + index.length * 4L
+        + accumulatorsWeight
+        + windowsWeight;
+  }
+
+  @Override
+  public void put(
+      WindowedValue<KV<K, InputT>> value, FnDataReceiver<WindowedValue<KV<K, AccumT>>> receiver)
+      throws Exception {
+    int offset = slabSize;
+    keyCoder.encode(value.getValue().getKey(), slabOutput);
+    if (!isGloballyWindowed) {
+      Collection<? extends BoundedWindow> valueWindows = value.getWindows();
+      VarInt.encode(valueWindows.size(), slabOutput);
+      for (BoundedWindow window : valueWindows) {
+        windowCoder.encode(window, slabOutput);
+      }
+    }
+    int length = slabSize - offset;
+    int hash = hash(slab, offset, length);
+
+    int mask = index.length - 1;
+    int bucket = hash & mask;
+    int entry;
+    while ((entry = index[bucket] - 1) >= 0) {
+      if (keyHashes[entry] == hash
+          && keyLengths[entry] == length
+          && bytesEqual(slab, keyOffsets[entry], offset, length)) {
+        break;
+      }
+      bucket = (bucket + 1) & mask;
+    }
+
+    if (entry >= 0) {
+      // The key is already present, discard the freshly encoded copy.
+      slabSize = offset;
+      accumulators[entry] =
+          combineFn.addInput(
+              (AccumT) accumulators[entry],
+              value.getValue().getValue(),
+              options,
+              NullSideInputReader.empty(),
+              windows[entry]);
+      compacted[entry] = false;
+    } else {
+      entry = size++;
+      ensureEntryCapacity(size);
+      Collection<? extends BoundedWindow> entryWindows =
+          isGloballyWindowed ? GLOBAL_WINDOWS : value.getWindows();
+      keyOffsets[entry] = offset;
+      keyLengths[entry] = length;
+      keyHashes[entry] = hash;
+      windows[entry] = entryWindows;
+      if (!isGloballyWindowed) {
+        // The PGBK output will inherit the timestamp of one of its inputs.
+        outputTimestamps[entry] = value.getTimestamp();
+        if (windowWeight < 0) {
+          windowWeight = sizer.estimateSize(entryWindows.iterator().next());
+        }
+        windowsWeight +=
+            TIMESTAMP_WEIGHT + entryWindows.size() * (windowWeight + Caches.REFERENCE_SIZE);
+      }
+      AccumT accumulator =
+          combineFn.createAccumulator(options, NullSideInputReader.empty(), entryWindows);
+      accumulators[entry] =
+          combineFn.addInput(
+              accumulator,
+              value.getValue().getValue(),
+              options,
+              NullSideInputReader.empty(),
+              entryWindows);
+      accumulatorSizes[entry] = 0;
+      compacted[entry] = false;
+      index[bucket] = entry + 1;
+      if (size * 2 > index.length) {
+        rehash(index.length * 2);
+      }
+    }
+    markChanged(entry);
+    ++inputsSinceMeasurement;
+
+    if (size >= maxEntries) {
+      flush(receiver);
+      lastWeightForFlush = 0;
+    } else if (inputsSinceMeasurement >= MEASUREMENT_INTERVAL
+        || Caches.shouldUpdateOnSizeChange(lastWeightForFlush, getEntriesWeight())) {
+      measureAccumulators();
+      if (Caches.shouldUpdateOnSizeChange(lastWeightForFlush, getEntriesWeight())) {
+        flushIfNeeded(receiver);
+        lastWeightForFlush = getEntriesWeight();
+      }
+    }
+  }
+
+  private void flushIfNeeded(FnDataReceiver<WindowedValue<KV<K, AccumT>>> receiver)
+      throws Exception {
+    long weight = getEntriesWeight();
+    // Increase the maximum only if we require it
+    maxWeight.accumulateAndGet(weight, (current, update) -> current < update ? update : current);
+
+    // Update the cache to ensure that LRU is handled appropriately and for the cache to have an
+    // opportunity to shrink the maxWeight if necessary.
+    cache.put(Key.INSTANCE, this);
+
+    // Get the updated weight now that the cache may have been shrunk and respect it
+    long currentMax = maxWeight.get();
+
+    // Only compact and output from the bundle processing thread that is inserting elements into the
+    // grouping table. This ensures that we honor the guarantee that transforms for a single bundle
+    // execute using the same thread.
+    if (weight > currentMax) {
+      // Try to compact as many the values as possible and only flush if compaction wasn't enough.
+      for (int i = 0; i < size; ++i) {
+        compact(i);
+      }
+      measureAccumulators();
+      if (getEntriesWeight() > currentMax) {
+        outputAndReset(receiver);
+        if (getEntriesWeight() > currentMax) {
+          // Release the capacity kept for reuse since it alone is more than granted.
+          allocate();
+        }
+      }
+    }
+  }
+
+  /** Flushes all entries in this table to output. */
+  @Override
+  public void flush(FnDataReceiver<WindowedValue<KV<K, AccumT>>> receiver) throws Exception {
+    cache.remove(Key.INSTANCE);
+    outputAndReset(receiver);
+  }
+
+  private void outputAndReset(FnDataReceiver<WindowedValue<KV<K, AccumT>>> receiver)
+      throws Exception {
+    for (int i = 0; i < size; ++i) {
+      compact(i);
+      K key = keyCoder.decode(new ByteArrayInputStream(slab, keyOffsets[i], keyLengths[i]));
+      AccumT accumulator = (AccumT) accumulators[i];
+      receiver.accept(
+          isGloballyWindowed
+              ? WindowedValues.valueInGlobalWindow(KV.of(key, accumulator))
+              : WindowedValues.of(
+                  KV.of(key, accumulator),
+                  outputTimestamps[i],
+                  windows[i],
+                  // The PaneInfo will always be overwritten by the GBK.
+                  PaneInfo.NO_FIRING));
+    }
+    // Keep the allocated arrays so that they are reused by the entries added after the flush.
+    Arrays.fill(accumulators, 0, size, null);
+    Arrays.fill(outputTimestamps, 0, size, null);
+    Arrays.fill(windows, 0, size, null);
+    Arrays.fill(pendingMeasurement, 0, size, false);
+    Arrays.fill(index, 0);
+    size = 0;
+    slabSize = 0;
+    unmeasuredCount = 0;
+    inputsSinceMeasurement = 0;
+    accumulatorsWeight = 0;
+    windowsWeight = 0;
+  }
+
+  private void compact(int entry) {
+    if (!compacted[entry]) {
+      accumulators[entry] =
+          combineFn.compact(
+              (AccumT) accumulators[entry], options, NullSideInputReader.empty(), windows[entry]);
+      compacted[entry] = true;
+      markChanged(entry);
+    }
+  }
+
+  private void markChanged(int entry) {
+    if (!pendingMeasurement[entry]) {
+      pendingMeasurement[entry] = true;
+      unmeasured[unmeasuredCount++] = entry;
+    }
+  }
+
+  /**
+   * Weighs a random sample of at most {@link #MEASUREMENT_SAMPLES} of the accumulators which
+   * changed since they were last measured, and assigns their average weight to the others.
+   */
+  private void measureAccumulators() {
+    int samples = Math.min(unmeasuredCount, MEASUREMENT_SAMPLES);
+    long sampledWeight = 0;
+    for (int i = 0; i < samples; ++i) {
+      // Move a randomly chosen entry to the front, as in a partial Fisher-Yates shuffle.
+      int chosen = i + random.nextInt(unmeasuredCount - i);
+      int entry = unmeasured[chosen];
+      unmeasured[chosen] = unmeasured[i];
+      unmeasured[i] = entry;
+      long weight = sizer.estimateSize(accumulators[entry]);
+      updateAccumulatorSize(entry, weight);
+      sampledWeight += weight;
+    }
+    for (int i = samples; i < unmeasuredCount; ++i) {
+      updateAccumulatorSize(unmeasured[i], sampledWeight / samples);
+    }
+    unmeasuredCount = 0;
+    inputsSinceMeasurement = 0;
+  }
+
+  private void updateAccumulatorSize(int entry, long weight) {
+    accumulatorsWeight += weight - accumulatorSizes[entry];
+    accumulatorSizes[entry] = weight;
+    pendingMeasurement[entry] = false;
+  }
+
+  private void ensureEntryCapacity(int required) {
+    if (required <= keyOffsets.length) {
+      return;
+    }
+    int capacity = keyOffsets.length * 2;
+    keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+    keyLengths = Arrays.copyOf(keyLengths, capacity);
+    keyHashes = Arrays.copyOf(keyHashes, capacity);
+    accumulators = Arrays.copyOf(accumulators, capacity);
+    outputTimestamps = Arrays.copyOf(outputTimestamps, capacity);
+    windows = Arrays.copyOf(windows, capacity);
+    accumulatorSizes = Arrays.copyOf(accumulatorSizes, capacity);
+    compacted = Arrays.copyOf(compacted, capacity);
+    pendingMeasurement = Arrays.copyOf(pendingMeasurement, capacity);
+    unmeasured = Arrays.copyOf(unmeasured, capacity);
+  }
+
+  private void rehash(int capacity) {
+    int[] newIndex = new int[capacity];
+    int mask = capacity - 1;
+    for (int entry = 0; entry < size; ++entry) {
+      int bucket = keyHashes[entry] & mask;
+      while (newIndex[bucket] != 0) {
+        bucket = (bucket + 1) & mask;
+      }
+      newIndex[bucket] = entry + 1;
+    }
+    index = newIndex;
+  }
+
+  private static int hash(byte[] bytes, int offset, int length) {
+    int hash = 1;
+    for (int i = offset, end = offset + length; i < end; ++i) {
+      hash = 31 * hash + bytes[i];
+    }
+    // Spread the low bits since the index is addressed with a power of two mask.
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean bytesEqual(byte[] bytes, int offsetA, int offsetB, int length) {
+    for (int i = 0; i < length; ++i) {
+      if (bytes[offsetA + i] != bytes[offsetB + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Appends to the end of the slab, growing it as necessary. */
+  private class SlabOutputStream extends OutputStream {
+    private void ensureCapacity(int additional) {
+      long required = (long) slabSize + additional;
+      if (required > slab.length) {
+        if (required > MAX_SLAB_SIZE) {
+          throw new IllegalStateException(
+              String.format(
+                  "Encoded grouping keys require %d bytes, more than the maximum of %d bytes.",
+                  required, MAX_SLAB_SIZE));
+        }
+        slab =
+            Arrays.copyOf(
+                slab, (int) Math.min(MAX_SLAB_SIZE, Math.max(required, 2L * slab.length)));
+      }
+    }
+
+    @Override
+    public void write(int b) {
+      ensureCapacity(1);
+      slab[slabSize++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      ensureCapacity(len);
+      System.arraycopy(b, off, slab, slabSize, len);
+      slabSize += len;
+    }
+  }
+}
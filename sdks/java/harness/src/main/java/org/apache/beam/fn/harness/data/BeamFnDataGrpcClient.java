@@ -17,7 +17,9 @@
  */
 package org.apache.beam.fn.harness.data;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
@@ -26,10 +28,14 @@ import org.apache.beam.model.fnexecution.v1.BeamFnApi.Elements;
 import org.apache.beam.model.fnexecution.v1.BeamFnDataGrpc;
 import org.apache.beam.model.pipeline.v1.Endpoints;
 import org.apache.beam.model.pipeline.v1.Endpoints.ApiServiceDescriptor;
+import org.apache.beam.runners.core.metrics.MonitoringInfoConstants.Labels;
+import org.apache.beam.runners.core.metrics.MonitoringInfoConstants.Urns;
+import org.apache.beam.runners.core.metrics.MonitoringInfoMetricName;
 import org.apache.beam.sdk.fn.data.BeamFnDataGrpcMultiplexer;
 import org.apache.beam.sdk.fn.data.BeamFnDataOutboundAggregator;
 import org.apache.beam.sdk.fn.data.CloseableFnDataReceiver;
 import org.apache.beam.sdk.fn.stream.OutboundObserverFactory;
+import org.apache.beam.sdk.metrics.MetricName;
 import org.apache.beam.sdk.options.PipelineOptions;
 import org.apache.beam.vendor.grpc.v1p69p0.io.grpc.ManagedChannel;
 import org.slf4j.Logger;
@@ -99,7 +105,19 @@ public class BeamFnDataGrpcClient implements BeamFnDataClient {
         options,
         processBundleRequestIdSupplier,
         getClientFor(apiServiceDescriptor).getOutboundObserver(),
-        collectElementsIfNoFlushes);
+        collectElementsIfNoFlushes,
+        BeamFnDataGrpcClient::adaptiveBufferSizeMetricName);
+  }
+
+  /**
+   * Names the gauge of the adaptive buffer size of an outbound endpoint, reported as a gauge of the
+   * endpoint's transform since the process-wide metrics container is not bound to a step.
+   */
+  private static MetricName adaptiveBufferSizeMetricName(Map<String, String> labels) {
+    Map<String, String> monitoringInfoLabels = new HashMap<>(labels);
+    monitoringInfoLabels.put(Labels.NAMESPACE, BeamFnDataOutboundAggregator.class.getName());
+    monitoringInfoLabels.put(Labels.NAME, BeamFnDataOutboundAggregator.ADAPTIVE_BUFFER_SIZE_METRIC);
+    return MonitoringInfoMetricName.named(Urns.USER_LATEST_INT64, monitoringInfoLabels);
   }
 
   private BeamFnDataGrpcMultiplexer getClientFor(
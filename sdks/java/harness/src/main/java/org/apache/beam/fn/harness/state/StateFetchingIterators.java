@@ -24,8 +24,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
@@ -328,6 +330,13 @@ public class StateFetchingIterators {
     private final BeamFnStateClient beamFnStateClient;
     private final StateRequest stateRequestForFirstChunk;
     private final Coder<T> valueCoder;
+    // The latest request started by a prefetching iterator that was not consumed yet, keyed by
+    // continuation token. This allows an iterator to use the response of a request another iterator
+    // started, e.g. when the iterator that was prefetched by readLater() is discarded. Responses
+    // are not weighed by the cache, so at most one is kept to bound what abandoned iterators
+    // retain.
+    @VisibleForTesting
+    final Map<ByteString, CompletableFuture<StateResponse>> pendingResponses = new HashMap<>();
 
     public CachingStateIterable(
         Cache<IterableCacheKey, Blocks<T>> cache,
@@ -353,6 +362,7 @@ public class StateFetchingIterators {
       if (toRemoveStructuralValues.isEmpty()) {
         return;
       }
+      pendingResponses.clear();
       Blocks<T> existing = cache.peek(IterableCacheKey.INSTANCE);
       if (existing == null) {
         return;
@@ -405,6 +415,7 @@ public class StateFetchingIterators {
      * requesting data from the state cache.
      */
     public void clearAndAppend(List<T> values) {
+      pendingResponses.clear();
       if (values.isEmpty()) {
         cache.put(IterableCacheKey.INSTANCE, new EmptyBlocks<>());
       } else {
@@ -422,6 +433,7 @@ public class StateFetchingIterators {
      * requesting data from the state cache.
      */
     public void clearAndAppend(WeightedList<T> values) {
+      pendingResponses.clear();
       if (values.isEmpty()) {
         cache.put(IterableCacheKey.INSTANCE, new EmptyBlocks<>());
       } else {
@@ -466,6 +478,7 @@ public class StateFetchingIterators {
       if (newValues.isEmpty()) {
         return;
       }
+      pendingResponses.clear();
       Blocks<T> existing = cache.peek(IterableCacheKey.INSTANCE);
       if (existing == null) {
         return;
@@ -510,7 +523,8 @@ public class StateFetchingIterators {
 
       public CachingStateIterator() {
         this.underlyingStateFetchingIterator =
-            new LazyBlockingStateFetchingIterator(beamFnStateClient, stateRequestForFirstChunk);
+            new LazyBlockingStateFetchingIterator(
+                beamFnStateClient, stateRequestForFirstChunk, pendingResponses);
         this.dataStreamDecoder =
             new DataStreamDecoder<>(valueCoder, underlyingStateFetchingIterator);
         this.currentBlock =
@@ -594,6 +608,7 @@ public class StateFetchingIterators {
             }
           } else if (isFirstBlock) {
             currentBlock = existing.getBlocks().get(0);
+            prefetchAfterLastCachedBlock(existing);
           } else {
             checkState(
                 existing instanceof BlocksPrefix,
@@ -610,6 +625,7 @@ public class StateFetchingIterators {
             // Take the next block from the cache if it was found.
             if (currentBlockIndex + 1 < blocks.size()) {
               currentBlock = blocks.get(currentBlockIndex + 1);
+              prefetchAfterLastCachedBlock(existing);
             } else {
               // Otherwise load the block from state API.
               // Remove references on the cached values while we are loading the next block.
@@ -635,6 +651,18 @@ public class StateFetchingIterators {
         }
       }
 
+      /**
+       * Starts loading the block following the cached blocks once the current block is the last one
+       * of them, so that it is ready by the time the current block is consumed.
+       */
+      private void prefetchAfterLastCachedBlock(Blocks<T> cached) {
+        List<Block<T>> blocks = cached.getBlocks();
+        if (currentBlock == blocks.get(blocks.size() - 1) && currentBlock.getNextToken() != null) {
+          underlyingStateFetchingIterator.seekToContinuationToken(currentBlock.getNextToken());
+          underlyingStateFetchingIterator.prefetch();
+        }
+      }
+
       @VisibleForTesting
       Block<T> loadNextBlock(ByteString continuationToken) {
         underlyingStateFetchingIterator.seekToContinuationToken(continuationToken);
@@ -660,20 +688,34 @@ public class StateFetchingIterators {
    * An {@link Iterator} which fetches {@link ByteString} chunks using the State API.
    *
    * <p>This iterator will only request a chunk on first access. Subsequently it eagerly pre-fetches
-   * one future chunk at a time.
+   * one future chunk at a time. As the continuation token of a chunk is only known once the
+   * previous chunk was received, there is at most one request outstanding.
+   *
+   * <p>The latest prefetched request is registered in a map keyed by continuation token which can
+   * be shared between iterators over the same state, so that a request is not repeated when a
+   * different iterator ends up consuming the chunk.
    */
   @VisibleForTesting
   static class LazyBlockingStateFetchingIterator implements PrefetchableIterator<ByteString> {
 
     private final BeamFnStateClient beamFnStateClient;
     private final StateRequest stateRequestForFirstChunk;
+    private final Map<ByteString, CompletableFuture<StateResponse>> pendingResponses;
     private ByteString continuationToken;
     private CompletableFuture<StateResponse> prefetchedResponse;
 
     LazyBlockingStateFetchingIterator(
         BeamFnStateClient beamFnStateClient, StateRequest stateRequestForFirstChunk) {
+      this(beamFnStateClient, stateRequestForFirstChunk, new HashMap<>());
+    }
+
+    LazyBlockingStateFetchingIterator(
+        BeamFnStateClient beamFnStateClient,
+        StateRequest stateRequestForFirstChunk,
+        Map<ByteString, CompletableFuture<StateResponse>> pendingResponses) {
       this.beamFnStateClient = beamFnStateClient;
       this.stateRequestForFirstChunk = stateRequestForFirstChunk;
+      this.pendingResponses = pendingResponses;
       this.continuationToken = stateRequestForFirstChunk.getGet().getContinuationToken();
     }
 
@@ -714,7 +756,13 @@ public class StateFetchingIterators {
     @Override
     public void prefetch() {
       if (continuationToken != null && prefetchedResponse == null) {
-        prefetchedResponse = loadPrefetchedResponse(continuationToken);
+        prefetchedResponse = pendingResponses.get(continuationToken);
+        if (prefetchedResponse == null) {
+          prefetchedResponse = loadPrefetchedResponse(continuationToken);
+          // Drop responses prefetched by iterators that were abandoned before consuming them.
+          pendingResponses.clear();
+          pendingResponses.put(continuationToken, prefetchedResponse);
+        }
       }
     }
 
@@ -737,6 +785,8 @@ public class StateFetchingIterators {
       }
 
       prefetch();
+      // This iterator consumes the response, so other iterators need to request it again.
+      pendingResponses.remove(continuationToken, prefetchedResponse);
       StateResponse stateResponse;
       try {
         stateResponse = prefetchedResponse.get();
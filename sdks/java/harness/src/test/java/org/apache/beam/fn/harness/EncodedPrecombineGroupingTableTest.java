@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.fn.harness;
+
+import static org.apache.beam.sdk.values.WindowedValues.timestampedValueInGlobalWindow;
+import static org.apache.beam.sdk.values.WindowedValues.valueInGlobalWindow;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.beam.runners.core.GlobalCombineFnRunners;
+import org.apache.beam.sdk.coders.Coder;
+import org.apache.beam.sdk.coders.SerializableCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.coders.VarLongCoder;
+import org.apache.beam.sdk.fn.data.FnDataReceiver;
+import org.apache.beam.sdk.options.PipelineOptions;
+import org.apache.beam.sdk.options.PipelineOptionsFactory;
+import org.apache.beam.sdk.transforms.Combine.CombineFn;
+import org.apache.beam.sdk.transforms.windowing.BoundedWindow;
+import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
+import org.apache.beam.sdk.transforms.windowing.IntervalWindow;
+import org.apache.beam.sdk.transforms.windowing.PaneInfo;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.WindowedValue;
+import org.apache.beam.sdk.values.WindowedValues;
+import org.joda.time.Instant;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Unit tests for {@link EncodedPrecombineGroupingTable}. */
+@RunWith(JUnit4.class)
+public class EncodedPrecombineGroupingTableTest {
+
+  private static class TestOutputReceiver<T> implements FnDataReceiver<T> {
+    final List<T> outputElems = new ArrayList<>();
+
+    @Override
+    public void accept(T elem) {
+      outputElems.add(elem);
+    }
+  }
+
+  private static final CombineFn<Integer, Long, Long> COMBINE_FN =
+      new CombineFn<Integer, Long, Long>() {
+
+        @Override
+        public Long createAccumulator() {
+          return 0L;
+        }
+
+        @Override
+        public Long addInput(Long accumulator, Integer value) {
+          return accumulator + value;
+        }
+
+        @Override
+        public Long mergeAccumulators(Iterable<Long> accumulators) {
+          long sum = 0;
+          for (Long part : accumulators) {
+            sum += part;
+          }
+          return sum;
+        }
+
+        @Override
+        public Long extractOutput(Long accumulator) {
+          return accumulator;
+        }
+      };
+
+  private static <T> WindowedValue<T> valueInWindow(
+      T value, Instant timestamp, IntervalWindow window) {
+    return WindowedValues.of(value, timestamp, window, PaneInfo.NO_FIRING);
+  }
+
+  private static <K> EncodedPrecombineGroupingTable<K, Integer, Long> createTable(
+      Cache<?, ?> cache,
+      Coder<K> keyCoder,
+      Coder<? extends BoundedWindow> windowCoder,
+      boolean isGloballyWindowed,
+      int maxEntries) {
+    return new EncodedPrecombineGroupingTable<>(
+        PipelineOptionsFactory.create(),
+        cache,
+        keyCoder,
+        windowCoder,
+        GlobalCombineFnRunners.create(COMBINE_FN),
+        isGloballyWindowed,
+        maxEntries);
+  }
+
+  @Test
+  public void testCombiningInheritsOneOfTheValuesTimestamps() throws Exception {
+    EncodedPrecombineGroupingTable<String, Integer, Long> table =
+        createTable(
+            Caches.forMaximumBytes(2500L),
+            StringUtf8Coder.of(),
+            GlobalWindow.Coder.INSTANCE,
+            false,
+            1000);
+
+    TestOutputReceiver<WindowedValue<KV<String, Long>>> receiver = new TestOutputReceiver<>();
+
+    table.put(timestampedValueInGlobalWindow(KV.of("A", 1), new Instant(1)), receiver);
+    table.put(timestampedValueInGlobalWindow(KV.of("B", 9), new Instant(21)), receiver);
+    table.put(timestampedValueInGlobalWindow(KV.of("A", 2), new Instant(1)), receiver);
+    table.put(timestampedValueInGlobalWindow(KV.of("B", 2), new Instant(20)), receiver);
+    table.put(timestampedValueInGlobalWindow(KV.of("A", 4), new Instant(1)), receiver);
+    table.flush(receiver);
+    assertThat(
+        receiver.outputElems,
+        containsInAnyOrder(
+            timestampedValueInGlobalWindow(KV.of("A", 1L + 2 + 4), new Instant(1)),
+            timestampedValueInGlobalWindow(KV.of("B", 9L + 2), new Instant(21))));
+  }
+
+  @Test
+  public void testCombiningGroupsByKeyAndWindow() throws Exception {
+    EncodedPrecombineGroupingTable<String, Integer, Long> table =
+        createTable(
+            Caches.forMaximumBytes(2500L),
+            StringUtf8Coder.of(),
+            IntervalWindow.getCoder(),
+            false,
+            1000);
+
+    TestOutputReceiver<WindowedValue<KV<String, Long>>> receiver = new TestOutputReceiver<>();
+
+    IntervalWindow first = new IntervalWindow(new Instant(0), new Instant(10));
+    IntervalWindow second = new IntervalWindow(new Instant(10), new Instant(20));
+    table.put(valueInWindow(KV.of("A", 1), new Instant(1), first), receiver);
+    table.put(valueInWindow(KV.of("A", 2), new Instant(11), second), receiver);
+    table.put(valueInWindow(KV.of("A", 4), new Instant(2), first), receiver);
+    table.put(valueInWindow(KV.of("B", 8), new Instant(3), first), receiver);
+    assertThat(receiver.outputElems, empty());
+
+    table.flush(receiver);
+    assertThat(
+        receiver.outputElems,
+        containsInAnyOrder(
+            valueInWindow(KV.of("A", 1L + 4), new Instant(1), first),
+            valueInWindow(KV.of("A", 2L), new Instant(11), second),
+            valueInWindow(KV.of("B", 8L), new Instant(3), first)));
+  }
+
+  @Test
+  public void testCombiningFlushesWhenMaxEntriesReached() throws Exception {
+    EncodedPrecombineGroupingTable<String, Integer, Long> table =
+        createTable(
+            Caches.forMaximumBytes(2500L),
+            StringUtf8Coder.of(),
+            GlobalWindow.Coder.INSTANCE,
+            true,
+            2);
+
+    TestOutputReceiver<WindowedValue<KV<String, Long>>> receiver = new TestOutputReceiver<>();
+
+    table.put(valueInGlobalWindow(KV.of("A", 1)), receiver);
+    table.put(valueInGlobalWindow(KV.of("A", 2)), receiver);
+    assertThat(receiver.outputElems, empty());
+
+    table.put(valueInGlobalWindow(KV.of("B", 4)), receiver);
+    assertThat(
+        receiver.outputElems,
+        containsInAnyOrder(
+            valueInGlobalWindow(KV.of("A", 1L + 2)), valueInGlobalWindow(KV.of("B", 4L))));
+    // The capacity kept for the next entries is still accounted for.
+    assertEquals(
+        createTable(
+                Caches.forMaximumBytes(2500L),
+                StringUtf8Coder.of(),
+                GlobalWindow.Coder.INSTANCE,
+                true,
+                2)
+            .getEntriesWeight(),
+        table.getEntriesWeight());
+
+    table.put(valueInGlobalWindow(KV.of("A", 8)), receiver);
+    table.flush(receiver);
+    assertThat(
+        receiver.outputElems,
+        containsInAnyOrder(
+            valueInGlobalWindow(KV.of("A", 1L + 2)),
+            valueInGlobalWindow(KV.of("B", 4L)),
+            valueInGlobalWindow(KV.of("A", 8L))));
+  }
+
+  @Test
+  public void testCombiningEvictsWhenOverCacheWeight() throws Exception {
+    EncodedPrecombineGroupingTable<Long, Integer, Long> table =
+        createTable(
+            Caches.forMaximumBytes(2500L),
+            VarLongCoder.of(),
+            GlobalWindow.Coder.INSTANCE,
+            true,
+            EncodedPrecombineGroupingTable.DEFAULT_MAX_GROUPING_TABLE_SIZE);
+
+    Map<Long, Long> sums = new HashMap<>();
+    TestOutputReceiver<WindowedValue<KV<Long, Long>>> receiver = new TestOutputReceiver<>();
+    for (int i = 0; i < 100_000; ++i) {
+      table.put(valueInGlobalWindow(KV.of((long) (i % 10_000), 1)), receiver);
+    }
+    assertThat(receiver.outputElems, not(empty()));
+
+    table.flush(receiver);
+    for (WindowedValue<KV<Long, Long>> output : receiver.outputElems) {
+      sums.merge(output.getValue().getKey(), output.getValue().getValue(), Long::sum);
+    }
+    assertEquals(10_000, sums.size());
+    for (Map.Entry<Long, Long> sum : sums.entrySet()) {
+      assertEquals(10L, (long) sum.getValue());
+    }
+  }
+
+  @Test
+  public void testWeighsLiveAccumulators() throws Exception {
+    CombineFn<Integer, List<Integer>, List<Integer>> toList =
+        new CombineFn<Integer, List<Integer>, List<Integer>>() {
+          @Override
+          public List<Integer> createAccumulator() {
+            return new ArrayList<>();
+          }
+
+          @Override
+          public List<Integer> addInput(List<Integer> accumulator, Integer input) {
+            accumulator.add(input);
+            return accumulator;
+          }
+
+          @Override
+          public List<Integer> mergeAccumulators(Iterable<List<Integer>> accumulators) {
+            List<Integer> merged = new ArrayList<>();
+            accumulators.forEach(merged::addAll);
+            return merged;
+          }
+
+          @Override
+          public List<Integer> extractOutput(List<Integer> accumulator) {
+            return accumulator;
+          }
+        };
+    EncodedPrecombineGroupingTable<String, Integer, List<Integer>> table =
+        new EncodedPrecombineGroupingTable<>(
+            PipelineOptionsFactory.create(),
+            Caches.forMaximumBytes(100_000_000L),
+            StringUtf8Coder.of(),
+            GlobalWindow.Coder.INSTANCE,
+            GlobalCombineFnRunners.create(toList),
+            true,
+            1000);
+
+    TestOutputReceiver<WindowedValue<KV<String, List<Integer>>>> receiver =
+        new TestOutputReceiver<>();
+    int count = 4 * EncodedPrecombineGroupingTable.MEASUREMENT_INTERVAL;
+    for (int i = 0; i < count; ++i) {
+      table.put(valueInGlobalWindow(KV.of("A", 1000 + i)), receiver);
+    }
+    // A single hot key is measured periodically, and by its heap size: each boxed Integer alone
+    // uses 16 bytes, far more than its 2 byte encoding.
+    assertThat(table.getEntriesWeight(), greaterThan(16L * count));
+  }
+
+  @Test
+  public void testSamplesAccumulatorsAndWindowsToWeigh() throws Exception {
+    AtomicInteger weighed = new AtomicInteger();
+    EncodedPrecombineGroupingTable<Long, Integer, Long> table =
+        new EncodedPrecombineGroupingTable<>(
+            PipelineOptionsFactory.create(),
+            Caches.forMaximumBytes(100_000_000L),
+            VarLongCoder.of(),
+            IntervalWindow.getCoder(),
+            GlobalCombineFnRunners.create(COMBINE_FN),
+            false,
+            EncodedPrecombineGroupingTable.DEFAULT_MAX_GROUPING_TABLE_SIZE,
+            element -> {
+              weighed.incrementAndGet();
+              return 24L;
+            });
+
+    TestOutputReceiver<WindowedValue<KV<Long, Long>>> receiver = new TestOutputReceiver<>();
+    IntervalWindow window = new IntervalWindow(new Instant(0), new Instant(10));
+    int count = 32 * EncodedPrecombineGroupingTable.MEASUREMENT_INTERVAL;
+    for (int i = 0; i < count; ++i) {
+      // Every input is for a new key.
+      table.put(valueInWindow(KV.of((long) i, 1), new Instant(i % 10), window), receiver);
+    }
+    assertThat(receiver.outputElems, empty());
+    // The window is weighed once and at most a sample of the changed accumulators is weighed per
+    // measurement, which happens about once per measurement interval.
+    assertThat(weighed.get(), lessThan(count / 64));
+    // The accumulators which were not weighed are extrapolated from those which were.
+    assertThat(table.getEntriesWeight(), greaterThan(24L * count));
+  }
+
+  @Test
+  public void testIsSupported() {
+    PipelineOptions options = PipelineOptionsFactory.create();
+    assertFalse(EncodedPrecombineGroupingTable.isSupported(options, StringUtf8Coder.of()));
+
+    options =
+        PipelineOptionsFactory.fromArgs(
+                "--experiments=" + EncodedPrecombineGroupingTable.ENCODED_GROUPING_TABLE_EXPERIMENT)
+            .create();
+    assertTrue(EncodedPrecombineGroupingTable.isSupported(options, StringUtf8Coder.of()));
+    assertFalse(
+        EncodedPrecombineGroupingTable.isSupported(options, SerializableCoder.of(HashMap.class)));
+  }
+}
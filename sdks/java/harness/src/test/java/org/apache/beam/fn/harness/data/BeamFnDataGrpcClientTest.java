@@ -29,6 +29,7 @@ import static org.junit.Assert.fail;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -39,6 +40,11 @@ import java.util.concurrent.atomic.AtomicReference;
 import org.apache.beam.model.fnexecution.v1.BeamFnApi;
 import org.apache.beam.model.fnexecution.v1.BeamFnDataGrpc;
 import org.apache.beam.model.pipeline.v1.Endpoints;
+import org.apache.beam.model.pipeline.v1.MetricsApi.MonitoringInfo;
+import org.apache.beam.runners.core.metrics.MetricsContainerImpl;
+import org.apache.beam.runners.core.metrics.MonitoringInfoConstants;
+import org.apache.beam.runners.core.metrics.MonitoringInfoEncodings;
+import org.apache.beam.runners.core.metrics.ShortIdMap;
 import org.apache.beam.sdk.coders.Coder;
 import org.apache.beam.sdk.coders.LengthPrefixCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
@@ -49,6 +55,8 @@ import org.apache.beam.sdk.fn.data.FnDataReceiver;
 import org.apache.beam.sdk.fn.data.LogicalEndpoint;
 import org.apache.beam.sdk.fn.stream.OutboundObserverFactory;
 import org.apache.beam.sdk.fn.test.TestStreams;
+import org.apache.beam.sdk.metrics.MetricsContainer;
+import org.apache.beam.sdk.metrics.MetricsEnvironment;
 import org.apache.beam.sdk.options.PipelineOptionsFactory;
 import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.values.WindowedValue;
@@ -60,6 +68,8 @@ import org.apache.beam.vendor.grpc.v1p69p0.io.grpc.inprocess.InProcessChannelBui
 import org.apache.beam.vendor.grpc.v1p69p0.io.grpc.inprocess.InProcessServerBuilder;
 import org.apache.beam.vendor.grpc.v1p69p0.io.grpc.stub.CallStreamObserver;
 import org.apache.beam.vendor.grpc.v1p69p0.io.grpc.stub.StreamObserver;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableMap;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterables;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
@@ -427,4 +437,68 @@ public class BeamFnDataGrpcClientTest {
       server.shutdownNow();
     }
   }
+
+  @Test
+  public void testAdaptiveBufferSizeIsReportedToProcessWideContainer() throws Exception {
+    Endpoints.ApiServiceDescriptor apiServiceDescriptor =
+        Endpoints.ApiServiceDescriptor.newBuilder()
+            .setUrl(this.getClass().getName() + "-" + UUID.randomUUID())
+            .build();
+    Server server =
+        InProcessServerBuilder.forName(apiServiceDescriptor.getUrl())
+            .addService(
+                new BeamFnDataGrpc.BeamFnDataImplBase() {
+                  @Override
+                  public StreamObserver<BeamFnApi.Elements> data(
+                      StreamObserver<BeamFnApi.Elements> outboundObserver) {
+                    return TestStreams.<BeamFnApi.Elements>withOnNext(values -> {}).build();
+                  }
+                })
+            .build();
+    server.start();
+    MetricsContainerImpl container = MetricsContainerImpl.createProcessWideContainer();
+    MetricsContainer previousContainer = MetricsEnvironment.setProcessWideContainer(container);
+    try {
+      ManagedChannel channel =
+          InProcessChannelBuilder.forName(apiServiceDescriptor.getUrl()).build();
+
+      BeamFnDataGrpcClient clientFactory =
+          new BeamFnDataGrpcClient(
+              PipelineOptionsFactory.fromArgs(
+                      new String[] {
+                        "--experiments=data_buffer_size_limit=1000,data_buffer_adaptive"
+                      })
+                  .create(),
+              (Endpoints.ApiServiceDescriptor descriptor) -> channel,
+              OutboundObserverFactory.trivial());
+      BeamFnDataOutboundAggregator aggregator =
+          clientFactory.createOutboundAggregator(
+              apiServiceDescriptor, () -> INSTRUCTION_ID_A, false);
+      FnDataReceiver<WindowedValue<String>> fnDataReceiver =
+          aggregator.registerOutputDataLocation(TRANSFORM_ID_A, CODER);
+      fnDataReceiver.accept(valueInGlobalWindow("ABC"));
+      aggregator.sendOrCollectBufferedDataAndFinishOutboundStreams();
+
+      ShortIdMap shortIds = new ShortIdMap();
+      Map<String, ByteString> monitoringData = container.getMonitoringData(shortIds);
+      assertEquals(1, monitoringData.size());
+      Map.Entry<String, ByteString> entry = Iterables.getOnlyElement(monitoringData.entrySet());
+      MonitoringInfo monitoringInfo = shortIds.get(entry.getKey());
+      assertEquals(MonitoringInfoConstants.Urns.USER_LATEST_INT64, monitoringInfo.getUrn());
+      assertEquals(
+          ImmutableMap.of(
+              MonitoringInfoConstants.Labels.PTRANSFORM,
+              TRANSFORM_ID_A,
+              MonitoringInfoConstants.Labels.NAMESPACE,
+              BeamFnDataOutboundAggregator.class.getName(),
+              MonitoringInfoConstants.Labels.NAME,
+              BeamFnDataOutboundAggregator.ADAPTIVE_BUFFER_SIZE_METRIC),
+          monitoringInfo.getLabelsMap());
+      // The buffer starts at its largest size.
+      assertEquals(1000L, MonitoringInfoEncodings.decodeInt64Gauge(entry.getValue()).value());
+    } finally {
+      MetricsEnvironment.setProcessWideContainer(previousContainer);
+      server.shutdownNow();
+    }
+  }
 }
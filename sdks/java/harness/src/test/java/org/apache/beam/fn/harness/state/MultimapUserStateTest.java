@@ -356,6 +356,37 @@ public class MultimapUserStateTest {
     assertThat(fakeClient.getCallCount(), is(1));
   }
 
+  @Test
+  public void testPrefetchedGetWithPendingValuesIsReused() throws Exception {
+    FakeBeamFnStateClient fakeClient =
+        new FakeBeamFnStateClient(
+            ImmutableMap.of(
+                createMultimapKeyStateKey(),
+                KV.of(ByteArrayCoder.of(), asList(A0, A1)),
+                createMultimapValueStateKey(A0),
+                KV.of(StringUtf8Coder.of(), asList("V1")),
+                createMultimapValueStateKey(A1),
+                KV.of(StringUtf8Coder.of(), asList("V2"))));
+    MultimapUserState<byte[], String> userState =
+        new MultimapUserState<>(
+            Caches.noop(),
+            fakeClient,
+            "instructionId",
+            createMultimapKeyStateKey(),
+            ByteArrayCoder.of(),
+            StringUtf8Coder.of());
+    userState.put(A0, "V3");
+    // Prefetching the keys, e.g. through readLater(), starts all the requests up front.
+    userState.get(A0).prefetch();
+    userState.get(A1).prefetch();
+    assertThat(fakeClient.getCallCount(), is(2));
+    // Reading the keys with new iterables uses the responses of the prefetched requests.
+    assertArrayEquals(
+        new String[] {"V1", "V3"}, Iterables.toArray(userState.get(A0), String.class));
+    assertArrayEquals(new String[] {"V2"}, Iterables.toArray(userState.get(A1), String.class));
+    assertThat(fakeClient.getCallCount(), is(2));
+  }
+
   @Test
   public void testPutBeforeClear() throws Exception {
     FakeBeamFnStateClient fakeClient = new FakeBeamFnStateClient(Collections.emptyMap());
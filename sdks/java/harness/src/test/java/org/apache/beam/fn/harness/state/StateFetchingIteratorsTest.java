@@ -259,6 +259,129 @@ public class StateFetchingIteratorsTest {
       assertEquals(stateRequestCount, fakeStateClient.getCallCount());
     }
 
+    @Test
+    public void testPrefetchedResponseIsUsedByOtherIterators() throws Exception {
+      int[] expected = new int[] {0, 1, 2};
+      StateRequest requestForFirstChunk =
+          StateRequest.newBuilder()
+              .setStateKey(
+                  StateKey.newBuilder()
+                      .setBagUserState(
+                          StateKey.BagUserState.newBuilder()
+                              .setTransformId("transformId")
+                              .setUserStateId("stateId")
+                              .setKey(ByteString.copyFromUtf8("key"))
+                              .setWindow(ByteString.copyFromUtf8("window"))))
+              .setGet(StateGetRequest.getDefaultInstance())
+              .build();
+
+      // Each integer is its own block
+      FakeBeamFnStateClient fakeStateClient =
+          new FakeBeamFnStateClient(
+              BigEndianIntegerCoder.of(),
+              ImmutableMap.of(requestForFirstChunk.getStateKey(), Ints.asList(expected)),
+              4);
+      CachingStateIterable<Integer> iterable =
+          new CachingStateIterable<>(
+              Caches.noop(), fakeStateClient, requestForFirstChunk, BigEndianIntegerCoder.of());
+
+      // Prefetch with an iterator that is discarded and read with another one.
+      iterable.createIterator().prefetch();
+      assertEquals(1, fakeStateClient.getCallCount());
+      verifyFetch(iterable.createIterator(), expected);
+      assertEquals(3, fakeStateClient.getCallCount());
+    }
+
+    @Test
+    public void testAbandonedPrefetchedResponsesAreReleased() throws Exception {
+      int[] expected = new int[] {0, 1, 2, 3};
+      StateRequest requestForFirstChunk =
+          StateRequest.newBuilder()
+              .setStateKey(
+                  StateKey.newBuilder()
+                      .setBagUserState(
+                          StateKey.BagUserState.newBuilder()
+                              .setTransformId("transformId")
+                              .setUserStateId("stateId")
+                              .setKey(ByteString.copyFromUtf8("key"))
+                              .setWindow(ByteString.copyFromUtf8("window"))))
+              .setGet(StateGetRequest.getDefaultInstance())
+              .build();
+
+      // Each integer is its own block
+      FakeBeamFnStateClient fakeStateClient =
+          new FakeBeamFnStateClient(
+              BigEndianIntegerCoder.of(),
+              ImmutableMap.of(requestForFirstChunk.getStateKey(), Ints.asList(expected)),
+              4);
+      CachingStateIterable<Integer> iterable =
+          new CachingStateIterable<>(
+              Caches.noop(), fakeStateClient, requestForFirstChunk, BigEndianIntegerCoder.of());
+
+      // Abandon iterators after they prefetched different blocks.
+      for (int i = 0; i < expected.length; ++i) {
+        PrefetchableIterator<Integer> iterator = iterable.createIterator();
+        for (int j = 0; j < i; ++j) {
+          iterator.next();
+        }
+        iterator.prefetch();
+        assertEquals(1, iterable.pendingResponses.size());
+      }
+
+      verifyFetch(iterable.createIterator(), expected);
+      assertTrue(iterable.pendingResponses.isEmpty());
+    }
+
+    @Test
+    public void testPrefetchAfterCachedPrefix() throws Exception {
+      int[] expected = new int[] {0, 1, 2, 3};
+      StateRequest requestForFirstChunk =
+          StateRequest.newBuilder()
+              .setStateKey(
+                  StateKey.newBuilder()
+                      .setBagUserState(
+                          StateKey.BagUserState.newBuilder()
+                              .setTransformId("transformId")
+                              .setUserStateId("stateId")
+                              .setKey(ByteString.copyFromUtf8("key"))
+                              .setWindow(ByteString.copyFromUtf8("window"))))
+              .setGet(StateGetRequest.getDefaultInstance())
+              .build();
+
+      // Each integer is its own block
+      FakeBeamFnStateClient fakeStateClient =
+          new FakeBeamFnStateClient(
+              BigEndianIntegerCoder.of(),
+              ImmutableMap.of(requestForFirstChunk.getStateKey(), Ints.asList(expected)),
+              4);
+      Cache<StateFetchingIterators.IterableCacheKey, Blocks<Integer>> cache = Caches.eternal();
+      verifyFetch(
+          new CachingStateIterable<>(
+                  cache, fakeStateClient, requestForFirstChunk, BigEndianIntegerCoder.of())
+              .iterator(),
+          expected);
+      // Only keep the first two blocks cached.
+      cache.put(
+          StateFetchingIterators.IterableCacheKey.INSTANCE,
+          ((BlocksPrefix<Integer>) cache.peek(StateFetchingIterators.IterableCacheKey.INSTANCE))
+              .shrink());
+
+      int stateRequestCount = fakeStateClient.getCallCount();
+      PrefetchableIterator<Integer> iterator =
+          new CachingStateIterable<>(
+                  cache, fakeStateClient, requestForFirstChunk, BigEndianIntegerCoder.of())
+              .iterator();
+      assertEquals(0, (int) iterator.next());
+      assertEquals(stateRequestCount, fakeStateClient.getCallCount());
+      // Reaching the last cached block starts loading the next one.
+      assertEquals(1, (int) iterator.next());
+      assertEquals(stateRequestCount + 1, fakeStateClient.getCallCount());
+      assertEquals(2, (int) iterator.next());
+      assertEquals(3, (int) iterator.next());
+      assertFalse(iterator.hasNext());
+      assertEquals(stateRequestCount + 2, fakeStateClient.getCallCount());
+    }
+
     @Test
     public void testBlocksPrefixShrinkage() throws Exception {
       List<Block<String>> originalBlocks =
@@ -20,29 +20,46 @@ package org.apache.beam.sdk.io.iceberg;
 import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.Map;
+import java.util.Objects;
 import org.apache.beam.sdk.metrics.Counter;
 import org.apache.beam.sdk.metrics.Metrics;
 import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.values.KV;
+import org.apache.iceberg.BaseFileScanTask;
 import org.apache.iceberg.CombinedScanTask;
-import org.apache.iceberg.DataOperations;
+import org.apache.iceberg.DataFile;
+import org.apache.iceberg.DeleteFile;
+import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.IncrementalAppendScan;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.ManifestFiles;
+import org.apache.iceberg.ManifestReader;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.PartitionSpecParser;
+import org.apache.iceberg.SchemaParser;
 import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.expressions.Expression;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.expressions.ResidualEvaluator;
 import org.apache.iceberg.io.CloseableIterable;
+import org.apache.iceberg.util.PropertyUtil;
+import org.apache.iceberg.util.TableScanUtil;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.Instant;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Scans the given snapshot and creates multiple {@link ReadTask}s. Each task represents a portion
- * of a data file that was appended within the snapshot range.
+ * Scans the data files that a snapshot added in one of its manifests and creates multiple {@link
+ * ReadTask}s. Each task represents a portion of a data file that was appended within the snapshot
+ * range. A {@code null} manifest path scans every file the snapshot appended.
  */
 class CreateReadTasksDoFn
-    extends DoFn<KV<String, List<SnapshotInfo>>, KV<ReadTaskDescriptor, ReadTask>> {
+    extends DoFn<KV<String, KV<SnapshotInfo, @Nullable String>>, KV<ReadTaskDescriptor, ReadTask>> {
   private static final Logger LOG = LoggerFactory.getLogger(CreateReadTasksDoFn.class);
   private static final Counter totalScanTasks =
       Metrics.counter(CreateReadTasksDoFn.class, "totalScanTasks");
@@ -59,50 +76,111 @@ class CreateReadTasksDoFn
 
   @ProcessElement
   public void process(
-      @Element KV<String, List<SnapshotInfo>> element,
+      @Element KV<String, KV<SnapshotInfo, @Nullable String>> element,
       OutputReceiver<KV<ReadTaskDescriptor, ReadTask>> out)
-      throws IOException, ExecutionException {
-    // force refresh because the table must be updated before scanning snapshots
-    Table table = TableCache.getRefreshed(element.getKey());
+      throws IOException {
+    String tableIdentifier = element.getKey();
+    SnapshotInfo snapshot = element.getValue().getKey();
+    @Nullable String manifestPath = element.getValue().getValue();
 
-    // scan snapshots individually and assign commit timestamp to files
-    for (SnapshotInfo snapshot : element.getValue()) {
-      @Nullable Long fromSnapshot = snapshot.getParentId();
-      long toSnapshot = snapshot.getSnapshotId();
+    // the table must know the snapshot before scanning it, so refresh it if it doesn't
+    Table table = TableCache.get(tableIdentifier);
+    if (table.snapshot(snapshot.getSnapshotId()) == null) {
+      table = TableCache.getRefreshed(tableIdentifier);
+    }
 
-      if (!DataOperations.APPEND.equals(snapshot.getOperation())) {
-        LOG.info(
-            "Skipping non-append snapshot of operation '{}'. Sequence number: {}, id: {}",
-            snapshot.getOperation(),
-            snapshot.getSequenceNumber(),
-            snapshot.getSnapshotId());
-      }
+    if (manifestPath == null) {
+      LOG.info("Planning to scan snapshot {}", snapshot.getSnapshotId());
+      createAndOutputReadTasks(snapshotScan(table, snapshot), snapshot, out);
+    } else {
+      LOG.info(
+          "Planning to scan manifest {} of snapshot {}", manifestPath, snapshot.getSnapshotId());
+      ManifestFile manifest =
+          checkStateNotNull(
+              ManifestCache.addedDataManifests(tableIdentifier, table, snapshot.getSnapshotId())
+                  .get(manifestPath),
+              "Snapshot %s did not add manifest %s.",
+              snapshot.getSnapshotId(),
+              manifestPath);
+      createAndOutputReadTasks(manifestScan(table, snapshot, manifest), snapshot, out);
+    }
+  }
 
-      LOG.info("Planning to scan snapshot {}", toSnapshot);
-      IncrementalAppendScan scan =
-          table
-              .newIncrementalAppendScan()
-              .toSnapshot(toSnapshot)
-              .project(scanConfig.getProjectedSchema());
-      if (fromSnapshot != null) {
-        scan = scan.fromSnapshotExclusive(fromSnapshot);
-      }
-      @Nullable Expression filter = scanConfig.getFilter();
-      if (filter != null) {
-        scan = scan.filter(filter);
-      }
+  /** Plans the files appended by a whole snapshot. */
+  private CloseableIterable<CombinedScanTask> snapshotScan(Table table, SnapshotInfo snapshot) {
+    @Nullable Long fromSnapshot = snapshot.getParentId();
+    IncrementalAppendScan scan =
+        table
+            .newIncrementalAppendScan()
+            .toSnapshot(snapshot.getSnapshotId())
+            .project(scanConfig.getProjectedSchema());
+    if (fromSnapshot != null) {
+      scan = scan.fromSnapshotExclusive(fromSnapshot);
+    }
+    @Nullable Expression filter = scanConfig.getFilter();
+    if (filter != null) {
+      scan = scan.filter(filter);
+    }
+    return scan.planTasks();
+  }
 
-      createAndOutputReadTasks(scan, snapshot, out);
+  /**
+   * Plans the files that the snapshot added in one of its manifests. Manifests that were merged
+   * into the snapshot also list existing files of earlier snapshots, which are skipped by their
+   * sequence number. Files are split and combined using the table's split properties, like a
+   * regular table scan.
+   */
+  private CloseableIterable<CombinedScanTask> manifestScan(
+      Table table, SnapshotInfo snapshot, ManifestFile manifest) throws IOException {
+    @Nullable Expression filter = scanConfig.getFilter();
+    Expression rowFilter = filter != null ? filter : Expressions.alwaysTrue();
+    Map<Integer, PartitionSpec> specs = table.specs();
+    PartitionSpec spec = checkStateNotNull(specs.get(manifest.partitionSpecId()));
+    String schemaString = SchemaParser.toJson(table.schema());
+    String specString = PartitionSpecParser.toJson(spec);
+    ResidualEvaluator residuals = ResidualEvaluator.of(spec, rowFilter, true);
+
+    List<FileScanTask> fileTasks = new ArrayList<>();
+    try (ManifestReader<DataFile> files =
+        ManifestFiles.read(manifest, table.io(), specs).filterRows(rowFilter)) {
+      for (DataFile file : files) {
+        // format v1 manifests have no sequence numbers and only hold added files at this point
+        if (snapshot.getSequenceNumber() != 0
+            && !Objects.equals(file.fileSequenceNumber(), snapshot.getSequenceNumber())) {
+          continue;
+        }
+        fileTasks.add(
+            new BaseFileScanTask(
+                file.copyWithoutStats(), new DeleteFile[0], schemaString, specString, residuals));
+      }
     }
+
+    Map<String, String> properties = table.properties();
+    long splitSize =
+        PropertyUtil.propertyAsLong(
+            properties, TableProperties.SPLIT_SIZE, TableProperties.SPLIT_SIZE_DEFAULT);
+    int lookback =
+        PropertyUtil.propertyAsInt(
+            properties, TableProperties.SPLIT_LOOKBACK, TableProperties.SPLIT_LOOKBACK_DEFAULT);
+    long openFileCost =
+        PropertyUtil.propertyAsLong(
+            properties,
+            TableProperties.SPLIT_OPEN_FILE_COST,
+            TableProperties.SPLIT_OPEN_FILE_COST_DEFAULT);
+    return TableScanUtil.planTasks(
+        TableScanUtil.splitFiles(CloseableIterable.withNoopClose(fileTasks), splitSize),
+        splitSize,
+        lookback,
+        openFileCost);
   }
 
   private void createAndOutputReadTasks(
-      IncrementalAppendScan scan,
+      CloseableIterable<CombinedScanTask> scanTasks,
       SnapshotInfo snapshot,
       OutputReceiver<KV<ReadTaskDescriptor, ReadTask>> out)
       throws IOException {
     int numTasks = 0;
-    try (CloseableIterable<CombinedScanTask> combinedScanTasks = scan.planTasks()) {
+    try (CloseableIterable<CombinedScanTask> combinedScanTasks = scanTasks) {
       for (CombinedScanTask combinedScanTask : combinedScanTasks) {
         ReadTask task = ReadTask.builder().setCombinedScanTask(combinedScanTask).build();
         ReadTaskDescriptor descriptor =
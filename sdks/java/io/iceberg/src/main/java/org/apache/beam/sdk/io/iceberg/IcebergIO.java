@@ -309,6 +309,17 @@ import org.joda.time.Duration;
  *
  * <p><b>Note</b>: This reads <b>append-only</b> snapshots. Full CDC is not supported yet.
  *
+ * <p>Scan planning reads the manifests of each snapshot. Reads which plan many snapshots of the
+ * same table, like CDC reads, can have Iceberg cache the contents of manifests on each worker by
+ * setting the {@code io.manifest.cache-enabled} catalog property to {@code true}. The cache uses
+ * worker memory and is bounded by the other {@code io.manifest.cache.*} catalog properties:
+ *
+ * <pre>{@code
+ * Map<String, String> catalogProperties = Map.of(
+ *         "warehouse", warehouse_path,
+ *         "io.manifest.cache-enabled", "true");
+ * }</pre>
+ *
  * <p>The CDC <b>streaming</b> source (enabled with {@code streaming=true}) continuously polls the
  * table for new snapshots, with a default interval of 60 seconds. This can be overridden with
  * <b>{@code poll_interval_seconds}</b>:
@@ -381,7 +392,11 @@ import org.joda.time.Duration;
 public class IcebergIO {
 
   public static WriteRows writeRows(IcebergCatalogConfig catalog) {
-    return new AutoValue_IcebergIO_WriteRows.Builder().setCatalogConfig(catalog).build();
+    return new AutoValue_IcebergIO_WriteRows.Builder()
+        .setCatalogConfig(catalog)
+        .setSortedWrites(false)
+        .setSortedWriteShardsPerPartition(1)
+        .build();
   }
 
   @AutoValue
@@ -397,6 +412,10 @@ public class IcebergIO {
 
     abstract @Nullable Integer getDirectWriteByteLimit();
 
+    abstract boolean getSortedWrites();
+
+    abstract int getSortedWriteShardsPerPartition();
+
     abstract Builder toBuilder();
 
     @AutoValue.Builder
@@ -411,6 +430,10 @@ public class IcebergIO {
 
       abstract Builder setDirectWriteByteLimit(Integer directWriteByteLimit);
 
+      abstract Builder setSortedWrites(boolean sortedWrites);
+
+      abstract Builder setSortedWriteShardsPerPartition(int shardsPerPartition);
+
       abstract WriteRows build();
     }
 
@@ -443,6 +466,42 @@ public class IcebergIO {
       return toBuilder().setDirectWriteByteLimit(directWriteByteLimit).build();
     }
 
+    /**
+     * Writes rows clustered by partition and sorted according to the {@link
+     * org.apache.iceberg.SortOrder} of their table.
+     *
+     * <p>Instead of writing rows to whichever partitions each bundle happens to contain, rows are
+     * shuffled by table and partition, and each partition is sorted and written by a single worker
+     * holding one open data file at a time. Data files are rolled once they reach the table's
+     * {@code write.target-file-size-bytes}. Sorted, well-sized files let readers prune far more
+     * data files and row groups, at the cost of an extra shuffle and of sorting every partition.
+     * Partitions larger than the sorter's memory buffer are sorted on the local disk of the worker.
+     *
+     * <p>This is only applicable when writing a bounded {@link PCollection}.
+     */
+    public WriteRows withSortedWrites() {
+      return withSortedWrites(1);
+    }
+
+    /**
+     * Like {@link #withSortedWrites()}, but spreads the rows of every partition over the given
+     * number of shards, which are sorted and written by different workers.
+     *
+     * <p>Use more shards for large partitions, or for large unpartitioned tables, which are
+     * otherwise written by a single worker. Every shard writes its own sorted data files, each
+     * covering the whole range of the partition's sort keys.
+     */
+    public WriteRows withSortedWrites(int shardsPerPartition) {
+      Preconditions.checkArgument(
+          shardsPerPartition > 0,
+          "shardsPerPartition must be positive, but was %s",
+          shardsPerPartition);
+      return toBuilder()
+          .setSortedWrites(true)
+          .setSortedWriteShardsPerPartition(shardsPerPartition)
+          .build();
+    }
+
     @Override
     public IcebergWriteResult expand(PCollection<Row> input) {
       List<?> allToArgs = Arrays.asList(getTableIdentifier(), getDynamicDestinations());
@@ -472,7 +531,9 @@ public class IcebergIO {
                   getCatalogConfig(),
                   destinations,
                   getTriggeringFrequency(),
-                  getDirectWriteByteLimit()));
+                  getDirectWriteByteLimit(),
+                  getSortedWrites(),
+                  getSortedWriteShardsPerPartition()));
     }
   }
 
@@ -19,11 +19,15 @@ package org.apache.beam.sdk.io.iceberg;
 
 import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.apache.beam.sdk.coders.KvCoder;
 import org.apache.beam.sdk.coders.ListCoder;
+import org.apache.beam.sdk.coders.NullableCoder;
 import org.apache.beam.sdk.coders.StringUtf8Coder;
 import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.PTransform;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.Redistribute;
@@ -32,10 +36,14 @@ import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.Row;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.MoreObjects;
+import org.apache.iceberg.DataOperations;
+import org.apache.iceberg.ManifestFile;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.catalog.TableIdentifier;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * An Iceberg source that reads a table incrementally using range(s) of table snapshots. The bounded
@@ -43,6 +51,7 @@ import org.joda.time.Duration;
  * snapshots at the specified interval.
  */
 class IncrementalScanSource extends PTransform<PBegin, PCollection<Row>> {
+  private static final Logger LOG = LoggerFactory.getLogger(IncrementalScanSource.class);
   private static final Duration DEFAULT_POLL_INTERVAL = Duration.standardSeconds(60);
   private final IcebergScanConfig scanConfig;
 
@@ -65,7 +74,15 @@ class IncrementalScanSource extends PTransform<PBegin, PCollection<Row>> {
 
     return snapshots
         .setCoder(KvCoder.of(StringUtf8Coder.of(), ListCoder.of(SnapshotInfo.getCoder())))
-        .apply(Redistribute.byKey())
+        .apply("Split Snapshot Ranges", ParDo.of(new SplitSnapshotRangesFn()))
+        .setCoder(KvCoder.of(StringUtf8Coder.of(), ListCoder.of(SnapshotInfo.getCoder())))
+        .apply("Redistribute Snapshots", Redistribute.arbitrarily())
+        .apply("Split Snapshots Into Manifests", ParDo.of(new SplitSnapshotManifestsFn(scanConfig)))
+        .setCoder(
+            KvCoder.of(
+                StringUtf8Coder.of(),
+                KvCoder.of(SnapshotInfo.getCoder(), NullableCoder.of(StringUtf8Coder.of()))))
+        .apply("Redistribute Manifests", Redistribute.arbitrarily())
         .apply("Create Read Tasks", ParDo.of(new CreateReadTasksDoFn(scanConfig)))
         .setCoder(KvCoder.of(ReadTaskDescriptor.getCoder(), ReadTask.getCoder()))
         .apply(Redistribute.arbitrarily())
@@ -99,4 +116,74 @@ class IncrementalScanSource extends PTransform<PBegin, PCollection<Row>> {
                 scanConfig.getTableIdentifier(),
                 ReadUtils.snapshotsBetween(table, scanConfig.getTableIdentifier(), from, to))));
   }
+
+  /**
+   * Splits ranges of snapshots into individual snapshots, so that the scans of a range are planned
+   * in parallel across workers rather than one after the other on a single worker.
+   */
+  private static class SplitSnapshotRangesFn
+      extends DoFn<KV<String, List<SnapshotInfo>>, KV<String, List<SnapshotInfo>>> {
+    @ProcessElement
+    public void process(
+        @Element KV<String, List<SnapshotInfo>> element,
+        OutputReceiver<KV<String, List<SnapshotInfo>>> out) {
+      for (SnapshotInfo snapshot : element.getValue()) {
+        out.output(KV.of(element.getKey(), Collections.singletonList(snapshot)));
+      }
+    }
+  }
+
+  /**
+   * Splits each append snapshot into the data manifests it added, so that the manifests of a large
+   * commit are planned in parallel across workers. Emits a {@code null} manifest path for format v1
+   * snapshots whose new manifests also carry existing files, because those entries can only be told
+   * apart from the added ones by scanning the whole snapshot.
+   */
+  private static class SplitSnapshotManifestsFn
+      extends DoFn<KV<String, List<SnapshotInfo>>, KV<String, KV<SnapshotInfo, @Nullable String>>> {
+    private final IcebergScanConfig scanConfig;
+
+    SplitSnapshotManifestsFn(IcebergScanConfig scanConfig) {
+      this.scanConfig = scanConfig;
+    }
+
+    @Setup
+    public void setup() {
+      TableCache.setup(scanConfig);
+    }
+
+    @ProcessElement
+    public void process(
+        @Element KV<String, List<SnapshotInfo>> element,
+        OutputReceiver<KV<String, KV<SnapshotInfo, @Nullable String>>> out) {
+      String tableIdentifier = element.getKey();
+      Table table = TableCache.get(tableIdentifier);
+      for (SnapshotInfo snapshot : element.getValue()) {
+        if (!DataOperations.APPEND.equals(snapshot.getOperation())) {
+          LOG.info(
+              "Skipping non-append snapshot of operation '{}'. Sequence number: {}, id: {}",
+              snapshot.getOperation(),
+              snapshot.getSequenceNumber(),
+              snapshot.getSnapshotId());
+          continue;
+        }
+        // the table must know the snapshot before listing its manifests, so refresh it if needed
+        if (table.snapshot(snapshot.getSnapshotId()) == null) {
+          table = TableCache.getRefreshed(tableIdentifier);
+        }
+
+        Map<String, ManifestFile> manifests =
+            ManifestCache.addedDataManifests(tableIdentifier, table, snapshot.getSnapshotId());
+        boolean hasExistingFiles =
+            manifests.values().stream().anyMatch(ManifestFile::hasExistingFiles);
+        if (snapshot.getSequenceNumber() == 0 && hasExistingFiles) {
+          out.output(KV.of(tableIdentifier, KV.of(snapshot, null)));
+          continue;
+        }
+        for (String manifestPath : manifests.keySet()) {
+          out.output(KV.of(tableIdentifier, KV.of(snapshot, manifestPath)));
+        }
+      }
+    }
+  }
 }
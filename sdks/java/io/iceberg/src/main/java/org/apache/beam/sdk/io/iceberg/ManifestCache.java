@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.iceberg;
+
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.cache.Cache;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.cache.CacheBuilder;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableMap;
+import org.apache.iceberg.ManifestFile;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.Table;
+
+/**
+ * Utility to fetch and cache the data manifests added by Iceberg {@link Snapshot}s, keyed by table
+ * and snapshot id. Snapshots are immutable, so a worker only reads each manifest list once.
+ */
+class ManifestCache {
+  private static final Cache<KV<String, Long>, Map<String, ManifestFile>> INTERNAL_CACHE =
+      CacheBuilder.newBuilder().expireAfterAccess(1, TimeUnit.HOURS).maximumSize(1000).build();
+
+  /**
+   * Returns the data manifests added by the given snapshot, keyed by manifest path. The table must
+   * already know the snapshot.
+   */
+  static Map<String, ManifestFile> addedDataManifests(
+      String identifier, Table table, long snapshotId) {
+    try {
+      return INTERNAL_CACHE.get(
+          KV.of(identifier, snapshotId),
+          () -> {
+            Snapshot snapshot =
+                checkStateNotNull(
+                    table.snapshot(snapshotId),
+                    "Table %s does not have snapshot %s.",
+                    identifier,
+                    snapshotId);
+            ImmutableMap.Builder<String, ManifestFile> manifests = ImmutableMap.builder();
+            for (ManifestFile manifest : snapshot.dataManifests(table.io())) {
+              Long addedSnapshotId = manifest.snapshotId();
+              if (addedSnapshotId != null && addedSnapshotId == snapshotId) {
+                manifests.put(manifest.path(), manifest);
+              }
+            }
+            return manifests.build();
+          });
+    } catch (ExecutionException e) {
+      throw new RuntimeException(
+          "Encountered a problem fetching manifests of snapshot "
+              + snapshotId
+              + " of table "
+              + identifier
+              + " from cache.",
+          e);
+    }
+  }
+}
@@ -281,6 +281,14 @@ class RecordWriterManager implements AutoCloseable {
    * using the Iceberg API.
    */
   private Table getOrCreateTable(IcebergDestination destination, Schema dataSchema) {
+    return getOrCreateTable(catalog, destination, dataSchema);
+  }
+
+  /**
+   * Like {@link #getOrCreateTable(IcebergDestination, Schema)}, using the given {@link Catalog}.
+   */
+  static Table getOrCreateTable(
+      Catalog catalog, IcebergDestination destination, Schema dataSchema) {
     TableIdentifier identifier = destination.getTableIdentifier();
     @Nullable Table table = TABLE_CACHE.getIfPresent(identifier);
     if (table != null) {
@@ -29,14 +29,20 @@ import org.apache.beam.sdk.values.Row;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableList;
 import org.apache.iceberg.BaseCombinedScanTask;
 import org.apache.iceberg.CombinedScanTask;
+import org.apache.iceberg.Snapshot;
+import org.apache.iceberg.SnapshotSummary;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.TableProperties;
 import org.apache.iceberg.TableScan;
 import org.apache.iceberg.io.CloseableIterable;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 /**
  * Source that reads all the data in a table described by an IcebergScanConfig. Supports only
  * initial spliting.
+ *
+ * <p>The table scan is planned by {@link #split}, using Iceberg's own scan planning, and each of
+ * the resulting splits reads its planned tasks.
  */
 class ScanSource extends BoundedSource<Row> {
 
@@ -103,8 +109,24 @@ class ScanSource extends BoundedSource<Row> {
     return splits;
   }
 
+  /**
+   * Returns an estimate of the size of the data read by the scan.
+   *
+   * <p>Planning reads every manifest of the snapshot, so unfiltered scans use the total size of the
+   * files recorded in the snapshot summary instead. That size includes delete files and every
+   * column of the data files, regardless of the projection, so it overestimates the bytes read.
+   */
   @Override
   public long getEstimatedSizeBytes(PipelineOptions options) throws Exception {
+    TableScan tableScan = getTableScan();
+    @Nullable Snapshot snapshot = tableScan.snapshot();
+    if (scanConfig.getFilter() == null && snapshot != null) {
+      @Nullable
+      String totalFilesSize = snapshot.summary().get(SnapshotSummary.TOTAL_FILE_SIZE_PROP);
+      if (totalFilesSize != null) {
+        return Long.parseLong(totalFilesSize);
+      }
+    }
     return wholeTableReadTask().sizeBytes();
   }
 
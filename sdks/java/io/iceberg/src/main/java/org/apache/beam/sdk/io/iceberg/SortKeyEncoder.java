@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.iceberg;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import org.apache.iceberg.NullOrder;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortDirection;
+import org.apache.iceberg.SortField;
+import org.apache.iceberg.SortKey;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.data.InternalRecordWrapper;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.types.Type;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Encodes the sort key of records into bytes whose unsigned lexicographic order is the order of the
+ * records according to a {@link SortOrder}.
+ *
+ * <p>This lets sorters that only compare bytes, like the ones of the sorter extension, sort records
+ * by the sort order of their table. Every sort field is encoded as a marker byte placing nulls
+ * first or last, followed by the transformed value in an order preserving encoding:
+ *
+ * <ul>
+ *   <li>integers, dates, times and timestamps are written big endian with their sign bit flipped;
+ *   <li>floating point values are written as their bits, flipped so that they compare like {@link
+ *       Double#compare};
+ *   <li>decimals are written as their unscaled value, sign extended to 16 bytes;
+ *   <li>strings are written as UTF-8 and binary values as is, with every {@code 0x00} escaped as
+ *       {@code 0x00 0xFF} and terminated by {@code 0x00 0x01}, so that a value sorts before the
+ *       values it is a prefix of.
+ * </ul>
+ *
+ * <p>The bytes of descending fields are inverted. Instances are not thread safe.
+ */
+class SortKeyEncoder {
+  private static final int NULL_FIRST = 0x00;
+  private static final int NOT_NULL = 0x01;
+  private static final int NULL_LAST = 0x02;
+  private static final int ESCAPE = 0x00;
+  private static final int ESCAPED_ZERO = 0xFF;
+  private static final int TERMINATOR = 0x01;
+  // Decimals have a precision of at most 38 digits, so their unscaled values fit in 128 bits.
+  private static final int DECIMAL_BYTES = 16;
+
+  private final List<SortField> fields;
+  private final Type[] types;
+  private final SortKey sortKey;
+  private final InternalRecordWrapper wrapper;
+  private final ByteArrayOutputStream keyBytes = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+
+  SortKeyEncoder(Schema schema, SortOrder sortOrder) {
+    this.fields = sortOrder.fields();
+    this.types = new Type[fields.size()];
+    for (int i = 0; i < types.length; ++i) {
+      SortField field = fields.get(i);
+      types[i] = field.transform().getResultType(schema.findType(field.sourceId()));
+    }
+    this.sortKey = new SortKey(schema, sortOrder);
+    // Sort transforms operate on Iceberg's internal representation of values.
+    this.wrapper = new InternalRecordWrapper(schema.asStruct());
+  }
+
+  /** Returns the encoded sort key of the record. */
+  byte[] encode(Record record) {
+    sortKey.wrap(wrapper.wrap(record));
+    keyBytes.reset();
+    for (int i = 0; i < types.length; ++i) {
+      SortField sortField = fields.get(i);
+      @Nullable Object sortValue = sortKey.get(i, Object.class);
+      if (sortValue == null) {
+        keyBytes.write(sortField.nullOrder() == NullOrder.NULLS_FIRST ? NULL_FIRST : NULL_LAST);
+        continue;
+      }
+      keyBytes.write(NOT_NULL);
+      fieldBytes.reset();
+      encodeValue(types[i], sortValue);
+      byte[] bytes = fieldBytes.toByteArray();
+      if (sortField.direction() == SortDirection.DESC) {
+        for (int b = 0; b < bytes.length; ++b) {
+          bytes[b] = (byte) ~bytes[b];
+        }
+      }
+      keyBytes.write(bytes, 0, bytes.length);
+    }
+    return keyBytes.toByteArray();
+  }
+
+  private void encodeValue(Type type, Object value) {
+    switch (type.typeId()) {
+      case BOOLEAN:
+        fieldBytes.write((Boolean) value ? 1 : 0);
+        break;
+      case INTEGER:
+      case DATE:
+        writeInt((Integer) value ^ Integer.MIN_VALUE);
+        break;
+      case LONG:
+      case TIME:
+      case TIMESTAMP:
+      case TIMESTAMP_NANO:
+        writeLong((Long) value ^ Long.MIN_VALUE);
+        break;
+      case FLOAT:
+        int floatBits = Float.floatToIntBits((Float) value);
+        writeInt(floatBits < 0 ? ~floatBits : floatBits ^ Integer.MIN_VALUE);
+        break;
+      case DOUBLE:
+        long doubleBits = Double.doubleToLongBits((Double) value);
+        writeLong(doubleBits < 0 ? ~doubleBits : doubleBits ^ Long.MIN_VALUE);
+        break;
+      case DECIMAL:
+        writeDecimal(((BigDecimal) value).unscaledValue());
+        break;
+      case UUID:
+        UUID uuid = (UUID) value;
+        writeLong(uuid.getMostSignificantBits() ^ Long.MIN_VALUE);
+        writeLong(uuid.getLeastSignificantBits() ^ Long.MIN_VALUE);
+        break;
+      case FIXED:
+        writeBytes(bytesOf((ByteBuffer) value));
+        break;
+      case STRING:
+        writeEscaped(value.toString().getBytes(UTF_8));
+        break;
+      case BINARY:
+        writeEscaped(bytesOf((ByteBuffer) value));
+        break;
+      default:
+        throw new UnsupportedOperationException("Cannot sort by values of type " + type);
+    }
+  }
+
+  private void writeInt(int value) {
+    for (int shift = Integer.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      fieldBytes.write(value >>> shift);
+    }
+  }
+
+  private void writeLong(long value) {
+    for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+      fieldBytes.write((int) (value >>> shift));
+    }
+  }
+
+  private void writeDecimal(BigInteger unscaled) {
+    byte[] bytes = unscaled.toByteArray();
+    byte[] extended = new byte[DECIMAL_BYTES];
+    if (unscaled.signum() < 0) {
+      Arrays.fill(extended, (byte) 0xFF);
+    }
+    System.arraycopy(bytes, 0, extended, DECIMAL_BYTES - bytes.length, bytes.length);
+    extended[0] ^= Byte.MIN_VALUE;
+    writeBytes(extended);
+  }
+
+  private void writeEscaped(byte[] bytes) {
+    for (byte b : bytes) {
+      fieldBytes.write(b);
+      if (b == ESCAPE) {
+        fieldBytes.write(ESCAPED_ZERO);
+      }
+    }
+    fieldBytes.write(ESCAPE);
+    fieldBytes.write(TERMINATOR);
+  }
+
+  private void writeBytes(byte[] bytes) {
+    fieldBytes.write(bytes, 0, bytes.length);
+  }
+
+  private static byte[] bytesOf(ByteBuffer value) {
+    ByteBuffer duplicate = value.duplicate();
+    byte[] bytes = new byte[duplicate.remaining()];
+    duplicate.get(bytes);
+    return bytes;
+  }
+}
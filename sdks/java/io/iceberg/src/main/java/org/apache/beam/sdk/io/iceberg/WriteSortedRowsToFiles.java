@@ -0,0 +1,319 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.iceberg;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.beam.sdk.coders.ByteArrayCoder;
+import org.apache.beam.sdk.coders.KvCoder;
+import org.apache.beam.sdk.coders.RowCoder;
+import org.apache.beam.sdk.coders.StringUtf8Coder;
+import org.apache.beam.sdk.extensions.sorter.BufferedExternalSorter;
+import org.apache.beam.sdk.extensions.sorter.ExternalSorter.Options.SorterType;
+import org.apache.beam.sdk.extensions.sorter.SortValues;
+import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.GroupByKey;
+import org.apache.beam.sdk.transforms.PTransform;
+import org.apache.beam.sdk.transforms.ParDo;
+import org.apache.beam.sdk.util.ShardedKey;
+import org.apache.beam.sdk.values.KV;
+import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.Row;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterators;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Maps;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.PeekingIterator;
+import org.apache.iceberg.PartitionField;
+import org.apache.iceberg.PartitionKey;
+import org.apache.iceberg.Table;
+import org.apache.iceberg.TableProperties;
+import org.apache.iceberg.catalog.Catalog;
+import org.apache.iceberg.data.InternalRecordWrapper;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.util.PropertyUtil;
+import org.checkerframework.checker.nullness.qual.MonotonicNonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Writes rows clustered by partition and sorted according to the sort order of their table.
+ *
+ * <p>Rows are first keyed by their table destination, partition and one of a fixed number of shards
+ * per partition, then shuffled so that all rows of a shard are written by a single worker. Every
+ * row carries its sort key, encoded by a {@link SortKeyEncoder}, so that {@link SortValues} sorts
+ * the rows of a shard with the table's {@link org.apache.iceberg.SortOrder}, spilling them to local
+ * disk once they exceed its memory buffer. The worker writes the sorted rows through a single
+ * {@link RecordWriter}, rolling to a new data file whenever the current one exceeds the table's
+ * {@link TableProperties#WRITE_TARGET_FILE_SIZE_BYTES}. This produces well-sized, sorted data files
+ * with tight column bounds. Rows are spread over the shards of their partition round robin, so more
+ * shards write large partitions with more workers, but every shard writes files covering the whole
+ * range of the partition's sort keys.
+ */
+class WriteSortedRowsToFiles
+    extends PTransform<PCollection<KV<String, Row>>, PCollection<FileWriteResult>> {
+  private final long maxBytesPerFile;
+
+  private final DynamicDestinations dynamicDestinations;
+  private final IcebergCatalogConfig catalogConfig;
+  private final String filePrefix;
+  private final int shardsPerPartition;
+
+  WriteSortedRowsToFiles(
+      IcebergCatalogConfig catalogConfig,
+      DynamicDestinations dynamicDestinations,
+      String filePrefix,
+      long maxBytesPerFile,
+      int shardsPerPartition) {
+    this.catalogConfig = catalogConfig;
+    this.dynamicDestinations = dynamicDestinations;
+    this.filePrefix = filePrefix;
+    this.maxBytesPerFile = maxBytesPerFile;
+    this.shardsPerPartition = shardsPerPartition;
+  }
+
+  @Override
+  public PCollection<FileWriteResult> expand(PCollection<KV<String, Row>> input) {
+    return input
+        .apply(
+            "Assign Partitions",
+            ParDo.of(
+                new AssignPartitionsDoFn(catalogConfig, dynamicDestinations, shardsPerPartition)))
+        .setCoder(
+            KvCoder.of(
+                ShardedKey.Coder.of(StringUtf8Coder.of()),
+                KvCoder.of(ByteArrayCoder.of(), RowCoder.of(dynamicDestinations.getDataSchema()))))
+        .apply("Group Rows by Partition", GroupByKey.create())
+        .apply(
+            "Sort Rows",
+            SortValues.<ShardedKey<String>, byte[], Row>create(
+                BufferedExternalSorter.options().withExternalSorterType(SorterType.BLOCK)))
+        .apply(
+            "Write Sorted Rows",
+            ParDo.of(
+                new WriteSortedRowsToFilesDoFn(
+                    catalogConfig, dynamicDestinations, filePrefix, maxBytesPerFile)));
+  }
+
+  /**
+   * Keys every row by its table destination, using the path of its partition followed by a shard
+   * number as the shard so that the subsequent {@link GroupByKey} gathers each shard of each
+   * partition of each table, and pairs the row with its encoded sort key.
+   */
+  private static class AssignPartitionsDoFn
+      extends DoFn<KV<String, Row>, KV<ShardedKey<String>, KV<byte[], Row>>> {
+    private final DynamicDestinations dynamicDestinations;
+    private final IcebergCatalogConfig catalogConfig;
+    private final int shardsPerPartition;
+    private transient @MonotonicNonNull Catalog catalog;
+    // Partitioners of the tables seen in the current bundle, so that tables are only refreshed
+    // once per bundle.
+    private transient @MonotonicNonNull Map<String, Partitioner> partitioners;
+    private int shardNumber;
+
+    AssignPartitionsDoFn(
+        IcebergCatalogConfig catalogConfig,
+        DynamicDestinations dynamicDestinations,
+        int shardsPerPartition) {
+      this.catalogConfig = catalogConfig;
+      this.dynamicDestinations = dynamicDestinations;
+      this.shardsPerPartition = shardsPerPartition;
+    }
+
+    private Catalog getCatalog() {
+      if (catalog == null) {
+        this.catalog = catalogConfig.catalog();
+      }
+      return catalog;
+    }
+
+    @StartBundle
+    public void startBundle() {
+      partitioners = Maps.newHashMap();
+      shardNumber = ThreadLocalRandom.current().nextInt(shardsPerPartition);
+    }
+
+    @ProcessElement
+    public void processElement(
+        @Element KV<String, Row> element,
+        OutputReceiver<KV<ShardedKey<String>, KV<byte[], Row>>> out) {
+      String dest = element.getKey();
+      Row data = element.getValue();
+      Partitioner partitioner =
+          checkStateNotNull(partitioners)
+              .computeIfAbsent(
+                  dest,
+                  d ->
+                      new Partitioner(
+                          RecordWriterManager.getOrCreateTable(
+                              getCatalog(),
+                              dynamicDestinations.instantiateDestination(d),
+                              data.getSchema())));
+      Record record = IcebergUtils.beamRowToIcebergRecord(partitioner.table.schema(), data);
+      byte[] partitionPath = partitioner.partition(record).toPath().getBytes(UTF_8);
+      shardNumber = (shardNumber + 1) % shardsPerPartition;
+      byte[] shard =
+          ByteBuffer.allocate(partitionPath.length + Integer.BYTES)
+              .put(partitionPath)
+              .putInt(shardNumber)
+              .array();
+      out.output(KV.of(ShardedKey.of(dest, shard), KV.of(partitioner.sortKey(record), data)));
+    }
+  }
+
+  private static class WriteSortedRowsToFilesDoFn
+      extends DoFn<KV<ShardedKey<String>, Iterable<KV<byte[], Row>>>, FileWriteResult> {
+
+    private final DynamicDestinations dynamicDestinations;
+    private final IcebergCatalogConfig catalogConfig;
+    private transient @MonotonicNonNull Catalog catalog;
+    private final String filePrefix;
+    private final long maxFileSize;
+
+    WriteSortedRowsToFilesDoFn(
+        IcebergCatalogConfig catalogConfig,
+        DynamicDestinations dynamicDestinations,
+        String filePrefix,
+        long maxFileSize) {
+      this.catalogConfig = catalogConfig;
+      this.dynamicDestinations = dynamicDestinations;
+      this.filePrefix = filePrefix;
+      this.maxFileSize = maxFileSize;
+    }
+
+    private Catalog getCatalog() {
+      if (catalog == null) {
+        this.catalog = catalogConfig.catalog();
+      }
+      return catalog;
+    }
+
+    @ProcessElement
+    public void processElement(
+        @Element KV<ShardedKey<String>, Iterable<KV<byte[], Row>>> element,
+        OutputReceiver<FileWriteResult> out)
+        throws IOException {
+      IcebergDestination destination =
+          dynamicDestinations.instantiateDestination(element.getKey().getKey());
+      // The rows are sorted by their sort key, and read from the sorter as they are written.
+      PeekingIterator<KV<byte[], Row>> sortedRows =
+          Iterators.peekingIterator(element.getValue().iterator());
+      if (!sortedRows.hasNext()) {
+        return;
+      }
+      Table table =
+          RecordWriterManager.getOrCreateTable(
+              getCatalog(), destination, sortedRows.peek().getValue().getSchema());
+      Partitioner partitioner = new Partitioner(table);
+
+      long targetFileSize =
+          PropertyUtil.propertyAsLong(
+              table.properties(), TableProperties.WRITE_TARGET_FILE_SIZE_BYTES, maxFileSize);
+      String stateToken = UUID.randomUUID().toString();
+      int fileIndex = 0;
+      @Nullable RecordWriter writer = null;
+      @Nullable PartitionKey writerPartition = null;
+      try {
+        while (sortedRows.hasNext()) {
+          Record record =
+              IcebergUtils.beamRowToIcebergRecord(table.schema(), sortedRows.next().getValue());
+          PartitionKey partitionKey = partitioner.partition(record);
+          // All records normally share one partition, but the partition spec may have evolved
+          // since the records were keyed.
+          if (writer == null
+              || writer.bytesWritten() > targetFileSize
+              || !partitionKey.equals(writerPartition)) {
+            if (writer != null) {
+              out.output(closeWriter(table, destination, writer, partitioner, writerPartition));
+            }
+            writerPartition = partitionKey.copy();
+            writer =
+                new RecordWriter(
+                    table,
+                    destination.getFileFormat(),
+                    filePrefix + "_" + stateToken + "_" + ++fileIndex,
+                    writerPartition);
+          }
+          writer.write(record);
+        }
+      } catch (Exception e) {
+        if (writer != null) {
+          try {
+            writer.close();
+          } catch (Exception closeException) {
+            e.addSuppressed(closeException);
+          }
+        }
+        throw e;
+      }
+      if (writer != null) {
+        out.output(closeWriter(table, destination, writer, partitioner, writerPartition));
+      }
+    }
+
+    private static FileWriteResult closeWriter(
+        Table table,
+        IcebergDestination destination,
+        RecordWriter writer,
+        Partitioner partitioner,
+        @Nullable PartitionKey partitionKey)
+        throws IOException {
+      writer.close();
+      String partitionPath =
+          RecordWriterManager.getPartitionDataPath(
+              checkStateNotNull(partitionKey).toPath(), partitioner.partitionFieldMap);
+      return FileWriteResult.builder()
+          .setTableIdentifier(destination.getTableIdentifier())
+          .setSerializableDataFile(SerializableDataFile.from(writer.getDataFile(), partitionPath))
+          .build();
+    }
+  }
+
+  /** Computes the partition and the encoded sort key of records of a {@link Table}. */
+  private static class Partitioner {
+    private final Table table;
+    private final PartitionKey partitionKey;
+    private final InternalRecordWrapper wrapper;
+    private final SortKeyEncoder sortKeyEncoder;
+    private final Map<String, PartitionField> partitionFieldMap = Maps.newHashMap();
+
+    Partitioner(Table table) {
+      this.table = table;
+      this.partitionKey = new PartitionKey(table.spec(), table.schema());
+      this.wrapper = new InternalRecordWrapper(table.schema().asStruct());
+      this.sortKeyEncoder = new SortKeyEncoder(table.schema(), table.sortOrder());
+      for (PartitionField partitionField : table.spec().fields()) {
+        partitionFieldMap.put(partitionField.name(), partitionField);
+      }
+    }
+
+    /** Returns the partition of the record. The returned key is reused across calls. */
+    PartitionKey partition(Record record) {
+      partitionKey.partition(wrapper.wrap(record));
+      return partitionKey;
+    }
+
+    /** Returns the sort key of the record, encoded so that it sorts as bytes. */
+    byte[] sortKey(Record record) {
+      return sortKeyEncoder.encode(record);
+    }
+  }
+}
@@ -59,16 +59,22 @@ class WriteToDestinations extends PTransform<PCollection<KV<String, Row>>, Icebe
   private final @Nullable Duration triggeringFrequency;
   private final String filePrefix;
   private final @Nullable Integer directWriteByteLimit;
+  private final boolean sortedWrites;
+  private final int sortedWriteShardsPerPartition;
 
   WriteToDestinations(
       IcebergCatalogConfig catalogConfig,
       DynamicDestinations dynamicDestinations,
       @Nullable Duration triggeringFrequency,
-      @Nullable Integer directWriteByteLimit) {
+      @Nullable Integer directWriteByteLimit,
+      boolean sortedWrites,
+      int sortedWriteShardsPerPartition) {
     this.dynamicDestinations = dynamicDestinations;
     this.catalogConfig = catalogConfig;
     this.triggeringFrequency = triggeringFrequency;
     this.directWriteByteLimit = directWriteByteLimit;
+    this.sortedWrites = sortedWrites;
+    this.sortedWriteShardsPerPartition = sortedWriteShardsPerPartition;
     // single unique prefix per write transform
     this.filePrefix = UUID.randomUUID().toString();
   }
@@ -78,6 +84,8 @@ class WriteToDestinations extends PTransform<PCollection<KV<String, Row>>, Icebe
     // Write records to files
     PCollection<FileWriteResult> writtenFiles;
     if (IcebergUtils.isUnbounded(input)) {
+      Preconditions.checkArgument(
+          !sortedWrites, "Sorted writes are only supported for bounded PCollections.");
       writtenFiles =
           IcebergUtils.validDirectWriteLimit(directWriteByteLimit)
               ? writeTriggeredWithBundleLifting(input)
@@ -182,6 +190,18 @@ class WriteToDestinations extends PTransform<PCollection<KV<String, Row>>, Icebe
         triggeringFrequency == null,
         "Triggering frequency is only applicable for streaming pipelines.");
 
+    if (sortedWrites) {
+      // Shuffle every row to the worker writing its partition shard, which sorts the shard's rows
+      return input.apply(
+          "Write sorted rows to files",
+          new WriteSortedRowsToFiles(
+              catalogConfig,
+              dynamicDestinations,
+              filePrefix,
+              DEFAULT_MAX_BYTES_PER_FILE,
+              sortedWriteShardsPerPartition));
+    }
+
     // First, attempt to write directly to files without shuffling. If there are
     // too many distinct destinations in a single bundle, the remaining
     // elements will be emitted to take the "slow path" that involves a shuffle
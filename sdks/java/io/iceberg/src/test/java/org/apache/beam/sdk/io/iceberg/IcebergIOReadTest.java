@@ -739,6 +739,75 @@ public class IcebergIOReadTest {
     testPipeline.run();
   }
 
+  @Test
+  public void testReadMergedManifestsOfV1Table() throws IOException {
+    runReadOfMergedManifests(1);
+  }
+
+  @Test
+  public void testReadMergedManifestsOfV2Table() throws IOException {
+    runReadOfMergedManifests(2);
+  }
+
+  /**
+   * Merge appends rewrite earlier manifests into the new one, so it also lists the existing files
+   * of earlier snapshots. Only the files appended within the range must be read.
+   */
+  public void runReadOfMergedManifests(int formatVersion) throws IOException {
+    assumeTrue(useIncrementalScan);
+    TableIdentifier tableId = TableIdentifier.of("default", testName.getMethodName());
+    Table simpleTable =
+        warehouse.createTable(
+            tableId,
+            TestFixtures.SCHEMA,
+            null,
+            ImmutableMap.of(
+                TableProperties.FORMAT_VERSION,
+                String.valueOf(formatVersion),
+                TableProperties.MANIFEST_MIN_MERGE_COUNT,
+                "2"));
+    Schema schema = icebergSchemaToBeamSchema(TestFixtures.SCHEMA);
+
+    simpleTable
+        .newAppend()
+        .appendFile(
+            warehouse.writeRecords(
+                "file1s1.parquet", simpleTable.schema(), TestFixtures.FILE1SNAPSHOT1))
+        .commit();
+    simpleTable
+        .newAppend()
+        .appendFile(
+            warehouse.writeRecords(
+                "file1s2.parquet", simpleTable.schema(), TestFixtures.FILE1SNAPSHOT2))
+        .commit();
+    long secondSnapshot = simpleTable.currentSnapshot().snapshotId();
+    simpleTable
+        .newAppend()
+        .appendFile(
+            warehouse.writeRecords(
+                "file1s3.parquet", simpleTable.schema(), TestFixtures.FILE1SNAPSHOT3))
+        .commit();
+    assertEquals(1, simpleTable.currentSnapshot().dataManifests(simpleTable.io()).size());
+
+    final List<Row> expectedRows =
+        Stream.of(TestFixtures.FILE1SNAPSHOT2, TestFixtures.FILE1SNAPSHOT3)
+            .flatMap(List::stream)
+            .map(record -> IcebergUtils.icebergRecordToBeamRow(schema, record))
+            .collect(Collectors.toList());
+
+    IcebergIO.ReadRows readRows =
+        IcebergIO.readRows(catalogConfig())
+            .withCdc()
+            .from(tableId)
+            .fromSnapshot(secondSnapshot)
+            .toSnapshot(simpleTable.currentSnapshot().snapshotId());
+
+    PCollection<Row> rows = testPipeline.apply(readRows);
+
+    PAssert.that(rows).containsInAnyOrder(expectedRows);
+    testPipeline.run();
+  }
+
   @SuppressWarnings("unchecked")
   public static GenericRecord avroGenericRecord(
       org.apache.avro.Schema schema, Map<String, Object> values) {
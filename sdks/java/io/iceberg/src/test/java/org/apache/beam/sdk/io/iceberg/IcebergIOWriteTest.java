@@ -19,9 +19,11 @@ package org.apache.beam.sdk.io.iceberg;
 
 import static org.apache.beam.sdk.io.iceberg.IcebergUtils.beamRowToIcebergRecord;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
@@ -40,11 +42,15 @@ import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Immuta
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableMap;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Iterables;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Maps;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Ordering;
 import org.apache.commons.compress.utils.Lists;
 import org.apache.iceberg.AppendFiles;
 import org.apache.iceberg.CatalogUtil;
 import org.apache.iceberg.DataFile;
 import org.apache.iceberg.FileFormat;
+import org.apache.iceberg.FileScanTask;
+import org.apache.iceberg.PartitionSpec;
+import org.apache.iceberg.SortOrder;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.catalog.Namespace;
 import org.apache.iceberg.catalog.SupportsNamespaces;
@@ -52,7 +58,9 @@ import org.apache.iceberg.catalog.TableIdentifier;
 import org.apache.iceberg.data.GenericRecord;
 import org.apache.iceberg.data.IcebergGenerics;
 import org.apache.iceberg.data.Record;
+import org.apache.iceberg.data.parquet.GenericParquetReaders;
 import org.apache.iceberg.data.parquet.GenericParquetWriter;
+import org.apache.iceberg.io.CloseableIterable;
 import org.apache.iceberg.io.DataWriter;
 import org.apache.iceberg.io.OutputFile;
 import org.apache.iceberg.parquet.Parquet;
@@ -400,4 +408,127 @@ public class IcebergIOWriteTest implements Serializable {
     List<Record> writtenRecords = ImmutableList.copyOf(IcebergGenerics.read(table).build());
     assertThat(writtenRecords, Matchers.containsInAnyOrder(TestFixtures.FILE1SNAPSHOT1.toArray()));
   }
+
+  @Test
+  public void testSortedWrite() throws Exception {
+    TableIdentifier tableId =
+        TableIdentifier.of("default", "sorted_" + Long.toString(UUID.randomUUID().hashCode(), 16));
+    Table table =
+        warehouse
+            .buildTable(tableId, TestFixtures.SCHEMA)
+            .withPartitionSpec(
+                PartitionSpec.builderFor(TestFixtures.SCHEMA).truncate("id", 6).build())
+            .withSortOrder(SortOrder.builderFor(TestFixtures.SCHEMA).desc("id").build())
+            .create();
+
+    Map<String, String> catalogProps =
+        ImmutableMap.<String, String>builder()
+            .put("type", CatalogUtil.ICEBERG_CATALOG_TYPE_HADOOP)
+            .put("warehouse", warehouse.location)
+            .build();
+
+    IcebergCatalogConfig catalog =
+        IcebergCatalogConfig.builder()
+            .setCatalogName("name")
+            .setCatalogProperties(catalogProps)
+            .build();
+
+    testPipeline
+        .apply(
+            "Records To Add",
+            Create.of(
+                TestFixtures.asRows(
+                    Iterables.concat(
+                        TestFixtures.FILE1SNAPSHOT1,
+                        TestFixtures.FILE1SNAPSHOT2,
+                        TestFixtures.FILE1SNAPSHOT3,
+                        TestFixtures.FILE1SNAPSHOT4))))
+        .setRowSchema(IcebergUtils.icebergSchemaToBeamSchema(TestFixtures.SCHEMA))
+        .apply("Append To Table", IcebergIO.writeRows(catalog).to(tableId).withSortedWrites());
+    testPipeline.run().waitUntilFinish();
+
+    // Every partition is written to a single data file, sorted by descending id
+    table.refresh();
+    assertThat(
+        readIdsPerFile(table),
+        Matchers.containsInAnyOrder(
+            ImmutableList.of(5L, 4L, 3L, 2L, 1L, 0L), ImmutableList.of(11L, 10L, 9L, 8L, 7L, 6L)));
+  }
+
+  @Test
+  public void testSortedWriteWithShards() throws Exception {
+    TableIdentifier tableId =
+        TableIdentifier.of(
+            "default", "sorted_sharded_" + Long.toString(UUID.randomUUID().hashCode(), 16));
+    Table table =
+        warehouse
+            .buildTable(tableId, TestFixtures.SCHEMA)
+            .withPartitionSpec(
+                PartitionSpec.builderFor(TestFixtures.SCHEMA).truncate("id", 6).build())
+            .withSortOrder(SortOrder.builderFor(TestFixtures.SCHEMA).desc("id").build())
+            .create();
+
+    Map<String, String> catalogProps =
+        ImmutableMap.<String, String>builder()
+            .put("type", CatalogUtil.ICEBERG_CATALOG_TYPE_HADOOP)
+            .put("warehouse", warehouse.location)
+            .build();
+
+    IcebergCatalogConfig catalog =
+        IcebergCatalogConfig.builder()
+            .setCatalogName("name")
+            .setCatalogProperties(catalogProps)
+            .build();
+
+    testPipeline
+        .apply(
+            "Records To Add",
+            Create.of(
+                TestFixtures.asRows(
+                    Iterables.concat(
+                        TestFixtures.FILE1SNAPSHOT1,
+                        TestFixtures.FILE1SNAPSHOT2,
+                        TestFixtures.FILE1SNAPSHOT3,
+                        TestFixtures.FILE1SNAPSHOT4))))
+        .setRowSchema(IcebergUtils.icebergSchemaToBeamSchema(TestFixtures.SCHEMA))
+        .apply("Append To Table", IcebergIO.writeRows(catalog).to(tableId).withSortedWrites(3));
+    testPipeline.run().waitUntilFinish();
+
+    // Every partition is spread over at most 3 data files, each sorted by descending id
+    table.refresh();
+    List<List<Long>> idsPerFile = readIdsPerFile(table);
+    List<Long> allIds = Lists.newArrayList();
+    for (List<Long> ids : idsPerFile) {
+      assertThat(ids, Matchers.not(Matchers.empty()));
+      assertEquals(Ordering.<Long>natural().reverse().sortedCopy(ids), ids);
+      // The rows of a file belong to a single partition.
+      assertEquals(ids.get(0) / 6, ids.get(ids.size() - 1) / 6);
+      allIds.addAll(ids);
+    }
+    assertThat(idsPerFile.size(), Matchers.lessThanOrEqualTo(6));
+    assertThat(
+        allIds, Matchers.containsInAnyOrder(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L));
+  }
+
+  /** Reads the ids of the rows of every data file of the table, in the order of the file. */
+  private static List<List<Long>> readIdsPerFile(Table table) throws IOException {
+    List<List<Long>> idsPerFile = Lists.newArrayList();
+    try (CloseableIterable<FileScanTask> tasks = table.newScan().planFiles()) {
+      for (FileScanTask task : tasks) {
+        List<Long> ids = Lists.newArrayList();
+        try (CloseableIterable<Record> records =
+            Parquet.read(table.io().newInputFile(task.file().location()))
+                .project(table.schema())
+                .createReaderFunc(
+                    fileSchema -> GenericParquetReaders.buildReader(table.schema(), fileSchema))
+                .build()) {
+          for (Record record : records) {
+            ids.add((Long) record.getField("id"));
+          }
+        }
+        idsPerFile.add(ids);
+      }
+    }
+    return idsPerFile;
+  }
 }
@@ -18,6 +18,7 @@
 package org.apache.beam.sdk.io.iceberg;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
 
 import java.util.List;
 import java.util.Map;
@@ -29,8 +30,10 @@ import org.apache.beam.sdk.testing.SourceTestUtils;
 import org.apache.beam.sdk.values.Row;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableMap;
 import org.apache.iceberg.CatalogUtil;
+import org.apache.iceberg.FileScanTask;
 import org.apache.iceberg.Table;
 import org.apache.iceberg.catalog.TableIdentifier;
+import org.apache.iceberg.io.CloseableIterable;
 import org.hamcrest.Matchers;
 import org.junit.ClassRule;
 import org.junit.Rule;
@@ -90,6 +93,55 @@ public class ScanSourceTest {
     SourceTestUtils.assertUnstartedReaderReadsSameAsItsSource(reader, options);
   }
 
+  @Test
+  public void testEstimatedSizeBytes() throws Exception {
+    TableIdentifier tableId =
+        TableIdentifier.of("default", "table" + Long.toString(UUID.randomUUID().hashCode(), 16));
+    Table simpleTable = warehouse.createTable(tableId, TestFixtures.SCHEMA);
+    simpleTable
+        .newFastAppend()
+        .appendFile(
+            warehouse.writeRecords(
+                "file1s1.parquet", simpleTable.schema(), TestFixtures.FILE1SNAPSHOT1))
+        .appendFile(
+            warehouse.writeRecords(
+                "file2s1.parquet", simpleTable.schema(), TestFixtures.FILE2SNAPSHOT1))
+        .commit();
+
+    long totalFileSize = 0;
+    try (CloseableIterable<FileScanTask> tasks = simpleTable.newScan().planFiles()) {
+      for (FileScanTask task : tasks) {
+        totalFileSize += task.file().fileSizeInBytes();
+      }
+    }
+
+    Map<String, String> catalogProps =
+        ImmutableMap.<String, String>builder()
+            .put("type", CatalogUtil.ICEBERG_CATALOG_TYPE_HADOOP)
+            .put("warehouse", warehouse.location)
+            .build();
+
+    IcebergScanConfig.Builder scanConfig =
+        IcebergScanConfig.builder()
+            .setCatalogConfig(
+                IcebergCatalogConfig.builder()
+                    .setCatalogName("name")
+                    .setCatalogProperties(catalogProps)
+                    .build())
+            .setScanType(IcebergScanConfig.ScanType.TABLE)
+            .setTableIdentifier(simpleTable.name().replace("hadoop.", "").split("\\."))
+            .setSchema(IcebergUtils.icebergSchemaToBeamSchema(TestFixtures.SCHEMA));
+
+    PipelineOptions options = PipelineOptionsFactory.create();
+    // Taken from the snapshot summary
+    assertEquals(totalFileSize, new ScanSource(scanConfig.build()).getEstimatedSizeBytes(options));
+    // Planned, as the filter may prune files
+    assertEquals(
+        totalFileSize,
+        new ScanSource(scanConfig.setFilterString("id >= 0").build())
+            .getEstimatedSizeBytes(options));
+  }
+
   @Test
   public void testInitialSplitting() throws Exception {
     TableIdentifier tableId =
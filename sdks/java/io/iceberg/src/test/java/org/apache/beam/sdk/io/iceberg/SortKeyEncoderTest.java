@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.iceberg;
+
+import static org.junit.Assert.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.apache.iceberg.NullOrder;
+import org.apache.iceberg.Schema;
+import org.apache.iceberg.SortOrder;
+import org.apache.iceberg.SortOrderComparators;
+import org.apache.iceberg.StructLike;
+import org.apache.iceberg.data.GenericRecord;
+import org.apache.iceberg.data.InternalRecordWrapper;
+import org.apache.iceberg.data.Record;
+import org.apache.iceberg.expressions.Expressions;
+import org.apache.iceberg.types.Types;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link SortKeyEncoder}. */
+@RunWith(JUnit4.class)
+public class SortKeyEncoderTest {
+  private static final Schema SCHEMA =
+      new Schema(
+          Types.NestedField.optional(1, "id", Types.LongType.get()),
+          Types.NestedField.optional(2, "name", Types.StringType.get()),
+          Types.NestedField.optional(3, "score", Types.DoubleType.get()),
+          Types.NestedField.optional(4, "amount", Types.DecimalType.of(20, 2)),
+          Types.NestedField.optional(5, "ts", Types.TimestampType.withoutZone()));
+
+  private static final long[] IDS = {Long.MIN_VALUE, -1L, 0L, 1L, 42L, Long.MAX_VALUE};
+  private static final String[] NAMES = {"", "a", "a\0", "a\0b", "ab", "b", "é", "😀"};
+  private static final double[] SCORES = {
+    Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, 2.5, Double.POSITIVE_INFINITY, Double.NaN
+  };
+  private static final String[] AMOUNTS = {
+    "-99999999999999999.99", "-1.00", "-0.01", "0.00", "0.01", "255.00", "99999999999999999.99"
+  };
+
+  private static Record randomRecord(Random random) {
+    Record record = GenericRecord.create(SCHEMA);
+    // Every field is null in about one out of five records.
+    if (random.nextInt(5) > 0) {
+      record.setField("id", IDS[random.nextInt(IDS.length)]);
+    }
+    if (random.nextInt(5) > 0) {
+      record.setField("name", NAMES[random.nextInt(NAMES.length)]);
+    }
+    if (random.nextInt(5) > 0) {
+      record.setField("score", SCORES[random.nextInt(SCORES.length)]);
+    }
+    if (random.nextInt(5) > 0) {
+      record.setField("amount", new BigDecimal(AMOUNTS[random.nextInt(AMOUNTS.length)]));
+    }
+    if (random.nextInt(5) > 0) {
+      record.setField(
+          "ts",
+          LocalDateTime.of(1960 + random.nextInt(80), 1, 1, 0, 0).plusHours(random.nextInt(48)));
+    }
+    return record;
+  }
+
+  private static void assertEncodingPreservesOrder(SortOrder sortOrder) {
+    Random random = new Random(sortOrder.hashCode());
+    List<Record> records = new ArrayList<>();
+    for (int i = 0; i < 300; ++i) {
+      records.add(randomRecord(random));
+    }
+    SortKeyEncoder encoder = new SortKeyEncoder(SCHEMA, sortOrder);
+    List<byte[]> keys = new ArrayList<>();
+    for (Record record : records) {
+      keys.add(encoder.encode(record));
+    }
+
+    Comparator<StructLike> comparator = SortOrderComparators.forSchema(SCHEMA, sortOrder);
+    InternalRecordWrapper left = new InternalRecordWrapper(SCHEMA.asStruct());
+    InternalRecordWrapper right = new InternalRecordWrapper(SCHEMA.asStruct());
+    for (int i = 0; i < records.size(); ++i) {
+      for (int j = 0; j < records.size(); ++j) {
+        int expected =
+            Integer.signum(
+                comparator.compare(left.wrap(records.get(i)), right.wrap(records.get(j))));
+        int actual = Integer.signum(Arrays.compareUnsigned(keys.get(i), keys.get(j)));
+        assertEquals(records.get(i) + " compared to " + records.get(j), expected, actual);
+      }
+    }
+  }
+
+  @Test
+  public void testAscendingFields() {
+    assertEncodingPreservesOrder(
+        SortOrder.builderFor(SCHEMA)
+            .asc("name")
+            .asc("score")
+            .asc("amount")
+            .asc("id")
+            .asc("ts")
+            .build());
+  }
+
+  @Test
+  public void testDescendingFieldsAndNullOrders() {
+    assertEncodingPreservesOrder(
+        SortOrder.builderFor(SCHEMA)
+            .desc("name", NullOrder.NULLS_FIRST)
+            .asc("score", NullOrder.NULLS_LAST)
+            .desc("amount", NullOrder.NULLS_LAST)
+            .desc("id")
+            .build());
+  }
+
+  @Test
+  public void testTransformedFields() {
+    assertEncodingPreservesOrder(
+        SortOrder.builderFor(SCHEMA)
+            .desc(Expressions.day("ts"))
+            .asc(Expressions.truncate("name", 1))
+            .asc(Expressions.bucket("id", 4))
+            .desc("score")
+            .build());
+  }
+
+  @Test
+  public void testUnsortedOrder() {
+    SortKeyEncoder encoder = new SortKeyEncoder(SCHEMA, SortOrder.unsorted());
+    assertEquals(0, encoder.encode(randomRecord(new Random(1))).length);
+  }
+}
@@ -0,0 +1,429 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.jdbc;
+
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.beam.sdk.io.jdbc.JdbcIO.BulkLoader;
+import org.apache.beam.sdk.io.jdbc.JdbcIO.PreparedStatementSetter;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.Lists;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.io.BaseEncoding;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/** Implementations of {@link BulkLoader}. */
+@SuppressWarnings({
+  "nullness" // TODO(https://github.com/apache/beam/issues/20497)
+})
+class JdbcBulkLoaders {
+  private JdbcBulkLoaders() {}
+
+  // The lowest limit on the number of parameters of a statement among common databases (Postgres).
+  private static final int MAX_PARAMETERS_PER_STATEMENT = 32767;
+
+  private static final Pattern VALUES_PATTERN =
+      Pattern.compile("\\bVALUES\\s*\\(", Pattern.CASE_INSENSITIVE);
+
+  private static final Pattern INSERT_PATTERN =
+      Pattern.compile(
+          "^\\s*INSERT\\s+INTO\\s+(?<table>[^\\s(]+)\\s*(?<columns>\\([^)]*\\))?\\s*VALUES\\s*$",
+          Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+  /**
+   * An {@code INSERT ... VALUES (...)} statement, split around the parenthesized tuple of values of
+   * a single row.
+   */
+  static class InsertStatement {
+    final String prefix;
+    final String row;
+    final String suffix;
+    final int parametersPerRow;
+
+    private InsertStatement(String prefix, String row, String suffix, int parametersPerRow) {
+      this.prefix = prefix;
+      this.row = row;
+      this.suffix = suffix;
+      this.parametersPerRow = parametersPerRow;
+    }
+
+    static InsertStatement parse(String statement) {
+      int start = -1;
+      Matcher matcher = VALUES_PATTERN.matcher(statement);
+      while (matcher.find()) {
+        if (!isQuoted(statement, matcher.start())) {
+          start = matcher.end() - 1;
+          break;
+        }
+      }
+      checkArgument(start >= 0, "Statement is not an INSERT ... VALUES (...): %s", statement);
+      int end = -1;
+      int depth = 0;
+      int parameters = 0;
+      char quote = 0;
+      for (int i = start; i < statement.length() && end < 0; ++i) {
+        char c = statement.charAt(i);
+        if (quote != 0) {
+          if (c == quote) {
+            quote = 0;
+          }
+        } else if (c == '\'' || c == '"') {
+          quote = c;
+        } else if (c == '(') {
+          ++depth;
+        } else if (c == ')' && --depth == 0) {
+          end = i + 1;
+        } else if (c == '?') {
+          ++parameters;
+        }
+      }
+      checkArgument(end >= 0, "Unbalanced parentheses in statement: %s", statement);
+      return new InsertStatement(
+          statement.substring(0, start),
+          statement.substring(start, end),
+          statement.substring(end),
+          parameters);
+    }
+
+    /** Returns the statement inserting the given number of rows. */
+    String withRows(int rows) {
+      StringBuilder builder = new StringBuilder(prefix);
+      for (int i = 0; i < rows; ++i) {
+        builder.append(i == 0 ? "" : ", ").append(row);
+      }
+      return builder.append(suffix).toString();
+    }
+
+    private static boolean isQuoted(String statement, int index) {
+      char quote = 0;
+      for (int i = 0; i < index; ++i) {
+        char c = statement.charAt(i);
+        if (quote != 0) {
+          if (c == quote) {
+            quote = 0;
+          }
+        } else if (c == '\'' || c == '"') {
+          quote = c;
+        }
+      }
+      return quote != 0;
+    }
+  }
+
+  /**
+   * Rewrites the {@code INSERT ... VALUES (...)} statement of the write to insert many rows per
+   * statement, setting the parameters of every row with the {@link PreparedStatementSetter} of the
+   * write.
+   */
+  static class MultiRowInsert implements BulkLoader {
+    private final int maxRowsPerStatement;
+
+    MultiRowInsert(int maxRowsPerStatement) {
+      checkArgument(
+          maxRowsPerStatement > 0,
+          "maxRowsPerStatement must be > 0, but was %s",
+          maxRowsPerStatement);
+      this.maxRowsPerStatement = maxRowsPerStatement;
+    }
+
+    @Override
+    public <T> void load(
+        Connection connection, String statement, PreparedStatementSetter<T> setter, List<T> records)
+        throws Exception {
+      InsertStatement insert = InsertStatement.parse(statement);
+      int rowsPerStatement =
+          Math.min(
+              maxRowsPerStatement,
+              MAX_PARAMETERS_PER_STATEMENT / Math.max(1, insert.parametersPerRow));
+      // All statements but the last one insert the same number of rows, so they share one
+      // prepared statement.
+      PreparedStatement fullStatement = null;
+      try {
+        for (List<T> rows : Lists.partition(records, rowsPerStatement)) {
+          if (rows.size() == rowsPerStatement) {
+            if (fullStatement == null) {
+              fullStatement = connection.prepareStatement(insert.withRows(rowsPerStatement));
+            }
+            insertRows(fullStatement, insert.parametersPerRow, setter, rows);
+          } else {
+            try (PreparedStatement lastStatement =
+                connection.prepareStatement(insert.withRows(rows.size()))) {
+              insertRows(lastStatement, insert.parametersPerRow, setter, rows);
+            }
+          }
+        }
+      } finally {
+        if (fullStatement != null) {
+          fullStatement.close();
+        }
+      }
+    }
+
+    private static <T> void insertRows(
+        PreparedStatement statement,
+        int parametersPerRow,
+        PreparedStatementSetter<T> setter,
+        List<T> rows)
+        throws Exception {
+      statement.clearParameters();
+      for (int i = 0; i < rows.size(); ++i) {
+        setter.setParameters(
+            rows.get(i), JdbcUtil.offsetParameters(statement, i * parametersPerRow));
+      }
+      statement.executeUpdate();
+    }
+  }
+
+  /**
+   * Loads the records with the {@code COPY ... FROM STDIN} command of Postgres. The columns are
+   * taken from the {@code INSERT INTO table (columns) VALUES (?, ...)} statement of the write, and
+   * the values of every row are captured from the {@link PreparedStatementSetter} of the write.
+   *
+   * <p>Rows are sent to the server as they are captured, in chunks of about {@link
+   * #COPY_BUFFER_SIZE} characters, so the CSV of a whole batch is never held in memory. The first
+   * row is captured before the copy starts, so parameters which cannot be written as CSV fail
+   * before anything is sent, see {@link #formatParameter}.
+   */
+  static class PostgresCopy implements BulkLoader {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public <T> void load(
+        Connection connection, String statement, PreparedStatementSetter<T> setter, List<T> records)
+        throws Exception {
+      if (records.isEmpty()) {
+        return;
+      }
+      String copy = copyStatement(statement);
+      String[] values = new String[InsertStatement.parse(statement).parametersPerRow];
+      PreparedStatement capture = captureParameters(connection, values);
+      StringBuilder csv = new StringBuilder();
+      setter.setParameters(records.get(0), capture);
+      appendCsvRow(csv, values);
+      CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(copy);
+      try {
+        for (T record : records.subList(1, records.size())) {
+          Arrays.fill(values, null);
+          setter.setParameters(record, capture);
+          appendCsvRow(csv, values);
+          if (csv.length() >= COPY_BUFFER_SIZE) {
+            writeToCopy(copyIn, csv);
+          }
+        }
+        writeToCopy(copyIn, csv);
+        copyIn.endCopy();
+      } finally {
+        if (copyIn.isActive()) {
+          copyIn.cancelCopy();
+        }
+      }
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder csv) throws SQLException {
+      byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+      copyIn.writeToCopy(bytes, 0, bytes.length);
+      csv.setLength(0);
+    }
+
+    static String copyStatement(String statement) {
+      InsertStatement insert = InsertStatement.parse(statement);
+      Matcher matcher = INSERT_PATTERN.matcher(insert.prefix);
+      checkArgument(
+          matcher.matches() && insert.suffix.trim().replace(";", "").isEmpty(),
+          "Only INSERT INTO table [(columns)] VALUES (...) statements can be loaded with COPY: %s",
+          statement);
+      String row = insert.row.substring(1, insert.row.length() - 1);
+      for (String value : row.split(",", -1)) {
+        checkArgument(
+            value.trim().equals("?"),
+            "Only parameters can be loaded with COPY, but got %s in %s",
+            value.trim(),
+            statement);
+      }
+      String columns = matcher.group("columns");
+      return String.format(
+          "COPY %s%s FROM STDIN WITH (FORMAT csv)",
+          matcher.group("table"), columns == null ? "" : " " + columns);
+    }
+
+    static void appendCsvRow(StringBuilder csv, @Nullable String[] values) {
+      for (int i = 0; i < values.length; ++i) {
+        if (i > 0) {
+          csv.append(',');
+        }
+        // Unquoted empty values are NULL in the CSV format of COPY.
+        if (values[i] != null) {
+          csv.append('"').append(values[i].replace("\"", "\"\"")).append('"');
+        }
+      }
+      csv.append('\n');
+    }
+  }
+
+  /**
+   * Returns a statement that records the parameters set on it in the given array, formatted as text
+   * input values of Postgres by {@link #formatParameter}, instead of executing anything.
+   */
+  static PreparedStatement captureParameters(Connection connection, @Nullable String[] values) {
+    return (PreparedStatement)
+        Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            (proxy, method, args) -> {
+              if (JdbcUtil.isSetParameter(method, args)) {
+                values[(Integer) args[0] - 1] = formatParameter(method, args);
+                return null;
+              }
+              switch (method.getName()) {
+                case "clearParameters":
+                  Arrays.fill(values, null);
+                  return null;
+                case "getConnection":
+                  return connection;
+                default:
+                  throw new UnsupportedOperationException(
+                      "Only setting parameters is supported by COPY: " + method);
+              }
+            });
+  }
+
+  /**
+   * Returns the parameter set by the given call as a text input value of Postgres, or {@code null}
+   * for {@code NULL}.
+   *
+   * <p>Timestamps, dates and times are interpreted in the time zone of the {@link Calendar} passed
+   * to the setter, or else the default time zone, as JDBC drivers do. Timestamps and times are
+   * written in ISO-8601 with the offset of that time zone, so that {@code timestamptz} columns get
+   * the same instant as through the driver and {@code timestamp} columns the same local time.
+   *
+   * @throws UnsupportedOperationException for values, like streams, LOBs and structs, which cannot
+   *     be written faithfully as text.
+   */
+  static @Nullable String formatParameter(Method method, Object[] args) throws SQLException {
+    if (method.getName().equals("setNull") || args[1] == null) {
+      return null;
+    }
+    if (method.getName().equals("setObject") && args.length > 3) {
+      throw new UnsupportedOperationException(
+          "Parameters with a scale or length are not supported by COPY: " + method);
+    }
+    ZoneId zone =
+        args.length > 2 && args[2] instanceof Calendar
+            ? ((Calendar) args[2]).getTimeZone().toZoneId()
+            : ZoneId.systemDefault();
+    return formatValue(args[1], zone, method);
+  }
+
+  private static String formatValue(Object value, ZoneId zone, Method method) throws SQLException {
+    if (value instanceof String
+        || value instanceof Boolean
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof Short
+        || value instanceof Byte
+        || value instanceof Float
+        || value instanceof Double
+        || value instanceof BigInteger
+        || value instanceof UUID
+        || value instanceof LocalDate
+        || value instanceof LocalTime
+        || value instanceof LocalDateTime
+        || value instanceof OffsetTime
+        || value instanceof OffsetDateTime) {
+      return value.toString();
+    } else if (value instanceof BigDecimal) {
+      return ((BigDecimal) value).toPlainString();
+    } else if (value instanceof byte[]) {
+      return "\\x" + BaseEncoding.base16().lowerCase().encode((byte[]) value);
+    } else if (value instanceof Date) {
+      return Instant.ofEpochMilli(((Date) value).getTime()).atZone(zone).toLocalDate().toString();
+    } else if (value instanceof Time) {
+      return DateTimeFormatter.ISO_OFFSET_TIME.format(
+          Instant.ofEpochMilli(((Time) value).getTime()).atZone(zone).toOffsetDateTime());
+    } else if (value instanceof Timestamp) {
+      return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(
+          ((Timestamp) value).toInstant().atZone(zone));
+    } else if (value instanceof java.util.Date) {
+      return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(
+          ((java.util.Date) value).toInstant().atZone(zone));
+    } else if (value instanceof Array && ((Array) value).getArray() instanceof Object[]) {
+      return formatArray((Object[]) ((Array) value).getArray(), zone, method);
+    }
+    throw new UnsupportedOperationException(
+        String.format(
+            "Values of %s are not supported by COPY, but one was set with %s",
+            value.getClass().getName(), method));
+  }
+
+  /** Returns the array as a Postgres array literal, with every element quoted. */
+  private static String formatArray(Object[] elements, ZoneId zone, Method method)
+      throws SQLException {
+    StringBuilder literal = new StringBuilder("{");
+    for (int i = 0; i < elements.length; ++i) {
+      if (i > 0) {
+        literal.append(',');
+      }
+      if (elements[i] == null) {
+        literal.append("NULL");
+      } else if (elements[i] instanceof Object[]) {
+        literal.append(formatArray((Object[]) elements[i], zone, method));
+      } else {
+        String element = formatValue(elements[i], zone, method);
+        literal.append('"').append(element.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+      }
+    }
+    return literal.append('}').toString();
+  }
+
+  /** Splits the records into at most {@code parts} consecutive parts of similar size. */
+  static <T> List<List<T>> split(List<T> records, int parts) {
+    if (parts <= 1 || records.size() <= 1) {
+      List<List<T>> result = new ArrayList<>();
+      result.add(records);
+      return result;
+    }
+    return Lists.partition(records, (records.size() + parts - 1) / parts);
+  }
+}
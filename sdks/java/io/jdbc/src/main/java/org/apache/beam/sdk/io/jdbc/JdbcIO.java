@@ -41,6 +41,10 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -54,8 +58,10 @@ import org.apache.beam.sdk.coders.CoderRegistry;
 import org.apache.beam.sdk.coders.RowCoder;
 import org.apache.beam.sdk.coders.VoidCoder;
 import org.apache.beam.sdk.io.jdbc.JdbcIO.WriteFn.WriteFnSpec;
+import org.apache.beam.sdk.io.jdbc.JdbcUtil.BalancedPartitioningFn;
 import org.apache.beam.sdk.io.jdbc.JdbcUtil.PartitioningFn;
 import org.apache.beam.sdk.io.jdbc.SchemaUtil.FieldWithIndex;
+import org.apache.beam.sdk.io.range.OffsetRange;
 import org.apache.beam.sdk.metrics.Distribution;
 import org.apache.beam.sdk.metrics.Lineage;
 import org.apache.beam.sdk.metrics.Metrics;
@@ -81,6 +87,7 @@ import org.apache.beam.sdk.transforms.Wait;
 import org.apache.beam.sdk.transforms.WithKeys;
 import org.apache.beam.sdk.transforms.display.DisplayData;
 import org.apache.beam.sdk.transforms.display.HasDisplayData;
+import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker;
 import org.apache.beam.sdk.transforms.windowing.GlobalWindow;
 import org.apache.beam.sdk.util.BackOff;
 import org.apache.beam.sdk.util.BackOffUtils;
@@ -97,6 +104,8 @@ import org.apache.beam.sdk.values.TypeDescriptor;
 import org.apache.beam.sdk.values.TypeDescriptors;
 import org.apache.beam.sdk.values.TypeDescriptors.TypeVariableExtractor;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Strings;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Throwables;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.dbcp2.DataSourceConnectionFactory;
 import org.apache.commons.dbcp2.PoolableConnectionFactory;
@@ -248,6 +257,11 @@ import org.slf4j.LoggerFactory;
  *       is not mandatory, but this transform will work best in that situation.
  * </ul>
  *
+ * <p>When the values of the partitioning column are clustered, use {@link
+ * ReadWithPartitions#withBalancedPartitions()} to compute partitions holding about the same number
+ * of rows from a histogram of the column, and {@link ReadWithPartitions#withDynamicSplitting()} to
+ * let the runner split partitions that are still slow to read while they are being read.
+ *
  * <p>The following example shows usage of <b>auto-inferred ranges, number of partitions, and
  * schema</b>
  *
@@ -315,6 +329,22 @@ import org.slf4j.LoggerFactory;
  *    );
  * }</pre>
  *
+ * <p>For large loads, {@link Write#withBulkLoader(BulkLoader)} writes every batch with fewer round
+ * trips to the database, either with multi-row {@code INSERT} statements or with the {@code COPY}
+ * command of PostgreSQL, optionally over several connections in parallel:
+ *
+ * <pre>{@code
+ * pipeline
+ *   .apply(...)
+ *   .apply(JdbcIO.<KV<Integer, String>>write()
+ *      .withDataSourceConfiguration(...)
+ *      .withStatement("insert into Person (id, name) values(?, ?)")
+ *      .withPreparedStatementSetter(...)
+ *      .withBulkLoader(JdbcIO.BulkLoader.multiRowInsert(500))
+ *      .withBulkLoadParallelism(4)
+ *    );
+ * }</pre>
+ *
  * <p>NB: in case of transient failures, Beam runners may execute parts of JdbcIO.Write multiple
  * times for fault tolerance. Because of that, you should avoid using {@code INSERT} statements,
  * since that risks duplicating records in the database, or failing due to primary key conflicts.
@@ -385,6 +415,8 @@ public class JdbcIO {
         .setFetchSize(DEFAULT_FETCH_SIZE)
         .setDisableAutoCommit(DEFAULT_DISABLE_AUTO_COMMIT)
         .setUseBeamSchema(false)
+        .setBalancedPartitions(false)
+        .setDynamicSplitting(false)
         .build();
   }
 
@@ -403,6 +435,8 @@ public class JdbcIO {
         .setFetchSize(DEFAULT_FETCH_SIZE)
         .setDisableAutoCommit(DEFAULT_DISABLE_AUTO_COMMIT)
         .setUseBeamSchema(false)
+        .setBalancedPartitions(false)
+        .setDynamicSplitting(false)
         .build();
   }
 
@@ -435,6 +469,7 @@ public class JdbcIO {
         .setMaxBatchBufferingDuration(DEFAULT_MAX_BATCH_BUFFERING_DURATION)
         .setRetryStrategy(new DefaultRetryStrategy())
         .setRetryConfiguration(RetryConfiguration.create(5, null, Duration.standardSeconds(5)))
+        .setBulkLoadParallelism(1)
         .build();
   }
 
@@ -1384,6 +1419,12 @@ public class JdbcIO {
     @Pure
     abstract boolean getDisableAutoCommit();
 
+    @Pure
+    abstract boolean getBalancedPartitions();
+
+    @Pure
+    abstract boolean getDynamicSplitting();
+
     @Pure
     abstract Builder<T, PartitionColumnT> toBuilder();
 
@@ -1421,6 +1462,10 @@ public class JdbcIO {
 
       abstract Builder<T, PartitionColumnT> setDisableAutoCommit(boolean disableAutoCommit);
 
+      abstract Builder<T, PartitionColumnT> setBalancedPartitions(boolean balancedPartitions);
+
+      abstract Builder<T, PartitionColumnT> setDynamicSplitting(boolean dynamicSplitting);
+
       abstract ReadWithPartitions<T, PartitionColumnT> build();
     }
 
@@ -1504,6 +1549,26 @@ public class JdbcIO {
       return toBuilder().setSchema(schema).build();
     }
 
+    /**
+     * Computes partitions holding about the same number of rows, instead of partitions of the same
+     * width. Before reading, the rows are counted in many narrow ranges of the partition column
+     * with a single {@code GROUP BY} query, and adjacent ranges are merged into partitions. This
+     * avoids a few partitions holding most of the rows when the values of the partition column are
+     * clustered, at the cost of an additional scan of the partition column.
+     */
+    public ReadWithPartitions<T, PartitionColumnT> withBalancedPartitions() {
+      return toBuilder().setBalancedPartitions(true).build();
+    }
+
+    /**
+     * Reads every partition with a splittable {@link DoFn}, so that the runner can split a
+     * partition that takes much longer to read than the others while it is being read. The rows of
+     * every partition are read ordered by the partition column, which must be of type {@code Long}.
+     */
+    public ReadWithPartitions<T, PartitionColumnT> withDynamicSplitting() {
+      return toBuilder().setDynamicSplitting(true).build();
+    }
+
     private static final int EQUAL = 0;
 
     @Override
@@ -1623,11 +1688,18 @@ public class JdbcIO {
       }
       checkStateNotNull(rowMapper);
 
+      DoFn<KV<Long, KV<PartitionColumnT, PartitionColumnT>>, KV<PartitionColumnT, PartitionColumnT>>
+          partitioningFn =
+              getBalancedPartitions()
+                  ? new BalancedPartitioningFn<>(
+                      dataSourceProviderFn,
+                      table,
+                      partitionColumn,
+                      checkStateNotNull(partitionsHelper))
+                  : new PartitioningFn<>(checkStateNotNull(partitionsHelper));
       PCollection<KV<PartitionColumnT, PartitionColumnT>> ranges =
           params
-              .apply(
-                  "Partitioning",
-                  ParDo.of(new PartitioningFn<>(checkStateNotNull(partitionsHelper))))
+              .apply("Partitioning", ParDo.of(partitioningFn))
               .apply("Reshuffle partitions", Reshuffle.viaRandomKey());
 
       JdbcIO.ReadAll<KV<PartitionColumnT, PartitionColumnT>, T> readAll =
@@ -1649,6 +1721,32 @@ public class JdbcIO {
         readAll = readAll.withCoder(getCoder());
       }
 
+      if (getDynamicSplitting()) {
+        checkArgument(
+            partitionsHelper == JdbcUtil.PRESET_HELPERS.get(Long.class),
+            "withDynamicSplitting() is only supported for partition columns of type Long");
+        Coder<T> coder =
+            checkStateNotNull(
+                readAll.inferCoder(
+                    input.getPipeline().getCoderRegistry(),
+                    input.getPipeline().getSchemaRegistry()),
+                "Unable to infer a coder for JdbcIO.readWithPartitions() transform. "
+                    + "Provide a coder via withCoder, or ensure that one can be inferred from the"
+                    + " provided RowMapper.");
+        return ((PCollection<KV<Long, Long>>) (PCollection<?>) ranges)
+            .apply(
+                "Read ranges",
+                ParDo.of(
+                    new ReadRangeFn<>(
+                        dataSourceProviderFn,
+                        table,
+                        partitionColumn,
+                        rowMapper,
+                        getFetchSize(),
+                        getDisableAutoCommit())))
+            .setCoder(coder);
+      }
+
       return ranges.apply("Read ranges", readAll);
     }
 
@@ -1676,6 +1774,8 @@ public class JdbcIO {
       builder.add(
           DisplayData.item(
               "upperBound", getUpperBound() == null ? "auto-infer" : getUpperBound().toString()));
+      builder.add(DisplayData.item("balancedPartitions", getBalancedPartitions()));
+      builder.add(DisplayData.item("dynamicSplitting", getDynamicSplitting()));
       if (getDataSourceProviderFn() instanceof HasDisplayData) {
         ((HasDisplayData) getDataSourceProviderFn()).populateDisplayData(builder);
       }
@@ -1798,6 +1898,120 @@ public class JdbcIO {
     }
   }
 
+  /**
+   * A splittable {@link DoFn} reading the rows of a range of a {@code Long} partition column.
+   *
+   * <p>The rows are read ordered by the partition column, and every new value of the column is
+   * claimed before its rows are output, so that the runner can split off the rest of the range
+   * while it is being read.
+   */
+  @DoFn.BoundedPerElement
+  static class ReadRangeFn<OutputT> extends DoFn<KV<Long, Long>, OutputT> {
+    private final SerializableFunction<Void, DataSource> dataSourceProviderFn;
+    private final String partitionColumn;
+    private final String query;
+    private final RowMapper<OutputT> rowMapper;
+    private final int fetchSize;
+    private final boolean disableAutoCommit;
+
+    private @Nullable DataSource dataSource;
+    private @Nullable Connection connection;
+
+    ReadRangeFn(
+        SerializableFunction<Void, DataSource> dataSourceProviderFn,
+        String table,
+        String partitionColumn,
+        RowMapper<OutputT> rowMapper,
+        int fetchSize,
+        boolean disableAutoCommit) {
+      this.dataSourceProviderFn = dataSourceProviderFn;
+      this.partitionColumn = partitionColumn;
+      this.query =
+          String.format(
+              "select * from %1$s where %2$s >= ? and %2$s < ? order by %2$s",
+              table, partitionColumn);
+      this.rowMapper = rowMapper;
+      this.fetchSize = fetchSize;
+      this.disableAutoCommit = disableAutoCommit;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+      dataSource = dataSourceProviderFn.apply(null);
+    }
+
+    @GetInitialRestriction
+    public OffsetRange getInitialRestriction(@Element KV<Long, Long> range) {
+      return new OffsetRange(range.getKey(), range.getValue());
+    }
+
+    @ProcessElement
+    // Spotbugs seems to not understand the nested try-with-resources
+    @SuppressFBWarnings({
+      "OBL_UNSATISFIED_OBLIGATION",
+      "ODR_OPEN_DATABASE_RESOURCE", // connection closed in finishbundle
+    })
+    public void processElement(
+        RestrictionTracker<OffsetRange, Long> tracker, OutputReceiver<OutputT> receiver)
+        throws Exception {
+      Connection connection = this.connection;
+      if (connection == null) {
+        connection = checkStateNotNull(dataSource).getConnection();
+        // See ReadFn for why auto commit is disabled.
+        if (disableAutoCommit) {
+          connection.setAutoCommit(false);
+        }
+        this.connection = connection;
+      }
+      OffsetRange range = tracker.currentRestriction();
+      try (PreparedStatement statement =
+          connection.prepareStatement(
+              query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        statement.setFetchSize(fetchSize);
+        statement.setLong(1, range.getFrom());
+        statement.setLong(2, range.getTo());
+        try (ResultSet resultSet = statement.executeQuery()) {
+          long lastClaimed = 0;
+          boolean claimed = false;
+          while (resultSet.next()) {
+            long value = resultSet.getLong(partitionColumn);
+            // The rows of a claimed value all belong to this restriction.
+            if (!claimed || value != lastClaimed) {
+              if (!tracker.tryClaim(value)) {
+                return;
+              }
+              lastClaimed = value;
+              claimed = true;
+            }
+            receiver.output(rowMapper.mapRow(resultSet));
+          }
+        }
+      }
+      // Mark the rest of the range, which holds no rows, as done.
+      tracker.tryClaim(tracker.currentRestriction().getTo());
+    }
+
+    @FinishBundle
+    public void finishBundle() throws Exception {
+      cleanUpConnection();
+    }
+
+    @Teardown
+    public void tearDown() throws Exception {
+      cleanUpConnection();
+    }
+
+    private void cleanUpConnection() throws Exception {
+      if (connection != null) {
+        try {
+          connection.close();
+        } finally {
+          connection = null;
+        }
+      }
+    }
+  }
+
   /**
    * Builder used to help with retry configuration for {@link JdbcIO}. The retry configuration
    * accepts maxAttempts and maxDuration for {@link FluentBackoff}.
@@ -1864,6 +2078,45 @@ public class JdbcIO {
     boolean apply(SQLException sqlException);
   }
 
+  /**
+   * An interface used by {@link Write} to load a batch of records into the database in bulk,
+   * instead of executing the statement of the write once per record in a JDBC batch.
+   *
+   * <p>{@link #multiRowInsert(int)} works with most databases, while {@link #postgresCopy()} uses
+   * the {@code COPY} command of PostgreSQL.
+   */
+  public interface BulkLoader extends Serializable {
+    /**
+     * Loads the records into the database over the given connection. {@code statement} and {@code
+     * setter} are the statement and {@link PreparedStatementSetter} of the write. The changes are
+     * committed by the caller.
+     */
+    <T> void load(
+        Connection connection, String statement, PreparedStatementSetter<T> setter, List<T> records)
+        throws Exception;
+
+    /**
+     * Rewrites the {@code INSERT ... VALUES (...)} statement of the write into statements inserting
+     * up to {@code maxRowsPerStatement} rows each, such as {@code INSERT INTO t (a, b) VALUES (?,
+     * ?), (?, ?), ...}. The {@link PreparedStatementSetter} of the write must only set the
+     * parameters of a single row by their index.
+     */
+    static BulkLoader multiRowInsert(int maxRowsPerStatement) {
+      return new JdbcBulkLoaders.MultiRowInsert(maxRowsPerStatement);
+    }
+
+    /**
+     * Loads the records with {@code COPY table (columns) FROM STDIN} into PostgreSQL. The statement
+     * of the write must be a plain {@code INSERT INTO table (columns) VALUES (?, ...)}, and the
+     * values set by its {@link PreparedStatementSetter} are sent in the CSV format of {@code COPY},
+     * so they must have a textual representation that PostgreSQL accepts for their columns. The
+     * PostgreSQL JDBC driver must be on the classpath.
+     */
+    static BulkLoader postgresCopy() {
+      return new JdbcBulkLoaders.PostgresCopy();
+    }
+  }
+
   /**
    * This class is used as the default return value of {@link JdbcIO#write()}.
    *
@@ -1931,6 +2184,16 @@ public class JdbcIO {
       return new Write<>(inner.withTable(table));
     }
 
+    /** See {@link WriteVoid#withBulkLoader(BulkLoader)}. */
+    public Write<T> withBulkLoader(BulkLoader bulkLoader) {
+      return new Write<>(inner.withBulkLoader(bulkLoader));
+    }
+
+    /** See {@link WriteVoid#withBulkLoadParallelism(int)}. */
+    public Write<T> withBulkLoadParallelism(int bulkLoadParallelism) {
+      return new Write<>(inner.withBulkLoadParallelism(bulkLoadParallelism));
+    }
+
     /**
      * Returns {@link WriteVoid} transform which can be used in {@link Wait#on(PCollection[])} to
      * wait until all data is written.
@@ -2265,6 +2528,10 @@ public class JdbcIO {
 
     abstract @Nullable String getTable();
 
+    abstract @Nullable BulkLoader getBulkLoader();
+
+    abstract int getBulkLoadParallelism();
+
     abstract Builder<T> toBuilder();
 
     @AutoValue.Builder
@@ -2288,6 +2555,10 @@ public class JdbcIO {
 
       abstract Builder<T> setTable(String table);
 
+      abstract Builder<T> setBulkLoader(BulkLoader bulkLoader);
+
+      abstract Builder<T> setBulkLoadParallelism(int bulkLoadParallelism);
+
       abstract WriteVoid<T> build();
     }
 
@@ -2391,6 +2662,34 @@ public class JdbcIO {
       return toBuilder().setTable(table).build();
     }
 
+    /**
+     * Loads every batch of records with the given {@link BulkLoader}, instead of executing the
+     * statement once per record in a JDBC batch. Loading in bulk typically needs far fewer round
+     * trips to the database. See {@link BulkLoader#multiRowInsert(int)} and {@link
+     * BulkLoader#postgresCopy()}.
+     */
+    public WriteVoid<T> withBulkLoader(BulkLoader bulkLoader) {
+      checkArgument(bulkLoader != null, "bulkLoader can not be null");
+      return toBuilder().setBulkLoader(bulkLoader).build();
+    }
+
+    /**
+     * Splits every batch loaded with the {@link #withBulkLoader(BulkLoader) bulk loader} into
+     * {@code bulkLoadParallelism} parts that are loaded concurrently over separate connections.
+     * Default is 1.
+     *
+     * <p>Each part is committed on its own connection, so a failure while committing may leave a
+     * batch partially written. When such a failure is retried, only the parts that were not
+     * committed yet are loaded again. The {@link PreparedStatementSetter} must be thread safe.
+     */
+    public WriteVoid<T> withBulkLoadParallelism(int bulkLoadParallelism) {
+      checkArgument(
+          bulkLoadParallelism > 0,
+          "bulkLoadParallelism must be > 0, but was %s",
+          bulkLoadParallelism);
+      return toBuilder().setBulkLoadParallelism(bulkLoadParallelism).build();
+    }
+
     @Override
     public PCollection<Void> expand(PCollection<T> input) {
       WriteVoid<T> spec = this;
@@ -2430,6 +2729,8 @@ public class JdbcIO {
                           .setStatement(spec.getStatement())
                           .setBatchSize(spec.getBatchSize())
                           .setMaxBatchBufferingDuration(spec.getMaxBatchBufferingDuration())
+                          .setBulkLoader(spec.getBulkLoader())
+                          .setBulkLoadParallelism(spec.getBulkLoadParallelism())
                           .setReturnResults(false)
                           .build())))
           .setCoder(VoidCoder.of());
@@ -2709,7 +3010,12 @@ public class JdbcIO {
                 DisplayData.item(
                     "rowMapper",
                     getRowMapper() == null ? "null" : getRowMapper().getClass().toString()))
-            .addIfNotNull(DisplayData.item("batchSize", getBatchSize()));
+            .addIfNotNull(DisplayData.item("batchSize", getBatchSize()))
+            .addIfNotNull(
+                DisplayData.item(
+                    "bulkLoader",
+                    getBulkLoader() == null ? "null" : getBulkLoader().getClass().getName()))
+            .addIfNotNull(DisplayData.item("bulkLoadParallelism", getBulkLoadParallelism()));
       }
 
       @Pure
@@ -2739,6 +3045,12 @@ public class JdbcIO {
       @Pure
       abstract @Nullable Long getMaxBatchBufferingDuration();
 
+      @Pure
+      abstract @Nullable BulkLoader getBulkLoader();
+
+      @Pure
+      abstract @Nullable Integer getBulkLoadParallelism();
+
       @Pure
       abstract Boolean getReturnResults();
 
@@ -2771,6 +3083,10 @@ public class JdbcIO {
         abstract Builder<T, V> setMaxBatchBufferingDuration(
             @Nullable Long maxBatchBufferingDuration);
 
+        abstract Builder<T, V> setBulkLoader(@Nullable BulkLoader bulkLoader);
+
+        abstract Builder<T, V> setBulkLoadParallelism(@Nullable Integer bulkLoadParallelism);
+
         abstract Builder<T, V> setReturnResults(Boolean returnResults);
 
         abstract WriteFnSpec<T, V> build();
@@ -2787,6 +3103,9 @@ public class JdbcIO {
     private @Nullable DataSource dataSource;
     private @Nullable Connection connection;
     private @Nullable PreparedStatement preparedStatement;
+    // Additional connections loading parts of a batch concurrently with bulkLoadExecutor.
+    private final List<Connection> bulkLoadConnections = new ArrayList<>();
+    private @Nullable ExecutorService bulkLoadExecutor;
     private @Nullable KV<@Nullable String, String> reportedLineage;
     private static @Nullable FluentBackoff retryBackOff;
 
@@ -2815,6 +3134,42 @@ public class JdbcIO {
               .withInitialBackoff(checkStateNotNull(retryConfiguration.getInitialDuration()))
               .withMaxCumulativeBackoff(checkStateNotNull(retryConfiguration.getMaxDuration()))
               .withMaxRetries(retryConfiguration.getMaxAttempts());
+
+      int bulkLoadParallelism = getBulkLoadParallelism();
+      if (bulkLoadParallelism > 1) {
+        bulkLoadExecutor =
+            Executors.newFixedThreadPool(
+                bulkLoadParallelism - 1,
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("JdbcIO-bulk-load-%d")
+                    .build());
+      }
+    }
+
+    private int getBulkLoadParallelism() {
+      Integer bulkLoadParallelism = spec.getBulkLoadParallelism();
+      return spec.getBulkLoader() == null || bulkLoadParallelism == null ? 1 : bulkLoadParallelism;
+    }
+
+    /** Returns the given number of connections, starting with {@link #getConnection()}. */
+    private List<Connection> getBulkLoadConnections(int count) throws SQLException {
+      List<Connection> connections = new ArrayList<>(count);
+      connections.add(getConnection());
+      while (bulkLoadConnections.size() < count - 1) {
+        DataSource validSource = checkStateNotNull(dataSource);
+        Connection connection;
+        connectionLock.lock();
+        try {
+          connection = validSource.getConnection();
+        } finally {
+          connectionLock.unlock();
+        }
+        connection.setAutoCommit(false);
+        bulkLoadConnections.add(connection);
+      }
+      connections.addAll(bulkLoadConnections.subList(0, count - 1));
+      return connections;
     }
 
     private Connection getConnection() throws SQLException {
@@ -2866,10 +3221,24 @@ public class JdbcIO {
 
     @Teardown
     public void tearDown() throws Exception {
-      cleanUpStatementAndConnection();
+      try {
+        cleanUpStatementAndConnection();
+      } finally {
+        if (bulkLoadExecutor != null) {
+          bulkLoadExecutor.shutdownNow();
+          bulkLoadExecutor = null;
+        }
+      }
     }
 
     private void cleanUpStatementAndConnection() throws Exception {
+      try {
+        for (Connection bulkLoadConnection : bulkLoadConnections) {
+          bulkLoadConnection.close();
+        }
+      } finally {
+        bulkLoadConnections.clear();
+      }
       try {
         if (preparedStatement != null) {
           try {
@@ -2893,6 +3262,10 @@ public class JdbcIO {
         "Slf4jDoNotLogMessageOfExceptionExplicitly") // for tests checking error message
     private void executeBatch(ProcessContext context, Iterable<T> records)
         throws SQLException, InterruptedException {
+      if (spec.getBulkLoader() != null && !spec.getReturnResults()) {
+        executeBulkLoad(records);
+        return;
+      }
       Long startTimeNs = System.nanoTime();
       Sleeper sleeper = Sleeper.DEFAULT;
       BackOff backoff = checkStateNotNull(retryBackOff).backoff();
@@ -2937,6 +3310,93 @@ public class JdbcIO {
       }
     }
 
+    @SuppressWarnings(
+        "Slf4jDoNotLogMessageOfExceptionExplicitly") // for tests checking error message
+    private void executeBulkLoad(Iterable<T> records) throws SQLException, InterruptedException {
+      Long startTimeNs = System.nanoTime();
+      Sleeper sleeper = Sleeper.DEFAULT;
+      BackOff backoff = checkStateNotNull(retryBackOff).backoff();
+      RetryStrategy retryStrategy = checkStateNotNull(spec.getRetryStrategy());
+      List<T> recordList = new ArrayList<>();
+      records.forEach(recordList::add);
+      List<List<T>> parts = JdbcBulkLoaders.split(recordList, getBulkLoadParallelism());
+      while (true) {
+        List<Connection> connections = getBulkLoadConnections(parts.size());
+        int committedParts = 0;
+        try {
+          loadParts(connections, parts);
+          while (committedParts < connections.size()) {
+            connections.get(committedParts).commit();
+            ++committedParts;
+          }
+          RECORDS_PER_BATCH.update(recordList.size());
+          MS_PER_BATCH.update(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNs));
+          break;
+        } catch (SQLException exception) {
+          LOG.trace(
+              "SQL exception thrown while writing to JDBC database: {}", exception.getMessage());
+          if (!retryStrategy.apply(exception)) {
+            throw exception;
+          }
+          LOG.warn("Deadlock detected, retrying", exception);
+          // The parts that were already committed must not be loaded again.
+          for (Connection connection : connections.subList(committedParts, connections.size())) {
+            connection.rollback();
+          }
+          parts = parts.subList(committedParts, parts.size());
+          if (!BackOffUtils.next(sleeper, backoff)) {
+            // we tried the max number of times
+            throw exception;
+          }
+        }
+      }
+    }
+
+    /**
+     * Loads the first part on the current thread and the others with the {@link #bulkLoadExecutor},
+     * on the connection at the same index. Waits for all parts to be loaded before rethrowing the
+     * first failure.
+     */
+    private void loadParts(List<Connection> connections, List<List<T>> parts)
+        throws SQLException, InterruptedException {
+      BulkLoader bulkLoader = checkStateNotNull(spec.getBulkLoader());
+      String statement = checkStateNotNull(spec.getStatement()).get();
+      PreparedStatementSetter<T> setter = checkStateNotNull(spec.getPreparedStatementSetter());
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 1; i < parts.size(); ++i) {
+        Connection connection = connections.get(i);
+        List<T> part = parts.get(i);
+        futures.add(
+            checkStateNotNull(bulkLoadExecutor)
+                .submit(
+                    () -> {
+                      bulkLoader.load(connection, statement, setter, part);
+                      return null;
+                    }));
+      }
+      @Nullable Throwable failure = null;
+      try {
+        bulkLoader.load(connections.get(0), statement, setter, parts.get(0));
+      } catch (Exception e) {
+        failure = e;
+      }
+      for (Future<?> future : futures) {
+        try {
+          future.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause();
+          }
+        }
+      }
+      if (failure instanceof SQLException) {
+        throw (SQLException) failure;
+      } else if (failure != null) {
+        Throwables.throwIfUnchecked(failure);
+        throw new RuntimeException(failure);
+      }
+    }
+
     private void processRecord(T record, PreparedStatement preparedStatement, ProcessContext c) {
       try {
         preparedStatement.clearParameters();
@@ -18,12 +18,14 @@
 package org.apache.beam.sdk.io.jdbc;
 
 import static org.apache.beam.sdk.util.Preconditions.checkArgumentNotNull;
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
 
 import com.google.auto.value.AutoValue;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.net.URI;
 import java.net.URL;
 import java.nio.channels.ReadableByteChannel;
@@ -62,6 +64,7 @@ import org.apache.beam.sdk.schemas.Schema;
 import org.apache.beam.sdk.schemas.logicaltypes.FixedPrecisionNumeric;
 import org.apache.beam.sdk.schemas.logicaltypes.MicrosInstant;
 import org.apache.beam.sdk.transforms.DoFn;
+import org.apache.beam.sdk.transforms.SerializableFunction;
 import org.apache.beam.sdk.util.MimeTypes;
 import org.apache.beam.sdk.util.Preconditions;
 import org.apache.beam.sdk.values.KV;
@@ -356,6 +359,44 @@ public class JdbcUtil {
     ps.setNull(i + 1, type.getVendorTypeNumber());
   }
 
+  /**
+   * Returns a view of the statement that shifts the indices of the parameters set on it by the
+   * given offset, so that a {@link JdbcIO.PreparedStatementSetter} can set the parameters of one of
+   * several tuples of a statement.
+   */
+  static PreparedStatement offsetParameters(PreparedStatement statement, int offset) {
+    if (offset == 0) {
+      return statement;
+    }
+    return (PreparedStatement)
+        Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            (proxy, method, args) -> {
+              @Nullable Object[] invokeArgs = args;
+              if (args != null && isSetParameter(method, args)) {
+                invokeArgs = args.clone();
+                invokeArgs[0] = checkStateNotNull((Integer) args[0]) + offset;
+              } else if (method.getName().equals("clearParameters")) {
+                // Would clear the parameters of the previous tuples.
+                return null;
+              }
+              try {
+                return method.invoke(statement, invokeArgs);
+              } catch (InvocationTargetException e) {
+                throw checkStateNotNull(e.getCause());
+              }
+            });
+  }
+
+  /** Returns whether the method sets a parameter of a {@link PreparedStatement}. */
+  static boolean isSetParameter(Method method, @Nullable Object[] args) {
+    return method.getName().startsWith("set")
+        && args != null
+        && args.length >= 2
+        && method.getParameterTypes()[0] == int.class;
+  }
+
   static class BeamRowPreparedStatementSetter implements JdbcIO.PreparedStatementSetter<Row> {
     @Override
     public void setParameters(Row row, PreparedStatement statement) {
@@ -486,6 +527,186 @@ public class JdbcUtil {
     }
   }
 
+  /**
+   * Create partitions on a table that hold about the same number of rows.
+   *
+   * <p>The range of the partition column is first split into many more ranges than partitions, and
+   * the rows of every such bucket are counted in a single query. Adjacent buckets are then merged
+   * into partitions, so the partitions follow the distribution of the column rather than its range.
+   */
+  static class BalancedPartitioningFn<T> extends DoFn<KV<Long, KV<T, T>>, KV<T, T>> {
+    private static final Logger LOG = LoggerFactory.getLogger(BalancedPartitioningFn.class);
+    // The number of histogram buckets per partition.
+    private static final int BUCKETS_PER_PARTITION = 16;
+    // Keeps the histogram query below the parameter limit of common databases (SQL Server: 2100).
+    private static final int MAX_BUCKETS = 1000;
+
+    private final SerializableFunction<Void, DataSource> dataSourceProviderFn;
+    private final String table;
+    private final String partitionColumn;
+    private final JdbcReadWithPartitionsHelper<T> partitionsHelper;
+    private @Nullable DataSource dataSource;
+
+    BalancedPartitioningFn(
+        SerializableFunction<Void, DataSource> dataSourceProviderFn,
+        String table,
+        String partitionColumn,
+        JdbcReadWithPartitionsHelper<T> partitionsHelper) {
+      this.dataSourceProviderFn = dataSourceProviderFn;
+      this.table = table;
+      this.partitionColumn = partitionColumn;
+      this.partitionsHelper = partitionsHelper;
+    }
+
+    @Setup
+    public void setup() {
+      dataSource = dataSourceProviderFn.apply(null);
+    }
+
+    @ProcessElement
+    public void processElement(ProcessContext c) throws SQLException {
+      long partitions = c.element().getKey();
+      T lowerBound = c.element().getValue().getKey();
+      T upperBound = c.element().getValue().getValue();
+      List<KV<T, T>> buckets =
+          Lists.newArrayList(
+              partitionsHelper.calculateRanges(
+                  lowerBound,
+                  upperBound,
+                  Math.min(partitions * BUCKETS_PER_PARTITION, MAX_BUCKETS)));
+      List<KV<T, T>> ranges =
+          buckets.size() <= partitions
+              ? buckets
+              : mergeBuckets(buckets, countRows(buckets), partitions);
+      LOG.info("Total of {} balanced ranges: {}", ranges.size(), ranges);
+      for (KV<T, T> range : ranges) {
+        c.output(range);
+      }
+    }
+
+    private long[] countRows(List<KV<T, T>> buckets) throws SQLException {
+      long[] counts = new long[buckets.size()];
+      try (Connection connection = checkStateNotNull(dataSource).getConnection();
+          PreparedStatement statement = prepareCountRows(connection, buckets)) {
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            int bucket = resultSet.getInt(1);
+            // Rows outside of the bounds don't fall in any bucket.
+            if (!resultSet.wasNull()) {
+              counts[bucket] = resultSet.getLong(2);
+            }
+          }
+        }
+      }
+      return counts;
+    }
+
+    /**
+     * Prepares the query counting the rows of every bucket. The bucket of a row is computed from
+     * its value if the buckets are evenly spaced, and looked up in the list of buckets otherwise.
+     */
+    private PreparedStatement prepareCountRows(Connection connection, List<KV<T, T>> buckets)
+        throws SQLException {
+      @Nullable Long stride = evenStride(buckets);
+      if (stride != null) {
+        // The last bucket may be wider than the others, so its rows are assigned explicitly.
+        String bucketOf =
+            String.format(
+                "CASE WHEN %1$s >= ? THEN %2$d ELSE FLOOR((%1$s - ?) / ?) END",
+                partitionColumn, buckets.size() - 1);
+        String query =
+            String.format(
+                "SELECT bucket, COUNT(*) FROM (SELECT %1$s AS bucket FROM %2$s"
+                    + " WHERE %3$s >= ? AND %3$s < ?) buckets GROUP BY bucket",
+                bucketOf, table, partitionColumn);
+        PreparedStatement statement = connection.prepareStatement(query);
+        long lowerBound = bound(buckets.get(0).getKey());
+        statement.setLong(1, bound(buckets.get(buckets.size() - 1).getKey()));
+        statement.setLong(2, lowerBound);
+        statement.setLong(3, stride);
+        statement.setLong(4, lowerBound);
+        statement.setLong(5, bound(buckets.get(buckets.size() - 1).getValue()));
+        return statement;
+      }
+      StringBuilder bucketOf = new StringBuilder("CASE");
+      for (int i = 0; i < buckets.size(); ++i) {
+        bucketOf.append(
+            String.format(" WHEN %1$s >= ? AND %1$s < ? THEN %2$d", partitionColumn, i));
+      }
+      bucketOf.append(" END");
+      String query =
+          String.format(
+              "SELECT bucket, COUNT(*) FROM (SELECT %s AS bucket FROM %s) buckets GROUP BY bucket",
+              bucketOf, table);
+      PreparedStatement statement = connection.prepareStatement(query);
+      for (int i = 0; i < buckets.size(); ++i) {
+        partitionsHelper.setParameters(buckets.get(i), offsetParameters(statement, 2 * i));
+      }
+      return statement;
+    }
+
+    /**
+     * Returns the width of the buckets if they are adjacent {@code Long} ranges of the same width,
+     * except for the last one, and their span fits in a {@code long}. Returns null otherwise.
+     */
+    @VisibleForTesting
+    static <T> @Nullable Long evenStride(List<KV<T, T>> buckets) {
+      if (buckets.size() < 2 || !(buckets.get(0).getKey() instanceof Long)) {
+        return null;
+      }
+      try {
+        // The database computes the offset of every row from the lower bound.
+        Math.subtractExact(
+            bound(buckets.get(buckets.size() - 1).getValue()), bound(buckets.get(0).getKey()));
+      } catch (ArithmeticException e) {
+        return null;
+      }
+      long stride = bound(buckets.get(0).getValue()) - bound(buckets.get(0).getKey());
+      if (stride <= 0) {
+        return null;
+      }
+      for (int i = 0; i < buckets.size() - 1; ++i) {
+        long start = bound(buckets.get(i).getKey());
+        long end = bound(buckets.get(i).getValue());
+        if (end - start != stride || bound(buckets.get(i + 1).getKey()) != end) {
+          return null;
+        }
+      }
+      return stride;
+    }
+
+    private static long bound(@Nullable Object bound) {
+      return (Long) checkStateNotNull(bound);
+    }
+
+    /**
+     * Merges adjacent buckets into at most {@code partitions} ranges, closing a range once it holds
+     * its share of the rows that are not in a range yet.
+     */
+    @VisibleForTesting
+    static <T> List<KV<T, T>> mergeBuckets(List<KV<T, T>> buckets, long[] counts, long partitions) {
+      long remainingRows = Arrays.stream(counts).sum();
+      List<KV<T, T>> ranges = new ArrayList<>();
+      int start = 0;
+      long rows = 0;
+      for (int i = 0; i < buckets.size(); ++i) {
+        rows += counts[i];
+        long remainingPartitions = partitions - ranges.size();
+        boolean last = i == buckets.size() - 1;
+        if (last
+            || (remainingPartitions > 1
+                && rows > 0
+                && rows * remainingPartitions >= remainingRows)) {
+          ranges.add(KV.of(buckets.get(start).getKey(), buckets.get(i).getValue()));
+          remainingRows -= rows;
+          rows = 0;
+          start = i + 1;
+        }
+      }
+      return ranges;
+    }
+  }
+
   public static final Map<Class<?>, JdbcReadWithPartitionsHelper<?>> PRESET_HELPERS =
       ImmutableMap.of(
           Long.class,
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.jdbc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Struct;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.TimeZone;
+import org.apache.beam.sdk.io.jdbc.JdbcBulkLoaders.InsertStatement;
+import org.apache.beam.sdk.io.jdbc.JdbcBulkLoaders.PostgresCopy;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.sdk.schemas.Schema.FieldType;
+import org.apache.beam.sdk.values.Row;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+/** Test {@link JdbcBulkLoaders}. */
+@RunWith(JUnit4.class)
+public class JdbcBulkLoadersTest {
+
+  @Test
+  public void testInsertStatementWithRows() {
+    InsertStatement insert =
+        InsertStatement.parse("insert into t (a, b) values (?, lower(?)) on conflict do nothing");
+    assertEquals(2, insert.parametersPerRow);
+    assertEquals(
+        "insert into t (a, b) values (?, lower(?)), (?, lower(?)), (?, lower(?))"
+            + " on conflict do nothing",
+        insert.withRows(3));
+
+    InsertStatement quoted = InsertStatement.parse("INSERT INTO t VALUES ('VALUES (?)', ?)");
+    assertEquals(1, quoted.parametersPerRow);
+    assertEquals("INSERT INTO t VALUES ('VALUES (?)', ?), ('VALUES (?)', ?)", quoted.withRows(2));
+
+    assertThrows(IllegalArgumentException.class, () -> InsertStatement.parse("UPDATE t SET a = ?"));
+  }
+
+  @Test
+  public void testCopyStatement() {
+    assertEquals(
+        "COPY t (a, b) FROM STDIN WITH (FORMAT csv)",
+        PostgresCopy.copyStatement("INSERT INTO t(a, b) VALUES(?, ?)"));
+    assertEquals(
+        "COPY s.t FROM STDIN WITH (FORMAT csv)",
+        PostgresCopy.copyStatement("insert into s.t values (?, ?);"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PostgresCopy.copyStatement("insert into t (a, b) values (?, now())"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> PostgresCopy.copyStatement("insert into t (a) values (?) on conflict do nothing"));
+  }
+
+  @Test
+  public void testCaptureParametersAsCsv() throws Exception {
+    String[] values = new String[4];
+    PreparedStatement statement = JdbcBulkLoaders.captureParameters(mock(Connection.class), values);
+    statement.setInt(1, 42);
+    statement.setString(2, "say \"hi\", bye");
+    statement.setNull(3, Types.VARCHAR);
+    statement.setBytes(4, new byte[] {1, (byte) 0xab});
+
+    StringBuilder csv = new StringBuilder();
+    PostgresCopy.appendCsvRow(csv, values);
+    assertEquals("\"42\",\"say \"\"hi\"\", bye\",,\"\\x01ab\"\n", csv.toString());
+  }
+
+  @Test
+  public void testPostgresCopyStreamsRows() throws Exception {
+    ByteArrayOutputStream copied = new ByteArrayOutputStream();
+    CopyIn copyIn = mock(CopyIn.class);
+    doAnswer(
+            invocation -> {
+              copied.write(
+                  invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+              return null;
+            })
+        .when(copyIn)
+        .writeToCopy(any(), anyInt(), anyInt());
+    CopyManager copyManager = mock(CopyManager.class);
+    when(copyManager.copyIn("COPY t (id, name) FROM STDIN WITH (FORMAT csv)")).thenReturn(copyIn);
+    PGConnection pgConnection = mock(PGConnection.class);
+    when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+    Connection connection = mock(Connection.class);
+    when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+
+    List<Integer> records = new ArrayList<>();
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 10_000; ++i) {
+      records.add(i);
+      expected.append('"').append(i).append("\",\"name").append(i).append("\"\n");
+    }
+    new PostgresCopy()
+        .load(
+            connection,
+            "INSERT INTO t (id, name) VALUES (?, ?)",
+            (Integer record, PreparedStatement statement) -> {
+              statement.setInt(1, record);
+              statement.setString(2, "name" + record);
+            },
+            records);
+
+    assertEquals(expected.toString(), new String(copied.toByteArray(), StandardCharsets.UTF_8));
+    // The rows are sent in several chunks rather than as a single string.
+    verify(copyIn, atLeast(2)).writeToCopy(any(), anyInt(), anyInt());
+    verify(copyIn).endCopy();
+  }
+
+  @Test
+  public void testCopyValuesMatchStatementParameters() throws Exception {
+    TimeZone defaultZone = TimeZone.getDefault();
+    // Neither the default time zone nor the time zone of the values is UTC.
+    TimeZone.setDefault(TimeZone.getTimeZone("America/Los_Angeles"));
+    try {
+      Schema schema =
+          Schema.builder()
+              .addDateTimeField("ts")
+              .addField("tstz", LogicalTypes.JDBC_TIMESTAMP_WITH_TIMEZONE_TYPE)
+              .addField("day", LogicalTypes.JDBC_DATE_TYPE)
+              .addArrayField("tags", FieldType.STRING.withNullable(true))
+              .build();
+      DateTime dateTime = new DateTime(1558719710123L, DateTimeZone.forID("Asia/Kolkata"));
+      Row row =
+          Row.withSchema(schema)
+              .addValues(
+                  dateTime,
+                  dateTime,
+                  dateTime.withTimeAtStartOfDay(),
+                  Arrays.asList("a", "say \"hi\", bye", null, "back\\slash"))
+              .build();
+      Connection connection = mock(Connection.class);
+      when(connection.createArrayOf(anyString(), any()))
+          .thenAnswer(
+              invocation -> {
+                Array array = mock(Array.class);
+                when(array.getArray()).thenReturn(invocation.getArgument(1));
+                return array;
+              });
+      JdbcUtil.BeamRowPreparedStatementSetter setter =
+          new JdbcUtil.BeamRowPreparedStatementSetter();
+
+      // The parameters which executeBatch sends through the driver.
+      PreparedStatement statement = mock(PreparedStatement.class);
+      when(statement.getConnection()).thenReturn(connection);
+      setter.setParameters(row, statement);
+      ArgumentCaptor<Timestamp> timestamp = ArgumentCaptor.forClass(Timestamp.class);
+      verify(statement).setTimestamp(eq(1), timestamp.capture());
+      ArgumentCaptor<Timestamp> zonedTimestamp = ArgumentCaptor.forClass(Timestamp.class);
+      ArgumentCaptor<Calendar> calendar = ArgumentCaptor.forClass(Calendar.class);
+      verify(statement).setTimestamp(eq(2), zonedTimestamp.capture(), calendar.capture());
+      ArgumentCaptor<Date> date = ArgumentCaptor.forClass(Date.class);
+      verify(statement).setDate(eq(3), date.capture());
+      ArgumentCaptor<Array> array = ArgumentCaptor.forClass(Array.class);
+      verify(statement).setArray(eq(4), array.capture());
+
+      // The values which COPY sends.
+      String[] values = new String[4];
+      setter.setParameters(row, JdbcBulkLoaders.captureParameters(connection, values));
+
+      // Drivers interpret timestamps in the time zone of the calendar, or else the default one.
+      OffsetDateTime copied = OffsetDateTime.parse(values[0]);
+      assertEquals(timestamp.getValue().toInstant(), copied.toInstant());
+      assertEquals(timestamp.getValue().toLocalDateTime(), copied.toLocalDateTime());
+      OffsetDateTime zonedCopied = OffsetDateTime.parse(values[1]);
+      assertEquals(zonedTimestamp.getValue().toInstant(), zonedCopied.toInstant());
+      assertEquals(
+          zonedTimestamp
+              .getValue()
+              .toInstant()
+              .atZone(calendar.getValue().getTimeZone().toZoneId())
+              .toLocalDateTime(),
+          zonedCopied.toLocalDateTime());
+      assertEquals(date.getValue().toLocalDate(), LocalDate.parse(values[2]));
+      assertEquals(
+          Arrays.asList((Object[]) array.getValue().getArray()),
+          Arrays.asList("a", "say \"hi\", bye", null, "back\\slash"));
+      assertEquals("{\"a\",\"say \\\"hi\\\", bye\",NULL,\"back\\\\slash\"}", values[3]);
+    } finally {
+      TimeZone.setDefault(defaultZone);
+    }
+  }
+
+  @Test
+  public void testPostgresCopyRejectsUnsupportedParametersBeforeCopying() throws Exception {
+    Connection connection = mock(Connection.class);
+    Struct struct = mock(Struct.class);
+    assertThrows(
+        UnsupportedOperationException.class,
+        () ->
+            new PostgresCopy()
+                .load(
+                    connection,
+                    "INSERT INTO t (id, point) VALUES (?, ?)",
+                    (Integer record, PreparedStatement statement) -> {
+                      statement.setInt(1, record);
+                      statement.setObject(2, struct);
+                    },
+                    Collections.singletonList(1)));
+    verify(connection, never()).unwrap(PGConnection.class);
+
+    PreparedStatement statement = JdbcBulkLoaders.captureParameters(connection, new String[1]);
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> statement.setObject(1, new BigDecimal("1.25"), Types.NUMERIC, 1));
+  }
+}
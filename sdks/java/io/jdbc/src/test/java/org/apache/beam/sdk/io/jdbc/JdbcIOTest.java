@@ -31,12 +31,15 @@ import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.charset.Charset;
@@ -58,6 +61,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.LogRecord;
 import javax.sql.DataSource;
 import org.apache.beam.sdk.Pipeline;
@@ -71,8 +76,12 @@ import org.apache.beam.sdk.io.common.DatabaseTestHelper;
 import org.apache.beam.sdk.io.common.TestRow;
 import org.apache.beam.sdk.io.jdbc.JdbcIO.DataSourceConfiguration;
 import org.apache.beam.sdk.io.jdbc.JdbcIO.PoolableDataSourceProvider;
+import org.apache.beam.sdk.io.jdbc.JdbcIO.ReadRangeFn;
+import org.apache.beam.sdk.io.jdbc.JdbcUtil.BalancedPartitioningFn;
 import org.apache.beam.sdk.io.jdbc.JdbcUtil.PartitioningFn;
+import org.apache.beam.sdk.io.range.OffsetRange;
 import org.apache.beam.sdk.metrics.Lineage;
+import org.apache.beam.sdk.options.ValueProvider.StaticValueProvider;
 import org.apache.beam.sdk.schemas.Schema;
 import org.apache.beam.sdk.schemas.Schema.FieldType;
 import org.apache.beam.sdk.schemas.logicaltypes.FixedPrecisionNumeric;
@@ -83,9 +92,12 @@ import org.apache.beam.sdk.testing.TestPipeline;
 import org.apache.beam.sdk.testing.TestStream;
 import org.apache.beam.sdk.transforms.Count;
 import org.apache.beam.sdk.transforms.Create;
+import org.apache.beam.sdk.transforms.DoFn;
 import org.apache.beam.sdk.transforms.ParDo;
 import org.apache.beam.sdk.transforms.SerializableFunction;
 import org.apache.beam.sdk.transforms.Wait;
+import org.apache.beam.sdk.transforms.splittabledofn.OffsetRangeTracker;
+import org.apache.beam.sdk.transforms.splittabledofn.SplitResult;
 import org.apache.beam.sdk.util.SerializableUtils;
 import org.apache.beam.sdk.values.KV;
 import org.apache.beam.sdk.values.PCollection;
@@ -573,6 +585,121 @@ public class JdbcIOTest implements Serializable {
     pipeline.run();
   }
 
+  @Test
+  public void testReadWithBalancedPartitions() {
+    PCollection<TestRow> rows =
+        pipeline.apply(
+            JdbcIO.<TestRow>readWithPartitions()
+                .withDataSourceConfiguration(DATA_SOURCE_CONFIGURATION)
+                .withRowMapper(new JdbcTestHelper.CreateTestRowOfNameAndId())
+                .withTable(READ_TABLE_NAME)
+                .withNumPartitions(10)
+                .withPartitionColumn("id")
+                // All rows are in the first 10% of the range.
+                .withLowerBound(0L)
+                .withUpperBound(10_000L)
+                .withBalancedPartitions());
+    PAssert.thatSingleton(rows.apply("Count All", Count.globally())).isEqualTo(1000L);
+    PAssert.that(rows).containsInAnyOrder(TestRow.getExpectedValues(0, EXPECTED_ROW_COUNT));
+
+    // The ranges of 160 buckets of 63 ids each are merged into ranges holding about 100 rows, and
+    // the empty buckets into the last range, instead of putting all rows in the first partition.
+    PCollection<KV<Long, Long>> ranges =
+        pipeline
+            .apply("Create bounds", Create.of(KV.of(10L, KV.of(0L, 10_000L))))
+            .apply(
+                "Balanced partitioning",
+                ParDo.of(
+                    new BalancedPartitioningFn<>(
+                        JdbcIO.DataSourceProviderFromDataSourceConfiguration.of(
+                            DATA_SOURCE_CONFIGURATION),
+                        READ_TABLE_NAME,
+                        "id",
+                        JdbcUtil.getPartitionsHelper(TypeDescriptors.longs()))));
+    PAssert.that(ranges)
+        .containsInAnyOrder(
+            KV.of(0L, 126L),
+            KV.of(126L, 252L),
+            KV.of(252L, 378L),
+            KV.of(378L, 504L),
+            KV.of(504L, 630L),
+            KV.of(630L, 756L),
+            KV.of(756L, 819L),
+            KV.of(819L, 882L),
+            KV.of(882L, 945L),
+            KV.of(945L, 10_001L));
+    pipeline.run();
+  }
+
+  @Test
+  public void testReadWithPartitionsWithDynamicSplitting() {
+    PCollection<TestRow> rows =
+        pipeline.apply(
+            JdbcIO.<TestRow>readWithPartitions()
+                .withDataSourceConfiguration(DATA_SOURCE_CONFIGURATION)
+                .withRowMapper(new JdbcTestHelper.CreateTestRowOfNameAndId())
+                .withTable(READ_TABLE_NAME)
+                .withNumPartitions(5)
+                .withPartitionColumn("id")
+                .withBalancedPartitions()
+                .withDynamicSplitting());
+    PAssert.thatSingleton(rows.apply("Count All", Count.globally())).isEqualTo(1000L);
+    PAssert.that(rows).containsInAnyOrder(TestRow.getExpectedValues(0, EXPECTED_ROW_COUNT));
+    pipeline.run();
+  }
+
+  @Test
+  public void testReadRangeFnSplit() throws Exception {
+    ReadRangeFn<TestRow> readRangeFn =
+        new ReadRangeFn<>(
+            JdbcIO.DataSourceProviderFromDataSourceConfiguration.of(DATA_SOURCE_CONFIGURATION),
+            READ_TABLE_NAME,
+            "id",
+            new JdbcTestHelper.CreateTestRowOfNameAndId(),
+            10,
+            false);
+    readRangeFn.setup();
+    OffsetRangeTracker tracker =
+        new OffsetRangeTracker(readRangeFn.getInitialRestriction(KV.of(0L, 1000L)));
+
+    // The runner checkpoints the restriction while the row with id 99 is output.
+    List<TestRow> primaryRows = new ArrayList<>();
+    List<SplitResult<OffsetRange>> splits = new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    DoFn.OutputReceiver<TestRow> primaryReceiver = mock(DoFn.OutputReceiver.class);
+    doAnswer(
+            invocation -> {
+              primaryRows.add(invocation.getArgument(0));
+              if (primaryRows.size() == 100) {
+                splits.add(tracker.trySplit(0));
+              }
+              return null;
+            })
+        .when(primaryReceiver)
+        .output(any());
+    readRangeFn.processElement(tracker, primaryReceiver);
+    tracker.checkDone();
+
+    assertEquals(1, splits.size());
+    assertEquals(new OffsetRange(0, 100), splits.get(0).getPrimary());
+    assertEquals(new OffsetRange(100, 1000), splits.get(0).getResidual());
+    assertEquals(ImmutableList.copyOf(TestRow.getExpectedValues(0, 100)), primaryRows);
+
+    // The residual restriction reads the rest of the rows.
+    OffsetRangeTracker residualTracker = new OffsetRangeTracker(splits.get(0).getResidual());
+    List<TestRow> residualRows = new ArrayList<>();
+    @SuppressWarnings("unchecked")
+    DoFn.OutputReceiver<TestRow> residualReceiver = mock(DoFn.OutputReceiver.class);
+    doAnswer(invocation -> residualRows.add(invocation.getArgument(0)))
+        .when(residualReceiver)
+        .output(any());
+    readRangeFn.processElement(residualTracker, residualReceiver);
+    residualTracker.checkDone();
+    readRangeFn.tearDown();
+
+    assertEquals(ImmutableList.copyOf(TestRow.getExpectedValues(100, 1000)), residualRows);
+  }
+
   @Test
   public void testIfNumPartitionsIsZero() {
     thrown.expect(IllegalArgumentException.class);
@@ -641,6 +768,98 @@ public class JdbcIOTest implements Serializable {
     }
   }
 
+  @Test
+  public void testWriteWithBulkLoader() throws Exception {
+    String tableName = DatabaseTestHelper.getTestTableName("UT_WRITE_BULK");
+    DatabaseTestHelper.createTable(DATA_SOURCE, tableName);
+    try {
+      ArrayList<KV<Integer, String>> data = getDataToWrite(EXPECTED_ROW_COUNT);
+      pipeline
+          .apply(Create.of(data))
+          .apply(
+              getJdbcWrite(tableName)
+                  .withBatchSize(100L)
+                  .withBulkLoader(JdbcIO.BulkLoader.multiRowInsert(7))
+                  .withBulkLoadParallelism(3));
+
+      pipeline.run();
+
+      assertRowCount(DATA_SOURCE, tableName, EXPECTED_ROW_COUNT);
+    } finally {
+      DatabaseTestHelper.deleteTable(DATA_SOURCE, tableName);
+    }
+  }
+
+  @Test
+  public void testBulkLoadRetriesOnlyUncommittedParts() throws Exception {
+    String tableName = DatabaseTestHelper.getTestTableName("UT_WRITE_BULK_RETRY");
+    DatabaseTestHelper.createTable(DATA_SOURCE, tableName);
+    // The second connection, which loads the second part of the batch, fails to commit once
+    // after the first part was committed.
+    AtomicInteger connections = new AtomicInteger();
+    AtomicBoolean failedCommit = new AtomicBoolean();
+    DataSource dataSource = mock(DataSource.class);
+    when(dataSource.getConnection())
+        .thenAnswer(
+            invocation -> {
+              Connection connection = DATA_SOURCE.getConnection();
+              if (connections.incrementAndGet() != 2) {
+                return connection;
+              }
+              return (Connection)
+                  Proxy.newProxyInstance(
+                      Connection.class.getClassLoader(),
+                      new Class<?>[] {Connection.class},
+                      (proxy, method, args) -> {
+                        if (method.getName().equals("commit")
+                            && failedCommit.compareAndSet(false, true)) {
+                          throw new SQLException("Serialization failure", "40001");
+                        }
+                        try {
+                          return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                          throw e.getCause();
+                        }
+                      });
+            });
+    JdbcIO.PreparedStatementSetter<KV<Integer, String>> setter =
+        (element, statement) -> {
+          statement.setInt(1, element.getKey());
+          statement.setString(2, element.getValue());
+        };
+    SerializableFunction<Void, DataSource> dataSourceProvider = ignored -> dataSource;
+    @SuppressWarnings("unchecked")
+    JdbcIO.WriteFn<KV<Integer, String>, Void> writeFn =
+        new JdbcIO.WriteFn<>(
+            JdbcIO.WriteFn.WriteFnSpec.builder()
+                .setDataSourceProviderFn(dataSourceProvider)
+                .setStatement(
+                    StaticValueProvider.of(String.format("insert into %s values(?, ?)", tableName)))
+                .setPreparedStatementSetter(setter)
+                .setRetryStrategy(new JdbcIO.DefaultRetryStrategy())
+                .setRetryConfiguration(
+                    JdbcIO.RetryConfiguration.create(5, null, Duration.millis(1)))
+                .setBulkLoader(JdbcIO.BulkLoader.multiRowInsert(3))
+                .setBulkLoadParallelism(2)
+                .setReturnResults(false)
+                .build());
+    @SuppressWarnings("unchecked")
+    DoFn<Iterable<KV<Integer, String>>, Void>.ProcessContext context =
+        mock(DoFn.ProcessContext.class);
+    when(context.element()).thenReturn(getDataToWrite(10));
+    try {
+      writeFn.setup();
+      writeFn.processElement(context);
+      writeFn.finishBundle();
+      writeFn.tearDown();
+
+      assertTrue(failedCommit.get());
+      assertRowCount(DATA_SOURCE, tableName, 10);
+    } finally {
+      DatabaseTestHelper.deleteTable(DATA_SOURCE, tableName);
+    }
+  }
+
   @Test
   public void testWriteWithAutosharding() throws Exception {
     String tableName = DatabaseTestHelper.getTestTableName("UT_WRITE");
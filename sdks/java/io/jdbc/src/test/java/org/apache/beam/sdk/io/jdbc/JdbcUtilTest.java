@@ -23,6 +23,9 @@ import static org.hamcrest.number.IsCloseTo.closeTo;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
@@ -35,6 +38,7 @@ import java.nio.file.Paths;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
@@ -253,6 +257,56 @@ public class JdbcUtilTest {
     assertArrayEquals(expectedRanges.toArray(), ranges.toArray());
   }
 
+  @Test
+  public void testMergeBucketsIntoBalancedRanges() {
+    List<KV<Long, Long>> buckets = new ArrayList<>();
+    for (long i = 0; i < 8; ++i) {
+      buckets.add(KV.of(i, i + 1));
+    }
+    long[] counts = {0, 0, 90, 5, 5, 0, 0, 0};
+    // The bucket holding most rows gets a range of its own, and the empty buckets are merged into
+    // the neighbouring ranges.
+    assertEquals(
+        Lists.newArrayList(KV.of(0L, 3L), KV.of(3L, 4L), KV.of(4L, 8L)),
+        JdbcUtil.BalancedPartitioningFn.mergeBuckets(buckets, counts, 3));
+    assertEquals(
+        Lists.newArrayList(KV.of(0L, 8L)),
+        JdbcUtil.BalancedPartitioningFn.mergeBuckets(buckets, counts, 1));
+  }
+
+  @Test
+  public void testEvenStrideOfBuckets() {
+    List<KV<Long, Long>> buckets =
+        Lists.newArrayList(
+            JdbcUtil.getPartitionsHelper(TypeDescriptors.longs()).calculateRanges(0L, 1000L, 16L));
+    assertEquals(Long.valueOf(63), JdbcUtil.BalancedPartitioningFn.evenStride(buckets));
+    // A gap between buckets, and bounds whose offsets overflow, are looked up bucket by bucket.
+    assertNull(
+        JdbcUtil.BalancedPartitioningFn.evenStride(
+            Lists.newArrayList(KV.of(0L, 10L), KV.of(11L, 21L), KV.of(21L, 31L))));
+    assertNull(
+        JdbcUtil.BalancedPartitioningFn.evenStride(
+            Lists.newArrayList(KV.of(Long.MIN_VALUE, 0L), KV.of(0L, Long.MAX_VALUE))));
+    assertNull(
+        JdbcUtil.BalancedPartitioningFn.evenStride(
+            Lists.newArrayList(
+                KV.of(new DateTime(0), new DateTime(10)),
+                KV.of(new DateTime(10), new DateTime(20)))));
+  }
+
+  @Test
+  public void testOffsetParameters() throws Exception {
+    PreparedStatement statement = mock(PreparedStatement.class);
+    PreparedStatement offset = JdbcUtil.offsetParameters(statement, 2);
+    offset.clearParameters();
+    offset.setInt(1, 5);
+    offset.setNull(2, Types.INTEGER);
+
+    verify(statement).setInt(3, 5);
+    verify(statement).setNull(4, Types.INTEGER);
+    verifyNoMoreInteractions(statement);
+  }
+
   @Test
   public void testSavesFilesAsExpected() throws IOException {
     File tempFile1 = temporaryFolder.newFile();
@@ -611,6 +611,8 @@ public class KafkaIO {
         .setDynamicRead(false)
         .setTimestampPolicyFactory(TimestampPolicyFactory.withProcessingTime())
         .setConsumerPollingTimeout(2L)
+        .setDeserializationParallelism(1)
+        .setConsumerPoolSize(0)
         .setRedistributed(false)
         .setAllowDuplicates(false)
         .setRedistributeNumKeys(0)
@@ -759,6 +761,12 @@ public class KafkaIO {
     @Pure
     public abstract long getConsumerPollingTimeout();
 
+    @Pure
+    public abstract int getDeserializationParallelism();
+
+    @Pure
+    public abstract int getConsumerPoolSize();
+
     @Pure
     public abstract @Nullable Boolean getLogTopicVerification();
 
@@ -830,6 +838,10 @@ public class KafkaIO {
 
       abstract Builder<K, V> setConsumerPollingTimeout(long consumerPollingTimeout);
 
+      abstract Builder<K, V> setDeserializationParallelism(int deserializationParallelism);
+
+      abstract Builder<K, V> setConsumerPoolSize(int consumerPoolSize);
+
       abstract Builder<K, V> setLogTopicVerification(@Nullable Boolean logTopicVerification);
 
       abstract Read<K, V> build();
@@ -908,6 +920,8 @@ public class KafkaIO {
         } else {
           builder.setConsumerPollingTimeout(2L);
         }
+        builder.setDeserializationParallelism(1);
+        builder.setConsumerPoolSize(0);
 
         if (config.redistribute != null) {
           builder.setRedistributed(config.redistribute);
@@ -1588,6 +1602,35 @@ public class KafkaIO {
       return toBuilder().setConsumerPollingTimeout(duration).build();
     }
 
+    /**
+     * Sets the number of threads deserializing the records of a topic partition in the {@link
+     * ReadFromKafkaDoFn}. With a parallelism greater than 1, each batch of polled records is split
+     * into consecutive chunks whose keys and values are deserialized concurrently, while records
+     * are still claimed and output in offset order. Use this when deserialization, for example of
+     * Avro records with a schema registry, limits the throughput of a partition. The default is 1,
+     * deserializing records on the thread processing the partition.
+     *
+     * <p>Each additional thread uses its own key and value {@link Deserializer} instances.
+     */
+    public Read<K, V> withDeserializationParallelism(int deserializationParallelism) {
+      checkState(
+          deserializationParallelism > 0, "Deserialization parallelism must be greater than 0.");
+      return toBuilder().setDeserializationParallelism(deserializationParallelism).build();
+    }
+
+    /**
+     * Shares at most {@code consumerPoolSize} Kafka consumers among all topic partitions that a
+     * worker reads with the same consumer configuration, instead of creating a consumer per topic
+     * partition. Each shared consumer is assigned many partitions and hands the fetched records to
+     * the restriction reading their partition, which reduces the memory and the number of broker
+     * connections used for topics with many partitions. The default is 0, using a consumer per
+     * topic partition.
+     */
+    public Read<K, V> withConsumerPoolSize(int consumerPoolSize) {
+      checkState(consumerPoolSize >= 0, "Consumer pool size must not be negative.");
+      return toBuilder().setConsumerPoolSize(consumerPoolSize).build();
+    }
+
     /**
      * Creates and sets the Application Default Credentials for a Kafka consumer. This allows the
      * consumer to be authenticated with a Google Kafka Server using OAuth.
@@ -1971,7 +2014,9 @@ public class KafkaIO {
                 .withManualWatermarkEstimator()
                 .withTimestampPolicyFactory(kafkaRead.getTimestampPolicyFactory())
                 .withCheckStopReadingFn(kafkaRead.getCheckStopReadingFn())
-                .withConsumerPollingTimeout(kafkaRead.getConsumerPollingTimeout());
+                .withConsumerPollingTimeout(kafkaRead.getConsumerPollingTimeout())
+                .withDeserializationParallelism(kafkaRead.getDeserializationParallelism())
+                .withConsumerPoolSize(kafkaRead.getConsumerPoolSize());
         if (kafkaRead.isCommitOffsetsInFinalizeEnabled()) {
           readTransform = readTransform.commitOffsets();
         }
@@ -2518,6 +2563,12 @@ public class KafkaIO {
     @Pure
     abstract long getConsumerPollingTimeout();
 
+    @Pure
+    abstract int getDeserializationParallelism();
+
+    @Pure
+    abstract int getConsumerPoolSize();
+
     abstract boolean isBounded();
 
     abstract ReadSourceDescriptors.Builder<K, V> toBuilder();
@@ -2570,6 +2621,11 @@ public class KafkaIO {
 
       abstract ReadSourceDescriptors.Builder<K, V> setConsumerPollingTimeout(long duration);
 
+      abstract ReadSourceDescriptors.Builder<K, V> setDeserializationParallelism(
+          int deserializationParallelism);
+
+      abstract ReadSourceDescriptors.Builder<K, V> setConsumerPoolSize(int consumerPoolSize);
+
       abstract ReadSourceDescriptors.Builder<K, V> setBounded(boolean bounded);
 
       abstract ReadSourceDescriptors.Builder<K, V> setRedistribute(boolean withRedistribute);
@@ -2590,6 +2646,8 @@ public class KafkaIO {
           .setBadRecordRouter(BadRecordRouter.THROWING_ROUTER)
           .setBadRecordErrorHandler(new ErrorHandler.DefaultErrorHandler<>())
           .setConsumerPollingTimeout(2L)
+          .setDeserializationParallelism(1)
+          .setConsumerPoolSize(0)
           .setRedistribute(false)
           .setAllowDuplicates(false)
           .setRedistributeNumKeys(0)
@@ -2909,6 +2967,27 @@ public class KafkaIO {
       return toBuilder().setConsumerPollingTimeout(duration).build();
     }
 
+    /**
+     * Sets the number of threads deserializing the records of a topic partition in the {@link
+     * ReadFromKafkaDoFn}. See {@link Read#withDeserializationParallelism(int)}.
+     */
+    public ReadSourceDescriptors<K, V> withDeserializationParallelism(
+        int deserializationParallelism) {
+      checkState(
+          deserializationParallelism > 0, "Deserialization parallelism must be greater than 0.");
+      return toBuilder().setDeserializationParallelism(deserializationParallelism).build();
+    }
+
+    /**
+     * Shares at most {@code consumerPoolSize} Kafka consumers among all topic partitions that a
+     * worker reads with the same consumer configuration. See {@link
+     * Read#withConsumerPoolSize(int)}.
+     */
+    public ReadSourceDescriptors<K, V> withConsumerPoolSize(int consumerPoolSize) {
+      checkState(consumerPoolSize >= 0, "Consumer pool size must not be negative.");
+      return toBuilder().setConsumerPoolSize(consumerPoolSize).build();
+    }
+
     ReadAllFromRow<K, V> forExternalBuild() {
       return new ReadAllFromRow<>(this);
     }
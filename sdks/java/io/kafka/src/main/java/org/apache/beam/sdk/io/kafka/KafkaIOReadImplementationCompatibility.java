@@ -119,6 +119,18 @@ class KafkaIOReadImplementationCompatibility {
         return Long.valueOf(2);
       }
     },
+    DESERIALIZATION_PARALLELISM(SDF) {
+      @Override
+      Object getDefaultValue() {
+        return Integer.valueOf(1);
+      }
+    },
+    CONSUMER_POOL_SIZE(SDF) {
+      @Override
+      Object getDefaultValue() {
+        return Integer.valueOf(0);
+      }
+    },
     REDISTRIBUTE_NUM_KEYS {
       @Override
       Object getDefaultValue() {
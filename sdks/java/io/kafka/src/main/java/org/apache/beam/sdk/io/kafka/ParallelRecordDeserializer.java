@@ -0,0 +1,267 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.kafka;
+
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Throwables;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deserializes the records returned by a poll of a Kafka consumer on multiple threads.
+ *
+ * <p>The records of a poll are split into consecutive chunks. The first chunk is deserialized
+ * lazily by the thread consuming the {@link Batch}, with the deserializers passed to {@link
+ * #deserialize}, while the remaining chunks are deserialized concurrently on a pool of {@code
+ * parallelism - 1} threads. The consumer of the batch still sees the records in offset order, and
+ * failures are reported for the record that caused them, exactly as if the records were
+ * deserialized one after the other.
+ *
+ * <p>A single {@link ParallelRecordDeserializer} is meant to be shared by all instances of a DoFn
+ * on a worker, so the number of threads does not grow with the number of instances. Batches of
+ * different instances may be deserialized concurrently, and their chunks are queued on the shared
+ * pool. Each thread of the pool creates its own key and value {@link Deserializer} the first time
+ * it deserializes a chunk, and closes them when it is stopped after being idle.
+ */
+class ParallelRecordDeserializer<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(ParallelRecordDeserializer.class);
+
+  // Chunks smaller than this are not worth handing off to another thread.
+  private static final int MIN_CHUNK_SIZE = 32;
+
+  // Threads of the pool that were idle for this long are stopped.
+  private static final long THREAD_KEEP_ALIVE_SECONDS = 60L;
+
+  private final int parallelism;
+  private final DeserializerProvider<K> keyDeserializerProvider;
+  private final DeserializerProvider<V> valueDeserializerProvider;
+  private final Map<String, Object> consumerConfig;
+  private final ThreadLocal<@Nullable ThreadDeserializers<K, V>> threadDeserializers =
+      new ThreadLocal<>();
+  private final ThreadPoolExecutor executor;
+
+  ParallelRecordDeserializer(
+      DeserializerProvider<K> keyDeserializerProvider,
+      DeserializerProvider<V> valueDeserializerProvider,
+      Map<String, Object> consumerConfig,
+      int parallelism) {
+    checkArgument(parallelism > 1, "parallelism must be greater than 1, was %s", parallelism);
+    this.parallelism = parallelism;
+    this.keyDeserializerProvider = keyDeserializerProvider;
+    this.valueDeserializerProvider = valueDeserializerProvider;
+    this.consumerConfig = consumerConfig;
+    final ThreadFactory threadFactory =
+        new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("KafkaRecordDeserializer-thread-%d")
+            .build();
+    this.executor =
+        new ThreadPoolExecutor(
+            parallelism - 1,
+            parallelism - 1,
+            THREAD_KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            runnable ->
+                threadFactory.newThread(
+                    () -> {
+                      try {
+                        runnable.run();
+                      } finally {
+                        closeThreadDeserializers();
+                      }
+                    }));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Starts deserializing the given records. The returned {@link Batch} must be closed once its
+   * records were retrieved.
+   */
+  Batch deserialize(
+      List<ConsumerRecord<byte[], byte[]>> records,
+      Deserializer<K> keyDeserializer,
+      Deserializer<V> valueDeserializer) {
+    return new Batch(records, keyDeserializer, valueDeserializer);
+  }
+
+  private static <K, V> Object deserialize(
+      ConsumerRecord<byte[], byte[]> rawRecord,
+      Deserializer<K> keyDeserializer,
+      Deserializer<V> valueDeserializer) {
+    try {
+      return new KafkaRecord<>(
+          rawRecord.topic(),
+          rawRecord.partition(),
+          rawRecord.offset(),
+          ConsumerSpEL.getRecordTimestamp(rawRecord),
+          ConsumerSpEL.getRecordTimestampType(rawRecord),
+          ConsumerSpEL.hasHeaders() ? rawRecord.headers() : null,
+          ConsumerSpEL.deserializeKey(keyDeserializer, rawRecord),
+          ConsumerSpEL.deserializeValue(valueDeserializer, rawRecord));
+    } catch (RuntimeException e) {
+      // Rethrown when the record is retrieved from the batch.
+      return e;
+    }
+  }
+
+  /** Returns the deserializers of the current thread of the pool, creating them if needed. */
+  private ThreadDeserializers<K, V> getThreadDeserializers() {
+    @Nullable ThreadDeserializers<K, V> deserializers = threadDeserializers.get();
+    if (deserializers == null) {
+      deserializers =
+          new ThreadDeserializers<>(
+              keyDeserializerProvider.getDeserializer(consumerConfig, true),
+              valueDeserializerProvider.getDeserializer(consumerConfig, false));
+      threadDeserializers.set(deserializers);
+    }
+    return deserializers;
+  }
+
+  private void closeThreadDeserializers() {
+    final @Nullable ThreadDeserializers<K, V> deserializers = threadDeserializers.get();
+    if (deserializers != null) {
+      threadDeserializers.remove();
+      try {
+        deserializers.keyDeserializer.close();
+        deserializers.valueDeserializer.close();
+      } catch (RuntimeException e) {
+        LOG.warn("Failed to close Kafka deserializers.", e);
+      }
+    }
+  }
+
+  /** The key and value deserializers of a thread of the pool. */
+  private static class ThreadDeserializers<K, V> {
+    private final Deserializer<K> keyDeserializer;
+    private final Deserializer<V> valueDeserializer;
+
+    private ThreadDeserializers(
+        Deserializer<K> keyDeserializer, Deserializer<V> valueDeserializer) {
+      this.keyDeserializer = keyDeserializer;
+      this.valueDeserializer = valueDeserializer;
+    }
+  }
+
+  /** The records of a single poll, deserialized on multiple threads. */
+  class Batch implements AutoCloseable {
+    private final List<ConsumerRecord<byte[], byte[]>> records;
+    private final Deserializer<K> keyDeserializer;
+    private final Deserializer<V> valueDeserializer;
+    private final int chunkSize;
+    private final List<Future<Object[]>> chunks;
+    private volatile boolean closed = false;
+
+    private int currentChunk = 0;
+    private Object @Nullable [] currentResults = null;
+
+    private Batch(
+        List<ConsumerRecord<byte[], byte[]>> records,
+        Deserializer<K> keyDeserializer,
+        Deserializer<V> valueDeserializer) {
+      this.records = records;
+      this.keyDeserializer = keyDeserializer;
+      this.valueDeserializer = valueDeserializer;
+      this.chunkSize = Math.max(MIN_CHUNK_SIZE, (records.size() + parallelism - 1) / parallelism);
+      this.chunks = new ArrayList<>(parallelism - 1);
+      for (int start = chunkSize; start < records.size(); start += chunkSize) {
+        int from = start;
+        int to = Math.min(records.size(), start + chunkSize);
+        chunks.add(
+            executor.submit(
+                () -> {
+                  ThreadDeserializers<K, V> deserializers = getThreadDeserializers();
+                  Object[] results = new Object[to - from];
+                  for (int i = from; i < to && !closed; ++i) {
+                    results[i - from] =
+                        deserialize(
+                            records.get(i),
+                            deserializers.keyDeserializer,
+                            deserializers.valueDeserializer);
+                  }
+                  return results;
+                }));
+      }
+    }
+
+    /**
+     * Returns the deserialized record at the given index of the batch, or throws the exception
+     * thrown while deserializing it.
+     */
+    @SuppressWarnings("unchecked")
+    KafkaRecord<K, V> get(int index) {
+      int chunk = index / chunkSize;
+      Object result;
+      if (chunk == 0) {
+        result = deserialize(records.get(index), keyDeserializer, valueDeserializer);
+      } else {
+        if (chunk != currentChunk || currentResults == null) {
+          currentResults = await(chunks.get(chunk - 1));
+          currentChunk = chunk;
+        }
+        result = currentResults[index - chunk * chunkSize];
+      }
+      if (result instanceof RuntimeException) {
+        throw (RuntimeException) result;
+      }
+      return (KafkaRecord<K, V>) result;
+    }
+
+    /**
+     * Stops deserializing the remaining records and waits for the deserializer threads to finish
+     * with their current record.
+     */
+    @Override
+    public void close() {
+      closed = true;
+      for (Future<Object[]> chunk : chunks) {
+        try {
+          await(chunk);
+        } catch (RuntimeException e) {
+          // Records that were never retrieved don't have to be deserialized successfully.
+        }
+      }
+    }
+
+    private Object[] await(Future<Object[]> chunk) {
+      try {
+        return chunk.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException(e);
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new RuntimeException(e.getCause());
+      }
+    }
+  }
+}
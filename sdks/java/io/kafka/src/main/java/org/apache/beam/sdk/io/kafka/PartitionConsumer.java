@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.kafka;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * The subset of the {@link Consumer} API used by {@link ReadFromKafkaDoFn} to read the records of a
+ * single topic partition. The consumer behind it is either dedicated to the partition, or {@link
+ * SharedKafkaConsumer shared} with other partitions read by the same worker.
+ */
+interface PartitionConsumer extends Closeable {
+
+  /** See {@link Consumer#offsetsForTimes(Map)}. */
+  Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+      Map<TopicPartition, Long> timestampsToSearch);
+
+  /** See {@link Consumer#endOffsets(Collection)}. */
+  Map<TopicPartition, Long> endOffsets(Collection<TopicPartition> partitions);
+
+  /** See {@link Consumer#position(TopicPartition)}. */
+  long position(TopicPartition partition);
+
+  /** See {@link Consumer#seek(TopicPartition, long)}. */
+  void seek(TopicPartition partition, long offset);
+
+  /** See {@link Consumer#pause(Collection)}. */
+  void pause(Collection<TopicPartition> partitions);
+
+  /** See {@link Consumer#resume(Collection)}. */
+  void resume(Collection<TopicPartition> partitions);
+
+  /**
+   * Polls the records of the partition. Returns {@link ConsumerRecords#empty()} if none were
+   * fetched within the timeout. See {@link Consumer#poll(Duration)}.
+   */
+  ConsumerRecords<byte[], byte[]> poll(Duration timeout);
+
+  /** See {@link Consumer#partitionsFor(String)}. */
+  List<PartitionInfo> partitionsFor(String topic);
+
+  /** Releases the consumer, closing it unless it is shared with other partitions. */
+  @Override
+  void close();
+
+  /** Returns a {@link PartitionConsumer} owning the given consumer. */
+  static PartitionConsumer of(Consumer<byte[], byte[]> consumer) {
+    return new Dedicated(consumer);
+  }
+
+  /** A {@link PartitionConsumer} owning a {@link Consumer} assigned to a single partition. */
+  class Dedicated implements PartitionConsumer {
+    private final Consumer<byte[], byte[]> consumer;
+
+    private Dedicated(Consumer<byte[], byte[]> consumer) {
+      this.consumer = consumer;
+    }
+
+    @Override
+    public Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+        Map<TopicPartition, Long> timestampsToSearch) {
+      return consumer.offsetsForTimes(timestampsToSearch);
+    }
+
+    @Override
+    public Map<TopicPartition, Long> endOffsets(Collection<TopicPartition> partitions) {
+      return consumer.endOffsets(partitions);
+    }
+
+    @Override
+    public long position(TopicPartition partition) {
+      return consumer.position(partition);
+    }
+
+    @Override
+    public void seek(TopicPartition partition, long offset) {
+      consumer.seek(partition, offset);
+    }
+
+    @Override
+    public void pause(Collection<TopicPartition> partitions) {
+      consumer.pause(partitions);
+    }
+
+    @Override
+    public void resume(Collection<TopicPartition> partitions) {
+      consumer.resume(partitions);
+    }
+
+    @Override
+    public ConsumerRecords<byte[], byte[]> poll(Duration timeout) {
+      return consumer.poll(timeout);
+    }
+
+    @Override
+    public List<PartitionInfo> partitionsFor(String topic) {
+      return consumer.partitionsFor(topic);
+    }
+
+    @Override
+    public void close() {
+      consumer.close();
+    }
+  }
+}
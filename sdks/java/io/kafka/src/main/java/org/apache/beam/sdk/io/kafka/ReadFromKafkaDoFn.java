@@ -219,76 +219,129 @@ abstract class ReadFromKafkaDoFn<K, V>
                             return new MovingAvg();
                           }
                         }));
+    final int consumerPoolSize = transform.getConsumerPoolSize();
+    // Consumers are shared by all restrictions of this instantiation on a worker.
+    final @Nullable SerializableSupplier<SharedKafkaConsumer.Pool> sharedConsumerPoolSupplier =
+        consumerPoolSize > 0
+            ? new MemoizingPerInstantiationSerializableSupplier<>(
+                () -> new SharedKafkaConsumer.Pool(consumerFactoryFn, consumerPoolSize))
+            : null;
+    this.sharedConsumerPoolSupplier = sharedConsumerPoolSupplier;
     this.latestOffsetEstimatorCacheSupplier =
         new MemoizingPerInstantiationSerializableSupplier<>(
-            () ->
-                CacheBuilder.newBuilder()
-                    .concurrencyLevel(Runtime.getRuntime().availableProcessors())
-                    .weakValues()
-                    .removalListener(
-                        (RemovalNotification<KafkaSourceDescriptor, KafkaLatestOffsetEstimator>
-                                notification) -> {
-                          final @Nullable KafkaLatestOffsetEstimator value;
-                          if (notification.getCause() == RemovalCause.COLLECTED
-                              && (value = notification.getValue()) != null) {
-                            value.close();
-                          }
-                        })
-                    .build(
-                        new CacheLoader<KafkaSourceDescriptor, KafkaLatestOffsetEstimator>() {
-                          @Override
-                          public KafkaLatestOffsetEstimator load(
-                              final KafkaSourceDescriptor sourceDescriptor) {
-                            LOG.info(
-                                "Creating Kafka consumer for offset estimation for {}",
-                                sourceDescriptor);
-                            final Map<String, Object> config =
-                                KafkaIOUtils.overrideBootstrapServersConfig(
-                                    consumerConfig, sourceDescriptor);
-                            final Consumer<byte[], byte[]> consumer =
-                                consumerFactoryFn.apply(config);
+            () -> {
+              final CacheBuilder<Object, Object> cacheBuilder =
+                  CacheBuilder.newBuilder()
+                      .concurrencyLevel(Runtime.getRuntime().availableProcessors());
+              // As for the poll consumers below, estimators of shared partitions expire instead.
+              if (sharedConsumerPoolSupplier != null) {
+                cacheBuilder.expireAfterAccess(SHARED_CONSUMER_PARTITION_EXPIRATION);
+              } else {
+                cacheBuilder.weakValues();
+              }
+              return cacheBuilder
+                  .removalListener(
+                      (RemovalNotification<KafkaSourceDescriptor, KafkaLatestOffsetEstimator>
+                              notification) -> {
+                        final @Nullable KafkaLatestOffsetEstimator value;
+                        if ((notification.getCause() == RemovalCause.COLLECTED
+                                || notification.getCause() == RemovalCause.EXPIRED)
+                            && (value = notification.getValue()) != null) {
+                          value.close();
+                        }
+                      })
+                  .build(
+                      new CacheLoader<KafkaSourceDescriptor, KafkaLatestOffsetEstimator>() {
+                        @Override
+                        public KafkaLatestOffsetEstimator load(
+                            final KafkaSourceDescriptor sourceDescriptor) {
+                          final Map<String, Object> config =
+                              KafkaIOUtils.overrideBootstrapServersConfig(
+                                  consumerConfig, sourceDescriptor);
+                          // End offsets are fetched through the consumer the partition is
+                          // assigned to in the pool, rather than a consumer per partition.
+                          if (sharedConsumerPoolSupplier != null) {
                             return new KafkaLatestOffsetEstimator(
-                                consumer, sourceDescriptor.getTopicPartition());
+                                sharedConsumerPoolSupplier
+                                    .get()
+                                    .acquire(config, sourceDescriptor.getTopicPartition()),
+                                sourceDescriptor.getTopicPartition());
                           }
-                        }));
+                          LOG.info(
+                              "Creating Kafka consumer for offset estimation for {}",
+                              sourceDescriptor);
+                          final Consumer<byte[], byte[]> consumer = consumerFactoryFn.apply(config);
+                          return new KafkaLatestOffsetEstimator(
+                              PartitionConsumer.of(consumer), sourceDescriptor.getTopicPartition());
+                        }
+                      });
+            });
     this.pollConsumerCacheSupplier =
         new MemoizingPerInstantiationSerializableSupplier<>(
-            () ->
-                CacheBuilder.newBuilder()
-                    .concurrencyLevel(Runtime.getRuntime().availableProcessors())
-                    .weakValues()
-                    .removalListener(
-                        (RemovalNotification<KafkaSourceDescriptor, Consumer<byte[], byte[]>>
-                                notification) -> {
-                          final @Nullable Consumer<byte[], byte[]> value;
-                          if (notification.getCause() == RemovalCause.COLLECTED
-                              && (value = notification.getValue()) != null) {
-                            value.close();
-                          }
-                        })
-                    .build(
-                        new CacheLoader<KafkaSourceDescriptor, Consumer<byte[], byte[]>>() {
-                          @Override
-                          public Consumer<byte[], byte[]> load(
-                              KafkaSourceDescriptor sourceDescriptor) {
-                            LOG.info(
-                                "Creating Kafka consumer for restriction processing for {}",
-                                sourceDescriptor);
-                            final Map<String, Object> config =
-                                KafkaIOUtils.overrideBootstrapServersConfig(
-                                    consumerConfig, sourceDescriptor);
-                            final Consumer<byte[], byte[]> consumer =
-                                consumerFactoryFn.apply(config);
-                            consumer.assign(
-                                Collections.singleton(sourceDescriptor.getTopicPartition()));
-                            return consumer;
+            () -> {
+              final CacheBuilder<Object, Object> cacheBuilder =
+                  CacheBuilder.newBuilder()
+                      .concurrencyLevel(Runtime.getRuntime().availableProcessors());
+              // A shared consumer can't be released once the partition is garbage collected, so
+              // partitions that are no longer read are released after a while instead.
+              if (sharedConsumerPoolSupplier != null) {
+                cacheBuilder.expireAfterAccess(SHARED_CONSUMER_PARTITION_EXPIRATION);
+              } else {
+                cacheBuilder.weakValues();
+              }
+              return cacheBuilder
+                  .removalListener(
+                      (RemovalNotification<KafkaSourceDescriptor, PartitionConsumer>
+                              notification) -> {
+                        final @Nullable PartitionConsumer value;
+                        if ((notification.getCause() == RemovalCause.COLLECTED
+                                || notification.getCause() == RemovalCause.EXPIRED)
+                            && (value = notification.getValue()) != null) {
+                          value.close();
+                        }
+                      })
+                  .build(
+                      new CacheLoader<KafkaSourceDescriptor, PartitionConsumer>() {
+                        @Override
+                        public PartitionConsumer load(KafkaSourceDescriptor sourceDescriptor) {
+                          final Map<String, Object> config =
+                              KafkaIOUtils.overrideBootstrapServersConfig(
+                                  consumerConfig, sourceDescriptor);
+                          if (sharedConsumerPoolSupplier != null) {
+                            return sharedConsumerPoolSupplier
+                                .get()
+                                .acquire(config, sourceDescriptor.getTopicPartition());
                           }
-                        }));
+                          LOG.info(
+                              "Creating Kafka consumer for restriction processing for {}",
+                              sourceDescriptor);
+                          final Consumer<byte[], byte[]> consumer = consumerFactoryFn.apply(config);
+                          consumer.assign(
+                              Collections.singleton(sourceDescriptor.getTopicPartition()));
+                          return PartitionConsumer.of(consumer);
+                        }
+                      });
+            });
     this.consumerPollingTimeout =
         Duration.ofSeconds(
             transform.getConsumerPollingTimeout() > 0
                 ? transform.getConsumerPollingTimeout()
                 : DEFAULT_KAFKA_POLL_TIMEOUT);
+    this.deserializationParallelism = transform.getDeserializationParallelism();
+    final DeserializerProvider<K> keyDeserializerProvider = this.keyDeserializerProvider;
+    final DeserializerProvider<V> valueDeserializerProvider = this.valueDeserializerProvider;
+    final Map<String, Object> consumerConfig = this.consumerConfig;
+    final int deserializationParallelism = this.deserializationParallelism;
+    this.parallelRecordDeserializerSupplier =
+        deserializationParallelism > 1
+            ? new MemoizingPerInstantiationSerializableSupplier<>(
+                () ->
+                    new ParallelRecordDeserializer<>(
+                        keyDeserializerProvider,
+                        valueDeserializerProvider,
+                        consumerConfig,
+                        deserializationParallelism))
+            : null;
   }
 
   private static final Logger LOG = LoggerFactory.getLogger(ReadFromKafkaDoFn.class);
@@ -313,7 +366,9 @@ abstract class ReadFromKafkaDoFn<K, V>
           LoadingCache<KafkaSourceDescriptor, KafkaLatestOffsetEstimator>>
       latestOffsetEstimatorCacheSupplier;
 
-  private final SerializableSupplier<LoadingCache<KafkaSourceDescriptor, Consumer<byte[], byte[]>>>
+  private final @Nullable SerializableSupplier<SharedKafkaConsumer.Pool> sharedConsumerPoolSupplier;
+
+  private final SerializableSupplier<LoadingCache<KafkaSourceDescriptor, PartitionConsumer>>
       pollConsumerCacheSupplier;
 
   private transient @MonotonicNonNull LoadingCache<KafkaSourceDescriptor, MovingAvg>
@@ -323,14 +378,24 @@ abstract class ReadFromKafkaDoFn<K, V>
           KafkaSourceDescriptor, KafkaLatestOffsetEstimator>
       latestOffsetEstimatorCache;
 
-  private transient @MonotonicNonNull LoadingCache<KafkaSourceDescriptor, Consumer<byte[], byte[]>>
+  private transient @MonotonicNonNull LoadingCache<KafkaSourceDescriptor, PartitionConsumer>
       pollConsumerCache;
 
+  private transient SharedKafkaConsumer.@Nullable Pool sharedConsumerPool = null;
+
+  // Deserializer threads are shared by all restrictions of this instantiation on a worker.
+  private final @Nullable SerializableSupplier<ParallelRecordDeserializer<K, V>>
+      parallelRecordDeserializerSupplier;
+
   // Valid between bundle start and bundle finish.
   private transient @Nullable Deserializer<K> keyDeserializerInstance = null;
   private transient @Nullable Deserializer<V> valueDeserializerInstance = null;
+  // Only set when records are deserialized on multiple threads.
+  private transient @Nullable ParallelRecordDeserializer<K, V> parallelRecordDeserializer = null;
   private static final long DEFAULT_KAFKA_POLL_TIMEOUT = 2L;
+  private static final Duration SHARED_CONSUMER_PARTITION_EXPIRATION = Duration.ofMinutes(1);
   @VisibleForTesting final Duration consumerPollingTimeout;
+  @VisibleForTesting final int deserializationParallelism;
   @VisibleForTesting final DeserializerProvider<K> keyDeserializerProvider;
   @VisibleForTesting final DeserializerProvider<V> valueDeserializerProvider;
   @VisibleForTesting final Map<String, Object> consumerConfig;
@@ -340,16 +405,16 @@ abstract class ReadFromKafkaDoFn<K, V>
   static final String RAW_SIZE_METRIC_PREFIX = KafkaUnboundedReader.RAW_SIZE_METRIC_PREFIX;
 
   /**
-   * A {@link GrowableOffsetRangeTracker.RangeEndEstimator} which uses a Kafka {@link Consumer} to
-   * fetch backlog.
+   * A {@link GrowableOffsetRangeTracker.RangeEndEstimator} which uses a {@link PartitionConsumer}
+   * to fetch backlog.
    */
   private static class KafkaLatestOffsetEstimator
       implements GrowableOffsetRangeTracker.RangeEndEstimator, Closeable {
-    private final Consumer<byte[], byte[]> offsetConsumer;
+    private final PartitionConsumer offsetConsumer;
     private final Supplier<Long> offsetSupplier;
 
     KafkaLatestOffsetEstimator(
-        final Consumer<byte[], byte[]> offsetConsumer, final TopicPartition topicPartition) {
+        final PartitionConsumer offsetConsumer, final TopicPartition topicPartition) {
       this.offsetConsumer = offsetConsumer;
       this.offsetSupplier =
           new ExpiringMemoizingSerializableSupplier<>(
@@ -382,10 +447,10 @@ abstract class ReadFromKafkaDoFn<K, V>
   @GetInitialRestriction
   @RequiresNonNull({"pollConsumerCache"})
   public OffsetRange initialRestriction(@Element KafkaSourceDescriptor kafkaSourceDescriptor) {
-    final LoadingCache<KafkaSourceDescriptor, Consumer<byte[], byte[]>> pollConsumerCache =
+    final LoadingCache<KafkaSourceDescriptor, PartitionConsumer> pollConsumerCache =
         this.pollConsumerCache;
 
-    final Consumer<byte[], byte[]> consumer = pollConsumerCache.getUnchecked(kafkaSourceDescriptor);
+    final PartitionConsumer consumer = pollConsumerCache.getUnchecked(kafkaSourceDescriptor);
 
     final long startOffset;
     final long stopOffset;
@@ -516,17 +581,20 @@ abstract class ReadFromKafkaDoFn<K, V>
         this.avgRecordSizeCache;
     final LoadingCache<KafkaSourceDescriptor, KafkaLatestOffsetEstimator>
         latestOffsetEstimatorCache = this.latestOffsetEstimatorCache;
-    final LoadingCache<KafkaSourceDescriptor, Consumer<byte[], byte[]>> pollConsumerCache =
+    final LoadingCache<KafkaSourceDescriptor, PartitionConsumer> pollConsumerCache =
         this.pollConsumerCache;
 
     final MovingAvg avgRecordSize = avgRecordSizeCache.get(kafkaSourceDescriptor);
     final KafkaLatestOffsetEstimator latestOffsetEstimator =
         latestOffsetEstimatorCache.get(kafkaSourceDescriptor);
-    final Consumer<byte[], byte[]> consumer = pollConsumerCache.get(kafkaSourceDescriptor);
+    final PartitionConsumer cachedConsumer = pollConsumerCache.get(kafkaSourceDescriptor);
+    final SharedKafkaConsumer.@Nullable Pool sharedConsumerPool = this.sharedConsumerPool;
     final Deserializer<K> keyDeserializerInstance =
         Preconditions.checkStateNotNull(this.keyDeserializerInstance);
     final Deserializer<V> valueDeserializerInstance =
         Preconditions.checkStateNotNull(this.valueDeserializerInstance);
+    final @Nullable ParallelRecordDeserializer<K, V> parallelRecordDeserializer =
+        this.parallelRecordDeserializer;
     final TopicPartition topicPartition = kafkaSourceDescriptor.getTopicPartition();
 
     // TODO: Metrics should be reported per split instead of partition, add bootstrap server hash?
@@ -552,14 +620,22 @@ abstract class ReadFromKafkaDoFn<K, V>
               topicPartition, Optional.ofNullable(watermarkEstimator.currentWatermark()));
     }
 
+    // A shared consumer is acquired again while reading, such that the partition stays assigned
+    // even if its cache entry expires in the meantime.
+    final PartitionConsumer consumer =
+        sharedConsumerPool != null
+            ? sharedConsumerPool.acquire(
+                KafkaIOUtils.overrideBootstrapServersConfig(consumerConfig, kafkaSourceDescriptor),
+                topicPartition)
+            : cachedConsumer;
     Duration remainingTimeout = this.consumerPollingTimeout;
     long expectedOffset = tracker.currentRestriction().getFrom();
-    consumer.resume(Collections.singleton(topicPartition));
-    consumer.seek(topicPartition, expectedOffset);
     final Stopwatch pollTimer = Stopwatch.createUnstarted();
 
     final KafkaMetrics kafkaMetrics = KafkaSinkMetrics.kafkaMetrics();
     try {
+      consumer.resume(Collections.singleton(topicPartition));
+      consumer.seek(topicPartition, expectedOffset);
       while (Duration.ZERO.compareTo(remainingTimeout) < 0) {
         // TODO: Remove this timer and use the existing fetch-latency-avg	metric.
         // A consumer will often have prefetches waiting to be returned immediately in which case
@@ -598,8 +674,22 @@ abstract class ReadFromKafkaDoFn<K, V>
         long rawSizesCount = 0L;
         long rawSizesMin = Long.MAX_VALUE;
         long rawSizesMax = Long.MIN_VALUE;
+        // With parallel deserialization, the records are deserialized ahead of the loop below,
+        // which still claims and outputs them one at a time in offset order.
+        final List<ConsumerRecord<byte[], byte[]>> rawRecordList =
+            parallelRecordDeserializer != null
+                ? rawRecords.records(topicPartition)
+                : Collections.emptyList();
+        final ParallelRecordDeserializer<K, V>.@Nullable Batch deserializedRecords =
+            parallelRecordDeserializer != null
+                ? parallelRecordDeserializer.deserialize(
+                    rawRecordList, keyDeserializerInstance, valueDeserializerInstance)
+                : null;
         try {
-          for (ConsumerRecord<byte[], byte[]> rawRecord : rawRecords) {
+          int rawRecordIndex = 0;
+          for (ConsumerRecord<byte[], byte[]> rawRecord :
+              deserializedRecords != null ? rawRecordList : rawRecords) {
+            final int recordIndex = rawRecordIndex++;
             if (!tracker.tryClaim(rawRecord.offset())) {
               consumer.seek(topicPartition, rawRecord.offset());
               consumer.pause(Collections.singleton(topicPartition));
@@ -609,15 +699,17 @@ abstract class ReadFromKafkaDoFn<K, V>
             expectedOffset = rawRecord.offset() + 1;
             try {
               KafkaRecord<K, V> kafkaRecord =
-                  new KafkaRecord<>(
-                      rawRecord.topic(),
-                      rawRecord.partition(),
-                      rawRecord.offset(),
-                      ConsumerSpEL.getRecordTimestamp(rawRecord),
-                      ConsumerSpEL.getRecordTimestampType(rawRecord),
-                      ConsumerSpEL.hasHeaders() ? rawRecord.headers() : null,
-                      ConsumerSpEL.deserializeKey(keyDeserializerInstance, rawRecord),
-                      ConsumerSpEL.deserializeValue(valueDeserializerInstance, rawRecord));
+                  deserializedRecords != null
+                      ? deserializedRecords.get(recordIndex)
+                      : new KafkaRecord<>(
+                          rawRecord.topic(),
+                          rawRecord.partition(),
+                          rawRecord.offset(),
+                          ConsumerSpEL.getRecordTimestamp(rawRecord),
+                          ConsumerSpEL.getRecordTimestampType(rawRecord),
+                          ConsumerSpEL.hasHeaders() ? rawRecord.headers() : null,
+                          ConsumerSpEL.deserializeKey(keyDeserializerInstance, rawRecord),
+                          ConsumerSpEL.deserializeValue(valueDeserializerInstance, rawRecord));
               int recordSize =
                   (rawRecord.key() == null ? 0 : rawRecord.key().length)
                       + (rawRecord.value() == null ? 0 : rawRecord.value().length);
@@ -654,6 +746,9 @@ abstract class ReadFromKafkaDoFn<K, V>
             }
           }
         } finally {
+          if (deserializedRecords != null) {
+            deserializedRecords.close();
+          }
           if (rawSizesCount > 0L) {
             avgRecordSize.update(rawSizesSum, rawSizesCount);
             rawSizes.update(rawSizesSum, rawSizesCount, rawSizesMin, rawSizesMax);
@@ -694,6 +789,9 @@ abstract class ReadFromKafkaDoFn<K, V>
       return ProcessContinuation.resume();
     } finally {
       kafkaMetrics.flushBufferedMetrics();
+      if (consumer != cachedConsumer) {
+        consumer.close();
+      }
     }
   }
 
@@ -728,9 +826,15 @@ abstract class ReadFromKafkaDoFn<K, V>
     avgRecordSizeCache = avgRecordSizeCacheSupplier.get();
     latestOffsetEstimatorCache = latestOffsetEstimatorCacheSupplier.get();
     pollConsumerCache = pollConsumerCacheSupplier.get();
+    if (sharedConsumerPoolSupplier != null) {
+      sharedConsumerPool = sharedConsumerPoolSupplier.get();
+    }
 
     keyDeserializerInstance = keyDeserializerProvider.getDeserializer(consumerConfig, true);
     valueDeserializerInstance = valueDeserializerProvider.getDeserializer(consumerConfig, false);
+    if (parallelRecordDeserializerSupplier != null) {
+      parallelRecordDeserializer = parallelRecordDeserializerSupplier.get();
+    }
     if (checkStopReadingFn != null) {
       checkStopReadingFn.setup();
     }
@@ -743,7 +847,7 @@ abstract class ReadFromKafkaDoFn<K, V>
         this.avgRecordSizeCache;
     final LoadingCache<KafkaSourceDescriptor, KafkaLatestOffsetEstimator>
         latestOffsetEstimatorCache = this.latestOffsetEstimatorCache;
-    final LoadingCache<KafkaSourceDescriptor, Consumer<byte[], byte[]>> pollConsumerCache =
+    final LoadingCache<KafkaSourceDescriptor, PartitionConsumer> pollConsumerCache =
         this.pollConsumerCache;
 
     try {
@@ -755,6 +859,8 @@ abstract class ReadFromKafkaDoFn<K, V>
         Closeables.close(keyDeserializerInstance, true);
         keyDeserializerInstance = null;
       }
+      // The parallel deserializer is shared with the other instances on this worker.
+      parallelRecordDeserializer = null;
     } catch (Exception anyException) {
       LOG.warn("Fail to close resource during finishing bundle.", anyException);
     }
@@ -0,0 +1,365 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.kafka;
+
+import static org.apache.beam.sdk.util.Preconditions.checkStateNotNull;
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkArgument;
+import static org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.base.Preconditions.checkState;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.beam.sdk.transforms.SerializableFunction;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A Kafka {@link Consumer} reading many topic partitions on behalf of the restrictions of a {@link
+ * ReadFromKafkaDoFn} on the same worker.
+ *
+ * <p>Every assigned partition is read through its own {@link PartitionConsumer}. Records polled for
+ * other partitions than the polling one are buffered until the owner of their partition polls, so a
+ * single consumer serves all of its partitions with one set of fetch buffers, heartbeats and broker
+ * connections. Partitions are paused while their owner isn't reading them and while they have a
+ * full buffer.
+ *
+ * <p>Kafka consumers are not thread safe, so all access to the consumer is serialized. Polls are
+ * issued in short slices, such that restrictions waiting for records of idle partitions don't hold
+ * up the others.
+ */
+class SharedKafkaConsumer {
+  private static final Logger LOG = LoggerFactory.getLogger(SharedKafkaConsumer.class);
+
+  // The longest time a single poll holds the consumer.
+  private static final Duration MAX_POLL_SLICE = Duration.ofMillis(100);
+
+  // Fetching is paused for partitions with at least this many buffered records.
+  private static final int MAX_BUFFERED_RECORDS_PER_PARTITION = 1024;
+
+  private final Consumer<byte[], byte[]> consumer;
+  private final Set<TopicPartition> assignment = new HashSet<>();
+  private final Set<TopicPartition> resumed = new HashSet<>();
+  private final Map<TopicPartition, ArrayDeque<ConsumerRecord<byte[], byte[]>>> buffers =
+      new HashMap<>();
+
+  private SharedKafkaConsumer(Consumer<byte[], byte[]> consumer) {
+    this.consumer = consumer;
+  }
+
+  private synchronized int numPartitions() {
+    return assignment.size();
+  }
+
+  private synchronized void assign(TopicPartition partition) {
+    checkState(assignment.add(partition), "%s is already assigned", partition);
+    // Partitions that stay assigned keep their position and paused state.
+    consumer.assign(new ArrayList<>(assignment));
+    consumer.pause(Collections.singleton(partition));
+  }
+
+  private synchronized void unassign(TopicPartition partition) {
+    assignment.remove(partition);
+    resumed.remove(partition);
+    buffers.remove(partition);
+    consumer.assign(new ArrayList<>(assignment));
+  }
+
+  private synchronized void close() {
+    consumer.close();
+  }
+
+  private synchronized Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+      Map<TopicPartition, Long> timestampsToSearch) {
+    return consumer.offsetsForTimes(timestampsToSearch);
+  }
+
+  private synchronized Map<TopicPartition, Long> endOffsets(Collection<TopicPartition> partitions) {
+    return consumer.endOffsets(partitions);
+  }
+
+  private synchronized List<PartitionInfo> partitionsFor(String topic) {
+    return consumer.partitionsFor(topic);
+  }
+
+  private synchronized long position(TopicPartition partition) {
+    final @Nullable ArrayDeque<ConsumerRecord<byte[], byte[]>> buffer = buffers.get(partition);
+    if (buffer != null) {
+      // The consumer is already positioned after the buffered records.
+      return buffer.getFirst().offset();
+    }
+    return consumer.position(partition);
+  }
+
+  private synchronized void seek(TopicPartition partition, long offset) {
+    final @Nullable ArrayDeque<ConsumerRecord<byte[], byte[]>> buffer = buffers.get(partition);
+    if (buffer != null && buffer.getFirst().offset() == offset) {
+      return;
+    }
+    buffers.remove(partition);
+    consumer.seek(partition, offset);
+    updatePaused(partition);
+  }
+
+  private synchronized void pause(TopicPartition partition) {
+    resumed.remove(partition);
+    updatePaused(partition);
+  }
+
+  private synchronized void resume(TopicPartition partition) {
+    resumed.add(partition);
+    updatePaused(partition);
+  }
+
+  private void updatePaused(TopicPartition partition) {
+    final @Nullable ArrayDeque<ConsumerRecord<byte[], byte[]>> buffer = buffers.get(partition);
+    if (resumed.contains(partition)
+        && (buffer == null || buffer.size() < MAX_BUFFERED_RECORDS_PER_PARTITION)) {
+      consumer.resume(Collections.singleton(partition));
+    } else {
+      consumer.pause(Collections.singleton(partition));
+    }
+  }
+
+  private ConsumerRecords<byte[], byte[]> poll(TopicPartition partition, Duration timeout) {
+    final long deadlineNanos = System.nanoTime() + timeout.toNanos();
+    while (true) {
+      final @Nullable ConsumerRecords<byte[], byte[]> records =
+          pollSlice(partition, deadlineNanos - System.nanoTime());
+      if (records != null) {
+        return records;
+      }
+    }
+  }
+
+  /**
+   * Returns the buffered records of the partition if there are any, or {@link
+   * ConsumerRecords#empty()} if the timeout expired. Otherwise polls the consumer for up to {@link
+   * #MAX_POLL_SLICE}, buffers the records and returns {@code null}.
+   */
+  private synchronized @Nullable ConsumerRecords<byte[], byte[]> pollSlice(
+      TopicPartition partition, long remainingNanos) {
+    final @Nullable ArrayDeque<ConsumerRecord<byte[], byte[]>> buffer = buffers.remove(partition);
+    if (buffer != null) {
+      updatePaused(partition);
+      return new ConsumerRecords<>(Collections.singletonMap(partition, new ArrayList<>(buffer)));
+    }
+    if (remainingNanos <= 0) {
+      return ConsumerRecords.empty();
+    }
+    final ConsumerRecords<byte[], byte[]> records =
+        consumer.poll(Duration.ofNanos(Math.min(remainingNanos, MAX_POLL_SLICE.toNanos())));
+    for (TopicPartition polledPartition : records.partitions()) {
+      final List<ConsumerRecord<byte[], byte[]>> polledRecords = records.records(polledPartition);
+      if (!assignment.contains(polledPartition) || polledRecords.isEmpty()) {
+        continue;
+      }
+      buffers.computeIfAbsent(polledPartition, p -> new ArrayDeque<>()).addAll(polledRecords);
+      updatePaused(polledPartition);
+    }
+    return null;
+  }
+
+  /** The {@link PartitionConsumer} of a partition assigned to a {@link SharedKafkaConsumer}. */
+  private static class Partition implements PartitionConsumer {
+    private final Pool pool;
+    private final Map<String, Object> config;
+    private final SharedKafkaConsumer consumer;
+    private final TopicPartition partition;
+    private boolean closed = false;
+
+    private Partition(
+        Pool pool,
+        Map<String, Object> config,
+        SharedKafkaConsumer consumer,
+        TopicPartition partition) {
+      this.pool = pool;
+      this.config = config;
+      this.consumer = consumer;
+      this.partition = partition;
+    }
+
+    private void checkPartition(TopicPartition partition) {
+      checkArgument(
+          this.partition.equals(partition),
+          "Consumer of partition %s can't be used for partition %s",
+          this.partition,
+          partition);
+    }
+
+    @Override
+    public Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes(
+        Map<TopicPartition, Long> timestampsToSearch) {
+      timestampsToSearch.keySet().forEach(this::checkPartition);
+      return consumer.offsetsForTimes(timestampsToSearch);
+    }
+
+    @Override
+    public Map<TopicPartition, Long> endOffsets(Collection<TopicPartition> partitions) {
+      partitions.forEach(this::checkPartition);
+      return consumer.endOffsets(partitions);
+    }
+
+    @Override
+    public long position(TopicPartition partition) {
+      checkPartition(partition);
+      return consumer.position(partition);
+    }
+
+    @Override
+    public void seek(TopicPartition partition, long offset) {
+      checkPartition(partition);
+      consumer.seek(partition, offset);
+    }
+
+    @Override
+    public void pause(Collection<TopicPartition> partitions) {
+      partitions.forEach(this::checkPartition);
+      consumer.pause(partition);
+    }
+
+    @Override
+    public void resume(Collection<TopicPartition> partitions) {
+      partitions.forEach(this::checkPartition);
+      consumer.resume(partition);
+    }
+
+    @Override
+    public ConsumerRecords<byte[], byte[]> poll(Duration timeout) {
+      return consumer.poll(partition, timeout);
+    }
+
+    @Override
+    public List<PartitionInfo> partitionsFor(String topic) {
+      return consumer.partitionsFor(topic);
+    }
+
+    @Override
+    public synchronized void close() {
+      if (!closed) {
+        closed = true;
+        pool.release(config, consumer, partition);
+      }
+    }
+  }
+
+  /**
+   * A pool of at most {@code maxConsumers} {@link SharedKafkaConsumer SharedKafkaConsumers} per
+   * consumer configuration, among which partitions are spread evenly.
+   *
+   * <p>Acquisitions of a partition are reference counted: a partition that is acquired again while
+   * it is assigned shares the assignment, and it is only unassigned once all the {@link
+   * PartitionConsumer PartitionConsumers} returned for it are closed.
+   */
+  static class Pool {
+    private final SerializableFunction<Map<String, Object>, Consumer<byte[], byte[]>>
+        consumerFactoryFn;
+    private final int maxConsumers;
+    private final Map<Map<String, Object>, List<SharedKafkaConsumer>> consumers = new HashMap<>();
+    private final Map<Map<String, Object>, Map<TopicPartition, Assignment>> assignments =
+        new HashMap<>();
+
+    Pool(
+        SerializableFunction<Map<String, Object>, Consumer<byte[], byte[]>> consumerFactoryFn,
+        int maxConsumers) {
+      checkArgument(maxConsumers > 0, "maxConsumers must be positive, was %s", maxConsumers);
+      this.consumerFactoryFn = consumerFactoryFn;
+      this.maxConsumers = maxConsumers;
+    }
+
+    /**
+     * Returns a consumer of the partition. Unless the partition is already assigned, it is assigned
+     * to the consumer of the given configuration with the fewest partitions, creating a new
+     * consumer while there are fewer than {@code maxConsumers}.
+     */
+    synchronized PartitionConsumer acquire(Map<String, Object> config, TopicPartition partition) {
+      final Map<TopicPartition, Assignment> configAssignments =
+          assignments.computeIfAbsent(config, c -> new HashMap<>());
+      @Nullable Assignment assignment = configAssignments.get(partition);
+      if (assignment == null) {
+        final List<SharedKafkaConsumer> candidates =
+            consumers.computeIfAbsent(config, c -> new ArrayList<>());
+        final SharedKafkaConsumer consumer;
+        if (candidates.size() < maxConsumers) {
+          LOG.info("Creating shared Kafka consumer {} for {}", candidates.size(), partition);
+          consumer = new SharedKafkaConsumer(consumerFactoryFn.apply(config));
+          candidates.add(consumer);
+        } else {
+          consumer =
+              Collections.min(
+                  candidates, Comparator.comparingInt(SharedKafkaConsumer::numPartitions));
+        }
+        consumer.assign(partition);
+        assignment = new Assignment(consumer);
+        configAssignments.put(partition, assignment);
+      }
+      ++assignment.references;
+      return new Partition(this, config, assignment.consumer, partition);
+    }
+
+    private synchronized void release(
+        Map<String, Object> config, SharedKafkaConsumer consumer, TopicPartition partition) {
+      final Map<TopicPartition, Assignment> configAssignments =
+          checkStateNotNull(assignments.get(config), "%s is not assigned", partition);
+      final Assignment assignment =
+          checkStateNotNull(configAssignments.get(partition), "%s is not assigned", partition);
+      if (--assignment.references > 0) {
+        return;
+      }
+      configAssignments.remove(partition);
+      if (configAssignments.isEmpty()) {
+        assignments.remove(config);
+      }
+      consumer.unassign(partition);
+      if (consumer.numPartitions() == 0) {
+        final @Nullable List<SharedKafkaConsumer> candidates = consumers.get(config);
+        if (candidates != null) {
+          candidates.remove(consumer);
+          if (candidates.isEmpty()) {
+            consumers.remove(config);
+          }
+        }
+        consumer.close();
+      }
+    }
+
+    /** The consumer a partition is assigned to, and the number of times it was acquired. */
+    private static class Assignment {
+      private final SharedKafkaConsumer consumer;
+      private int references = 0;
+
+      private Assignment(SharedKafkaConsumer consumer) {
+        this.consumer = consumer;
+      }
+    }
+  }
+}
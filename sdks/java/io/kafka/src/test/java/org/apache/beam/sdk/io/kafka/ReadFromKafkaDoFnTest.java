@@ -26,8 +26,10 @@ import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.beam.runners.core.metrics.DistributionCell;
@@ -497,6 +499,93 @@ public class ReadFromKafkaDoFnTest {
         receiver.getGoodRecords());
   }
 
+  @Test
+  public void testProcessElementWithDeserializationParallelism() throws Exception {
+    MockMultiOutputReceiver receiver = new MockMultiOutputReceiver();
+    consumer.setNumOfRecordsPerPoll(300L);
+    long startOffset = 5L;
+    OffsetRangeTracker tracker =
+        new OffsetRangeTracker(new OffsetRange(startOffset, startOffset + 250));
+    KafkaSourceDescriptor descriptor =
+        KafkaSourceDescriptor.of(topicPartition, null, null, null, null, null);
+    ReadFromKafkaDoFn<String, String> parallelDofnInstance =
+        ReadFromKafkaDoFn.create(
+            makeReadSourceDescriptor(consumer).withDeserializationParallelism(4), RECORDS);
+    assertEquals(4, parallelDofnInstance.deserializationParallelism);
+    parallelDofnInstance.setup();
+    try {
+      ProcessContinuation result =
+          parallelDofnInstance.processElement(descriptor, tracker, null, receiver);
+      assertEquals(ProcessContinuation.stop(), result);
+      assertEquals(
+          createExpectedRecords(descriptor, startOffset, 250, "key", "value"),
+          receiver.getGoodRecords());
+    } finally {
+      parallelDofnInstance.teardown();
+    }
+  }
+
+  @Test
+  public void testProcessElementWithSharedConsumer() throws Exception {
+    MockMultiOutputReceiver receiver = new MockMultiOutputReceiver();
+    consumer.setNumOfRecordsPerPoll(3L);
+    long startOffset = 5L;
+    OffsetRangeTracker tracker =
+        new OffsetRangeTracker(new OffsetRange(startOffset, startOffset + 3));
+    KafkaSourceDescriptor descriptor =
+        KafkaSourceDescriptor.of(topicPartition, null, null, null, null, null);
+    ReadFromKafkaDoFn<String, String> sharedDofnInstance =
+        ReadFromKafkaDoFn.create(
+            makeReadSourceDescriptor(consumer).withConsumerPoolSize(1), RECORDS);
+    sharedDofnInstance.setup();
+    ProcessContinuation result =
+        sharedDofnInstance.processElement(descriptor, tracker, null, receiver);
+    assertEquals(ProcessContinuation.stop(), result);
+    assertEquals(
+        createExpectedRecords(descriptor, startOffset, 3, "key", "value"),
+        receiver.getGoodRecords());
+  }
+
+  @Test
+  public void testSharedConsumersEstimateOffsetsOfManyPartitions() throws Exception {
+    int numPartitions = 10;
+    Map<TopicPartition, Long> endOffsets = new HashMap<>();
+    for (int i = 0; i < numPartitions; i++) {
+      endOffsets.put(new TopicPartition("topic", i), 100L + i);
+    }
+    AtomicInteger numConsumers = new AtomicInteger();
+    ReadFromKafkaDoFn<String, String> sharedDofnInstance =
+        ReadFromKafkaDoFn.create(
+            ReadSourceDescriptors.<String, String>read()
+                .withKeyDeserializer(StringDeserializer.class)
+                .withValueDeserializer(StringDeserializer.class)
+                .withConsumerFactoryFn(
+                    (SerializableFunction<Map<String, Object>, Consumer<byte[], byte[]>>)
+                        config -> {
+                          numConsumers.incrementAndGet();
+                          MockConsumer<byte[], byte[]> mockConsumer =
+                              new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+                          mockConsumer.updateEndOffsets(endOffsets);
+                          return mockConsumer;
+                        })
+                .withBootstrapServers("bootstrap_server")
+                .withConsumerPoolSize(2),
+            RECORDS);
+    sharedDofnInstance.setup();
+    try {
+      for (int i = 0; i < numPartitions; i++) {
+        KafkaSourceDescriptor descriptor =
+            KafkaSourceDescriptor.of(new TopicPartition("topic", i), 0L, null, null, null, null);
+        OffsetRange restriction = sharedDofnInstance.initialRestriction(descriptor);
+        assertEquals(100.0 + i, sharedDofnInstance.getSize(descriptor, restriction), 0.0);
+      }
+      // Both the offset estimation and the reading of all partitions use the pooled consumers.
+      assertEquals(2, numConsumers.get());
+    } finally {
+      sharedDofnInstance.teardown();
+    }
+  }
+
   @Test
   public void testProcessElementWithEarlierOffset() throws Exception {
     MockMultiOutputReceiver receiver = new MockMultiOutputReceiver();
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.kafka;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableList;
+import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableMap;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests for {@link SharedKafkaConsumer}. */
+@RunWith(JUnit4.class)
+public class SharedKafkaConsumerTest {
+  private static final Map<String, Object> CONFIG = ImmutableMap.of("bootstrap.servers", "server");
+  private static final TopicPartition PARTITION_0 = new TopicPartition("topic", 0);
+  private static final TopicPartition PARTITION_1 = new TopicPartition("topic", 1);
+  private static final Duration TIMEOUT = Duration.ofSeconds(1);
+
+  private static ConsumerRecord<byte[], byte[]> record(TopicPartition partition, long offset) {
+    return new ConsumerRecord<>(
+        partition.topic(),
+        partition.partition(),
+        offset,
+        "key".getBytes(StandardCharsets.UTF_8),
+        "value".getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<Long> offsets(ConsumerRecords<byte[], byte[]> records) {
+    List<Long> offsets = new ArrayList<>();
+    for (ConsumerRecord<byte[], byte[]> record : records) {
+      offsets.add(record.offset());
+    }
+    return offsets;
+  }
+
+  @Test
+  public void testPartitionsShareConsumer() {
+    MockConsumer<byte[], byte[]> mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    mockConsumer.updateBeginningOffsets(ImmutableMap.of(PARTITION_0, 0L, PARTITION_1, 0L));
+    AtomicInteger createdConsumers = new AtomicInteger();
+    SharedKafkaConsumer.Pool pool =
+        new SharedKafkaConsumer.Pool(
+            config -> {
+              createdConsumers.incrementAndGet();
+              return mockConsumer;
+            },
+            1);
+
+    PartitionConsumer consumer0 = pool.acquire(CONFIG, PARTITION_0);
+    PartitionConsumer consumer1 = pool.acquire(CONFIG, PARTITION_1);
+    assertEquals(1, createdConsumers.get());
+    assertEquals(2, mockConsumer.assignment().size());
+
+    consumer0.seek(PARTITION_0, 0L);
+    consumer1.seek(PARTITION_1, 0L);
+    consumer0.resume(Collections.singleton(PARTITION_0));
+    consumer1.resume(Collections.singleton(PARTITION_1));
+    mockConsumer.addRecord(record(PARTITION_0, 0L));
+    mockConsumer.addRecord(record(PARTITION_1, 0L));
+    mockConsumer.addRecord(record(PARTITION_0, 1L));
+    mockConsumer.addRecord(record(PARTITION_1, 1L));
+
+    // Polling for partition 0 buffers the records of partition 1.
+    ConsumerRecords<byte[], byte[]> records0 = consumer0.poll(TIMEOUT);
+    assertEquals(Collections.singleton(PARTITION_0), records0.partitions());
+    assertEquals(ImmutableList.of(0L, 1L), offsets(records0));
+    assertEquals(2L, consumer0.position(PARTITION_0));
+    assertEquals(0L, consumer1.position(PARTITION_1));
+
+    // Seeking to the first buffered record keeps the buffer.
+    consumer1.pause(Collections.singleton(PARTITION_1));
+    consumer1.seek(PARTITION_1, 0L);
+    ConsumerRecords<byte[], byte[]> records1 = consumer1.poll(TIMEOUT);
+    assertEquals(ImmutableList.of(0L, 1L), offsets(records1));
+    assertSame(ConsumerRecords.empty(), consumer1.poll(Duration.ZERO));
+
+    assertThrows(IllegalArgumentException.class, () -> consumer0.position(PARTITION_1));
+
+    // The consumer is closed when its last partition is released.
+    consumer0.close();
+    assertEquals(Collections.singleton(PARTITION_1), mockConsumer.assignment());
+    assertFalse(mockConsumer.closed());
+    consumer1.close();
+    assertTrue(mockConsumer.closed());
+  }
+
+  @Test
+  public void testPartitionsAreSpreadOverConsumers() {
+    List<MockConsumer<byte[], byte[]>> mockConsumers = new ArrayList<>();
+    SharedKafkaConsumer.Pool pool =
+        new SharedKafkaConsumer.Pool(
+            config -> {
+              MockConsumer<byte[], byte[]> mockConsumer =
+                  new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+              mockConsumers.add(mockConsumer);
+              return mockConsumer;
+            },
+            2);
+
+    for (int partition = 0; partition < 5; ++partition) {
+      pool.acquire(CONFIG, new TopicPartition("topic", partition));
+    }
+    assertEquals(2, mockConsumers.size());
+    assertEquals(3, mockConsumers.get(0).assignment().size());
+    assertEquals(2, mockConsumers.get(1).assignment().size());
+  }
+
+  @Test
+  public void testPartitionStaysAssignedWhileAcquired() {
+    MockConsumer<byte[], byte[]> mockConsumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+    mockConsumer.updateBeginningOffsets(ImmutableMap.of(PARTITION_0, 0L));
+    SharedKafkaConsumer.Pool pool = new SharedKafkaConsumer.Pool(config -> mockConsumer, 1);
+
+    PartitionConsumer cached = pool.acquire(CONFIG, PARTITION_0);
+    PartitionConsumer reading = pool.acquire(CONFIG, PARTITION_0);
+    assertEquals(Collections.singleton(PARTITION_0), mockConsumer.assignment());
+
+    // Releasing one of the consumers, e.g. when its cache entry expires, keeps the other usable.
+    cached.close();
+    cached.close();
+    assertEquals(Collections.singleton(PARTITION_0), mockConsumer.assignment());
+    reading.seek(PARTITION_0, 0L);
+    reading.resume(Collections.singleton(PARTITION_0));
+    mockConsumer.addRecord(record(PARTITION_0, 0L));
+    assertEquals(ImmutableList.of(0L), offsets(reading.poll(TIMEOUT)));
+
+    reading.close();
+    assertTrue(mockConsumer.assignment().isEmpty());
+    assertTrue(mockConsumer.closed());
+  }
+}
@@ -111,6 +111,8 @@ public class KafkaIOTranslation {
             .addNullableByteArrayField("check_stop_reading_fn")
             .addNullableInt64Field("consumer_polling_timeout")
             .addNullableBooleanField("log_topic_verification")
+            .addNullableInt32Field("deserialization_parallelism")
+            .addNullableInt32Field("consumer_pool_size")
             .build();
 
     @Override
@@ -183,6 +185,8 @@ public class KafkaIOTranslation {
         fieldValues.put("stop_read_time", transform.getStopReadTime());
       }
       fieldValues.put("consumer_polling_timeout", transform.getConsumerPollingTimeout());
+      fieldValues.put("deserialization_parallelism", transform.getDeserializationParallelism());
+      fieldValues.put("consumer_pool_size", transform.getConsumerPoolSize());
       fieldValues.put(
           "is_commit_offset_finalize_enabled", transform.isCommitOffsetsInFinalizeEnabled());
       fieldValues.put("is_dynamic_read", transform.isDynamicRead());
@@ -373,6 +377,17 @@ public class KafkaIOTranslation {
             transform = transform.withRedistributeByRecordKey(byRecordKey);
           }
         }
+        if (TransformUpgrader.compareVersions(updateCompatibilityBeamVersion, "2.71.0") >= 0) {
+          @Nullable
+          Integer deserializationParallelism = configRow.getValue("deserialization_parallelism");
+          if (deserializationParallelism != null) {
+            transform = transform.withDeserializationParallelism(deserializationParallelism);
+          }
+          @Nullable Integer consumerPoolSize = configRow.getValue("consumer_pool_size");
+          if (consumerPoolSize != null) {
+            transform = transform.withConsumerPoolSize(consumerPoolSize);
+          }
+        }
         Duration maxReadTime = configRow.getValue("max_read_time");
         if (maxReadTime != null) {
           transform =
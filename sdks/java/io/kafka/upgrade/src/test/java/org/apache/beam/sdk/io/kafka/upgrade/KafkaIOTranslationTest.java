@@ -80,6 +80,9 @@ public class KafkaIOTranslationTest {
     READ_TRANSFORM_SCHEMA_MAPPING.put("getCheckStopReadingFn", "check_stop_reading_fn");
     READ_TRANSFORM_SCHEMA_MAPPING.put("getConsumerPollingTimeout", "consumer_polling_timeout");
     READ_TRANSFORM_SCHEMA_MAPPING.put("getLogTopicVerification", "log_topic_verification");
+    READ_TRANSFORM_SCHEMA_MAPPING.put(
+        "getDeserializationParallelism", "deserialization_parallelism");
+    READ_TRANSFORM_SCHEMA_MAPPING.put("getConsumerPoolSize", "consumer_pool_size");
   }
 
   // A mapping from Write transform builder methods to the corresponding schema fields in
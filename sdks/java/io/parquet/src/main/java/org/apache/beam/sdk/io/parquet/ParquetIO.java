@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
@@ -59,6 +60,7 @@ import org.apache.beam.sdk.transforms.splittabledofn.OffsetRangeTracker;
 import org.apache.beam.sdk.transforms.splittabledofn.RestrictionTracker;
 import org.apache.beam.sdk.values.PBegin;
 import org.apache.beam.sdk.values.PCollection;
+import org.apache.beam.sdk.values.Row;
 import org.apache.beam.sdk.values.TypeDescriptors;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.annotations.VisibleForTesting;
 import org.apache.beam.vendor.guava.v32_1_2_jre.com.google.common.collect.ImmutableSet;
@@ -72,7 +74,11 @@ import org.apache.parquet.avro.AvroReadSupport;
 import org.apache.parquet.column.page.PageReadStore;
 import org.apache.parquet.filter2.compat.FilterCompat;
 import org.apache.parquet.filter2.compat.FilterCompat.Filter;
+import org.apache.parquet.filter2.compat.FilterCompat.FilterPredicateCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetInputFormat;
 import org.apache.parquet.hadoop.ParquetWriter;
 import org.apache.parquet.hadoop.api.InitContext;
 import org.apache.parquet.hadoop.api.ReadSupport;
@@ -152,6 +158,33 @@ import org.slf4j.LoggerFactory;
  *       ParquetIO.read(SCHEMA).from("/foo/bar").withProjection(Projection_schema,Encoder_Schema));
  * }</pre>
  *
+ * <p>Reading can be restricted to the records matching a {@link FilterPredicate} built with {@link
+ * FilterApi}. The predicate is used to skip whole row groups based on their column statistics,
+ * dictionaries and bloom filters, to skip pages based on the column index of the file, and finally
+ * to filter out the remaining non-matching records. The columns referenced by the predicate must be
+ * part of the projection, if any.
+ *
+ * <pre>{@code
+ * PCollection<GenericRecord> records =
+ *   pipeline
+ *     .apply(
+ *       ParquetIO.read(SCHEMA)
+ *         .from("/foo/bar")
+ *         .withFilter(FilterApi.gt(FilterApi.longColumn("timestamp"), 1600000000L)));
+ * }</pre>
+ *
+ * <h3>Reading Beam Rows</h3>
+ *
+ * <p>{@link #readRows(org.apache.beam.sdk.schemas.Schema)} reads the records of Parquet files
+ * directly as {@link Row Rows} of the given Beam schema. Rather than materializing every record as
+ * a {@link GenericRecord} and then converting it, the values of each column are decoded straight
+ * into the rows, and strings of dictionary encoded columns are decoded once per dictionary. Only
+ * the columns of the fields of the schema are read.
+ *
+ * <pre>{@code
+ * PCollection<Row> rows = pipeline.apply(ParquetIO.readRows(BEAM_SCHEMA).from("/foo/bar"));
+ * }</pre>
+ *
  * <h3>Reading records of an unknown schema</h3>
  *
  * <p>To read records from files whose schema is unknown at pipeline construction time or differs
@@ -283,6 +316,46 @@ public class ParquetIO {
     return new AutoValue_ParquetIO_ParseFiles.Builder<T>().setParseFn(parseFn).build();
   }
 
+  /**
+   * Reads {@link Row Rows} of the given schema from a Parquet file (or multiple Parquet files
+   * matching the pattern), decoding the columns of the fields of the schema directly into rows.
+   */
+  public static ReadRows readRows(org.apache.beam.sdk.schemas.Schema schema) {
+    return new AutoValue_ParquetIO_ReadRows.Builder().setSchema(schema).build();
+  }
+
+  /**
+   * Like {@link #readRows(org.apache.beam.sdk.schemas.Schema)}, but reads each file in a {@link
+   * PCollection} of {@link ReadableFile}.
+   */
+  public static ReadRowFiles readRowFiles(org.apache.beam.sdk.schemas.Schema schema) {
+    return new AutoValue_ParquetIO_ReadRowFiles.Builder().setSchema(schema).build();
+  }
+
+  /**
+   * Returns a copy of the configuration with the given {@link FilterPredicate} set as the record
+   * filter of the reader, combined with any filter that is already set in the configuration.
+   *
+   * <p>As the reader drops the row groups not matching the filter when opening a file, they are
+   * never part of the restrictions of {@link SplitReadFn}.
+   */
+  private static @Nullable SerializableConfiguration withFilterPredicate(
+      @Nullable SerializableConfiguration configuration,
+      @Nullable FilterPredicate filterPredicate) {
+    if (filterPredicate == null) {
+      return configuration;
+    }
+    Configuration conf = SerializableConfiguration.newConfiguration(configuration);
+    Filter configuredFilter = ParquetInputFormat.getFilter(conf);
+    ParquetInputFormat.setFilterPredicate(
+        conf,
+        configuredFilter instanceof FilterPredicateCompat
+            ? FilterApi.and(
+                ((FilterPredicateCompat) configuredFilter).getFilterPredicate(), filterPredicate)
+            : filterPredicate);
+    return new SerializableConfiguration(conf);
+  }
+
   /** Implementation of {@link #read(Schema)}. */
   @AutoValue
   public abstract static class Read extends PTransform<PBegin, PCollection<GenericRecord>> {
@@ -299,6 +372,8 @@ public class ParquetIO {
 
     abstract @Nullable SerializableConfiguration getConfiguration();
 
+    abstract @Nullable FilterPredicate getFilterPredicate();
+
     abstract boolean getInferBeamSchema();
 
     abstract Builder toBuilder();
@@ -320,6 +395,8 @@ public class ParquetIO {
 
       abstract Builder setConfiguration(SerializableConfiguration configuration);
 
+      abstract Builder setFilterPredicate(FilterPredicate filterPredicate);
+
       abstract Read build();
     }
 
@@ -352,6 +429,15 @@ public class ParquetIO {
       return toBuilder().setConfiguration(new SerializableConfiguration(configuration)).build();
     }
 
+    /**
+     * Reads only the records matching the given {@link FilterPredicate}, skipping the row groups
+     * and pages that can't contain any of them.
+     */
+    public Read withFilter(FilterPredicate filterPredicate) {
+      checkArgument(filterPredicate != null, "filterPredicate can not be null");
+      return toBuilder().setFilterPredicate(filterPredicate).build();
+    }
+
     public Read withBeamSchemas(boolean inferBeamSchema) {
       return toBuilder().setInferBeamSchema(inferBeamSchema).build();
     }
@@ -381,6 +467,9 @@ public class ParquetIO {
       if (getConfiguration() != null) {
         readFiles = readFiles.withConfiguration(getConfiguration().get());
       }
+      if (getFilterPredicate() != null) {
+        readFiles = readFiles.withFilter(getFilterPredicate());
+      }
 
       return inputFiles.apply(readFiles);
     }
@@ -397,6 +486,11 @@ public class ParquetIO {
                   .withLabel("Infer Beam Schema"))
           .addIfNotNull(DisplayData.item("projectionSchema", String.valueOf(getProjectionSchema())))
           .addIfNotNull(DisplayData.item("avroDataModel", String.valueOf(getAvroDataModel())));
+      if (this.getFilterPredicate() != null) {
+        builder.add(
+            DisplayData.item("filterPredicate", getFilterPredicate().toString())
+                .withLabel("Filter Predicate"));
+      }
       if (this.getConfiguration() != null) {
         Configuration configuration = this.getConfiguration().get();
         for (Entry<String, String> entry : configuration) {
@@ -419,6 +513,8 @@ public class ParquetIO {
 
     abstract @Nullable SerializableConfiguration getConfiguration();
 
+    abstract @Nullable FilterPredicate getFilterPredicate();
+
     abstract Builder<T> toBuilder();
 
     @AutoValue.Builder
@@ -431,6 +527,8 @@ public class ParquetIO {
 
       abstract Builder<T> setConfiguration(SerializableConfiguration configuration);
 
+      abstract Builder<T> setFilterPredicate(FilterPredicate filterPredicate);
+
       abstract Parse<T> build();
     }
 
@@ -459,6 +557,15 @@ public class ParquetIO {
       return toBuilder().setConfiguration(new SerializableConfiguration(configuration)).build();
     }
 
+    /**
+     * Reads only the records matching the given {@link FilterPredicate}, skipping the row groups
+     * and pages that can't contain any of them.
+     */
+    public Parse<T> withFilter(FilterPredicate filterPredicate) {
+      checkArgument(filterPredicate != null, "filterPredicate can not be null");
+      return toBuilder().setFilterPredicate(filterPredicate).build();
+    }
+
     @Override
     public PCollection<T> expand(PBegin input) {
       checkNotNull(getFilepattern(), "Filepattern cannot be null.");
@@ -471,6 +578,7 @@ public class ParquetIO {
                   .toBuilder()
                   .setCoder(getCoder())
                   .setConfiguration(getConfiguration())
+                  .setFilterPredicate(getFilterPredicate())
                   .build());
     }
 
@@ -484,6 +592,11 @@ public class ParquetIO {
       if (this.getCoder() != null) {
         builder.add(DisplayData.item("coder", getCoder().getClass()));
       }
+      if (this.getFilterPredicate() != null) {
+        builder.add(
+            DisplayData.item("filterPredicate", getFilterPredicate().toString())
+                .withLabel("Filter Predicate"));
+      }
       if (this.getConfiguration() != null) {
         Configuration configuration = this.getConfiguration().get();
         for (Entry<String, String> entry : configuration) {
@@ -506,6 +619,8 @@ public class ParquetIO {
 
     abstract @Nullable SerializableConfiguration getConfiguration();
 
+    abstract @Nullable FilterPredicate getFilterPredicate();
+
     abstract Builder<T> toBuilder();
 
     @AutoValue.Builder
@@ -516,6 +631,8 @@ public class ParquetIO {
 
       abstract Builder<T> setConfiguration(SerializableConfiguration configuration);
 
+      abstract Builder<T> setFilterPredicate(FilterPredicate filterPredicate);
+
       abstract ParseFiles<T> build();
     }
 
@@ -536,12 +653,27 @@ public class ParquetIO {
       return toBuilder().setConfiguration(new SerializableConfiguration(configuration)).build();
     }
 
+    /**
+     * Reads only the records matching the given {@link FilterPredicate}, skipping the row groups
+     * and pages that can't contain any of them.
+     */
+    public ParseFiles<T> withFilter(FilterPredicate filterPredicate) {
+      checkArgument(filterPredicate != null, "filterPredicate can not be null");
+      return toBuilder().setFilterPredicate(filterPredicate).build();
+    }
+
     @Override
     public PCollection<T> expand(PCollection<ReadableFile> input) {
       checkArgument(!isGenericRecordOutput(), "Parse can't be used for reading as GenericRecord.");
 
       return input
-          .apply(ParDo.of(new SplitReadFn<>(null, null, getParseFn(), getConfiguration())))
+          .apply(
+              ParDo.of(
+                  new SplitReadFn<>(
+                      null,
+                      null,
+                      getParseFn(),
+                      withFilterPredicate(getConfiguration(), getFilterPredicate()))))
           .setCoder(inferCoder(input.getPipeline().getCoderRegistry()));
     }
 
@@ -552,6 +684,11 @@ public class ParquetIO {
       if (this.getCoder() != null) {
         builder.add(DisplayData.item("coder", getCoder().getClass()));
       }
+      if (this.getFilterPredicate() != null) {
+        builder.add(
+            DisplayData.item("filterPredicate", getFilterPredicate().toString())
+                .withLabel("Filter Predicate"));
+      }
       if (this.getConfiguration() != null) {
         Configuration configuration = this.getConfiguration().get();
         for (Entry<String, String> entry : configuration) {
@@ -612,6 +749,8 @@ public class ParquetIO {
 
     abstract @Nullable SerializableConfiguration getConfiguration();
 
+    abstract @Nullable FilterPredicate getFilterPredicate();
+
     abstract boolean getInferBeamSchema();
 
     abstract Builder toBuilder();
@@ -628,6 +767,8 @@ public class ParquetIO {
 
       abstract Builder setConfiguration(SerializableConfiguration configuration);
 
+      abstract Builder setFilterPredicate(FilterPredicate filterPredicate);
+
       abstract Builder setInferBeamSchema(boolean inferBeamSchema);
 
       abstract ReadFiles build();
@@ -659,6 +800,15 @@ public class ParquetIO {
       return toBuilder().setConfiguration(new SerializableConfiguration(configuration)).build();
     }
 
+    /**
+     * Reads only the records matching the given {@link FilterPredicate}, skipping the row groups
+     * and pages that can't contain any of them.
+     */
+    public ReadFiles withFilter(FilterPredicate filterPredicate) {
+      checkArgument(filterPredicate != null, "filterPredicate can not be null");
+      return toBuilder().setFilterPredicate(filterPredicate).build();
+    }
+
     public ReadFiles withBeamSchemas(boolean inferBeamSchema) {
       return toBuilder().setInferBeamSchema(inferBeamSchema).build();
     }
@@ -673,7 +823,7 @@ public class ParquetIO {
                       getAvroDataModel(),
                       getProjectionSchema(),
                       GenericRecordPassthroughFn.create(),
-                      getConfiguration())))
+                      withFilterPredicate(getConfiguration(), getFilterPredicate()))))
           .setCoder(getCollectionCoder());
     }
 
@@ -687,6 +837,11 @@ public class ParquetIO {
                   .withLabel("Infer Beam Schema"))
           .addIfNotNull(DisplayData.item("projectionSchema", String.valueOf(getProjectionSchema())))
           .addIfNotNull(DisplayData.item("avroDataModel", String.valueOf(getAvroDataModel())));
+      if (this.getFilterPredicate() != null) {
+        builder.add(
+            DisplayData.item("filterPredicate", getFilterPredicate().toString())
+                .withLabel("Filter Predicate"));
+      }
       if (this.getConfiguration() != null) {
         Configuration configuration = this.getConfiguration().get();
         for (Entry<String, String> entry : configuration) {
@@ -718,6 +873,9 @@ public class ParquetIO {
 
       private final SerializableFunction<GenericRecord, T> parseFn;
 
+      // When set, records are materialized directly as Rows of this schema instead of through Avro.
+      private final @Nullable org.apache.beam.sdk.schemas.Schema rowSchema;
+
       SplitReadFn(
           GenericData model,
           Schema requestSchema,
@@ -727,15 +885,34 @@ public class ParquetIO {
         this.modelClass = model != null ? model.getClass() : null;
         this.requestSchemaString = requestSchema != null ? requestSchema.toString() : null;
         this.parseFn = checkNotNull(parseFn, "GenericRecord parse function can't be null");
+        this.rowSchema = null;
+        this.configuration = configuration;
+      }
+
+      private SplitReadFn(
+          org.apache.beam.sdk.schemas.Schema rowSchema,
+          @Nullable SerializableConfiguration configuration) {
+        this.modelClass = null;
+        this.requestSchemaString = null;
+        this.parseFn = null;
+        this.rowSchema = checkNotNull(rowSchema, "Schema can not be null");
         this.configuration = configuration;
       }
 
+      /** Returns a {@link SplitReadFn} reading {@link Row Rows} of the given schema. */
+      static SplitReadFn<Row> ofRows(
+          org.apache.beam.sdk.schemas.Schema rowSchema,
+          @Nullable SerializableConfiguration configuration) {
+        return new SplitReadFn<>(rowSchema, configuration);
+      }
+
       private ParquetFileReader getParquetFileReader(ReadableFile file) throws Exception {
         ParquetReadOptions options = HadoopReadOptions.builder(getConfWithModelClass()).build();
         return ParquetFileReader.open(new BeamParquetInputFile(file.openSeekable()), options);
       }
 
       @ProcessElement
+      @SuppressWarnings("unchecked")
       public void processElement(
           @Element ReadableFile file,
           RestrictionTracker<OffsetRange, Long> tracker,
@@ -746,6 +923,15 @@ public class ParquetIO {
             tracker.currentRestriction().getFrom(),
             tracker.currentRestriction().getTo());
         Configuration conf = getConfWithModelClass();
+        if (rowSchema != null) {
+          readRecords(
+              file,
+              tracker,
+              conf,
+              new RowReadSupport(rowSchema),
+              row -> outputReceiver.output((T) row));
+          return;
+        }
         GenericData model = null;
         if (modelClass != null) {
           model = (GenericData) modelClass.getMethod("get").invoke(null);
@@ -755,6 +941,21 @@ public class ParquetIO {
           AvroReadSupport.setRequestedProjection(
               conf, new Schema.Parser().parse(requestSchemaString));
         }
+        readRecords(
+            file,
+            tracker,
+            conf,
+            readSupport,
+            record -> outputReceiver.output(parseFn.apply(record)));
+      }
+
+      private <RecordT> void readRecords(
+          ReadableFile file,
+          RestrictionTracker<OffsetRange, Long> tracker,
+          Configuration conf,
+          ReadSupport<RecordT> readSupport,
+          Consumer<RecordT> output)
+          throws Exception {
         ParquetReadOptions options = HadoopReadOptions.builder(conf).build();
         try (ParquetFileReader reader =
             ParquetFileReader.open(new BeamParquetInputFile(file.openSeekable()), options)) {
@@ -771,27 +972,31 @@ public class ParquetIO {
                       fileSchema));
           ColumnIOFactory columnIOFactory = new ColumnIOFactory(parquetFileMetadata.getCreatedBy());
 
-          RecordMaterializer<GenericRecord> recordConverter =
+          RecordMaterializer<RecordT> recordConverter =
               readSupport.prepareForRead(hadoopConf, fileMetadata, fileSchema, readContext);
           reader.setRequestedSchema(readContext.getRequestedSchema());
           MessageColumnIO columnIO =
               columnIOFactory.getColumnIO(readContext.getRequestedSchema(), fileSchema, true);
           long currentBlock = tracker.currentRestriction().getFrom();
-          for (int i = 0; i < currentBlock; i++) {
-            reader.skipNextRowGroup();
-          }
           while (tracker.tryClaim(currentBlock)) {
-            PageReadStore pages = reader.readNextRowGroup();
+            // Only reads the pages that may contain matching rows when the file has a column index,
+            // and the whole row group otherwise.
+            PageReadStore pages = reader.readFilteredRowGroup((int) currentBlock);
+            if (pages == null) {
+              LOG.debug("block {} has no matching rows in file {}", currentBlock, file.toString());
+              currentBlock += 1;
+              continue;
+            }
             LOG.debug("block {} read in memory. row count = {}", currentBlock, pages.getRowCount());
             currentBlock += 1;
-            RecordReader<GenericRecord> recordReader =
+            RecordReader<RecordT> recordReader =
                 columnIO.getRecordReader(
                     pages, recordConverter, options.useRecordFilter() ? filter : FilterCompat.NOOP);
             long currentRow = 0;
             long totalRows = pages.getRowCount();
             while (currentRow < totalRows) {
               try {
-                GenericRecord record;
+                RecordT record;
                 currentRow += 1;
                 try {
                   record = recordReader.read();
@@ -820,7 +1025,7 @@ public class ParquetIO {
                       file.toString());
                   continue;
                 }
-                outputReceiver.output(parseFn.apply(record));
+                output.accept(record);
               } catch (RuntimeException e) {
 
                 throw new ParquetDecodingException(
@@ -1000,6 +1205,180 @@ public class ParquetIO {
     }
   }
 
+  /** Implementation of {@link #readRows(org.apache.beam.sdk.schemas.Schema)}. */
+  @AutoValue
+  public abstract static class ReadRows extends PTransform<PBegin, PCollection<Row>> {
+    abstract @Nullable ValueProvider<String> getFilepattern();
+
+    abstract org.apache.beam.sdk.schemas.Schema getSchema();
+
+    abstract @Nullable SerializableConfiguration getConfiguration();
+
+    abstract @Nullable FilterPredicate getFilterPredicate();
+
+    abstract Builder toBuilder();
+
+    @AutoValue.Builder
+    abstract static class Builder {
+      abstract Builder setFilepattern(ValueProvider<String> filepattern);
+
+      abstract Builder setSchema(org.apache.beam.sdk.schemas.Schema schema);
+
+      abstract Builder setConfiguration(SerializableConfiguration configuration);
+
+      abstract Builder setFilterPredicate(FilterPredicate filterPredicate);
+
+      abstract ReadRows build();
+    }
+
+    /** Reads from the given filename or filepattern. */
+    public ReadRows from(ValueProvider<String> filepattern) {
+      return toBuilder().setFilepattern(filepattern).build();
+    }
+
+    /** Like {@link #from(ValueProvider)}. */
+    public ReadRows from(String filepattern) {
+      return from(ValueProvider.StaticValueProvider.of(filepattern));
+    }
+
+    /** Specify Hadoop configuration for ParquetReader. */
+    public ReadRows withConfiguration(Map<String, String> configuration) {
+      checkArgument(configuration != null, "configuration can not be null");
+      return toBuilder().setConfiguration(SerializableConfiguration.fromMap(configuration)).build();
+    }
+
+    /** Specify Hadoop configuration for ParquetReader. */
+    public ReadRows withConfiguration(Configuration configuration) {
+      checkArgument(configuration != null, "configuration can not be null");
+      return toBuilder().setConfiguration(new SerializableConfiguration(configuration)).build();
+    }
+
+    /**
+     * Reads only the records matching the given {@link FilterPredicate}, skipping the row groups
+     * and pages that can't contain any of them.
+     */
+    public ReadRows withFilter(FilterPredicate filterPredicate) {
+      checkArgument(filterPredicate != null, "filterPredicate can not be null");
+      return toBuilder().setFilterPredicate(filterPredicate).build();
+    }
+
+    @Override
+    public PCollection<Row> expand(PBegin input) {
+      checkNotNull(getFilepattern(), "Filepattern cannot be null.");
+      return input
+          .apply("Create filepattern", Create.ofProvider(getFilepattern(), StringUtf8Coder.of()))
+          .apply(FileIO.matchAll())
+          .apply(FileIO.readMatches())
+          .apply(
+              readRowFiles(getSchema())
+                  .toBuilder()
+                  .setConfiguration(getConfiguration())
+                  .setFilterPredicate(getFilterPredicate())
+                  .build());
+    }
+
+    @Override
+    public void populateDisplayData(DisplayData.Builder builder) {
+      super.populateDisplayData(builder);
+      builder
+          .addIfNotNull(
+              DisplayData.item("filePattern", getFilepattern()).withLabel("Input File Pattern"))
+          .add(DisplayData.item("schema", getSchema().toString()));
+      if (this.getFilterPredicate() != null) {
+        builder.add(
+            DisplayData.item("filterPredicate", getFilterPredicate().toString())
+                .withLabel("Filter Predicate"));
+      }
+      if (this.getConfiguration() != null) {
+        Configuration configuration = this.getConfiguration().get();
+        for (Entry<String, String> entry : configuration) {
+          if (entry.getKey().startsWith("parquet")) {
+            builder.addIfNotNull(DisplayData.item(entry.getKey(), entry.getValue()));
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Implementation of {@link #readRowFiles(org.apache.beam.sdk.schemas.Schema)}.
+   *
+   * <p>Only the columns of the fields of the schema are read. Fields without a column in a file are
+   * null, which requires them to be nullable.
+   */
+  @AutoValue
+  public abstract static class ReadRowFiles
+      extends PTransform<PCollection<ReadableFile>, PCollection<Row>> {
+    abstract org.apache.beam.sdk.schemas.Schema getSchema();
+
+    abstract @Nullable SerializableConfiguration getConfiguration();
+
+    abstract @Nullable FilterPredicate getFilterPredicate();
+
+    abstract Builder toBuilder();
+
+    @AutoValue.Builder
+    abstract static class Builder {
+      abstract Builder setSchema(org.apache.beam.sdk.schemas.Schema schema);
+
+      abstract Builder setConfiguration(SerializableConfiguration configuration);
+
+      abstract Builder setFilterPredicate(FilterPredicate filterPredicate);
+
+      abstract ReadRowFiles build();
+    }
+
+    /** Specify Hadoop configuration for ParquetReader. */
+    public ReadRowFiles withConfiguration(Map<String, String> configuration) {
+      checkArgument(configuration != null, "configuration can not be null");
+      return toBuilder().setConfiguration(SerializableConfiguration.fromMap(configuration)).build();
+    }
+
+    /** Specify Hadoop configuration for ParquetReader. */
+    public ReadRowFiles withConfiguration(Configuration configuration) {
+      checkArgument(configuration != null, "configuration can not be null");
+      return toBuilder().setConfiguration(new SerializableConfiguration(configuration)).build();
+    }
+
+    /**
+     * Reads only the records matching the given {@link FilterPredicate}, skipping the row groups
+     * and pages that can't contain any of them.
+     */
+    public ReadRowFiles withFilter(FilterPredicate filterPredicate) {
+      checkArgument(filterPredicate != null, "filterPredicate can not be null");
+      return toBuilder().setFilterPredicate(filterPredicate).build();
+    }
+
+    @Override
+    public PCollection<Row> expand(PCollection<ReadableFile> input) {
+      return input
+          .apply(
+              ParDo.of(
+                  ReadFiles.SplitReadFn.ofRows(
+                      getSchema(), withFilterPredicate(getConfiguration(), getFilterPredicate()))))
+          .setRowSchema(getSchema());
+    }
+
+    @Override
+    public void populateDisplayData(DisplayData.Builder builder) {
+      super.populateDisplayData(builder);
+      builder.add(DisplayData.item("schema", getSchema().toString()));
+      if (this.getFilterPredicate() != null) {
+        builder.add(
+            DisplayData.item("filterPredicate", getFilterPredicate().toString())
+                .withLabel("Filter Predicate"));
+      }
+      if (this.getConfiguration() != null) {
+        Configuration configuration = this.getConfiguration().get();
+        for (Entry<String, String> entry : configuration) {
+          if (entry.getKey().startsWith("parquet")) {
+            builder.addIfNotNull(DisplayData.item(entry.getKey(), entry.getValue()));
+          }
+        }
+      }
+    }
+  }
+
   /** Creates a {@link Sink} that, for use with {@link FileIO#write}. */
   public static Sink sink(Schema schema) {
     return new AutoValue_ParquetIO_Sink.Builder()
@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.beam.sdk.io.parquet;
+
+import static org.apache.parquet.Preconditions.checkArgument;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import org.apache.beam.sdk.schemas.Schema;
+import org.apache.beam.sdk.schemas.Schema.FieldType;
+import org.apache.beam.sdk.values.Row;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.Dictionary;
+import org.apache.parquet.hadoop.api.InitContext;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.Converter;
+import org.apache.parquet.io.api.GroupConverter;
+import org.apache.parquet.io.api.PrimitiveConverter;
+import org.apache.parquet.io.api.RecordMaterializer;
+import org.apache.parquet.schema.GroupType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DecimalLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.joda.time.Instant;
+
+/**
+ * A {@link ReadSupport} materializing the records of a Parquet file directly as {@link Row Rows} of
+ * a given {@link Schema}, without going through Avro.
+ *
+ * <p>Only the columns of the fields of the schema are read. Values are decoded by converters
+ * specialized for the type of every field, and the strings of dictionary encoded columns are
+ * decoded once per dictionary rather than once per value.
+ */
+@SuppressWarnings({
+  "nullness" // TODO(https://github.com/apache/beam/issues/20497)
+})
+class RowReadSupport extends ReadSupport<Row> {
+  private final Schema schema;
+
+  RowReadSupport(Schema schema) {
+    this.schema = schema;
+  }
+
+  @Override
+  public ReadContext init(InitContext context) {
+    MessageType fileSchema = context.getFileSchema();
+    return new ReadContext(
+        new MessageType(fileSchema.getName(), projectFields(fileSchema, schema)));
+  }
+
+  /**
+   * Returns the fields of the group that are part of the schema. The fields of nested rows are
+   * projected as well, but not the elements of lists, whose extra fields are discarded while
+   * reading instead.
+   */
+  private static List<Type> projectFields(GroupType group, Schema schema) {
+    List<Type> fields = new ArrayList<>();
+    for (Schema.Field field : schema.getFields()) {
+      if (!group.containsField(field.getName())) {
+        checkArgument(
+            field.getType().getNullable(),
+            "Field %s is not nullable, but there is no column for it",
+            field.getName());
+        continue;
+      }
+      Type type = group.getType(field.getName());
+      if (field.getType().getTypeName() == Schema.TypeName.ROW && !type.isPrimitive()) {
+        GroupType rowGroup = type.asGroupType();
+        type = rowGroup.withNewFields(projectFields(rowGroup, field.getType().getRowSchema()));
+      }
+      fields.add(type);
+    }
+    return fields;
+  }
+
+  @Override
+  public RecordMaterializer<Row> prepareForRead(
+      Configuration configuration,
+      Map<String, String> keyValueMetaData,
+      MessageType fileSchema,
+      ReadContext readContext) {
+    return new RowMaterializer(readContext.getRequestedSchema(), schema);
+  }
+
+  private static class RowMaterializer extends RecordMaterializer<Row> {
+    private final RowConverter root;
+    private Row current;
+
+    RowMaterializer(MessageType requestedSchema, Schema schema) {
+      this.root = new RowConverter(requestedSchema, schema, row -> current = (Row) row);
+    }
+
+    @Override
+    public Row getCurrentRecord() {
+      return current;
+    }
+
+    @Override
+    public GroupConverter getRootConverter() {
+      return root;
+    }
+  }
+
+  /** Creates the converter of a column, passing the converted values to {@code sink}. */
+  private static Converter newConverter(Type type, FieldType fieldType, Consumer<Object> sink) {
+    switch (fieldType.getTypeName()) {
+      case ROW:
+        return new RowConverter(asGroup(type, fieldType), fieldType.getRowSchema(), sink);
+      case ARRAY:
+      case ITERABLE:
+        return new ListConverter(
+            asGroup(type, fieldType), fieldType.getCollectionElementType(), sink);
+      case BYTE:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.INT32);
+        return new IntConverter(value -> sink.accept((byte) value));
+      case INT16:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.INT32);
+        return new IntConverter(value -> sink.accept((short) value));
+      case INT32:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.INT32);
+        return new IntConverter(sink::accept);
+      case INT64:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.INT64);
+        return new LongConverter(sink::accept);
+      case DATETIME:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.INT64);
+        LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+        long unitsPerMilli = 1L;
+        if (annotation instanceof TimestampLogicalTypeAnnotation) {
+          TimeUnit unit = ((TimestampLogicalTypeAnnotation) annotation).getUnit();
+          unitsPerMilli =
+              unit == TimeUnit.NANOS ? 1_000_000L : unit == TimeUnit.MICROS ? 1000L : 1L;
+        }
+        if (unitsPerMilli == 1L) {
+          return new LongConverter(value -> sink.accept(new Instant(value)));
+        }
+        long divisor = unitsPerMilli;
+        return new LongConverter(value -> sink.accept(new Instant(Math.floorDiv(value, divisor))));
+      case FLOAT:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.FLOAT);
+        return new FloatConverter(sink);
+      case DOUBLE:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.DOUBLE);
+        return new DoubleConverter(sink);
+      case BOOLEAN:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.BOOLEAN);
+        return new BooleanConverter(sink);
+      case STRING:
+        checkPrimitive(type, fieldType, PrimitiveTypeName.BINARY);
+        return new StringConverter(sink);
+      case BYTES:
+        checkPrimitive(
+            type, fieldType, PrimitiveTypeName.BINARY, PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY);
+        return new BinaryConverter(value -> sink.accept(value.copy().getBytes()));
+      case DECIMAL:
+        checkArgument(
+            type.getLogicalTypeAnnotation() instanceof DecimalLogicalTypeAnnotation,
+            "Column %s of type %s can't be read as %s",
+            type.getName(),
+            type,
+            fieldType);
+        int scale = ((DecimalLogicalTypeAnnotation) type.getLogicalTypeAnnotation()).getScale();
+        switch (type.asPrimitiveType().getPrimitiveTypeName()) {
+          case INT32:
+            return new IntConverter(value -> sink.accept(BigDecimal.valueOf(value, scale)));
+          case INT64:
+            return new LongConverter(value -> sink.accept(BigDecimal.valueOf(value, scale)));
+          default:
+            return new BinaryConverter(
+                value -> sink.accept(new BigDecimal(new BigInteger(value.getBytes()), scale)));
+        }
+      default:
+        throw new IllegalArgumentException(
+            String.format(
+                "Field %s of type %s is not supported when reading Rows",
+                type.getName(), fieldType));
+    }
+  }
+
+  private static GroupType asGroup(Type type, FieldType fieldType) {
+    checkArgument(
+        !type.isPrimitive(),
+        "Column %s of type %s can't be read as %s",
+        type.getName(),
+        type,
+        fieldType);
+    return type.asGroupType();
+  }
+
+  private static void checkPrimitive(
+      Type type, FieldType fieldType, PrimitiveTypeName... primitiveTypeNames) {
+    if (type.isPrimitive()) {
+      PrimitiveTypeName primitiveTypeName = type.asPrimitiveType().getPrimitiveTypeName();
+      for (PrimitiveTypeName expected : primitiveTypeNames) {
+        if (primitiveTypeName == expected) {
+          return;
+        }
+      }
+    }
+    throw new IllegalArgumentException(
+        String.format("Column %s of type %s can't be read as %s", type.getName(), type, fieldType));
+  }
+
+  /** Creates a converter discarding all values of a column. */
+  private static Converter newDiscardingConverter(Type type) {
+    if (type.isPrimitive()) {
+      return new DiscardingConverter();
+    }
+    GroupType group = type.asGroupType();
+    Converter[] converters = new Converter[group.getFieldCount()];
+    for (int i = 0; i < converters.length; ++i) {
+      converters[i] = newDiscardingConverter(group.getType(i));
+    }
+    return new GroupConverter() {
+      @Override
+      public Converter getConverter(int fieldIndex) {
+        return converters[fieldIndex];
+      }
+
+      @Override
+      public void start() {}
+
+      @Override
+      public void end() {}
+    };
+  }
+
+  /** Converts a group to a {@link Row}. */
+  private static class RowConverter extends GroupConverter {
+    private final Schema schema;
+    private final Consumer<Object> sink;
+    private final Converter[] converters;
+    private Object[] values;
+
+    RowConverter(GroupType type, Schema schema, Consumer<Object> sink) {
+      this.schema = schema;
+      this.sink = sink;
+      this.converters = new Converter[type.getFieldCount()];
+      for (int i = 0; i < converters.length; ++i) {
+        Type fieldType = type.getType(i);
+        if (!schema.hasField(fieldType.getName())) {
+          converters[i] = newDiscardingConverter(fieldType);
+          continue;
+        }
+        int index = schema.indexOf(fieldType.getName());
+        converters[i] =
+            newConverter(
+                fieldType, schema.getField(index).getType(), value -> values[index] = value);
+      }
+    }
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+      return converters[fieldIndex];
+    }
+
+    @Override
+    public void start() {
+      values = new Object[schema.getFieldCount()];
+    }
+
+    @Override
+    public void end() {
+      sink.accept(Row.withSchema(schema).attachValues(values));
+    }
+  }
+
+  /**
+   * Converts a repeated group to a {@link List}. Supports both the standard three-level list
+   * structure and the two-level structure written by older writers, such as parquet-avro by
+   * default.
+   */
+  private static class ListConverter extends GroupConverter {
+    private final Consumer<Object> sink;
+    private final Converter elementConverter;
+    private List<Object> elements;
+
+    ListConverter(GroupType type, FieldType elementType, Consumer<Object> sink) {
+      checkArgument(
+          type.getFieldCount() == 1 && type.getType(0).isRepetition(Type.Repetition.REPEATED),
+          "Column %s of type %s is not a list",
+          type.getName(),
+          type);
+      this.sink = sink;
+      Type repeatedType = type.getType(0);
+      if (isElementType(repeatedType, type.getName())) {
+        this.elementConverter =
+            newConverter(repeatedType, elementType, value -> elements.add(value));
+      } else {
+        this.elementConverter = new ElementConverter(repeatedType.asGroupType(), elementType);
+      }
+    }
+
+    /** Returns whether the repeated field of a list is the element itself. */
+    private static boolean isElementType(Type repeatedType, String listName) {
+      return repeatedType.isPrimitive()
+          || repeatedType.asGroupType().getFieldCount() > 1
+          || repeatedType.getName().equals("array")
+          || repeatedType.getName().equals(listName + "_tuple");
+    }
+
+    @Override
+    public Converter getConverter(int fieldIndex) {
+      return elementConverter;
+    }
+
+    @Override
+    public void start() {
+      elements = new ArrayList<>();
+    }
+
+    @Override
+    public void end() {
+      sink.accept(elements);
+    }
+
+    /** Converts the repeated group wrapping a (possibly null) element of a three-level list. */
+    private class ElementConverter extends GroupConverter {
+      private final Converter converter;
+      private Object element;
+
+      ElementConverter(GroupType repeatedType, FieldType elementType) {
+        this.converter =
+            newConverter(repeatedType.getType(0), elementType, value -> element = value);
+      }
+
+      @Override
+      public Converter getConverter(int fieldIndex) {
+        return converter;
+      }
+
+      @Override
+      public void start() {
+        element = null;
+      }
+
+      @Override
+      public void end() {
+        elements.add(element);
+      }
+    }
+  }
+
+  private static class DiscardingConverter extends PrimitiveConverter {
+    @Override
+    public void addBinary(Binary value) {}
+
+    @Override
+    public void addBoolean(boolean value) {}
+
+    @Override
+    public void addDouble(double value) {}
+
+    @Override
+    public void addFloat(float value) {}
+
+    @Override
+    public void addInt(int value) {}
+
+    @Override
+    public void addLong(long value) {}
+  }
+
+  /** Receives {@code int} values without boxing them first. */
+  private interface IntConsumer {
+    void accept(int value);
+  }
+
+  /** Receives {@code long} values without boxing them first. */
+  private interface LongConsumer {
+    void accept(long value);
+  }
+
+  private static class IntConverter extends PrimitiveConverter {
+    private final IntConsumer sink;
+
+    IntConverter(IntConsumer sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void addInt(int value) {
+      sink.accept(value);
+    }
+  }
+
+  private static class LongConverter extends PrimitiveConverter {
+    private final LongConsumer sink;
+
+    LongConverter(LongConsumer sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void addLong(long value) {
+      sink.accept(value);
+    }
+  }
+
+  private static class FloatConverter extends PrimitiveConverter {
+    private final Consumer<Object> sink;
+
+    FloatConverter(Consumer<Object> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void addFloat(float value) {
+      sink.accept(value);
+    }
+  }
+
+  private static class DoubleConverter extends PrimitiveConverter {
+    private final Consumer<Object> sink;
+
+    DoubleConverter(Consumer<Object> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void addDouble(double value) {
+      sink.accept(value);
+    }
+  }
+
+  private static class BooleanConverter extends PrimitiveConverter {
+    private final Consumer<Object> sink;
+
+    BooleanConverter(Consumer<Object> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void addBoolean(boolean value) {
+      sink.accept(value);
+    }
+  }
+
+  private static class BinaryConverter extends PrimitiveConverter {
+    private final Consumer<Binary> sink;
+
+    BinaryConverter(Consumer<Binary> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public void addBinary(Binary value) {
+      sink.accept(value);
+    }
+  }
+
+  /**
+   * Converts UTF-8 binaries to strings. For dictionary encoded pages every entry of the dictionary
+   * is decoded once, and the resulting strings are shared by all the values referencing it.
+   */
+  private static class StringConverter extends PrimitiveConverter {
+    private final Consumer<Object> sink;
+    private String[] dictionary;
+
+    StringConverter(Consumer<Object> sink) {
+      this.sink = sink;
+    }
+
+    @Override
+    public boolean hasDictionarySupport() {
+      return true;
+    }
+
+    @Override
+    public void setDictionary(Dictionary dictionary) {
+      String[] strings = new String[dictionary.getMaxId() + 1];
+      for (int id = 0; id < strings.length; ++id) {
+        strings[id] = dictionary.decodeToBinary(id).toStringUsingUTF8();
+      }
+      this.dictionary = strings;
+    }
+
+    @Override
+    public void addValueFromDictionary(int dictionaryId) {
+      sink.accept(dictionary[dictionaryId]);
+    }
+
+    @Override
+    public void addBinary(Binary value) {
+      sink.accept(value.toStringUsingUTF8());
+    }
+  }
+}
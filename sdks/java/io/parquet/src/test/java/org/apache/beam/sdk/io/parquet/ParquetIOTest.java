@@ -31,6 +31,7 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericData;
@@ -45,6 +46,7 @@ import org.apache.beam.sdk.extensions.avro.schemas.utils.AvroUtils;
 import org.apache.beam.sdk.io.FileIO;
 import org.apache.beam.sdk.io.parquet.ParquetIO.GenericRecordPassthroughFn;
 import org.apache.beam.sdk.io.range.OffsetRange;
+import org.apache.beam.sdk.schemas.Schema.FieldType;
 import org.apache.beam.sdk.schemas.SchemaCoder;
 import org.apache.beam.sdk.testing.PAssert;
 import org.apache.beam.sdk.testing.TestPipeline;
@@ -55,11 +57,22 @@ import org.apache.beam.sdk.transforms.display.DisplayData;
 import org.apache.beam.sdk.values.PCollection;
 import org.apache.beam.sdk.values.Row;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
 import org.apache.parquet.filter2.predicate.FilterApi;
 import org.apache.parquet.filter2.predicate.FilterPredicate;
 import org.apache.parquet.hadoop.ParquetInputFormat;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.joda.time.Instant;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -209,6 +222,143 @@ public class ParquetIOTest implements Serializable {
     readPipeline.run().waitUntilFinish();
   }
 
+  @Test
+  public void testWriteAndReadWithFilter() {
+    List<GenericRecord> records = generateGenericRecords(1000);
+
+    mainPipeline
+        .apply(Create.of(records).withCoder(AvroCoder.of(SCHEMA)))
+        .apply(
+            FileIO.<GenericRecord>write()
+                .via(ParquetIO.sink(SCHEMA).withRowGroupSize(1500))
+                .to(temporaryFolder.getRoot().getAbsolutePath()));
+    mainPipeline.run().waitUntilFinish();
+
+    FilterPredicate filterPredicate =
+        FilterApi.or(
+            FilterApi.eq(FilterApi.binaryColumn("id"), Binary.fromString("7")),
+            FilterApi.eq(FilterApi.binaryColumn("id"), Binary.fromString("500")));
+    PCollection<GenericRecord> readBack =
+        readPipeline.apply(
+            ParquetIO.read(SCHEMA)
+                .from(temporaryFolder.getRoot().getAbsolutePath() + "/*")
+                .withFilter(filterPredicate));
+    PAssert.that(readBack).containsInAnyOrder(records.get(7), records.get(500));
+    readPipeline.run().waitUntilFinish();
+  }
+
+  @Test
+  public void testWriteAndReadRows() {
+    org.apache.beam.sdk.schemas.Schema addressSchema =
+        org.apache.beam.sdk.schemas.Schema.builder()
+            .addStringField("city")
+            .addNullableInt32Field("zip")
+            .build();
+    org.apache.beam.sdk.schemas.Schema beamSchema =
+        org.apache.beam.sdk.schemas.Schema.builder()
+            .addStringField("name")
+            .addInt64Field("id")
+            .addNullableDoubleField("score")
+            .addBooleanField("active")
+            .addArrayField("tags", FieldType.STRING)
+            .addRowField("address", addressSchema)
+            .build();
+    org.apache.beam.sdk.schemas.Schema projectedAddressSchema =
+        org.apache.beam.sdk.schemas.Schema.builder().addStringField("city").build();
+    org.apache.beam.sdk.schemas.Schema projectedSchema =
+        org.apache.beam.sdk.schemas.Schema.builder()
+            .addRowField("address", projectedAddressSchema)
+            .addInt64Field("id")
+            .addNullableStringField("missing")
+            .build();
+
+    List<Row> rows = new ArrayList<>();
+    List<Row> projectedRows = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      String city = "city" + i % 7;
+      rows.add(
+          Row.withSchema(beamSchema)
+              .addValues(
+                  SCIENTISTS[i % SCIENTISTS.length],
+                  (long) i,
+                  i % 3 == 0 ? null : i / 2.0,
+                  i % 2 == 0,
+                  Arrays.asList("tag" + i % 5, "x"),
+                  Row.withSchema(addressSchema).addValues(city, i % 4 == 0 ? null : i).build())
+              .build());
+      projectedRows.add(
+          Row.withSchema(projectedSchema)
+              .addValues(
+                  Row.withSchema(projectedAddressSchema).addValue(city).build(), (long) i, null)
+              .build());
+    }
+    Schema avroSchema = AvroUtils.toAvroSchema(beamSchema);
+    List<GenericRecord> records =
+        rows.stream().map(row -> AvroUtils.toGenericRecord(row, avroSchema)).collect(toList());
+
+    mainPipeline
+        .apply(Create.of(records).withCoder(AvroCoder.of(avroSchema)))
+        .apply(
+            FileIO.<GenericRecord>write()
+                .via(ParquetIO.sink(avroSchema))
+                .to(temporaryFolder.getRoot().getAbsolutePath()));
+    mainPipeline.run().waitUntilFinish();
+
+    String filepattern = temporaryFolder.getRoot().getAbsolutePath() + "/*";
+    PCollection<Row> readBack =
+        readPipeline.apply("ReadRows", ParquetIO.readRows(beamSchema).from(filepattern));
+    PCollection<Row> projected =
+        readPipeline.apply(
+            "ReadProjectedRows", ParquetIO.readRows(projectedSchema).from(filepattern));
+    PAssert.that(readBack).containsInAnyOrder(rows);
+    PAssert.that(projected).containsInAnyOrder(projectedRows);
+    readPipeline.run().waitUntilFinish();
+  }
+
+  @Test
+  public void testReadRowsWithTimestampUnits() throws IOException {
+    MessageType parquetSchema =
+        Types.buildMessage()
+            .required(PrimitiveTypeName.INT64)
+            .as(LogicalTypeAnnotation.timestampType(true, TimeUnit.MILLIS))
+            .named("millis")
+            .required(PrimitiveTypeName.INT64)
+            .as(LogicalTypeAnnotation.timestampType(true, TimeUnit.MICROS))
+            .named("micros")
+            .required(PrimitiveTypeName.INT64)
+            .as(LogicalTypeAnnotation.timestampType(true, TimeUnit.NANOS))
+            .named("nanos")
+            .named("timestamps");
+    org.apache.beam.sdk.schemas.Schema beamSchema =
+        org.apache.beam.sdk.schemas.Schema.builder()
+            .addDateTimeField("millis")
+            .addDateTimeField("micros")
+            .addDateTimeField("nanos")
+            .build();
+
+    List<Row> rows = new ArrayList<>();
+    Path file = new Path(temporaryFolder.getRoot().getAbsolutePath(), "timestamps.parquet");
+    try (ParquetWriter<Group> writer =
+        ExampleParquetWriter.builder(file).withType(parquetSchema).build()) {
+      SimpleGroupFactory groups = new SimpleGroupFactory(parquetSchema);
+      for (long millis : new long[] {0L, 1_700_000_000_123L, -1L}) {
+        writer.write(
+            groups
+                .newGroup()
+                .append("millis", millis)
+                .append("micros", millis * 1000L + 999L)
+                .append("nanos", millis * 1_000_000L + 999_999L));
+        Instant instant = new Instant(millis);
+        rows.add(Row.withSchema(beamSchema).addValues(instant, instant, instant).build());
+      }
+    }
+
+    PCollection<Row> readBack =
+        readPipeline.apply(ParquetIO.readRows(beamSchema).from(file.toString()));
+    PAssert.that(readBack).containsInAnyOrder(rows);
+    readPipeline.run().waitUntilFinish();
+  }
+
   @Test
   public void testWriteAndReadWithBeamSchema() {
     List<GenericRecord> records = generateGenericRecords(1000);
@@ -378,7 +528,8 @@ public class ParquetIOTest implements Serializable {
                 .from("foo.parquet")
                 .withProjection(REQUESTED_SCHEMA, SCHEMA)
                 .withAvroDataModel(GenericData.get())
-                .withConfiguration(configuration));
+                .withConfiguration(configuration)
+                .withFilter(FilterApi.eq(FilterApi.binaryColumn("id"), Binary.fromString("0"))));
 
     assertThat(displayData, hasDisplayItem("filePattern", "foo.parquet"));
     assertThat(displayData, hasDisplayItem("schema", SCHEMA.toString()));
@@ -386,6 +537,7 @@ public class ParquetIOTest implements Serializable {
     assertThat(displayData, hasDisplayItem("projectionSchema", REQUESTED_SCHEMA.toString()));
     assertThat(displayData, hasDisplayItem("avroDataModel", GenericData.get().toString()));
     assertThat(displayData, hasDisplayItem("parquet.foo", "foo"));
+    assertThat(displayData, hasDisplayItem("filterPredicate"));
   }
 
   public static class TestRecord {